@@ -43,12 +43,7 @@ sleep 1
 
 # LL Boundary Set up (LL1 only)
 echo "LL Boundary Set up (LL1 only)"
-curl -X PUT http://$RM_ADDRESS/demo/layerizer/layerized_1/settings/boundaries/1 -d '{"boundary_id":"1","lower_nw":"L0","lower_nw_node":"NW=SDN,NE=OPT1","lower_nw_port":"NW=SDN,NE=OPT1,Layer=OCh,TTP=1","upper_nw":"L1","upper_nw_node":"NW=SDN,NE=OPT1","upper_nw_port":"NW=SDN,NE=OPT1,Layer=ODU,CTP=1"}'
-curl -X PUT http://$RM_ADDRESS/demo/layerizer/layerized_1/settings/boundaries/2 -d '{"boundary_id":"2","lower_nw":"L0","lower_nw_node":"NW=SDN,NE=OPT1","lower_nw_port":"NW=SDN,NE=OPT1,Layer=OCh,TTP=2","upper_nw":"L1","upper_nw_node":"NW=SDN,NE=OPT1","upper_nw_port":"NW=SDN,NE=OPT1,Layer=ODU,CTP=2"}'
-curl -X PUT http://$RM_ADDRESS/demo/layerizer/layerized_1/settings/boundaries/3 -d '{"boundary_id":"3","lower_nw":"L0","lower_nw_node":"NW=SDN,NE=OPT2","lower_nw_port":"NW=SDN,NE=OPT2,Layer=OCh,TTP=1","upper_nw":"L1","upper_nw_node":"NW=SDN,NE=OPT2","upper_nw_port":"NW=SDN,NE=OPT2,Layer=ODU,CTP=1"}'
-curl -X PUT http://$RM_ADDRESS/demo/layerizer/layerized_1/settings/boundaries/4 -d '{"boundary_id":"4","lower_nw":"L0","lower_nw_node":"NW=SDN,NE=OPT2","lower_nw_port":"NW=SDN,NE=OPT2,Layer=OCh,TTP=2","upper_nw":"L1","upper_nw_node":"NW=SDN,NE=OPT2","upper_nw_port":"NW=SDN,NE=OPT2,Layer=ODU,CTP=2"}'
-curl -X PUT http://$RM_ADDRESS/demo/layerizer/layerized_1/settings/boundaries/5 -d '{"boundary_id":"5","lower_nw":"L0","lower_nw_node":"NW=SDN,NE=OPT4","lower_nw_port":"NW=SDN,NE=OPT4,Layer=OCh,TTP=1","upper_nw":"L1","upper_nw_node":"NW=SDN,NE=OPT4","upper_nw_port":"NW=SDN,NE=OPT4,Layer=ODU,CTP=1"}'
-curl -X PUT http://$RM_ADDRESS/demo/layerizer/layerized_1/settings/boundaries/6 -d '{"boundary_id":"6","lower_nw":"L0","lower_nw_node":"NW=SDN,NE=OPT4","lower_nw_port":"NW=SDN,NE=OPT4,Layer=OCh,TTP=2","upper_nw":"L1","upper_nw_node":"NW=SDN,NE=OPT4","upper_nw_port":"NW=SDN,NE=OPT4,Layer=ODU,CTP=2"}'
+curl -X PUT http://$RM_ADDRESS/demo/layerizer/layerized_1/settings/boundaries -d '{"1":{"boundary_id":"1","lower_nw":"L0","lower_nw_node":"NW=SDN,NE=OPT1","lower_nw_port":"NW=SDN,NE=OPT1,Layer=OCh,TTP=1","upper_nw":"L1","upper_nw_node":"NW=SDN,NE=OPT1","upper_nw_port":"NW=SDN,NE=OPT1,Layer=ODU,CTP=1"},"2":{"boundary_id":"2","lower_nw":"L0","lower_nw_node":"NW=SDN,NE=OPT1","lower_nw_port":"NW=SDN,NE=OPT1,Layer=OCh,TTP=2","upper_nw":"L1","upper_nw_node":"NW=SDN,NE=OPT1","upper_nw_port":"NW=SDN,NE=OPT1,Layer=ODU,CTP=2"},"3":{"boundary_id":"3","lower_nw":"L0","lower_nw_node":"NW=SDN,NE=OPT2","lower_nw_port":"NW=SDN,NE=OPT2,Layer=OCh,TTP=1","upper_nw":"L1","upper_nw_node":"NW=SDN,NE=OPT2","upper_nw_port":"NW=SDN,NE=OPT2,Layer=ODU,CTP=1"},"4":{"boundary_id":"4","lower_nw":"L0","lower_nw_node":"NW=SDN,NE=OPT2","lower_nw_port":"NW=SDN,NE=OPT2,Layer=OCh,TTP=2","upper_nw":"L1","upper_nw_node":"NW=SDN,NE=OPT2","upper_nw_port":"NW=SDN,NE=OPT2,Layer=ODU,CTP=2"},"5":{"boundary_id":"5","lower_nw":"L0","lower_nw_node":"NW=SDN,NE=OPT4","lower_nw_port":"NW=SDN,NE=OPT4,Layer=OCh,TTP=1","upper_nw":"L1","upper_nw_node":"NW=SDN,NE=OPT4","upper_nw_port":"NW=SDN,NE=OPT4,Layer=ODU,CTP=1"},"6":{"boundary_id":"6","lower_nw":"L0","lower_nw_node":"NW=SDN,NE=OPT4","lower_nw_port":"NW=SDN,NE=OPT4,Layer=OCh,TTP=2","upper_nw":"L1","upper_nw_node":"NW=SDN,NE=OPT4","upper_nw_port":"NW=SDN,NE=OPT4,Layer=ODU,CTP=2"}}'
 
 # LL build up (LL2)
 echo "LL build up (LL1)"
@@ -66,17 +61,5 @@ sleep 1
 
 # LL Boundary Set up (LL2 only)
 echo "LL Boundary Set up (LL2 only)"
-curl -X PUT http://$RM_ADDRESS/demo/layerizer/layerized_2/settings/boundaries/1 -d '{"boundary_id":"1","lower_nw":"L01","lower_nw_node":"NW=SDN,NE=OPT1","lower_nw_port":"NW=SDN,NE=OPT1,Layer=ODU,TTP=1","upper_nw":"networkcomponent2","upper_nw_node":"NW=SDN,NE=PT1","upper_nw_port":"NW=SDN,NE=PT1,Layer=Ether,TTP=1"}'
-curl -X PUT http://$RM_ADDRESS/demo/layerizer/layerized_2/settings/boundaries/2 -d '{"boundary_id":"2","lower_nw":"L01","lower_nw_node":"NW=SDN,NE=OPT1","lower_nw_port":"NW=SDN,NE=OPT1,Layer=ODU,TTP=2","upper_nw":"networkcomponent2","upper_nw_node":"NW=SDN,NE=PT1","upper_nw_port":"NW=SDN,NE=PT1,Layer=Ether,TTP=2"}'
-curl -X PUT http://$RM_ADDRESS/demo/layerizer/layerized_2/settings/boundaries/3 -d '{"boundary_id":"3","lower_nw":"L01","lower_nw_node":"NW=SDN,NE=OPT2","lower_nw_port":"NW=SDN,NE=OPT2,Layer=ODU,TTP=1","upper_nw":"networkcomponent2","upper_nw_node":"NW=SDN,NE=PT2","upper_nw_port":"NW=SDN,NE=PT2,Layer=Ether,TTP=1"}'
-curl -X PUT http://$RM_ADDRESS/demo/layerizer/layerized_2/settings/boundaries/4 -d '{"boundary_id":"4","lower_nw":"L01","lower_nw_node":"NW=SDN,NE=OPT2","lower_nw_port":"NW=SDN,NE=OPT2,Layer=ODU,TTP=2","upper_nw":"networkcomponent2","upper_nw_node":"NW=SDN,NE=PT2","upper_nw_port":"NW=SDN,NE=PT2,Layer=Ether,TTP=2"}'
-curl -X PUT http://$RM_ADDRESS/demo/layerizer/layerized_2/settings/boundaries/5 -d '{"boundary_id":"5","lower_nw":"L01","lower_nw_node":"NW=SDN,NE=OPT4","lower_nw_port":"NW=SDN,NE=OPT4,Layer=ODU,TTP=1","upper_nw":"networkcomponent2","upper_nw_node":"NW=SDN,NE=PT3","upper_nw_port":"NW=SDN,NE=PT3,Layer=Ether,TTP=1"}'
-curl -X PUT http://$RM_ADDRESS/demo/layerizer/layerized_2/settings/boundaries/6 -d '{"boundary_id":"6","lower_nw":"L01","lower_nw_node":"NW=SDN,NE=OPT4","lower_nw_port":"NW=SDN,NE=OPT4,Layer=ODU,TTP=2","upper_nw":"networkcomponent2","upper_nw_node":"NW=SDN,NE=PT3","upper_nw_port":"NW=SDN,NE=PT3,Layer=Ether,TTP=2"}'
+curl -X PUT http://$RM_ADDRESS/demo/layerizer/layerized_2/settings/boundaries -d '{"1":{"boundary_id":"1","lower_nw":"L01","lower_nw_node":"NW=SDN,NE=OPT1","lower_nw_port":"NW=SDN,NE=OPT1,Layer=ODU,TTP=1","upper_nw":"networkcomponent2","upper_nw_node":"NW=SDN,NE=PT1","upper_nw_port":"NW=SDN,NE=PT1,Layer=Ether,TTP=1"},"2":{"boundary_id":"2","lower_nw":"L01","lower_nw_node":"NW=SDN,NE=OPT1","lower_nw_port":"NW=SDN,NE=OPT1,Layer=ODU,TTP=2","upper_nw":"networkcomponent2","upper_nw_node":"NW=SDN,NE=PT1","upper_nw_port":"NW=SDN,NE=PT1,Layer=Ether,TTP=2"},"3":{"boundary_id":"3","lower_nw":"L01","lower_nw_node":"NW=SDN,NE=OPT2","lower_nw_port":"NW=SDN,NE=OPT2,Layer=ODU,TTP=1","upper_nw":"networkcomponent2","upper_nw_node":"NW=SDN,NE=PT2","upper_nw_port":"NW=SDN,NE=PT2,Layer=Ether,TTP=1"},"4":{"boundary_id":"4","lower_nw":"L01","lower_nw_node":"NW=SDN,NE=OPT2","lower_nw_port":"NW=SDN,NE=OPT2,Layer=ODU,TTP=2","upper_nw":"networkcomponent2","upper_nw_node":"NW=SDN,NE=PT2","upper_nw_port":"NW=SDN,NE=PT2,Layer=Ether,TTP=2"},"5":{"boundary_id":"5","lower_nw":"L01","lower_nw_node":"NW=SDN,NE=OPT4","lower_nw_port":"NW=SDN,NE=OPT4,Layer=ODU,TTP=1","upper_nw":"networkcomponent2","upper_nw_node":"NW=SDN,NE=PT3","upper_nw_port":"NW=SDN,NE=PT3,Layer=Ether,TTP=1"},"6":{"boundary_id":"6","lower_nw":"L01","lower_nw_node":"NW=SDN,NE=OPT4","lower_nw_port":"NW=SDN,NE=OPT4,Layer=ODU,TTP=2","upper_nw":"networkcomponent2","upper_nw_node":"NW=SDN,NE=PT3","upper_nw_port":"NW=SDN,NE=PT3,Layer=Ether,TTP=2"}}'
 
-
-curl -X PUT http://$RM_ADDRESS/demo/layerizer/layerized_2/settings/boundaries/1 -d '{"boundary_id":"1","lower_nw":"L01","lower_nw_node":"NW=SDN,NE=OPT1","lower_nw_port":"NW=SDN,NE=OPT1,Layer=ODU,TTP=1","upper_nw":"networkcomponent2","upper_nw_node":"NW=SDN,NE=PT1","upper_nw_port":"NW=SDN,NE=PT1,Layer=Ether,TTP=1"}'
-curl -X PUT http://$RM_ADDRESS/demo/layerizer/layerized_2/settings/boundaries/2 -d '{"boundary_id":"2","lower_nw":"L01","lower_nw_node":"NW=SDN,NE=OPT1","lower_nw_port":"NW=SDN,NE=OPT1,Layer=ODU,TTP=2","upper_nw":"networkcomponent2","upper_nw_node":"NW=SDN,NE=PT1","upper_nw_port":"NW=SDN,NE=PT1,Layer=Ether,TTP=2"}'
-curl -X PUT http://$RM_ADDRESS/demo/layerizer/layerized_2/settings/boundaries/3 -d '{"boundary_id":"3","lower_nw":"L01","lower_nw_node":"NW=SDN,NE=OPT2","lower_nw_port":"NW=SDN,NE=OPT2,Layer=ODU,TTP=1","upper_nw":"networkcomponent2","upper_nw_node":"NW=SDN,NE=PT2","upper_nw_port":"NW=SDN,NE=PT2,Layer=Ether,TTP=1"}'
-curl -X PUT http://$RM_ADDRESS/demo/layerizer/layerized_2/settings/boundaries/4 -d '{"boundary_id":"4","lower_nw":"L01","lower_nw_node":"NW=SDN,NE=OPT2","lower_nw_port":"NW=SDN,NE=OPT2,Layer=ODU,TTP=2","upper_nw":"networkcomponent2","upper_nw_node":"NW=SDN,NE=PT2","upper_nw_port":"NW=SDN,NE=PT2,Layer=Ether,TTP=2"}'
-curl -X PUT http://$RM_ADDRESS/demo/layerizer/layerized_2/settings/boundaries/5 -d '{"boundary_id":"5","lower_nw":"L01","lower_nw_node":"NW=SDN,NE=OPT4","lower_nw_port":"NW=SDN,NE=OPT4,Layer=ODU,TTP=1","upper_nw":"networkcomponent2","upper_nw_node":"NW=SDN,NE=PT3","upper_nw_port":"NW=SDN,NE=PT3,Layer=Ether,TTP=1"}'
-curl -X PUT http://$RM_ADDRESS/demo/layerizer/layerized_2/settings/boundaries/6 -d '{"boundary_id":"6","lower_nw":"L01","lower_nw_node":"NW=SDN,NE=OPT4","lower_nw_port":"NW=SDN,NE=OPT4,Layer=ODU,TTP=2","upper_nw":"networkcomponent2","upper_nw_node":"NW=SDN,NE=PT3","upper_nw_port":"NW=SDN,NE=PT3,Layer=Ether,TTP=2"}'
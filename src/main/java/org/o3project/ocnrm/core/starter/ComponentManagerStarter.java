@@ -16,9 +16,12 @@
 
 package org.o3project.ocnrm.core.starter;
 
+import java.io.IOException;
+
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.o3project.ocnrm.lib.OcnRMStatusLib;
+import org.o3project.ocnrm.lib.table.TableManager;
 import org.o3project.ocnrm.odenos.driver.OptDriver;
 import org.o3project.ocnrm.odenos.lib.OdenOsPropertyLoader;
 import org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizer;
@@ -100,6 +103,16 @@ public class ComponentManagerStarter extends ServerResource {
     private class StartComponentManager extends Thread {
         @Override
         public void run() {
+            try {
+                TableManager.getInstance().openJournal(loader.getTableJournalDir(),
+                        Integer.valueOf(loader.getTableJournalCompactCount()));
+            } catch (IOException e) {
+                // RM goes on without the journal, and the flows created from now on are
+                // not released after the next restart
+                logger.error("failed to open the table journal in "
+                        + loader.getTableJournalDir() + ": the tables are NOT persisted"
+                        + " and the flows will leak on the next restart", e);
+            }
 
            MessageDispatcher dispatcher = new MessageDispatcher(
                     systemManagerId, dispatcherHost, dispatcherPort);
@@ -0,0 +1,149 @@
+/*
+* Copyright 2015 FUJITSU LIMITED.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.o3project.ocnrm.lib;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Intake queue of event messages which merges a message into the last pending
+ * message of the same key while it is waiting to be dispatched.
+ * The caller dispatches one task for each message accepted by offer(),
+ * and each task takes the message to handle with poll().
+ *
+ * <br><br>A merged message is handled at the position of the pending one, that is,
+ * before the tasks queued after it. This keeps the order of the messages of a key only,
+ * which is enough for an executor that runs the keys independently (KeyedExecutor).
+ * For an executor that runs all the tasks in order, give a Tail shared by every
+ * coalescer and the other tasks of the executor, so that a message is merged only
+ * while the pending one is the newest task on the executor.
+ */
+public class EventCoalescer<M> {
+    private final Merger<M> merger;
+    private final Tail tail;
+    private final Map<Object, Deque<M>> pending = new HashMap<>();
+    private long receivedCount = 0;
+    private long mergedCount = 0;
+
+    public interface Merger<M> {
+        /**
+         * @param pending  Message waiting to be dispatched
+         * @param next     Message received later
+         * @return Merged message, or null if the messages cannot be merged
+         */
+        public M merge(M pending, M next);
+    }
+
+    /**
+     * Newest task queued on an executor.
+     */
+    public static class Tail {
+        private Object last;
+
+        /**
+         * Called when a task other than the messages of the coalescers is queued.
+         */
+        public synchronized void mark() {
+            last = null;
+        }
+
+        private synchronized void set(Object message) {
+            last = message;
+        }
+
+        private synchronized boolean replace(Object expected, Object message) {
+            if (last != expected) {
+                return false;
+            }
+            last = message;
+            return true;
+        }
+    }
+
+    public EventCoalescer(Merger<M> merger) {
+        this(merger, null);
+    }
+
+    /**
+     * @param merger  Merger of the messages
+     * @param tail    Newest task on the executor, or null if the order of the keys
+     *                does not matter
+     */
+    public EventCoalescer(Merger<M> merger, Tail tail) {
+        this.merger = merger;
+        this.tail = tail;
+    }
+
+    /**
+     * @param key      Key of the object (e.g. network component ID and flow ID)
+     * @param message  Received message
+     * @return true if the message is queued and a task has to be dispatched,
+     *         false if it is merged into a pending message
+     */
+    public synchronized boolean offer(Object key, M message) {
+        receivedCount++;
+        Deque<M> queue = pending.get(key);
+        if (null == queue) {
+            queue = new ArrayDeque<>();
+            pending.put(key, queue);
+        } else if (!queue.isEmpty()) {
+            M merged = merger.merge(queue.peekLast(), message);
+            if (null != merged && (null == tail || tail.replace(queue.peekLast(), merged))) {
+                queue.pollLast();
+                queue.addLast(merged);
+                mergedCount++;
+                return false;
+            }
+        }
+        queue.addLast(message);
+        if (null != tail) {
+            tail.set(message);
+        }
+        return true;
+    }
+
+    /**
+     * @param key  Key of the object
+     * @return The oldest pending message of the key, or null if there is none
+     */
+    public synchronized M poll(Object key) {
+        Deque<M> queue = pending.get(key);
+        if (null == queue) {
+            return null;
+        }
+        M message = queue.pollFirst();
+        if (queue.isEmpty()) {
+            pending.remove(key);
+        }
+        return message;
+    }
+
+    /**
+     * @return Number of messages received by offer()
+     */
+    public synchronized long getReceivedCount() {
+        return receivedCount;
+    }
+
+    /**
+     * @return Number of messages merged into a pending message
+     */
+    public synchronized long getMergedCount() {
+        return mergedCount;
+    }
+}
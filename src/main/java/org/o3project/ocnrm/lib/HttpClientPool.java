@@ -0,0 +1,166 @@
+/*
+* Copyright 2015 FUJITSU LIMITED.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.o3project.ocnrm.lib;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+
+import org.o3project.ocnrm.odenos.lib.OdenOsPropertyLoader;
+
+/**
+ * HTTP client shared by outbound REST calls (MF, OpenFlow Controller).
+ * At most HTTP_POOL_SIZE connections per base URL (scheme://host:port) are in use
+ * at a time; further requests wait for one of them to be released.
+ * A released connection is kept alive and reused through the keep-alive cache of
+ * the JDK, which keeps up to http.maxConnections (JVM option, default 5) idle
+ * connections per destination. HTTP_POOL_SIZE is therefore 5 by default; when it is
+ * raised, http.maxConnections has to be raised with it (e.g. -Dhttp.maxConnections=10),
+ * or the connections beyond it are closed on release and opened again for each request.
+ * HTTP_POOL_SIZE=0 does not bound the connections and closes them after every request.
+ */
+public class HttpClientPool {
+    private static OdenOsPropertyLoader loader = OdenOsPropertyLoader.getInstance();
+    private static final int CONNECT_TIMEOUT = Integer.valueOf(loader.getHttpConnectTimeout());
+    private static final int READ_TIMEOUT = Integer.valueOf(loader.getHttpReadTimeout());
+    private static final int POOL_SIZE = Integer.valueOf(loader.getHttpPoolSize());
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final String CONTENT_TYPE = "text/plain; charset=UTF-8";
+    private static final int BUFFER_SIZE = 4096;
+
+    private static HttpClientPool pool = new HttpClientPool(POOL_SIZE);
+
+    private final int poolSize;
+    private final ConcurrentMap<String, Semaphore> connections = new ConcurrentHashMap<>();
+
+    HttpClientPool(int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    public static HttpClientPool getInstance() {
+        return pool;
+    }
+
+    /**
+     * @param url   Request URL
+     * @param body  Request body
+     * @return Response body
+     * @throws IOException  Connection error or error status
+     */
+    public String post(String url, String body) throws IOException {
+        return send(url, "POST", body);
+    }
+
+    /**
+     * @param url   Request URL
+     * @return Response body
+     * @throws IOException  Connection error or error status
+     */
+    public String get(String url) throws IOException {
+        return send(url, "GET", null);
+    }
+
+    private String send(String url, String method, String body) throws IOException {
+        URL target = new URL(url);
+        Semaphore permits = acquire(target);
+        try {
+            return send(target, method, body);
+        } finally {
+            if (null != permits) {
+                permits.release();
+            }
+        }
+    }
+
+    private Semaphore acquire(URL target) throws IOException {
+        if (poolSize <= 0) {
+            return null;
+        }
+        String baseUrl = target.getProtocol() + "://" + target.getAuthority();
+        Semaphore permits = connections.get(baseUrl);
+        if (null == permits) {
+            Semaphore created = new Semaphore(poolSize, true);
+            permits = connections.putIfAbsent(baseUrl, created);
+            if (null == permits) {
+                permits = created;
+            }
+        }
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for " + baseUrl);
+        }
+        return permits;
+    }
+
+    private String send(URL url, String method, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setConnectTimeout(CONNECT_TIMEOUT);
+        connection.setReadTimeout(READ_TIMEOUT);
+        connection.setRequestMethod(method);
+        if (poolSize <= 0) {
+            connection.setRequestProperty("Connection", "close");
+        }
+
+        if (null != body) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", CONTENT_TYPE);
+            OutputStream out = connection.getOutputStream();
+            try {
+                out.write(body.getBytes(UTF8));
+            } finally {
+                out.close();
+            }
+        }
+
+        int status = connection.getResponseCode();
+        // The whole body is read even on error so that the connection can be reused.
+        InputStream in = (status < HttpURLConnection.HTTP_BAD_REQUEST)
+                ? connection.getInputStream() : connection.getErrorStream();
+        String text = read(in);
+        if (status >= HttpURLConnection.HTTP_BAD_REQUEST) {
+            throw new IOException("HTTP " + status + " " + method + " " + url);
+        }
+        return text;
+    }
+
+    private String read(InputStream in) throws IOException {
+        if (null == in) {
+            return "";
+        }
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int length;
+            while ((length = in.read(buffer)) > 0) {
+                out.write(buffer, 0, length);
+            }
+            return new String(out.toByteArray(), UTF8);
+        } finally {
+            in.close();
+        }
+    }
+}
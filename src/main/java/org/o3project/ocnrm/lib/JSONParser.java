@@ -27,103 +27,112 @@ import org.o3project.ocnrm.model.LowerNodeInfo;
 import org.o3project.ocnrm.model.UpperNodeInfo;
 import org.o3project.ocnrm.model.och.OchFlowCreationResponse;
 import org.o3project.ocnrm.model.odu.OduFlowCreationResponse;
+import org.o3project.ocnrm.model.odu.OduFlowRequests;
 import org.o3project.ocnrm.model.odu.OptFlow;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
+/**
+ * Decoder of MF/REST bodies into POJOs and encoder of POJOs, on top of JsonCodec.
+ * The String variants decode a body in one pass; the JSONObject variants are kept
+ * for callers which already have a JSONObject.
+ */
 public class JSONParser {
     private Logger logger = LoggerFactory.getLogger(JSONParser.class);
 
     public LowerNodeInfo lowerNodeInfotoPOJO(JSONObject jsonObj, String seqNo)
             throws JsonParseException, JsonMappingException, IOException {
-        logger.info(seqNo + "\t" + "lowerNodeInfotoPOJO() Start");
-        logger.info(seqNo + "\t" + "getParam : " + jsonObj.toString());
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.setSerializationInclusion(Include.NON_NULL);
-        LowerNodeInfo nodeInfo = mapper.readValue(jsonObj.toString(), LowerNodeInfo.class);
-        logger.info(seqNo + "\t" + "lowerNodeInfotoPOJO() End");
-        return nodeInfo;
+        return lowerNodeInfotoPOJO(jsonObj.toString(), seqNo);
+    }
+
+    public LowerNodeInfo lowerNodeInfotoPOJO(String json, String seqNo)
+            throws JsonParseException, JsonMappingException, IOException {
+        return toPOJO(json, LowerNodeInfo.class, "lowerNodeInfotoPOJO()", seqNo);
     }
 
     public UpperNodeInfo upperNodeInfotoPOJO(JSONObject jsonObj, String seqNo)
             throws JsonParseException, JsonMappingException, IOException {
-        logger.info(seqNo + "\t" + "upperNodeInfotoPOJO() Start");
-        logger.info(seqNo + "\t" + "param : " + jsonObj.toString());
-        ObjectMapper mapper = new ObjectMapper();
-        UpperNodeInfo nodeInfo = mapper.readValue(jsonObj.toString(), UpperNodeInfo.class);
-        logger.info(seqNo + "\t" + "upperNodeInfotoPOJO() End");
-        return nodeInfo;
+        return upperNodeInfotoPOJO(jsonObj.toString(), seqNo);
+    }
+
+    public UpperNodeInfo upperNodeInfotoPOJO(String json, String seqNo)
+            throws JsonParseException, JsonMappingException, IOException {
+        return toPOJO(json, UpperNodeInfo.class, "upperNodeInfotoPOJO()", seqNo);
     }
 
     public OptFlow optFlowtoPOJO(JSONObject jsonObj, String seqNo)
             throws JsonParseException, JsonMappingException, IOException {
-        logger.info(seqNo + "\t" + "optFlowtoPOJO() Start");
-        logger.info(seqNo + "\t" + "param : " + jsonObj.toString());
-        ObjectMapper mapper = new ObjectMapper();
-        OptFlow optFlow = mapper.readValue(jsonObj.toString(), OptFlow.class);
-        logger.info(seqNo + "\t" + "optFlowtoPOJO() End");
-        return optFlow;
+        return toPOJO(jsonObj.toString(), OptFlow.class, "optFlowtoPOJO()", seqNo);
     }
 
     public <K> String convertToJson(K target, String seqNo)
             throws JSONException, JsonProcessingException {
-        logger.info(seqNo + "\t" + "convertToJson() Start");
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.setSerializationInclusion(Include.NON_NULL);
-        String jsonArray = mapper.writeValueAsString(target);
-        logger.info(seqNo + "\t" + "convertToJson() End");
+        TraceLog.trace(logger, "{}\t{} Start", seqNo, "convertToJson()");
+        String jsonArray = JsonCodec.writeNonNull(target);
+        TraceLog.trace(logger, "{}\t{} End", seqNo, "convertToJson()");
         return jsonArray;
     }
 
     public OchFlowCreationResponse ochFlowCreationResponseToPOJO(JSONObject jsonObj, String seqNo)
             throws JsonParseException, JsonMappingException, IOException {
-        logger.info(seqNo + "\t" + "ochFlowToPOJO() Start");
-        logger.info(seqNo + "\t" + "param : " + jsonObj.toString());
-        ObjectMapper mapper = new ObjectMapper();
-        OchFlowCreationResponse response = mapper
-                .readValue(jsonObj.toString(), OchFlowCreationResponse.class);
-        logger.info(seqNo + "\t" + "ochFlowToPOJO() End");
-        return response;
+        return toPOJO(jsonObj.toString(), OchFlowCreationResponse.class, "ochFlowToPOJO()",
+                seqNo);
     }
 
     public OduFlowCreationResponse oduFlowCreationResponseToPOJO(JSONObject jsonObj, String seqNo)
             throws JsonParseException, JsonMappingException, IOException {
-        logger.info(seqNo + "\t" + "oduFlowCreationResponseToPOJO() Start");
-        logger.info(seqNo + "\t" + "param : " + jsonObj.toString());
-        ObjectMapper mapper = new ObjectMapper();
-        OduFlowCreationResponse response = mapper
-                .readValue(jsonObj.toString(), OduFlowCreationResponse.class);
-        logger.info(seqNo + "\t" + "oduFlowCreationResponseToPOJO() End");
-        return response;
+        return oduFlowCreationResponseToPOJO(jsonObj.toString(), seqNo);
+    }
+
+    public OduFlowCreationResponse oduFlowCreationResponseToPOJO(String json, String seqNo)
+            throws JsonParseException, JsonMappingException, IOException {
+        return toPOJO(json, OduFlowCreationResponse.class, "oduFlowCreationResponseToPOJO()",
+                seqNo);
+    }
+
+    public OduFlowRequests oduFlowRequestsToPOJO(JSONObject jsonObj, String seqNo)
+            throws JsonParseException, JsonMappingException, IOException {
+        return oduFlowRequestsToPOJO(jsonObj.toString(), seqNo);
+    }
+
+    public OduFlowRequests oduFlowRequestsToPOJO(String json, String seqNo)
+            throws JsonParseException, JsonMappingException, IOException {
+        return toPOJO(json, OduFlowRequests.class, "oduFlowRequestsToPOJO()", seqNo);
     }
 
     public FjFlowId fjFlowIdToPOJO(JSONObject jsonObj, String seqNo)
             throws JsonParseException, JsonMappingException, IOException {
-        logger.info(seqNo + "\t" + "oduFlowCreationResponseToPOJO() Start");
-        logger.info(seqNo + "\t" + "param : " + jsonObj.toString());
-        ObjectMapper mapper = new ObjectMapper();
-        FjFlowId response = mapper
-                .readValue(jsonObj.toString(), FjFlowId.class);
-        logger.info(seqNo + "\t" + "oduFlowCreationResponseToPOJO() End");
-        return response;
+        return fjFlowIdToPOJO(jsonObj.toString(), seqNo);
+    }
+
+    public FjFlowId fjFlowIdToPOJO(String json, String seqNo)
+            throws JsonParseException, JsonMappingException, IOException {
+        return toPOJO(json, FjFlowId.class, "fjFlowIdToPOJO()", seqNo);
     }
 
     public List<String> convertToList(JSONArray target, String seqNo)
             throws JSONException, JsonProcessingException {
-        logger.info(seqNo + "\t" + "convertToList() Start");
-        logger.info(seqNo + "\t" + "param : " + target.toString());
+        TraceLog.trace(logger, "{}\t{} Start", seqNo, "convertToList()");
+        TraceLog.verbose(logger, seqNo, "{}\tparam : {}", target);
         List<String> list = new ArrayList<>();
         for (int index = 0; index < target.length(); index++) {
             list.add(target.getJSONObject(index).toString());
         }
-        logger.info(seqNo + "\t" + "convertToList() End");
+        TraceLog.trace(logger, "{}\t{} End", seqNo, "convertToList()");
         return list;
     }
 
+    private <T> T toPOJO(String json, Class<T> type, String tag, String seqNo)
+            throws JsonParseException, JsonMappingException, IOException {
+        TraceLog.trace(logger, "{}\t{} Start", seqNo, tag);
+        TraceLog.verbose(logger, seqNo, "{}\tparam : {}", json);
+        T pojo = JsonCodec.read(json, type);
+        TraceLog.trace(logger, "{}\t{} End", seqNo, tag);
+        return pojo;
+    }
+
 }
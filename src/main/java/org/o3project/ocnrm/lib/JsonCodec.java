@@ -0,0 +1,100 @@
+/*
+* Copyright 2015 FUJITSU LIMITED.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.o3project.ocnrm.lib;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * JSON codec shared by the parsers and the REST handlers.
+ * The ObjectMapper is configured once. ObjectReader and ObjectWriter are immutable and
+ * thread-safe, so they are built once per type and reused instead of creating an
+ * ObjectMapper on every call. Bodies are decoded straight into POJOs, without an
+ * intermediate org.json tree.
+ */
+public final class JsonCodec {
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final ObjectWriter writer = mapper.writer();
+    private static final ObjectWriter nonNullWriter = new ObjectMapper()
+            .setSerializationInclusion(Include.NON_NULL).writer();
+    private static final ConcurrentMap<Class<?>, ObjectReader> readers =
+            new ConcurrentHashMap<>();
+
+    private JsonCodec() {
+    }
+
+    /**
+     * @param type  Type of the decoded object
+     * @return Shared reader of the type
+     */
+    public static ObjectReader reader(Class<?> type) {
+        ObjectReader reader = readers.get(type);
+        if (null == reader) {
+            ObjectReader created = mapper.reader(type);
+            reader = readers.putIfAbsent(type, created);
+            if (null == reader) {
+                reader = created;
+            }
+        }
+        return reader;
+    }
+
+    /**
+     * @return Shared writer which writes all properties
+     */
+    public static ObjectWriter writer() {
+        return writer;
+    }
+
+    /**
+     * @return Shared writer which omits null properties
+     */
+    public static ObjectWriter nonNullWriter() {
+        return nonNullWriter;
+    }
+
+    /**
+     * @return Factory of streaming parsers and generators
+     */
+    public static JsonFactory factory() {
+        return mapper.getFactory();
+    }
+
+    public static <T> T read(String json, Class<T> type) throws IOException {
+        return reader(type).readValue(json);
+    }
+
+    public static <T> T read(InputStream in, Class<T> type) throws IOException {
+        return reader(type).readValue(in);
+    }
+
+    public static String write(Object value) throws JsonProcessingException {
+        return writer.writeValueAsString(value);
+    }
+
+    public static String writeNonNull(Object value) throws JsonProcessingException {
+        return nonNullWriter.writeValueAsString(value);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+* Copyright 2015 FUJITSU LIMITED.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.o3project.ocnrm.lib;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Executor which runs tasks on a shared thread pool while keeping
+ * tasks submitted with the same key in FIFO order.
+ * At most "window" tasks of one key are running at the same time.
+ * With a window of 1, tasks of one key are executed strictly one by one.
+ */
+public class KeyedExecutor {
+    private final ExecutorService service;
+    private final int window;
+
+    private final Map<Object, KeyQueue> queues = new HashMap<>();
+    private int queueDepth = 0;
+
+    private static class KeyQueue {
+        private final Queue<Runnable> waiting = new ArrayDeque<>();
+        private int running = 0;
+    }
+
+    /**
+     * @param threadNum  Number of threads shared by all keys
+     * @param window     Maximum number of running tasks per key
+     */
+    public KeyedExecutor(int threadNum, int window) {
+        if (threadNum < 1 || window < 1) {
+            throw new IllegalArgumentException("threadNum and window must be positive.");
+        }
+        this.service = Executors.newFixedThreadPool(threadNum);
+        this.window = window;
+    }
+
+    /**
+     * Submits a task in the queue of the key.
+     *
+     * @param key   Key of ordering (e.g. destination object ID)
+     * @param task  Task
+     * @return Future of the task
+     */
+    public <T> Future<T> submit(Object key, Callable<T> task) {
+        FutureTask<T> future = new FutureTask<>(task);
+        synchronized (queues) {
+            KeyQueue queue = queues.get(key);
+            if (null == queue) {
+                queue = new KeyQueue();
+                queues.put(key, queue);
+            }
+            queue.waiting.add(future);
+            queueDepth++;
+            dispatch(key, queue);
+        }
+        return future;
+    }
+
+    private void dispatch(final Object key, KeyQueue queue) {
+        while (queue.running < window && !queue.waiting.isEmpty()) {
+            final Runnable task = queue.waiting.poll();
+            queue.running++;
+            service.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        task.run();
+                    } finally {
+                        complete(key);
+                    }
+                }
+            });
+        }
+    }
+
+    private void complete(Object key) {
+        synchronized (queues) {
+            queueDepth--;
+            KeyQueue queue = queues.get(key);
+            queue.running--;
+            dispatch(key, queue);
+            if (0 == queue.running && queue.waiting.isEmpty()) {
+                queues.remove(key);
+            }
+        }
+    }
+
+    /**
+     * @return Number of tasks waiting or running over all keys
+     */
+    public int getQueueDepth() {
+        synchronized (queues) {
+            return queueDepth;
+        }
+    }
+
+    /**
+     * @return Number of tasks waiting or running for each key
+     */
+    public Map<Object, Integer> getBacklog() {
+        Map<Object, Integer> backlog = new HashMap<>();
+        synchronized (queues) {
+            for (Map.Entry<Object, KeyQueue> entry : queues.entrySet()) {
+                KeyQueue queue = entry.getValue();
+                backlog.put(entry.getKey(), queue.running + queue.waiting.size());
+            }
+        }
+        return backlog;
+    }
+
+    public void shutdown() {
+        service.shutdown();
+    }
+}
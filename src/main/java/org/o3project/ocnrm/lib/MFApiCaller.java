@@ -19,15 +19,10 @@ import java.io.IOException;
 
 import org.json.JSONException;
 import org.json.JSONObject;
+import org.o3project.ocnrm.model.IdExchangeBatchRequest;
 import org.o3project.ocnrm.model.IdExchangeRequest;
 import org.o3project.ocnrm.model.ResourceRequest;
 import org.o3project.ocnrm.odenos.lib.OdenOsPropertyLoader;
-import org.restlet.Client;
-import org.restlet.Context;
-import org.restlet.data.Protocol;
-import org.restlet.representation.Representation;
-import org.restlet.representation.StringRepresentation;
-import org.restlet.resource.ClientResource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,6 +36,10 @@ public class MFApiCaller {
     private static final String DELETE_ODU_FLOW_URL = loader.getDeleteOduFlowUrl();
     private static final String REQUEST_OCH_REPLACEMENT_PIECE_URL = loader
             .getRequestOchReplacementPieceUrl();
+    private static final String REQUEST_ODU_REPLACEMENT_BATCH_URL = loader
+            .getRequestOduReplacementBatchUrl();
+
+    private HttpClientPool httpClient = HttpClientPool.getInstance();
 
     /**
      * The resource of ODU Flow is demanded.
@@ -65,8 +64,7 @@ public class MFApiCaller {
         logger.info(seqNo + "\t" + "path: " + path);
 
         JSONParser toJSONData = new JSONParser();
-        JSONObject jsonObj = new JSONObject(toJSONData.convertToJson(resourceRequesttoMF, seqNo));
-        String sendParam = jsonObj.toString();
+        String sendParam = toJSONData.convertToJson(resourceRequesttoMF, seqNo);
 
         logger.info(seqNo + "\t" + "postToMF() Start");
         String result = postToMF(path, sendParam, seqNo);
@@ -89,33 +87,9 @@ public class MFApiCaller {
      * @throws IOException
      */
     private String postToMF(String path, String sendParam, String seqNo) throws IOException {
-        ClientResource client = new ClientResource(path);
-        Client ct = new Client(new Context(), Protocol.HTTP);
-        client.setNext(ct);
         logger.info(seqNo + "\t" + "Send path:" + path);
         logger.info(seqNo + "\t" + "Send Param:" + sendParam);
-        StringRepresentation srp = new StringRepresentation(sendParam.toCharArray());
-
-        Representation representation = client.post(srp);
-        try {
-            return representation.getText();
-        } finally {
-            if (representation != null) {
-                representation.release();
-            }
-            srp.release();
-            client.release();
-
-            representation = null;
-            srp = null;
-            client = null;
-            try {
-                ct.stop();
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-            ct = null;
-        }
+        return httpClient.post(path, sendParam);
     }
 
     /**
@@ -146,13 +120,28 @@ public class MFApiCaller {
         return getTable(REQUEST_ODU_REPLACEMENT_PIECE_URL, request, seqNo);
     }
 
-    private JSONObject getTable(String path, IdExchangeRequest request, String seqNo)
+    /**
+     * IDs of ODU for all the termination points of one flow are converted at once.
+     * This needs the batch ID exchange of MF (REQUEST_ODU_REPLACEMENT_BATCH_URL).
+     *
+     * @param request   ID conversion demand
+     * @param seqNo     Sequence number
+     * @return JSONObject keyed by termination point
+     * @throws IOException
+     */
+    public JSONObject requestOduCorrespondingTables(IdExchangeBatchRequest request, String seqNo)
+            throws IOException {
+        logger.debug(seqNo + "\t" + "requestOduCorrespondingTables() Start **");
+        return getTable(REQUEST_ODU_REPLACEMENT_BATCH_URL, request, seqNo);
+    }
+
+    private <T> JSONObject getTable(String path, T request, String seqNo)
             throws IOException {
         logger.info(seqNo + "\t" + "getTable() Start");
 
         JSONParser parser = new JSONParser();
         logger.info(seqNo + "\t" + "postToMF() Start");
-        String result = postToMF(path, parser.convertToJson(request, seqNo).toString(), seqNo);
+        String result = postToMF(path, parser.convertToJson(request, seqNo), seqNo);
         logger.info(seqNo + "\t" + "postToMF() End");
 
         JSONObject flowMap = new JSONObject(result);
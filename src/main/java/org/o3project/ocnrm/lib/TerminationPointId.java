@@ -0,0 +1,157 @@
+/*
+* Copyright 2015 FUJITSU LIMITED.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.o3project.ocnrm.lib;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Termination point identifier of MF (e.g. "NW=SDN,NE=OPT1,Layer=ODU,CTP=1").
+ * It is parsed once and interned, so the same identifier is shared by all the ports,
+ * links and flows which refer to it.
+ * Fields: [0] NW, [1] NE, [2] Layer, [3] CTP or TTP.
+ */
+public final class TerminationPointId {
+    public static final String CTP = "CTP";
+    public static final String TTP = "TTP";
+
+    private static final String LAYER = "Layer";
+    private static final int DICTIONARY_SIZE = 1000000;
+    private static final ConcurrentMap<String, TerminationPointId> DICTIONARY =
+            new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, String> NODE_IDS = new ConcurrentHashMap<>();
+
+    private final String value;
+    private final String nodeId;
+    private final String layer;
+    private final String pointType;
+    private final String pointNo;
+
+    private TerminationPointId(String value) {
+        this.value = value;
+
+        String[] keys = new String[4];
+        String[] values = new String[4];
+        int field = 0;
+        int start = 0;
+        int nodeEnd = value.length();
+        while (start <= value.length() && field < keys.length) {
+            int end = value.indexOf(',', start);
+            if (end < 0) {
+                end = value.length();
+            }
+            int eq = value.indexOf('=', start);
+            if (eq >= 0 && eq < end) {
+                keys[field] = value.substring(start, eq);
+                values[field] = value.substring(eq + 1, end);
+            } else {
+                values[field] = value.substring(start, end);
+            }
+            if (field == 1) {
+                nodeEnd = end;
+            }
+            field++;
+            start = end + 1;
+        }
+
+        this.nodeId = internNodeId(value.substring(0, nodeEnd));
+        this.layer = LAYER.equals(keys[2]) ? values[2] : null;
+        this.pointType = keys[3];
+        this.pointNo = values[3];
+    }
+
+    /**
+     * @param value  Termination point identifier
+     * @return Interned identifier, or null if the value is null or empty
+     */
+    public static TerminationPointId valueOf(String value) {
+        if (null == value || value.isEmpty()) {
+            return null;
+        }
+        TerminationPointId id = DICTIONARY.get(value);
+        if (null != id) {
+            return id;
+        }
+        id = new TerminationPointId(value);
+        if (DICTIONARY.size() >= DICTIONARY_SIZE) {
+            return id;
+        }
+        TerminationPointId interned = DICTIONARY.putIfAbsent(value, id);
+        return (null == interned) ? id : interned;
+    }
+
+    private static String internNodeId(String nodeId) {
+        String interned = NODE_IDS.putIfAbsent(nodeId, nodeId);
+        return (null == interned) ? nodeId : interned;
+    }
+
+    /**
+     * @return Node ID ("NW=xxx,NE=xxx"), or the whole identifier if it has no NE field
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * @return Value of the Layer field, or null
+     */
+    public String getLayer() {
+        return layer;
+    }
+
+    /**
+     * @return CTP, TTP or null
+     */
+    public String getPointType() {
+        return pointType;
+    }
+
+    /**
+     * @return Value of the CTP/TTP field, or null
+     */
+    public String getPointNo() {
+        return pointNo;
+    }
+
+    public boolean isCtp() {
+        return CTP.equals(pointType);
+    }
+
+    public boolean isTtp() {
+        return TTP.equals(pointType);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof TerminationPointId)) {
+            return false;
+        }
+        return value.equals(((TerminationPointId) obj).value);
+    }
+
+    @Override
+    public int hashCode() {
+        return value.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
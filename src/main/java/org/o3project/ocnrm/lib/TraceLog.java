@@ -0,0 +1,187 @@
+/*
+* Copyright 2015 FUJITSU LIMITED.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.o3project.ocnrm.lib;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.o3project.ocnrm.odenos.lib.OdenOsPropertyLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Low-overhead trace of method entry/exit and payloads, written at DEBUG level.
+ * Callers pass a static method tag and parameters instead of building a message,
+ * so a disabled trace costs one level check.
+ * Enabled traces are queued and written in batches by a daemon thread,
+ * and are dropped (and counted) instead of blocking the caller when the queue is full.
+ * Verbose traces (e.g. whole JSON payloads) are written only for one transaction
+ * in TRACE_SAMPLING_INTERVAL (0: none).
+ */
+public class TraceLog {
+    private static final Logger logger = LoggerFactory.getLogger(TraceLog.class);
+    private static final int QUEUE_SIZE = 10000;
+    private static final int BATCH_SIZE = 256;
+
+    private static OdenOsPropertyLoader loader = OdenOsPropertyLoader.getInstance();
+    private static TraceLog instance =
+            new TraceLog(Integer.valueOf(loader.getTraceSamplingInterval()));
+
+    private final int samplingInterval;
+    private final BlockingQueue<Record> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    private static class Record {
+        private final Logger logger;
+        private final String thread;
+        private final String format;
+        private final Object[] args;
+        private final CountDownLatch flushed;
+
+        Record(Logger logger, String format, Object[] args, CountDownLatch flushed) {
+            this.logger = logger;
+            this.thread = Thread.currentThread().getName();
+            this.format = format;
+            this.args = args;
+            this.flushed = flushed;
+        }
+    }
+
+    TraceLog(int samplingInterval) {
+        this.samplingInterval = samplingInterval;
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                write();
+            }
+        }, "TraceLog");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public static TraceLog getInstance() {
+        return instance;
+    }
+
+    public static void start(Logger logger, String tag) {
+        if (logger.isDebugEnabled()) {
+            instance.offer(logger, "** {} Start", new Object[] {tag});
+        }
+    }
+
+    public static void end(Logger logger, String tag) {
+        if (logger.isDebugEnabled()) {
+            instance.offer(logger, "** {} End", new Object[] {tag});
+        }
+    }
+
+    public static void trace(Logger logger, String format, Object arg) {
+        if (logger.isDebugEnabled()) {
+            instance.offer(logger, format, new Object[] {arg});
+        }
+    }
+
+    public static void trace(Logger logger, String format, Object arg1, Object arg2) {
+        if (logger.isDebugEnabled()) {
+            instance.offer(logger, format, new Object[] {arg1, arg2});
+        }
+    }
+
+    /**
+     * Traces a payload of a sampled transaction.
+     * The payload is converted to a string by the writer thread.
+     * @param logger         Logger of the caller
+     * @param transactionId  ID of the transaction (e.g. sequence number)
+     * @param format         Message format with two anchors: transaction ID and payload
+     * @param payload        Payload
+     */
+    public static void verbose(Logger logger, String transactionId, String format,
+            Object payload) {
+        if (logger.isDebugEnabled() && instance.isSampled(transactionId)) {
+            instance.offer(logger, format, new Object[] {transactionId, payload});
+        }
+    }
+
+    /**
+     * @param transactionId  ID of the transaction
+     * @return true if verbose traces of the transaction are written
+     */
+    public boolean isSampled(String transactionId) {
+        if (samplingInterval <= 1) {
+            return 1 == samplingInterval;
+        }
+        int hash = (null == transactionId) ? 0 : transactionId.hashCode();
+        return 0 == (hash & Integer.MAX_VALUE) % samplingInterval;
+    }
+
+    /**
+     * Waits until the traces queued before this call are written.
+     * @throws InterruptedException
+     */
+    public void flush() throws InterruptedException {
+        CountDownLatch flushed = new CountDownLatch(1);
+        queue.put(new Record(null, null, null, flushed));
+        flushed.await();
+    }
+
+    /**
+     * @return Number of traces dropped because the queue was full
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    private void offer(Logger logger, String format, Object[] args) {
+        if (!queue.offer(new Record(logger, format, args, null))) {
+            droppedCount.incrementAndGet();
+        }
+    }
+
+    private void write() {
+        List<Record> batch = new ArrayList<>(BATCH_SIZE);
+        long reported = 0;
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                for (Record record : batch) {
+                    if (null != record.flushed) {
+                        record.flushed.countDown();
+                        continue;
+                    }
+                    try {
+                        record.logger.debug("[" + record.thread + "] " + record.format,
+                                record.args);
+                    } catch (RuntimeException e) {
+                        logger.warn("failed to write a trace.", e);
+                    }
+                }
+                batch.clear();
+                long dropped = droppedCount.get();
+                if (dropped != reported) {
+                    logger.warn("** {} traces dropped.", dropped - reported);
+                    reported = dropped;
+                }
+            }
+        } catch (InterruptedException e) {
+            logger.debug("TraceLog writer is interrupted.");
+        }
+    }
+}
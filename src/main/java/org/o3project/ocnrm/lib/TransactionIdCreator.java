@@ -31,7 +31,7 @@ public class TransactionIdCreator {
         return trId;
     }
 
-    public String getCount() {
+    public synchronized String getCount() {
         SimpleDateFormat sdf = new SimpleDateFormat("yyyyMMdd");
         if ("" == day) {
             day = sdf.format(Calendar.getInstance().getTime());
@@ -45,4 +45,25 @@ public class TransactionIdCreator {
         return day + String.format("%06d", count);
     }
 
+    /**
+     * The counter is advanced past a transaction ID created today by the previous process,
+     * so that the IDs restored from the journal are not handed out again.
+     * @param transactionId  Restored transaction ID
+     */
+    public synchronized void restore(String transactionId) {
+        if (transactionId == null || transactionId.length() != 14) {
+            return;
+        }
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyyMMdd");
+        String now = sdf.format(Calendar.getInstance().getTime());
+        if (!transactionId.startsWith(now)) {
+            return;
+        }
+        try {
+            count = Math.max(count, Integer.parseInt(transactionId.substring(8)));
+        } catch (NumberFormatException e) {
+            return;
+        }
+    }
+
 }
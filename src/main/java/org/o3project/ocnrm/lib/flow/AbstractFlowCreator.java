@@ -15,12 +15,13 @@
 */
 package org.o3project.ocnrm.lib.flow;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.o3project.ocnrm.lib.JSONParser;
+import org.o3project.ocnrm.lib.JsonCodec;
 import org.o3project.ocnrm.lib.flow.model.ActionsData;
 import org.o3project.ocnrm.lib.flow.model.MatchData;
 import org.o3project.ocnrm.model.FlowData;
@@ -44,13 +45,16 @@ public abstract class AbstractFlowCreator {
     protected abstract List<ActionsData> makeActions(RmData data, TerminationPoints point);
     protected abstract List<String> removeDoubleQuotes(List<String> list);
 
+    /**
+     * Flow entries are written one by one into a reused buffer in the ofctl format,
+     * without an intermediate JSON array.
+     */
     public List<String> createFlow(OptFlow optFlow, RmData data, String seqNo) {
         logger.info(seqNo + "\t" + "createFlow() Start");
 
-        JSONParser jsonParse = new JSONParser();
-        JSONArray jsonArrayFlow = new JSONArray();
+        List<String> flows = new ArrayList<>();
+        StringWriter buffer = new StringWriter();
         try {
-            List<FlowData> flowList = new ArrayList<>();
             for (TerminationPoints point : optFlow.getTerminationPointPairs()) {
                 logger.debug(seqNo + "\t" + "target termination point : " + point.toString());
 
@@ -67,25 +71,30 @@ public abstract class AbstractFlowCreator {
 
                 flowData.setActions(makeActions(data, point));
 
-                flowList.add(flowData);
+                writeFlowEntry(flowData, buffer);
+                flows.add(buffer.toString());
+                buffer.getBuffer().setLength(0);
             }
-            jsonArrayFlow = new JSONArray(jsonParse.convertToJson(flowList, seqNo));
 
             logger.info(seqNo + "\t" + "createFlow() End");
-            return removeDoubleQuotes(jsonParse.convertToList(jsonArrayFlow, seqNo));
+            return removeDoubleQuotes(flows);
         } catch (JsonProcessingException e) {
             logger.error(seqNo + "\t" + "JsonProcessingException occured.");
             e.printStackTrace();
             List<String> list = new ArrayList<>();
             return list;
-        } catch (JSONException e) {
-            logger.error(seqNo + "\t" + "JSONException occured.");
+        } catch (IOException e) {
+            logger.error(seqNo + "\t" + "IOException occured.");
             e.printStackTrace();
             List<String> list = new ArrayList<>();
             return list;
         }
     }
 
+    protected void writeFlowEntry(FlowData flowData, Writer out) throws IOException {
+        JsonCodec.nonNullWriter().writeValue(out, flowData);
+    }
+
     protected ActionsData makeOutput(String type, String output) {
         ActionsData action = new ActionsData();
         action.setType(type);
@@ -0,0 +1,98 @@
+/*
+* Copyright 2015 FUJITSU LIMITED.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.o3project.ocnrm.lib.table;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.o3project.ocnrm.model.bind.MappingData;
+import org.o3project.ocnrm.odenos.lib.OdenOsPropertyLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache of the ID exchange results with MF, keyed by fjFlowId and termination point.
+ * At most ID_EXCHANGE_CACHE_SIZE flows are held, and the least recently used flow
+ * is evicted first. The entries of a flow are evicted when the flow is deleted
+ * from TableManager.
+ */
+public class IdExchangeCache {
+    private Logger logger = LoggerFactory.getLogger(IdExchangeCache.class);
+
+    private static OdenOsPropertyLoader loader = OdenOsPropertyLoader.getInstance();
+    private static final int CACHE_SIZE = Integer.valueOf(loader.getIdExchangeCacheSize());
+
+    private static final IdExchangeCache cache = new IdExchangeCache();
+
+    private final Map<String, Map<String, MappingData>> flows =
+            new LinkedHashMap<String, Map<String, MappingData>>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<String, Map<String, MappingData>> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            };
+
+    private IdExchangeCache() {
+    }
+
+    public static IdExchangeCache getInstance() {
+        return cache;
+    }
+
+    /**
+     * @param fjFlowId  fjFlowId
+     * @param name      Termination point
+     * @return Cached result, or null if it is not cached
+     */
+    public synchronized MappingData get(String fjFlowId, String name) {
+        Map<String, MappingData> points = flows.get(fjFlowId);
+        if (null == points) {
+            return null;
+        }
+        return points.get(name);
+    }
+
+    public synchronized void put(String fjFlowId, String name, MappingData data) {
+        if (CACHE_SIZE <= 0 || null == fjFlowId || null == data) {
+            return;
+        }
+        Map<String, MappingData> points = flows.get(fjFlowId);
+        if (null == points) {
+            points = new HashMap<>();
+            flows.put(fjFlowId, points);
+        }
+        points.put(name, data);
+    }
+
+    public synchronized void remove(String fjFlowId) {
+        if (null != flows.remove(fjFlowId)) {
+            logger.debug("evicted ID exchange results: " + fjFlowId);
+        }
+    }
+
+    public synchronized int size() {
+        return flows.size();
+    }
+
+    //Clear cache for test
+    synchronized void clear() {
+        flows.clear();
+    }
+}
@@ -0,0 +1,112 @@
+/*
+* Copyright 2015 FUJITSU LIMITED.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.o3project.ocnrm.lib.table;
+
+import org.json.JSONObject;
+
+public class Job {
+    public static final String WAITING = "waiting";
+    public static final String RUNNING = "running";
+    public static final String DONE = "done";
+    public static final String ERROR = "error";
+
+    private String jobId;
+    private String method;
+    private String path;
+    private String status = WAITING;
+    private String statusCode = "";
+    private String result = "";
+    private long createTime;
+    private long endTime = 0;
+
+    public Job(String jobId, String method, String path) {
+        this.jobId = jobId;
+        this.method = method;
+        this.path = path;
+        this.createTime = System.currentTimeMillis();
+    }
+
+    public synchronized void start() {
+        status = RUNNING;
+    }
+
+    public synchronized void finish(String statusCode, String result) {
+        this.status = DONE;
+        this.statusCode = statusCode;
+        this.result = result;
+        this.endTime = System.currentTimeMillis();
+    }
+
+    public synchronized void fail(String result) {
+        this.status = ERROR;
+        this.result = result;
+        this.endTime = System.currentTimeMillis();
+    }
+
+    public synchronized boolean isFinished() {
+        return DONE.equals(status) || ERROR.equals(status);
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public synchronized String getStatus() {
+        return status;
+    }
+
+    public synchronized String getStatusCode() {
+        return statusCode;
+    }
+
+    public synchronized String getResult() {
+        return result;
+    }
+
+    public long getCreateTime() {
+        return createTime;
+    }
+
+    public synchronized long getEndTime() {
+        return endTime;
+    }
+
+    public synchronized JSONObject toJSON() {
+        JSONObject json = new JSONObject();
+        json.put("jobId", jobId);
+        json.put("method", method);
+        json.put("path", path);
+        json.put("status", status);
+        json.put("statusCode", statusCode);
+        json.put("result", result);
+        json.put("createTime", createTime);
+        json.put("endTime", endTime);
+        return json;
+    }
+
+    @Override
+    public String toString() {
+        return toJSON().toString();
+    }
+}
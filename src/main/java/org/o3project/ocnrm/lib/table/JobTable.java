@@ -0,0 +1,69 @@
+/*
+* Copyright 2015 FUJITSU LIMITED.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.o3project.ocnrm.lib.table;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bounded table of requests accepted asynchronously.
+ * When the table is full, the oldest finished job is removed first,
+ * and the oldest job is removed if no job has finished.
+ */
+public class JobTable {
+    private final int maxSize;
+    private final Map<String, Job> jobs = new LinkedHashMap<>();
+
+    public JobTable(int maxSize) {
+        this.maxSize = Math.max(maxSize, 1);
+    }
+
+    public synchronized Job create(String method, String path) {
+        Job job = new Job(UUID.randomUUID().toString(), method, path);
+        while (jobs.size() >= maxSize) {
+            evict();
+        }
+        jobs.put(job.getJobId(), job);
+        return job;
+    }
+
+    public synchronized Job get(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    public synchronized int size() {
+        return jobs.size();
+    }
+
+    public synchronized void clear() {
+        jobs.clear();
+    }
+
+    private void evict() {
+        Iterator<Job> it = jobs.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().isFinished()) {
+                it.remove();
+                return;
+            }
+        }
+        it = jobs.values().iterator();
+        it.next();
+        it.remove();
+    }
+}
@@ -0,0 +1,497 @@
+/*
+* Copyright 2015 FUJITSU LIMITED.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.o3project.ocnrm.lib.table;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.o3project.ocnrm.model.FlowResponse;
+import org.o3project.ocnrm.model.och.LswFlow;
+import org.o3project.ocnrm.model.och.OchFlow;
+import org.o3project.ocnrm.model.odu.OduFlow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Append-only journal of TableManager.
+ *
+ * <br>Three files are kept in the journal directory.
+ * <br>"table.snapshot"    : all the events and resources at the last compaction
+ * <br>"table.journal"     : operations after the last compaction
+ * <br>"table.journal.old" : operations before a compaction whose snapshot is being written
+ *
+ * <br><br>Each file starts with a header (magic, version, generation), followed by
+ * records of [length(int)][CRC32(int)][type(byte) fields...]. A record which is torn
+ * by a crash is detected by its length or CRC, and the journal is truncated there.
+ * A compaction first rotates the journal to the next generation, and then writes the
+ * snapshot of that generation while the new journal is being appended. The snapshot
+ * of generation N is followed by the journal of generation N, so on replay a journal
+ * whose generation does not follow is skipped and is not applied twice.
+ */
+public class TableJournal {
+    private Logger logger = LoggerFactory.getLogger(TableJournal.class);
+
+    static final String SNAPSHOT_FILE = "table.snapshot";
+    static final String JOURNAL_FILE = "table.journal";
+    static final String OLD_JOURNAL_FILE = "table.journal.old";
+
+    private static final int MAGIC = 0x4f434e54;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final byte EVENT = 1;
+    private static final byte RESOURCE = 2;
+    private static final byte COMPLETE = 3;
+    private static final byte DELETE = 4;
+    private static final byte DELETE_TRANSACTION = 5;
+
+    private final File snapshotFile;
+    private final File journalFile;
+    private final File oldJournalFile;
+    private final int compactCount;
+    private final ObjectMapper mapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final ByteArrayOutputStream record = new ByteArrayOutputStream();
+    private final DataOutputStream recordOut = new DataOutputStream(record);
+    private final CRC32 crc = new CRC32();
+
+    //The classes of resources in the journal, so that no other class is loaded on replay
+    private static final Map<String, Class<? extends FlowResponse>> RESOURCE_CLASSES =
+            new HashMap<>();
+    static {
+        addResourceClass(FlowResponse.class);
+        addResourceClass(OduFlow.class);
+        addResourceClass(OchFlow.class);
+        addResourceClass(LswFlow.class);
+    }
+
+    private DataOutputStream out;
+    private int records = 0;
+    private long generation = 0;
+    //true while the journal is rotated and its snapshot is not written yet
+    private volatile boolean rotated = false;
+
+    /**
+     * @param dir           Journal directory
+     * @param compactCount  Number of journal records which triggers compaction
+     */
+    public TableJournal(String dir, int compactCount) throws IOException {
+        File directory = new File(dir);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("cannot create journal directory: " + dir);
+        }
+        this.snapshotFile = new File(directory, SNAPSHOT_FILE);
+        this.journalFile = new File(directory, JOURNAL_FILE);
+        this.oldJournalFile = new File(directory, OLD_JOURNAL_FILE);
+        this.compactCount = compactCount;
+    }
+
+    /**
+     * The snapshot, the journal rotated by an unfinished compaction and then the journal
+     * are replayed into the manager.
+     * @return Number of replayed records
+     */
+    int replay(TableManager manager) throws IOException {
+        int count = 0;
+        generation = 0;
+        if (snapshotFile.exists()) {
+            count += read(snapshotFile, manager, -1);
+        }
+        if (oldJournalFile.exists()) {
+            if (readGeneration(oldJournalFile) == generation) {
+                count += read(oldJournalFile, manager, generation);
+                generation++;
+            } else {
+                logger.info("journal already in the snapshot is skipped: " + oldJournalFile);
+            }
+        }
+        if (journalFile.exists()) {
+            count += read(journalFile, manager, generation);
+        }
+        return count;
+    }
+
+    private long readGeneration(File file) throws IOException {
+        DataInputStream in = new DataInputStream(new FileInputStream(file));
+        try {
+            if (file.length() < HEADER_SIZE || in.readInt() != MAGIC
+                    || in.readInt() != VERSION) {
+                throw new IOException("unknown journal format: " + file);
+            }
+            return in.readLong();
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * The file is read into the heap rather than mapped, since a mapped file cannot be
+     * truncated on some platforms until the mapping is garbage collected.
+     * @param expected  Generation of the file to be replayed (-1: any)
+     */
+    private int read(File file, TableManager manager, long expected) throws IOException {
+        int count = 0;
+        long valid = HEADER_SIZE;
+        if (file.length() > Integer.MAX_VALUE) {
+            throw new IOException("journal is too large: " + file);
+        }
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        if (in.remaining() < HEADER_SIZE || in.getInt() != MAGIC || in.getInt() != VERSION) {
+            throw new IOException("unknown journal format: " + file);
+        }
+        long fileGeneration = in.getLong();
+        if (expected >= 0 && fileGeneration != expected) {
+            logger.warn("journal of generation " + fileGeneration + " is skipped: " + file);
+            return 0;
+        }
+        generation = fileGeneration;
+
+        while (in.remaining() >= 8) {
+            int length = in.getInt();
+            int checksum = in.getInt();
+            if (length <= 0 || length > in.remaining()) {
+                break;
+            }
+            crc.reset();
+            crc.update(bytes, in.position(), length);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            ByteBuffer payload = in.slice();
+            payload.limit(length);
+            in.position(in.position() + length);
+            apply(payload, manager);
+            valid += 8 + length;
+            count++;
+        }
+
+        if (valid < bytes.length) {
+            logger.warn("journal is truncated at " + valid + " bytes: " + file);
+            RandomAccessFile raf = new RandomAccessFile(file, "rw");
+            try {
+                raf.setLength(valid);
+            } finally {
+                raf.close();
+            }
+        }
+        return count;
+    }
+
+    private void apply(ByteBuffer in, TableManager manager) throws IOException {
+        byte type = in.get();
+        switch (type) {
+        case EVENT:
+            manager.addEvent(new Event(readString(in), readString(in), readString(in),
+                    readString(in), readString(in), readString(in), readString(in)));
+            break;
+        case RESOURCE:
+            manager.addResource(readResource(in));
+            break;
+        case COMPLETE:
+            manager.checkIncompleteResource(new Event(readString(in), readString(in), null,
+                    readString(in), null, null, readString(in)));
+            break;
+        case DELETE:
+            manager.delete(readString(in), readString(in), readString(in));
+            break;
+        case DELETE_TRANSACTION:
+            manager.delete(readString(in));
+            break;
+        default:
+            throw new IOException("unknown journal record: " + type);
+        }
+    }
+
+    void appendEvent(Event event) throws IOException {
+        recordOut.writeByte(EVENT);
+        writeEvent(recordOut, event);
+        append();
+    }
+
+    void appendResource(ResourceInfoFlomMf resource) throws IOException {
+        if (!isJournaled(resource)) {
+            throw new IOException("resource class cannot be journaled: "
+                    + resource.getResourse().getClass().getName());
+        }
+        recordOut.writeByte(RESOURCE);
+        writeResource(recordOut, resource);
+        append();
+    }
+
+    void appendComplete(Event event) throws IOException {
+        recordOut.writeByte(COMPLETE);
+        writeString(recordOut, event.getTransactionId());
+        writeString(recordOut, event.getSrcNetworkComponent());
+        writeString(recordOut, event.getEventId());
+        writeString(recordOut, event.getDriver());
+        append();
+    }
+
+    void appendDelete(String transactionId, String networkComponent, String flowId)
+            throws IOException {
+        recordOut.writeByte(DELETE);
+        writeString(recordOut, transactionId);
+        writeString(recordOut, networkComponent);
+        writeString(recordOut, flowId);
+        append();
+    }
+
+    void appendDeleteTransaction(String transactionId) throws IOException {
+        recordOut.writeByte(DELETE_TRANSACTION);
+        writeString(recordOut, transactionId);
+        append();
+    }
+
+    /**
+     * A compaction is not started again until the snapshot of the last one is written.
+     */
+    boolean needsCompaction() {
+        return compactCount > 0 && records >= compactCount && !rotated;
+    }
+
+    /**
+     * The current tables are written to a new snapshot, and the journal is emptied.
+     * This is used on startup, before the journal is appended.
+     */
+    void compact(Collection<Event> events, Collection<ResourceInfoFlomMf> resources)
+            throws IOException {
+        close();
+        long next = generation + 1;
+        writeSnapshot(events, resources, next);
+        generation = next;
+        open(false);
+    }
+
+    /**
+     * The journal is moved aside and a new one of the next generation is started.
+     * The caller has to write the tables of this moment by writeSnapshot(), which may run
+     * while the new journal is appended.
+     * @return Generation of the snapshot to be written
+     */
+    long rotate() throws IOException {
+        close();
+        if (journalFile.exists()) {
+            Files.move(journalFile.toPath(), oldJournalFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        generation++;
+        open(false);
+        rotated = true;
+        return generation;
+    }
+
+    /**
+     * The tables are written to the snapshot of the generation, and the rotated journal is
+     * deleted. The snapshot is replaced by an atomic rename, so that either the old or the
+     * new one survives a crash. This does not touch the state used by the appends.
+     */
+    void writeSnapshot(Collection<Event> events, Collection<ResourceInfoFlomMf> resources,
+            long snapshotGeneration) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream bufferOut = new DataOutputStream(buffer);
+        CRC32 checksum = new CRC32();
+
+        File tmp = new File(snapshotFile.getPath() + ".tmp");
+        FileOutputStream file = new FileOutputStream(tmp);
+        DataOutputStream snapshot = new DataOutputStream(
+                new BufferedOutputStream(file, BUFFER_SIZE));
+        try {
+            writeHeader(snapshot, snapshotGeneration);
+            for (Event event : events) {
+                bufferOut.writeByte(EVENT);
+                writeEvent(bufferOut, event);
+                writeRecord(snapshot, buffer, checksum);
+            }
+            for (ResourceInfoFlomMf resource : resources) {
+                if (!isJournaled(resource)) {
+                    continue;
+                }
+                bufferOut.writeByte(RESOURCE);
+                writeResource(bufferOut, resource);
+                writeRecord(snapshot, buffer, checksum);
+            }
+            snapshot.flush();
+            file.getFD().sync();
+        } finally {
+            snapshot.close();
+        }
+        Files.move(tmp.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        Files.deleteIfExists(oldJournalFile.toPath());
+        rotated = false;
+
+        logger.info("journal is compacted: " + events.size() + " events, "
+                + resources.size() + " resources");
+    }
+
+    void close() throws IOException {
+        if (null != out) {
+            out.close();
+            out = null;
+        }
+    }
+
+    private void open(boolean append) throws IOException {
+        boolean empty = !append || !journalFile.exists() || journalFile.length() == 0;
+        out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(journalFile, !empty), BUFFER_SIZE));
+        if (empty) {
+            writeHeader(out, generation);
+            out.flush();
+        }
+        records = 0;
+    }
+
+    private void append() throws IOException {
+        if (null == out) {
+            open(true);
+        }
+        writeRecord(out, record, crc);
+        out.flush();
+        records++;
+    }
+
+    private void writeHeader(DataOutputStream stream, long fileGeneration) throws IOException {
+        stream.writeInt(MAGIC);
+        stream.writeInt(VERSION);
+        stream.writeLong(fileGeneration);
+    }
+
+    private static void writeRecord(DataOutputStream stream, ByteArrayOutputStream buffer,
+            CRC32 checksum) throws IOException {
+        byte[] payload = buffer.toByteArray();
+        buffer.reset();
+        checksum.reset();
+        checksum.update(payload, 0, payload.length);
+        stream.writeInt(payload.length);
+        stream.writeInt((int) checksum.getValue());
+        stream.write(payload);
+    }
+
+    private void writeEvent(DataOutputStream stream, Event event) throws IOException {
+        writeString(stream, event.getTransactionId());
+        writeString(stream, event.getSrcNetworkComponent());
+        writeString(stream, event.getEvent());
+        writeString(stream, event.getEventId());
+        writeString(stream, event.getAction());
+        writeString(stream, event.getTime());
+        writeString(stream, event.getDriver());
+    }
+
+    private void writeResource(DataOutputStream stream, ResourceInfoFlomMf resource)
+            throws IOException {
+        writeString(stream, resource.getTransactionId());
+        writeString(stream, resource.getNetworkComponent());
+        writeString(stream, resource.getFlowId());
+        writeString(stream, resource.getMfId());
+        writeString(stream, resource.getTime());
+        writeString(stream, resource.getDriverName());
+        FlowResponse flow = resource.getResourse();
+        if (null == flow) {
+            writeString(stream, null);
+        } else {
+            writeString(stream, flow.getClass().getName());
+            writeBytes(stream, mapper.writeValueAsBytes(flow));
+        }
+    }
+
+    private ResourceInfoFlomMf readResource(ByteBuffer in) throws IOException {
+        String transactionId = readString(in);
+        String networkComponent = readString(in);
+        String flowId = readString(in);
+        String mfId = readString(in);
+        String time = readString(in);
+        String driverName = readString(in);
+        String className = readString(in);
+        FlowResponse flow = null;
+        if (null != className) {
+            flow = mapper.readValue(readBytes(in), resourceClass(className));
+        }
+        return new ResourceInfoFlomMf(transactionId, networkComponent, flowId, mfId, flow,
+                time, driverName);
+    }
+
+    private static void addResourceClass(Class<? extends FlowResponse> clazz) {
+        RESOURCE_CLASSES.put(clazz.getName(), clazz);
+    }
+
+    private static boolean isJournaled(ResourceInfoFlomMf resource) {
+        FlowResponse flow = resource.getResourse();
+        return null == flow || RESOURCE_CLASSES.get(flow.getClass().getName()) == flow.getClass();
+    }
+
+    private static Class<? extends FlowResponse> resourceClass(String className)
+            throws IOException {
+        Class<? extends FlowResponse> clazz = RESOURCE_CLASSES.get(className);
+        if (null == clazz) {
+            throw new IOException("unknown resource class: " + className);
+        }
+        return clazz;
+    }
+
+    private static void writeString(DataOutputStream stream, String value) throws IOException {
+        if (null == value) {
+            stream.writeInt(-1);
+            return;
+        }
+        writeBytes(stream, value.getBytes(UTF8));
+    }
+
+    private static void writeBytes(DataOutputStream stream, byte[] bytes) throws IOException {
+        stream.writeInt(bytes.length);
+        stream.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = readBytes(in);
+        if (null == bytes) {
+            return null;
+        }
+        return new String(bytes, UTF8);
+    }
+
+    private static byte[] readBytes(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return bytes;
+    }
+}
@@ -15,15 +15,35 @@
 */
 package org.o3project.ocnrm.lib.table;
 
+import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.o3project.ocnrm.lib.TransactionIdCreator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Tables of the events from ODENOS and the resources from MF.
+ * Both tables are indexed by hash (transactionId, flowId, networkComponent/flowId/driver
+ * and mfId), and are guarded by a read-write lock since they are accessed
+ * from the threads of the drivers.
+ * When a journal is opened, every update is also appended to the journal,
+ * so that the tables survive a restart of RM. The journal is compacted by the thread
+ * which has updated the tables, after it has released the lock.
+ */
 public class TableManager {
     private Logger logger = LoggerFactory.getLogger(TableManager.class);
 
@@ -34,32 +54,183 @@ public class TableManager {
     private TableManager() {
     }
 
-    private List<Event> eventTable = new ArrayList<>();
-    private List<ResourceInfoFlomMf> responseTableFromMf = new ArrayList<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private TableJournal journal;
+    private final AtomicReference<Snapshot> pendingSnapshot = new AtomicReference<>();
+
+    private Set<Event> events = new LinkedHashSet<>();
+    private Set<ResourceInfoFlomMf> resources = new LinkedHashSet<>();
+
+    private Map<String, List<Event>> eventsByTransactionId = new HashMap<>();
+    private Map<String, List<Event>> eventsByFlowId = new HashMap<>();
+
+    private Map<String, List<ResourceInfoFlomMf>> resourcesByTransactionId = new HashMap<>();
+    private Map<FlowKey, List<ResourceInfoFlomMf>> resourcesByFlowKey = new HashMap<>();
+    private Map<String, List<ResourceInfoFlomMf>> resourcesByMfId = new HashMap<>();
+
+    /**
+     * Key of a resource which is bound to a flow of ODENOS.
+     */
+    private static final class FlowKey {
+        private final String networkComponent;
+        private final String flowId;
+        private final String driverName;
+
+        private FlowKey(String networkComponent, String flowId, String driverName) {
+            this.networkComponent = networkComponent;
+            this.flowId = flowId;
+            this.driverName = driverName;
+        }
+
+        private static FlowKey of(ResourceInfoFlomMf resource) {
+            if (resource.getNetworkComponent() == null || resource.getFlowId() == null
+                    || resource.getDriverName() == null) {
+                return null;
+            }
+            return new FlowKey(resource.getNetworkComponent(), resource.getFlowId(),
+                    resource.getDriverName());
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof FlowKey)) {
+                return false;
+            }
+            FlowKey other = (FlowKey) obj;
+            return networkComponent.equals(other.networkComponent)
+                    && flowId.equals(other.flowId)
+                    && driverName.equals(other.driverName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(networkComponent, flowId, driverName);
+        }
+    }
+
+    /**
+     * Copy of the tables at a rotation of the journal, which is written out of the lock.
+     */
+    private static final class Snapshot {
+        private final TableJournal journal;
+        private final long generation;
+        private final List<Event> events;
+        private final List<ResourceInfoFlomMf> resources;
+
+        private Snapshot(TableJournal journal, long generation, Collection<Event> events,
+                Collection<ResourceInfoFlomMf> resources) {
+            this.journal = journal;
+            this.generation = generation;
+            this.events = new ArrayList<>(events);
+            //resources are completed in place, so their fields are copied as well
+            this.resources = new ArrayList<>(resources.size());
+            for (ResourceInfoFlomMf resource: resources) {
+                this.resources.add(new ResourceInfoFlomMf(resource.getTransactionId(),
+                        resource.getNetworkComponent(), resource.getFlowId(),
+                        resource.getMfId(), resource.getResourse(), resource.getTime(),
+                        resource.getDriverName()));
+            }
+        }
+    }
 
     public static TableManager getInstance() {
         return tableManager;
     }
 
+    /**
+     * @return Current time formatted with date, which is shared by the threads
+     */
+    public static String now() {
+        synchronized (date) {
+            return date.format(new Date());
+        }
+    }
+
+    /**
+     * The tables are restored from the journal directory, and all the following
+     * updates are journaled there. The transaction ID counter is advanced past the
+     * restored IDs. Nothing is done when the directory is empty.
+     * @param dir           Journal directory
+     * @param compactCount  Number of journal records which triggers compaction
+     */
+    public void openJournal(String dir, int compactCount) throws IOException {
+        if (dir == null || dir.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            closeJournal();
+            long start = System.currentTimeMillis();
+            TableJournal newJournal = new TableJournal(dir, compactCount);
+            int count = newJournal.replay(this);
+            newJournal.compact(events, resources);
+            for (Event event: events) {
+                TransactionIdCreator.getInstance().restore(event.getTransactionId());
+            }
+            for (ResourceInfoFlomMf resource: resources) {
+                TransactionIdCreator.getInstance().restore(resource.getTransactionId());
+            }
+            journal = newJournal;
+            logger.info("restored " + count + " records from journal in "
+                    + (System.currentTimeMillis() - start) + "ms: "
+                    + events.size() + " events, " + resources.size() + " resources");
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void closeJournal() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (journal != null) {
+                journal.close();
+                journal = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
     public void addResource(ResourceInfoFlomMf... resources) {
-        for (ResourceInfoFlomMf resource: resources) {
-            logger.debug("registered resource: " + resource.toString());
-            responseTableFromMf.add(resource);
+        lock.writeLock().lock();
+        try {
+            for (ResourceInfoFlomMf resource: resources) {
+                logger.debug("registered resource: " + resource.toString());
+                indexResource(resource);
+                journalResource(resource);
+            }
+        } finally {
+            lock.writeLock().unlock();
+            writePendingSnapshot();
         }
     }
 
     public ResourceInfoFlomMf checkIncompleteResource(Event newEvent) {
-        for (ResourceInfoFlomMf resource: responseTableFromMf) {
-            if (resource.getTransactionId().equals(newEvent.getTransactionId())
-                    && (resource.getNetworkComponent() == null)
-                    && (resource.getDriverName() == null)) {
-                resource.setNetworkComponent(newEvent.getSrcNetworkComponent());
-                resource.setFlowId(newEvent.getEventId());
-                resource.setDriverName(newEvent.getDriver());
-                return resource;
+        lock.writeLock().lock();
+        try {
+            for (ResourceInfoFlomMf resource: lookup(resourcesByTransactionId,
+                    newEvent.getTransactionId())) {
+                if ((resource.getNetworkComponent() == null)
+                        && (resource.getDriverName() == null)) {
+                    resource.setNetworkComponent(newEvent.getSrcNetworkComponent());
+                    resource.setFlowId(newEvent.getEventId());
+                    resource.setDriverName(newEvent.getDriver());
+                    FlowKey key = FlowKey.of(resource);
+                    if (key != null) {
+                        put(resourcesByFlowKey, key, resource);
+                    }
+                    journalComplete(newEvent);
+                    return resource;
+                }
             }
+            return null;
+        } finally {
+            lock.writeLock().unlock();
+            writePendingSnapshot();
         }
-        return null;
     }
 
     public ResourceInfoFlomMf checkExistingEvent(Event newEvent) {
@@ -69,28 +240,36 @@ public class TableManager {
 
     public ResourceInfoFlomMf checkExistingEvent(String transactionId, String nwId, String flowId,
             String driverName) {
-        for (ResourceInfoFlomMf resource: responseTableFromMf) {
-            if (resource.getNetworkComponent() == null
-                    || resource.getDriverName() == null) {
-                continue;
-            }
-
-            if (resource.getTransactionId().equals(transactionId)
-                    && resource.getNetworkComponent().equals(nwId)
-                    && resource.getFlowId().equals(flowId)
-                    && resource.getDriverName().equals(driverName)) {
-                return resource;
+        if (nwId == null || flowId == null || driverName == null) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            for (ResourceInfoFlomMf resource: lookup(resourcesByFlowKey,
+                    new FlowKey(nwId, flowId, driverName))) {
+                if (resource.getTransactionId().equals(transactionId)) {
+                    return resource;
+                }
             }
+            return null;
+        } finally {
+            lock.readLock().unlock();
         }
-        return null;
     }
 
     public Event createEvent(String nwId, String transactionId, String eventType,
             String flowId, String action, String driverName) {
-        Event event = make(nwId, transactionId, eventType, flowId, action, driverName);
-        eventTable.add(event);
-        logger.debug("registered event: " + event.toString());
-        return event;
+        lock.writeLock().lock();
+        try {
+            Event event = make(nwId, transactionId, eventType, flowId, action, driverName);
+            indexEvent(event);
+            logger.debug("registered event: " + event.toString());
+            journalEvent(event);
+            return event;
+        } finally {
+            lock.writeLock().unlock();
+            writePendingSnapshot();
+        }
     }
 
     private Event make(String nwId, String transactionId, String eventType, String flowId,
@@ -100,43 +279,49 @@ public class TableManager {
         }
 
         Event event = new Event(transactionId, nwId, eventType, flowId, action,
-                date.format(new Date()), driverName);
+                now(), driverName);
 
         return event;
     }
 
     public boolean delete(String targetTransactionId, String targetNetworkComponent,
             String targetFlowId) {
-        Event deletedEvent = null;
-        for (Event registeredEvent: eventTable) {
-            if (registeredEvent.getTransactionId().equals(targetTransactionId)
-                    && registeredEvent.getSrcNetworkComponent().equals(targetNetworkComponent)
-                    && registeredEvent.getEventId().equals(targetFlowId)) {
-                deletedEvent = registeredEvent;
-                break;
+        lock.writeLock().lock();
+        try {
+            Event deletedEvent = null;
+            for (Event registeredEvent: lookup(eventsByTransactionId, targetTransactionId)) {
+                if (registeredEvent.getSrcNetworkComponent().equals(targetNetworkComponent)
+                        && registeredEvent.getEventId().equals(targetFlowId)) {
+                    deletedEvent = registeredEvent;
+                    break;
+                }
             }
-        }
 
-        if (deletedEvent == null) {
-            return false;
+            if (deletedEvent == null) {
+                return false;
+            }
+            unindexEvent(deletedEvent);
+            logger.debug("deleted event: " + deletedEvent.toString());
+
+            deleteResource(deletedEvent);
+            journalDelete(targetTransactionId, targetNetworkComponent, targetFlowId);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+            writePendingSnapshot();
         }
-        eventTable.remove(deletedEvent);
-        logger.debug("deleted event: " + deletedEvent.toString());
-
-        deleteResource(deletedEvent);
-        return true;
     }
 
     private void deleteResource(Event deletedEvent) {
         ResourceInfoFlomMf deletedResource = null;
-        for (ResourceInfoFlomMf resource: responseTableFromMf) {
+        for (ResourceInfoFlomMf resource: lookup(resourcesByTransactionId,
+                deletedEvent.getTransactionId())) {
             if (resource.getNetworkComponent() == null
                     || resource.getFlowId() == null) {
                 continue;
             }
 
-            if (resource.getTransactionId().equals(deletedEvent.getTransactionId())
-                    && resource.getNetworkComponent().equals(deletedEvent.getSrcNetworkComponent())
+            if (resource.getNetworkComponent().equals(deletedEvent.getSrcNetworkComponent())
                     && resource.getFlowId().equals(deletedEvent.getEventId())) {
                 deletedResource = resource;
             }
@@ -145,85 +330,271 @@ public class TableManager {
         if (deletedResource == null) {
             return;
         }
-        responseTableFromMf.remove(deletedResource);
+        unindexResource(deletedResource);
         logger.debug("deleted resource: " + deletedResource.toString());
+        evictIdExchangeResult(deletedResource);
+    }
+
+    private void evictIdExchangeResult(ResourceInfoFlomMf deletedResource) {
+        if (lookup(resourcesByMfId, deletedResource.getMfId()).isEmpty()) {
+            IdExchangeCache.getInstance().remove(deletedResource.getMfId());
+        }
     }
 
     //Clear tables for test
     void clear() {
-        eventTable.clear();
-        responseTableFromMf.clear();
+        lock.writeLock().lock();
+        try {
+            events.clear();
+            resources.clear();
+            eventsByTransactionId.clear();
+            eventsByFlowId.clear();
+            resourcesByTransactionId.clear();
+            resourcesByFlowKey.clear();
+            resourcesByMfId.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     public ResourceInfoFlomMf getResourceFromEventId(String targetTransactionId,
             String targetMfId) {
-        for (ResourceInfoFlomMf resource: responseTableFromMf) {
-            if (resource.getTransactionId().equals(targetTransactionId)
-                    && resource.getMfId().equals(targetMfId)) {
-                return resource;
+        lock.readLock().lock();
+        try {
+            for (ResourceInfoFlomMf resource: lookup(resourcesByMfId, targetMfId)) {
+                if (resource.getTransactionId().equals(targetTransactionId)) {
+                    return resource;
+                }
             }
+            return null;
+        } finally {
+            lock.readLock().unlock();
         }
-        return null;
     }
 
     public List<ResourceInfoFlomMf> getResourcesFromFjFlowId(String fjFlowId) {
-        List<ResourceInfoFlomMf> resources = new ArrayList<>();
-        for (ResourceInfoFlomMf resource: responseTableFromMf) {
-            if (resource.getMfId().equals(fjFlowId)) {
-                resources.add(resource);
-            }
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(lookup(resourcesByMfId, fjFlowId));
+        } finally {
+            lock.readLock().unlock();
         }
-        return resources;
     }
 
     public List<Event> getEventsFromTransactionId(String transactionId) {
-        List<Event> events = new ArrayList<>();
-        for (Event event: eventTable) {
-            if (event.getTransactionId().equals(transactionId)) {
-                events.add(event);
-            }
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(lookup(eventsByTransactionId, transactionId));
+        } finally {
+            lock.readLock().unlock();
         }
-        return events;
     }
 
     public boolean delete(String transactionId) {
-        List<Event> deleteEvents = new ArrayList<>();
-        for (Event event: eventTable) {
-            if (event.getTransactionId().equals(transactionId)) {
-                deleteEvents.add(event);
+        lock.writeLock().lock();
+        try {
+            List<Event> deleteEvents = new ArrayList<>(lookup(eventsByTransactionId,
+                    transactionId));
+            if (deleteEvents.isEmpty()) {
+                return false;
             }
-        }
-        if (deleteEvents.isEmpty()) {
-            return false;
-        }
 
-        eventTable.removeAll(deleteEvents);
+            for (Event event: deleteEvents) {
+                unindexEvent(event);
+            }
 
-        return deleteResourcesFromTransactionId(transactionId);
+            boolean result = deleteResourcesFromTransactionId(transactionId);
+            journalDeleteTransaction(transactionId);
+            return result;
+        } finally {
+            lock.writeLock().unlock();
+            writePendingSnapshot();
+        }
     }
 
     private boolean deleteResourcesFromTransactionId(String transactionId) {
-        List<ResourceInfoFlomMf> deleteResources = new ArrayList<>();
-
-        for (ResourceInfoFlomMf resource: responseTableFromMf) {
-            if (resource.getTransactionId().equals(transactionId)) {
-                deleteResources.add(resource);
-            }
-        }
+        List<ResourceInfoFlomMf> deleteResources = new ArrayList<>(lookup(
+                resourcesByTransactionId, transactionId));
         if (deleteResources.isEmpty()) {
             return false;
         }
-        responseTableFromMf.removeAll(deleteResources);
+        for (ResourceInfoFlomMf resource: deleteResources) {
+            unindexResource(resource);
+        }
+        for (ResourceInfoFlomMf resource: deleteResources) {
+            evictIdExchangeResult(resource);
+        }
 
         return true;
     }
 
     public Event getEventFromFlowId(String flowId) {
-        for (Event event: eventTable) {
-            if (event.getEventId().equals(flowId)) {
-                return event;
+        lock.readLock().lock();
+        try {
+            List<Event> events = lookup(eventsByFlowId, flowId);
+            if (events.isEmpty()) {
+                return null;
             }
+            return events.get(0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void journalEvent(Event event) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.appendEvent(event);
+            compactJournal();
+        } catch (IOException e) {
+            journalError(e);
+        }
+    }
+
+    private void journalResource(ResourceInfoFlomMf resource) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.appendResource(resource);
+            compactJournal();
+        } catch (IOException e) {
+            journalError(e);
+        }
+    }
+
+    private void journalComplete(Event event) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.appendComplete(event);
+            compactJournal();
+        } catch (IOException e) {
+            journalError(e);
+        }
+    }
+
+    private void journalDelete(String transactionId, String networkComponent,
+            String flowId) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.appendDelete(transactionId, networkComponent, flowId);
+            compactJournal();
+        } catch (IOException e) {
+            journalError(e);
+        }
+    }
+
+    private void journalDeleteTransaction(String transactionId) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.appendDeleteTransaction(transactionId);
+            compactJournal();
+        } catch (IOException e) {
+            journalError(e);
+        }
+    }
+
+    //Called with the write lock held, so that the copy matches the rotated journal
+    private void compactJournal() throws IOException {
+        if (journal.needsCompaction()) {
+            pendingSnapshot.set(new Snapshot(journal, journal.rotate(), events, resources));
+        }
+    }
+
+    //Called after the write lock is released
+    private void writePendingSnapshot() {
+        Snapshot snapshot = pendingSnapshot.getAndSet(null);
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            snapshot.journal.writeSnapshot(snapshot.events, snapshot.resources,
+                    snapshot.generation);
+        } catch (IOException e) {
+            journalError(e);
+        }
+    }
+
+    private void journalError(IOException e) {
+        logger.error("failed to write journal: " + e.getMessage());
+        e.printStackTrace();
+    }
+
+    //Registers an event restored from the journal
+    void addEvent(Event event) {
+        lock.writeLock().lock();
+        try {
+            indexEvent(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void indexEvent(Event event) {
+        events.add(event);
+        put(eventsByTransactionId, event.getTransactionId(), event);
+        put(eventsByFlowId, event.getEventId(), event);
+    }
+
+    private void indexResource(ResourceInfoFlomMf resource) {
+        resources.add(resource);
+        put(resourcesByTransactionId, resource.getTransactionId(), resource);
+        put(resourcesByMfId, resource.getMfId(), resource);
+        FlowKey key = FlowKey.of(resource);
+        if (key != null) {
+            put(resourcesByFlowKey, key, resource);
+        }
+    }
+
+    private void unindexResource(ResourceInfoFlomMf resource) {
+        resources.remove(resource);
+        remove(resourcesByTransactionId, resource.getTransactionId(), resource);
+        remove(resourcesByMfId, resource.getMfId(), resource);
+        FlowKey key = FlowKey.of(resource);
+        if (key != null) {
+            remove(resourcesByFlowKey, key, resource);
+        }
+    }
+
+    private void unindexEvent(Event event) {
+        events.remove(event);
+        remove(eventsByTransactionId, event.getTransactionId(), event);
+        remove(eventsByFlowId, event.getEventId(), event);
+    }
+
+    private static <K, V> List<V> lookup(Map<K, List<V>> index, K key) {
+        List<V> values = index.get(key);
+        if (values == null) {
+            return Collections.emptyList();
+        }
+        return values;
+    }
+
+    private static <K, V> void put(Map<K, List<V>> index, K key, V value) {
+        List<V> values = index.get(key);
+        if (values == null) {
+            values = new ArrayList<>(1);
+            index.put(key, values);
+        }
+        values.add(value);
+    }
+
+    private static <K, V> void remove(Map<K, List<V>> index, K key, V value) {
+        List<V> values = index.get(key);
+        if (values == null) {
+            return;
+        }
+        values.remove(value);
+        if (values.isEmpty()) {
+            index.remove(key);
         }
-        return null;
     }
 }
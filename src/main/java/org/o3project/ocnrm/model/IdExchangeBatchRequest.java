@@ -0,0 +1,47 @@
+/*
+* Copyright 2015 FUJITSU LIMITED.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.o3project.ocnrm.model;
+
+import java.util.List;
+
+public class IdExchangeBatchRequest {
+    String fjFlowId;
+    List<String> terminationPoints;
+
+    public IdExchangeBatchRequest() {
+    }
+
+    public IdExchangeBatchRequest(String fjFlowId, List<String> terminationPoints) {
+        this.fjFlowId = fjFlowId;
+        this.terminationPoints = terminationPoints;
+    }
+
+    public List<String> getTerminationPoints() {
+        return terminationPoints;
+    }
+
+    public void setTerminationPoints(List<String> terminationPoints) {
+        this.terminationPoints = terminationPoints;
+    }
+
+    public String getFjFlowId() {
+        return fjFlowId;
+    }
+
+    public void setFjFlowId(String fjFlowId) {
+        this.fjFlowId = fjFlowId;
+    }
+}
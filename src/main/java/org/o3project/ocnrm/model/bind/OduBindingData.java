@@ -31,6 +31,29 @@ public class OduBindingData extends RmData {
         JsonFactory factory = new JsonFactory();
         JsonParser jp = factory.createParser(resource.toString());
         jp.nextToken();
+        bind(name, jp);
+        jp.close();
+    }
+
+    /**
+     * The combined result of a batch ID exchange is bound.
+     * @param resources  {"termination point": {"dpid": ..., "port": ...}, ...}
+     */
+    @Override
+    public void bindAll(String resources)
+            throws JsonParseException, JsonMappingException, IOException {
+        JsonFactory factory = new JsonFactory();
+        JsonParser jp = factory.createParser(resources);
+        jp.nextToken();
+        while (jp.nextToken() == JsonToken.FIELD_NAME) {
+            String name = jp.getCurrentName();
+            jp.nextToken();
+            bind(name, jp);
+        }
+        jp.close();
+    }
+
+    private void bind(String name, JsonParser jp) throws JsonParseException, IOException {
         OduMapping terminationPoint = new OduMapping();
         terminationPoint.setName(name);
         while (jp.nextToken() != JsonToken.END_OBJECT) {
@@ -52,7 +75,6 @@ public class OduBindingData extends RmData {
             }
             bindMap.put(terminationPoint.getName(), terminationPoint);
         }
-        jp.close();
     }
 
 }
@@ -38,4 +38,7 @@ public abstract class RmData {
 
     public abstract void bind(String name, String resource)
             throws JsonParseException, JsonMappingException, IOException;
+
+    public abstract void bindAll(String resources)
+            throws JsonParseException, JsonMappingException, IOException;
 }
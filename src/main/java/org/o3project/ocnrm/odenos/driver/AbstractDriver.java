@@ -20,18 +20,28 @@ import static org.o3project.ocnrm.odenos.lib.OdenOsCommonLib.statusLog;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.json.JSONException;
 import org.json.JSONObject;
+import org.o3project.ocnrm.lib.EventCoalescer;
 import org.o3project.ocnrm.lib.JSONParser;
+import org.o3project.ocnrm.lib.KeyedExecutor;
 import org.o3project.ocnrm.lib.OcnMFSequenceLib;
+import org.o3project.ocnrm.lib.TraceLog;
+import org.o3project.ocnrm.lib.table.Job;
+import org.o3project.ocnrm.lib.table.JobTable;
 import org.o3project.ocnrm.model.UpperNodeInfo;
+import org.o3project.ocnrm.odenos.lib.OdenOsEventMerger;
+import org.o3project.ocnrm.odenos.lib.OdenOsLinkIndex;
+import org.o3project.ocnrm.odenos.lib.OdenOsNetworkMirror;
+import org.o3project.ocnrm.odenos.lib.OdenOsPropertyLoader;
+import org.o3project.ocnrm.odenos.lib.OdenOsTopologyDiff;
 import org.o3project.ocnrm.odenos.lib.OdenOsTopologyLib;
 import org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizer;
 import org.o3project.odenos.core.component.Driver;
@@ -41,6 +51,7 @@ import org.o3project.odenos.core.component.network.flow.Flow;
 import org.o3project.odenos.core.component.network.flow.FlowChanged;
 import org.o3project.odenos.core.component.network.flow.FlowObject;
 import org.o3project.odenos.core.component.network.flow.FlowObject.FlowStatus;
+import org.o3project.odenos.core.component.network.flow.FlowSet;
 import org.o3project.odenos.core.component.network.flow.basic.BasicFlow;
 import org.o3project.odenos.core.component.network.packet.InPacketAdded;
 import org.o3project.odenos.core.component.network.packet.OutPacketAdded;
@@ -66,8 +77,8 @@ import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonMappingException;
 
 public abstract class AbstractDriver extends Driver {
-    private static final int AWAIT_TIME = 5 * 1000;
     private static final int THREAD_NUM = 16;
+    private static final String JOBS_PATH = "jobs/";
     private Logger logger = LoggerFactory.getLogger(getClass());
     protected Map<String, String> connectionIdMap;
 
@@ -76,7 +87,14 @@ public abstract class AbstractDriver extends Driver {
 
     protected final RequestParser<IActionCallback> parser;
 
-    private ExecutorService service;
+    private KeyedExecutor service;
+    private JobTable jobTable;
+    private KeyedExecutor changedEventService;
+    private EventCoalescer<FlowChanged> flowChangedEvents =
+            new EventCoalescer<>(OdenOsEventMerger.FLOW_CHANGED);
+    private EventCoalescer<LinkChanged> linkChangedEvents =
+            new EventCoalescer<>(OdenOsEventMerger.LINK_CHANGED);
+    private ConcurrentMap<String, OdenOsNetworkMirror> mirrors = new ConcurrentHashMap<>();
 
     protected static final String SEQNO_PREFIX = "#";
     protected OcnMFSequenceLib mf = OcnMFSequenceLib.getInstance();
@@ -91,24 +109,21 @@ public abstract class AbstractDriver extends Driver {
     public AbstractDriver(String objectId, String baseUri, MessageDispatcher dispatcher)
             throws Exception {
         super(objectId, dispatcher);
-        this.service = Executors.newFixedThreadPool(THREAD_NUM);
-        this.connectionIdMap = new HashMap<>();
+        // requests to the same path are applied in the order of arrival
+        this.service = new KeyedExecutor(THREAD_NUM, 1);
+        this.jobTable = new JobTable(Integer.valueOf(OdenOsPropertyLoader
+                .getInstance().getJobTableSize()));
+        this.changedEventService = new KeyedExecutor(Integer.valueOf(OdenOsPropertyLoader
+                .getInstance().getDriverEventThreadNum()), 1);
+        this.connectionIdMap = Collections.synchronizedMap(new HashMap<String, String>());
         this.parser = createParser();
     }
 
     @Override
     protected void finalize() throws Throwable {
         super.finalize();
-        try {
-            service.shutdown();
-            if (!service.awaitTermination(AWAIT_TIME, TimeUnit.MILLISECONDS)) {
-                service.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            logger.error("awaitTermination interrupted: " + e);
-            service.shutdownNow();
-        }
-
+        changedEventService.shutdown();
+        service.shutdown();
     }
 
     protected abstract RequestParser<IActionCallback> createParser();
@@ -152,19 +167,21 @@ public abstract class AbstractDriver extends Driver {
 
             switch (event.eventType) {
             case NodeChanged.TYPE:
-                onNodeChanged(event.publisherId,
-                        event.getBody(NodeChanged.class));
+                NodeChanged nodeChanged = event.getBody(NodeChanged.class);
+                mirror(event.publisherId).apply(nodeChanged);
+                onNodeChanged(event.publisherId, nodeChanged);
                 break;
             case PortChanged.TYPE:
-                onPortChanged(event.publisherId,
-                        event.getBody(PortChanged.class));
+                PortChanged portChanged = event.getBody(PortChanged.class);
+                mirror(event.publisherId).apply(portChanged);
+                onPortChanged(event.publisherId, portChanged);
                 break;
             case LinkChanged.TYPE:
-                onLinkChanged(event.publisherId,
+                submitLinkChanged(event.publisherId,
                         event.getBody(LinkChanged.class));
                 break;
             case FlowChanged.TYPE:
-                onFlowChanged(event.publisherId,
+                submitFlowChanged(event.publisherId,
                         event.getBody(FlowChanged.class));
                 break;
             case InPacketAdded.TYPE:
@@ -186,11 +203,154 @@ public abstract class AbstractDriver extends Driver {
         }
     }
 
+    /**
+     * Handles FlowChanged on the event threads instead of the dispatcher thread.
+     * Events of the same flow are handled in the order of arrival,
+     * and events of different flows are handled in parallel.
+     * An update still waiting to be handled is merged with the next update.
+     */
+    private void submitFlowChanged(final String networkId, final FlowChanged message) {
+        mirror(networkId).apply(message);
+        final String key = OdenOsEventMerger.flowKey(networkId, message);
+        if (!flowChangedEvents.offer(key, message)) {
+            logger.debug("FlowChanged merged: " + key);
+            return;
+        }
+        changedEventService.submit(key, new Callable<Void>() {
+            public Void call() {
+                try {
+                    onFlowChanged(networkId, flowChangedEvents.poll(key));
+                } catch (Exception e) {
+                    logger.error("FlowChanged Exception.", e);
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Handles LinkChanged in the same way as FlowChanged.
+     */
+    private void submitLinkChanged(final String networkId, final LinkChanged message) {
+        mirror(networkId).apply(message);
+        final String key = OdenOsEventMerger.linkKey(networkId, message);
+        if (!linkChangedEvents.offer(key, message)) {
+            logger.debug("LinkChanged merged: " + key);
+            return;
+        }
+        changedEventService.submit(key, new Callable<Void>() {
+            public Void call() {
+                try {
+                    onLinkChanged(networkId, linkChangedEvents.poll(key));
+                } catch (Exception e) {
+                    logger.error("LinkChanged Exception.", e);
+                }
+                return null;
+            }
+        });
+    }
+
+    private OdenOsNetworkMirror mirror(String nwId) {
+        OdenOsNetworkMirror mirror = mirrors.get(nwId);
+        if (null == mirror) {
+            mirrors.putIfAbsent(nwId, new OdenOsNetworkMirror());
+            mirror = mirrors.get(nwId);
+        }
+        return mirror;
+    }
+
+    /**
+     * @return Local mirror of the network. It is seeded from the network at the first call
+     *         (and at the next call if the network could not be read).
+     */
+    protected OdenOsNetworkMirror getNetworkMirror(NetworkInterface networkIf, String nwId) {
+        OdenOsNetworkMirror mirror = mirror(nwId);
+        if (!mirror.isLoaded() && null != networkIf && mirror.startLoad()) {
+            // the network is read without holding the mirror, so events are not blocked;
+            // they are buffered and applied to the seeded mirror
+            Topology topology = null;
+            FlowSet flowSet = null;
+            try {
+                topology = networkIf.getTopology();
+                flowSet = networkIf.getFlowSet();
+            } finally {
+                mirror.load(topology, flowSet);
+            }
+        }
+        return mirror;
+    }
+
+    /**
+     * @return Index of the links of the network from (srcPort, dstPort) to linkId
+     */
+    protected OdenOsLinkIndex getLinkIndex(NetworkInterface networkIf, String nwId) {
+        return getNetworkMirror(networkIf, nwId).getLinkIndex();
+    }
+
+    /**
+     * The links read from the network are applied to the mirror, so that the index has
+     * the links whose events have not arrived yet.
+     *
+     * @return Index of the links of the network from (srcPort, dstPort) to linkId
+     */
+    protected OdenOsLinkIndex reloadLinkIndex(NetworkInterface networkIf, String nwId) {
+        OdenOsNetworkMirror mirror = getNetworkMirror(networkIf, nwId);
+        Map<String, Link> links = (null == networkIf) ? null : networkIf.getLinks();
+        if (null != links) {
+            for (Link link : links.values()) {
+                mirror.update(link);
+            }
+        }
+        return mirror.getLinkIndex();
+    }
+
+    /**
+     * Reads the flow from the mirror of the network, or from the network if it is not
+     * in the mirror.
+     *
+     * @return Copy of the flow, or null if it is not a valid BasicFlow
+     */
+    protected BasicFlow getLocalFlow(NetworkInterface networkIf, String networkId,
+            String flowId) {
+        Flow flow = (null == flowId) ? null
+                : getNetworkMirror(networkIf, networkId).getFlow(flowId);
+        if (null == flow) {
+            return getFlow(networkIf, flowId);
+        }
+        BasicFlow basicFlow = toBasicFlow(flow);
+        return (null == basicFlow) ? null : basicFlow.clone();
+    }
+
+    /**
+     * @return Number of FlowChanged/LinkChanged events waiting or being handled
+     */
+    public int getChangedEventQueueDepth() {
+        return changedEventService.getQueueDepth();
+    }
+
+    /**
+     * @return Number of FlowChanged/LinkChanged events waiting or being handled
+     *         for each flow and link
+     */
+    public Map<Object, Integer> getChangedEventBacklog() {
+        return changedEventService.getBacklog();
+    }
+
+    /**
+     * @return Number of FlowChanged/LinkChanged events merged into a pending event
+     */
+    public long getMergedEventCount() {
+        return flowChangedEvents.getMergedCount() + linkChangedEvents.getMergedCount();
+    }
+
     @Override
     protected final Response onRequest(final Request request) {
-        logger.info(seqNo + "\t-- " + new Throwable().getStackTrace()[0].getMethodName()
-                + " Start");
+        TraceLog.trace(logger, "{}\t-- {} Start", seqNo, "onRequest");
         logger.debug("received {}", request.path);
+        if (Request.Method.GET == request.method && null != request.path
+                && request.path.startsWith(JOBS_PATH)) {
+            return onJobRequest(request.path.substring(JOBS_PATH.length()));
+        }
         final RequestParser<IActionCallback>.ParsedRequest parsed = parser
                 .parse(request);
         if (parsed == null) {
@@ -204,18 +364,54 @@ public abstract class AbstractDriver extends Driver {
             return new Response(Response.BAD_REQUEST, "Error unknown request ");
         }
 
-        service.submit(new Callable<Response>() {
+        final Job job = jobTable.create(request.method.toString(), request.path);
+        service.submit(request.path, new Callable<Response>() {
             public Response call() {
+                job.start();
                 try {
-                    return callback.process(parsed);
+                    Response rsp = callback.process(parsed);
+                    if (null == rsp) {
+                        job.fail("no response");
+                        return rsp;
+                    }
+                    job.finish(rsp.statusCode.toString(), getBodyString(rsp));
+                    return rsp;
                 } catch (Exception e) {
                     e.printStackTrace();
                     logger.error("Exception is occurred.");
+                    job.fail(e.toString());
                     return new Response(Response.BAD_REQUEST, "Error unknown request ");
                 }
             }
         });
-        return new Response(Response.OK, "");
+        logger.debug("job {} accepted: {}", job.getJobId(), request.path);
+        JSONObject body = new JSONObject();
+        body.put("job_id", job.getJobId());
+        return new Response(Response.OK, body.toString());
+    }
+
+    private Response onJobRequest(String jobId) {
+        Job job = jobTable.get(jobId);
+        if (null == job) {
+            logger.error("job {} is not found.", jobId);
+            return new Response(Response.NOT_FOUND, "Error unknown job " + jobId);
+        }
+        return new Response(Response.OK, job.toJSON().toString());
+    }
+
+    private String getBodyString(Response rsp) {
+        if (null == rsp.getBodyValue()) {
+            return "";
+        }
+        try {
+            return rsp.getBody(String.class);
+        } catch (Exception e) {
+            return rsp.getBodyValue().toString();
+        }
+    }
+
+    public JobTable getJobTable() {
+        return jobTable;
     }
 
     // //////////////////////////////////////////////////
@@ -494,6 +690,7 @@ public abstract class AbstractDriver extends Driver {
         removeEntryEventSubscription(PORT_CHANGED, nwId);
         removeEntryEventSubscription(LINK_CHANGED, nwId);
         removeEntryEventSubscription(FLOW_CHANGED, nwId);
+        mirrors.remove(nwId);
 
         try {
             applyEventSubscription();
@@ -508,12 +705,12 @@ public abstract class AbstractDriver extends Driver {
 
     @Override
     protected boolean onFlowAddedPre(final String networkId, final Flow flow) {
-        logger.debug(">> " + new Throwable().getStackTrace()[0].getMethodName());
+        TraceLog.trace(logger, ">> {}", "onFlowAddedPre");
         logger.debug("network component ID : " + networkId);
         statusLog(flow);
 
         NetworkInterface networkIf = networkInterfaces().get(networkId);
-        BasicFlow targetFlow = getFlow(networkIf, flow.getFlowId());
+        BasicFlow targetFlow = getLocalFlow(networkIf, networkId, flow.getFlowId());
 
         logger.debug(seqNo + "\t" + "★flow Status:" + flow.getStatus());
         logger.debug(seqNo + "\t" + "targetFlow Status:" + targetFlow.getStatus());
@@ -533,12 +730,12 @@ public abstract class AbstractDriver extends Driver {
             final Flow curr,
             final ArrayList<String> attributesList) {
 
-        logger.debug(">> " + new Throwable().getStackTrace()[0].getMethodName());
+        TraceLog.trace(logger, ">> {}", "onFlowUpdatePre");
         logger.debug("network component ID : " + networkId);
         statusLog(curr);
 
         NetworkInterface networkIf = networkInterfaces().get(networkId);
-        BasicFlow targetFlow = getFlow(networkIf, curr.getFlowId());
+        BasicFlow targetFlow = getLocalFlow(networkIf, networkId, curr.getFlowId());
 
         logger.debug(seqNo + "\t" + "★ flow Status:" + curr.getStatus());
         logger.debug(seqNo + "\t" + "targetFlow Status:" + targetFlow.getStatus());
@@ -552,11 +749,13 @@ public abstract class AbstractDriver extends Driver {
     }
 
     private void onFlowProcess(final String networkId, final Flow flow, String action) {
-        seqNo = SEQNO_PREFIX + mf.requestNoToString();
+        // flows are handled in parallel, so keep own seqNo
+        String seqNo = SEQNO_PREFIX + mf.requestNoToString();
+        this.seqNo = seqNo;
         logger.info(seqNo + "\t" + "■onFlowProcess Strat");
 
         NetworkInterface networkIf = networkInterfaces().get(networkId);
-        BasicFlow targetFlow = getFlow(networkIf, flow.getFlowId());
+        BasicFlow targetFlow = getLocalFlow(networkIf, networkId, flow.getFlowId());
 
         logger.debug(seqNo + "\t" + "Status:" + flow.getStatus());
         targetFlow.setStatus(FlowObject.FlowStatus.ESTABLISHING.toString());
@@ -604,7 +803,7 @@ public abstract class AbstractDriver extends Driver {
 
     @Override
     protected boolean onFlowDeletePre(final String networkId, final Flow flow) {
-        logger.debug(">> " + new Throwable().getStackTrace()[0].getMethodName());
+        TraceLog.trace(logger, ">> {}", "onFlowDeletePre");
         logger.debug("network component ID : " + networkId);
         statusLog(flow);
 
@@ -618,7 +817,9 @@ public abstract class AbstractDriver extends Driver {
 
     @Override
     protected void onFlowDelete(final String networkId, final Flow flow) {
-        seqNo = SEQNO_PREFIX + mf.requestNoToString();
+        // flows are handled in parallel, so keep own seqNo
+        String seqNo = SEQNO_PREFIX + mf.requestNoToString();
+        this.seqNo = seqNo;
         logger.info(seqNo + "\t" + "■onFlowDelete Strat");
         logger.debug("network component ID : " + networkId);
         if (!onFlowDeletePre(networkId, flow)) {
@@ -649,7 +850,9 @@ public abstract class AbstractDriver extends Driver {
     }
 
     private void onLinkProcess(final String networkId, final Link link, String action) {
-        seqNo = SEQNO_PREFIX + mf.requestNoToString();
+        // links are handled in parallel, so keep own seqNo
+        String seqNo = SEQNO_PREFIX + mf.requestNoToString();
+        this.seqNo = seqNo;
         logger.info(seqNo + "\t" + "■onLinkProcess Strat");
         logger.debug(seqNo + "\t" + "Link " + AttrElements.ESTABLISHMENT_STATUS + ":"
                 + link.getAttribute(AttrElements.ESTABLISHMENT_STATUS));
@@ -703,16 +906,16 @@ public abstract class AbstractDriver extends Driver {
 
     protected boolean onLinkUpdatePre(final String networkId, final Link prev, final Link curr,
             final ArrayList<String> attributesList) {
-        logger.debug(">> " + new Throwable().getStackTrace()[0].getMethodName() + "Start");
+        TraceLog.start(logger, "onLinkUpdatePre");
 
         if (curr.getAttribute(AttrElements.ESTABLISHMENT_STATUS) == null) {
             logger.debug("This link's status is null.");
-            logger.debug(">> " + new Throwable().getStackTrace()[0].getMethodName() + "End");
+            TraceLog.end(logger, "onLinkUpdatePre");
             return false;
         }
         logger.debug("link staus: " + curr.getAttribute(AttrElements.ESTABLISHMENT_STATUS));
 
-        logger.debug(">> " + new Throwable().getStackTrace()[0].getMethodName() + "End");
+        TraceLog.end(logger, "onLinkUpdatePre");
         return true;
     }
 
@@ -730,7 +933,9 @@ public abstract class AbstractDriver extends Driver {
 
     @Override
     protected void onLinkDelete(final String networkId, final Link link) {
-        seqNo = SEQNO_PREFIX + mf.requestNoToString();
+        // links are handled in parallel, so keep own seqNo
+        String seqNo = SEQNO_PREFIX + mf.requestNoToString();
+        this.seqNo = seqNo;
         logger.info(seqNo + "\t" + "■onLinkDelete Strat");
         logger.debug("network component ID : " + networkId);
         if (!onLinkDeletePre(networkId, link)) {
@@ -756,7 +961,7 @@ public abstract class AbstractDriver extends Driver {
     protected BasicFlow getFlow(
             final NetworkInterface nwIf,
             final String flowId) {
-        logger.debug(">> " + new Throwable().getStackTrace()[0].getMethodName());
+        TraceLog.trace(logger, ">> {}", "getFlow");
 
         if (nwIf == null) {
             logger.error(seqNo + "\t" + "networkIF is null.");
@@ -773,6 +978,10 @@ public abstract class AbstractDriver extends Driver {
             logger.error(seqNo + "\t" + "flow is null.");
             return null;
         }
+        return toBasicFlow(flow);
+    };
+
+    private BasicFlow toBasicFlow(Flow flow) {
         if (!flow.getType().equals(BasicFlow.class.getSimpleName())) {
             logger.error(seqNo + "\t" + "flow type mismatch.");
             return null;
@@ -788,37 +997,113 @@ public abstract class AbstractDriver extends Driver {
         }
 
         return basicFlow;
-    };
+    }
 
+    /**
+     * Only the difference from the mirror of the network is sent.
+     *
+     * @throws IllegalStateException  if the network could not be read or updated
+     */
     protected void sendToporogy(NetworkInterface nwIf, String nwId, Topology topo) {
         logger.info("sendToporogy Start");
-        for (Node node : topo.getNodeMap().values()) {
-            logger.debug(seqNo + "\t" + "Adding Node: {}", node.getId());
-            node.setVersion(OdenOsTopologyLib.INITIAL_VERSION);
+        if (null == nwIf) {
+            throw new IllegalStateException("network " + nwId + " is not connected");
+        }
+        OdenOsNetworkMirror mirror = getNetworkMirror(nwIf, nwId);
+        if (!mirror.isLoaded()) {
+            throw new IllegalStateException("topology of network " + nwId
+                    + " could not be read");
+        }
+        sendTopologyDiff(nwIf, mirror, new OdenOsTopologyDiff(topo, mirror.getNodeMap(),
+                mirror.getLinkMap()));
+        logger.info("sendToporogy End");
+    }
 
-            Node oldNodeMessage = nwIf.getNode(node.getId());
-            if (null != oldNodeMessage
-                    && !(oldNodeMessage.getVersion().equals(OdenOsTopologyLib.INITIAL_VERSION))) {
-                node.setVersion(oldNodeMessage.getVersion());
+    /**
+     * Links are deleted before their nodes, and nodes are put before their links.
+     * Each object stored is applied to the mirror at once, so the next topology is
+     * compared with it even before its event arrives. A put rejected for its version
+     * is retried once with the version read from the network.
+     */
+    private void sendTopologyDiff(NetworkInterface nwIf, OdenOsNetworkMirror mirror,
+            OdenOsTopologyDiff diff) {
+        logger.debug(seqNo + "\t" + "topology diff: put node " + diff.getPutNodes().size()
+                + ", put link " + diff.getPutLinks().size()
+                + ", delete node " + diff.getDeletedNodes().size()
+                + ", delete link " + diff.getDeletedLinks().size());
+        for (String linkId : diff.getDeletedLinks()) {
+            logger.debug("Deleting Link: {}", linkId);
+            checkDeleted(nwIf.delLink(linkId), "link " + linkId);
+            mirror.removeLink(linkId);
+        }
+        for (String nodeId : diff.getDeletedNodes()) {
+            logger.debug(seqNo + "\t" + "Deleting Node: {}", nodeId);
+            checkDeleted(nwIf.delNode(nodeId), "node " + nodeId);
+            mirror.removeNode(nodeId);
+        }
+        for (Node node : diff.getPutNodes()) {
+            logger.debug(seqNo + "\t" + "Adding Node: {}", node.getId());
+            Response rsp = nwIf.putNode(node);
+            if (isConflict(rsp)) {
+                Node current = nwIf.getNode(node.getId());
+                logger.warn(seqNo + "\t" + "version conflict on node {}, retrying",
+                        node.getId());
+                node.setVersion(null == current ? OdenOsTopologyLib.INITIAL_VERSION
+                        : current.getVersion());
+                rsp = nwIf.putNode(node);
             }
-
-            nwIf.putNode(node);
+            checkPut(rsp, "node " + node.getId());
+            Node stored = bodyOf(rsp, Node.class);
+            mirror.update(null == stored ? nwIf.getNode(node.getId()) : stored);
         }
-
-        for (Link link : topo.getLinkMap().values()) {
+        for (Link link : diff.getPutLinks()) {
             logger.debug("Adding Link: {}", link.getId());
+            Response rsp = nwIf.putLink(link);
+            if (isConflict(rsp)) {
+                Link current = nwIf.getLink(link.getId());
+                logger.warn(seqNo + "\t" + "version conflict on link {}, retrying",
+                        link.getId());
+                link.setVersion(null == current ? OdenOsTopologyLib.INITIAL_VERSION
+                        : current.getVersion());
+                rsp = nwIf.putLink(link);
+            }
+            checkPut(rsp, "link " + link.getId());
+            Link stored = bodyOf(rsp, Link.class);
+            mirror.update(null == stored ? nwIf.getLink(link.getId()) : stored);
+        }
+    }
 
-            link.setVersion(OdenOsTopologyLib.INITIAL_VERSION);
+    private static boolean isConflict(Response rsp) {
+        return null != rsp && Response.CONFLICT.equals(rsp.statusCode);
+    }
 
-            Link oldLinkMessage = nwIf.getLink(link.getId());
-            if (null != oldLinkMessage
-                    && !(oldLinkMessage.getVersion().equals(OdenOsTopologyLib.INITIAL_VERSION))) {
-                link.setVersion(oldLinkMessage.getVersion());
-            }
+    private void checkPut(Response rsp, String object) {
+        if (null == rsp || !(Response.OK.equals(rsp.statusCode)
+                || Response.CREATED.equals(rsp.statusCode))) {
+            logger.error(seqNo + "\t" + "Failed to put " + object + ": "
+                    + (null == rsp ? null : rsp.statusCode));
+            throw new IllegalStateException("Failed to put " + object);
+        }
+    }
 
-            nwIf.putLink(link);
+    private void checkDeleted(Response rsp, String object) {
+        if (null == rsp || !(Response.OK.equals(rsp.statusCode)
+                || Response.NOT_FOUND.equals(rsp.statusCode))) {
+            logger.error(seqNo + "\t" + "Failed to delete " + object + ": "
+                    + (null == rsp ? null : rsp.statusCode));
+            throw new IllegalStateException("Failed to delete " + object);
+        }
+    }
+
+    /**
+     * @return Object in the body of the response, or null if it has none
+     */
+    private static <T> T bodyOf(Response rsp, Class<T> type) {
+        try {
+            return (null == rsp.getBodyValue()) ? null : rsp.getBody(type);
+        } catch (Exception e) {
+            return null;
         }
-        logger.info("sendToporogy End");
     }
 
     protected Response sendTopologyToOdenos(String layer, String param) {
@@ -829,11 +1114,10 @@ public abstract class AbstractDriver extends Driver {
 
         String nwId = connectionIdMap.get(layer);
 
-        JSONObject json = new JSONObject(param);
         JSONParser parser = new JSONParser();
 
         try {
-            UpperNodeInfo nodeInfo = parser.upperNodeInfotoPOJO(json, seqNo);
+            UpperNodeInfo nodeInfo = parser.upperNodeInfotoPOJO(param, seqNo);
 
             OdenOsTopologyLib topologyCreator = new OdenOsTopologyLib();
 
@@ -17,20 +17,25 @@ package org.o3project.ocnrm.odenos.driver;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.o3project.ocnrm.lib.JSONParser;
+import org.o3project.ocnrm.lib.TerminationPointId;
 import org.o3project.ocnrm.lib.table.ResourceInfoFlomMf;
 import org.o3project.ocnrm.lib.table.TableManager;
 import org.o3project.ocnrm.model.LowerNodeInfo;
 import org.o3project.ocnrm.model.TerminationPoints;
 import org.o3project.ocnrm.model.odu.OduFlowCreationResponse;
+import org.o3project.ocnrm.model.odu.OduFlowRequest;
+import org.o3project.ocnrm.model.odu.OduFlowRequests;
 import org.o3project.ocnrm.odenos.driver.controller.ResourceSendController;
 import org.o3project.ocnrm.odenos.lib.OdenOsCommonLib;
+import org.o3project.ocnrm.odenos.lib.OdenOsLinkIndex;
 import org.o3project.ocnrm.odenos.lib.OdenOsTopologyLib;
 import org.o3project.odenos.core.component.Logic;
 import org.o3project.odenos.core.component.NetworkInterface;
@@ -82,11 +87,9 @@ public class OptDriver extends AbstractDriver {
                         NetworkInterface nwIf = networkInterfaces().get(nwId);
 
                         try {
-                            JSONObject json = new JSONObject(
-                                    parsed.getRequest().getBody(String.class));
-
                             JSONParser parser = new JSONParser();
-                            LowerNodeInfo nodeInfo = parser.lowerNodeInfotoPOJO(json, seqNo);
+                            LowerNodeInfo nodeInfo = parser.lowerNodeInfotoPOJO(
+                                    parsed.getRequest().getBody(String.class), seqNo);
 
                             OdenOsTopologyLib topologyCreator = new OdenOsTopologyLib();
                             Topology topology = topologyCreator.
@@ -117,6 +120,21 @@ public class OptDriver extends AbstractDriver {
                         }
                     }
                 });
+                addRule(Method.PUT, "settings/odu/flows", new IActionCallback() {
+                    @Override
+                    public Response process(
+                            final RequestParser<IActionCallback>.ParsedRequest parsed) {
+                        String seqNo = SEQNO_PREFIX + mf.requestNoToString();
+                        try {
+                            return provisionOduFlows(
+                                    parsed.getRequest().getBody(String.class), seqNo);
+                        } catch (Exception e) {
+                            logger.error("in [settings/odu/flows] Exception occurred.");
+                            e.printStackTrace();
+                            return new Response(Response.BAD_REQUEST, "");
+                        }
+                    }
+                });
             }
         };
     }
@@ -142,9 +160,7 @@ public class OptDriver extends AbstractDriver {
 
         OduFlowCreationResponse resourceInfofromMF = registerOdu(seqNo, flm, event);
 
-        Map<String, Link> links = networkIf.getLinks();
-
-        formFlowMessage(flm, resourceInfofromMF, links, event.getTransactionId());
+        formFlowMessage(flm, resourceInfofromMF, networkIf, nwId, event.getTransactionId());
 
         Response ret = networkIf.putFlow(flm);
         logger.debug(seqNo + "\t" + "Response:" + ret.statusCode);
@@ -154,6 +170,87 @@ public class OptDriver extends AbstractDriver {
         return ret;
     }
 
+    /**
+     * ODU flows are provisioned in bulk.
+     * Paths of all the flows are requested to MF and their flow entries are sent to
+     * OpenFlow Controller at once (ResourceSendController#registerNewOduFlows),
+     * then the established flows are put into the ODU network.
+     * @param body   {"flows":[{"flowId","srcTTP","dstTTP","direction","constraint"}, ...]}
+     * @param seqNo  Sequence number
+     * @return {"flows":[{"flowId","result":"established","fjFlowId"}
+     *         or {"flowId","result":"failed","error"}, ...]}
+     */
+    protected Response provisionOduFlows(String body, String seqNo)
+            throws JSONException, IOException {
+        logger.info(seqNo + "\t" + "provisionOduFlows Start");
+        String nwId = connectionIdMap.get(ODU_LAYER);
+        NetworkInterface nwIf = networkInterfaces().get(nwId);
+        if (null == nwIf) {
+            logger.error(seqNo + "\t" + "ODU network is not connected.");
+            return new Response(Response.BAD_REQUEST, "");
+        }
+
+        JSONParser parser = new JSONParser();
+        OduFlowRequests requests = parser.oduFlowRequestsToPOJO(body, seqNo);
+        if (null == requests.getFlows()) {
+            return new Response(Response.BAD_REQUEST, "");
+        }
+
+        List<BasicFlow> flows = new ArrayList<>();
+        Map<String, org.o3project.ocnrm.lib.table.Event> events = new HashMap<>();
+        for (OduFlowRequest request : requests.getFlows()) {
+            BasicFlow flow = createOduFlow(request, seqNo);
+            flows.add(flow);
+            events.put(flow.getFlowId(), tableManager.createEvent(nwId, null,
+                    Logic.FLOW_CHANGED, flow.getFlowId(), Logic.CONN_ADD, driverName));
+        }
+
+        Map<String, String> errors = new HashMap<>();
+        ResourceSendController rsc = new ResourceSendController();
+        Map<String, OduFlowCreationResponse> responses =
+                rsc.registerNewOduFlows(flows, events, errors, seqNo);
+
+        JSONArray results = new JSONArray();
+        for (BasicFlow flow : flows) {
+            String transactionId = events.get(flow.getFlowId()).getTransactionId();
+            OduFlowCreationResponse response = responses.get(flow.getFlowId());
+            JSONObject result = new JSONObject();
+            result.put("flowId", flow.getFlowId());
+            if (null == response) {
+                tableManager.delete(transactionId);
+                result.put("result", "failed");
+                result.put("error", errors.get(flow.getFlowId()));
+            } else {
+                formFlowMessage(flow, response, nwIf, nwId, transactionId);
+                nwIf.putFlow(flow);
+                result.put("result", "established");
+                result.put("fjFlowId", response.getFjFlowId());
+            }
+            results.put(result);
+        }
+
+        logger.info(seqNo + "\t" + "provisionOduFlows End");
+        return new Response(Response.OK, new JSONObject().put("flows", results).toString());
+    }
+
+    private BasicFlow createOduFlow(OduFlowRequest request, String seqNo) {
+        BasicFlow flow = new BasicFlow(request.getFlowId(), "ANY", true, FLOW_PRIORITY);
+        flow.addMatch(new BasicFlowMatch(OdenOsCommonLib.getNodeId(request.getSrcTTP(), seqNo),
+                request.getSrcTTP()));
+        flow.addEdgeAction(OdenOsCommonLib.getNodeId(request.getDstTTP(), seqNo),
+                new FlowActionOutput(request.getDstTTP()));
+        if (null != request.getDirection()) {
+            flow.putAttribute("direction", request.getDirection());
+        }
+        if (null != request.getConstraint()) {
+            flow.putAttribute(Logic.AttrElements.REQ_BANDWIDTH,
+                    request.getConstraint().getBandwidth());
+            flow.putAttribute(Logic.AttrElements.REQ_LATENCY,
+                    request.getConstraint().getLatency());
+        }
+        return flow;
+    }
+
     private OduFlowCreationResponse registerOdu(String seqNo, BasicFlow flm,
             org.o3project.ocnrm.lib.table.Event event)
             throws JsonParseException, JsonMappingException, IOException {
@@ -164,23 +261,29 @@ public class OptDriver extends AbstractDriver {
     }
 
     private void formFlowMessage(BasicFlow flm, OduFlowCreationResponse resourceInfofromMF,
-            Map<String, Link> linkSetMessage, String transactionId) {
+            NetworkInterface networkIf, String nwId, String transactionId) {
         logger.debug("formFlowMessage Start");
 
         List<TerminationPoints> points = makeCtpPoints(resourceInfofromMF);
 
+        OdenOsLinkIndex linkIndex = getLinkIndex(networkIf, nwId);
+        boolean reloaded = false;
         for (TerminationPoints point : points) {
             logger.debug("ctpp link-> srcPort: " + point.getInPoint()
                     + ", dstPort: " + point.getOutPoint());
-            for (Entry<String, Link> entry : linkSetMessage.entrySet()) {
-                logger.debug("link from odnos-> srcPort: " + entry.getValue().getSrcPort()
-                        + ", dstPort: " + entry.getValue().getDstPort());
-                if (point.getInPoint().equals(entry.getValue().getSrcPort())
-                        && point.getOutPoint().equals(entry.getValue().getDstPort())) {
-                    logger.debug("add path linkId: " + entry.getValue().getId());
-                    flm.addPath(entry.getValue().getId());
-                    break;
-                }
+            String linkId = linkIndex.get(point.getInPoint(), point.getOutPoint());
+            if (null == linkId && !reloaded) {
+                // the index may not have received the events of links just put
+                linkIndex = reloadLinkIndex(networkIf, nwId);
+                reloaded = true;
+                linkId = linkIndex.get(point.getInPoint(), point.getOutPoint());
+            }
+            if (null != linkId) {
+                logger.debug("add path linkId: " + linkId);
+                flm.addPath(linkId);
+            } else {
+                logger.warn("no link between " + point.getInPoint() + " and "
+                        + point.getOutPoint() + ", flow " + flm.getFlowId());
             }
         }
 
@@ -256,12 +359,8 @@ public class OptDriver extends AbstractDriver {
     }
 
     private boolean checkCtp(String param) {
-        String[] strParse1 = param.split(",");
-        String[] strParse2 = strParse1[3].split("=");
-        if (strParse2[0].equals("CTP")) {
-            return true;
-        }
-        return false;
+        TerminationPointId point = TerminationPointId.valueOf(param);
+        return null != point && point.isCtp();
     }
 
     @Override
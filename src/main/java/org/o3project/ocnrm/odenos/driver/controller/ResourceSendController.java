@@ -16,22 +16,36 @@
 package org.o3project.ocnrm.odenos.driver.controller;
 
 import java.io.IOException;
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.json.JSONException;
+import org.json.JSONObject;
 import org.o3project.ocnrm.lib.JSONParser;
 import org.o3project.ocnrm.lib.MFApiCaller;
 import org.o3project.ocnrm.lib.flow.AbstractFlowCreator;
 import org.o3project.ocnrm.lib.flow.OduFlowCreator;
 import org.o3project.ocnrm.lib.table.Event;
+import org.o3project.ocnrm.lib.table.IdExchangeCache;
 import org.o3project.ocnrm.lib.table.ResourceInfoFlomMf;
 import org.o3project.ocnrm.lib.table.TableManager;
 import org.o3project.ocnrm.model.Constraint;
 import org.o3project.ocnrm.model.FlowResponse;
+import org.o3project.ocnrm.model.IdExchangeBatchRequest;
 import org.o3project.ocnrm.model.IdExchangeRequest;
 import org.o3project.ocnrm.model.ResourceRequest;
 import org.o3project.ocnrm.model.TerminationPoints;
+import org.o3project.ocnrm.model.bind.MappingData;
 import org.o3project.ocnrm.model.bind.OduBindingData;
 import org.o3project.ocnrm.model.bind.RmData;
 import org.o3project.ocnrm.model.odu.OduFlow;
@@ -56,14 +70,94 @@ public class ResourceSendController {
 
     private static OdenOsPropertyLoader loader = OdenOsPropertyLoader.getInstance();
     private static final int ODU_SEND_TIME = Integer.valueOf(loader.getOduSendTime());
+    private static final long OFCTL_CONFIRM_TIMEOUT =
+            Long.valueOf(loader.getOfcTlConfirmTimeout());
+    private static final boolean ID_EXCHANGE_BATCH =
+            Boolean.valueOf(loader.getIdExchangeBatch());
+    private static final ExecutorService ID_EXCHANGE_SERVICE =
+            Executors.newFixedThreadPool(Integer.valueOf(loader.getIdExchangeParallelism()));
+    private static final ExecutorService ODU_FLOW_SERVICE =
+            Executors.newFixedThreadPool(Integer.valueOf(loader.getOduFlowParallelism()));
 
     private TableManager manager = TableManager.getInstance();
+    private IdExchangeCache idExchangeCache = IdExchangeCache.getInstance();
 
     public OduFlowCreationResponse registerNewOduFlow(BasicFlow basicFlow, Event event,
             String seqNo)
             throws JsonParseException, JsonMappingException, IOException, JSONException {
         logger.info(seqNo + "\t" + "registerNewOduFlow() Start");
 
+        PreparedOduFlow prepared = prepareOduFlow(basicFlow, event, seqNo);
+
+        sendOfCtlSender(prepared.entries, OfCtlSender.FLOW_ADD_METHOD, ODU_SEND_TIME, seqNo);
+
+        logger.info(seqNo + "\t" + "registerNewOduFlow() End");
+        return prepared.response;
+    }
+
+    /**
+     * Many ODU flows are registered at once.
+     * The path of each flow is requested to MF and its IDs are exchanged in parallel,
+     * up to ODU_FLOW_PARALLELISM flows at a time. Then the flow entries of all the flows
+     * are sent to OpenFlow Controller in a pipeline, and their reflection is confirmed once.
+     * @param basicFlows  Flows to be registered
+     * @param events      Event of each flow (key: flow ID)
+     * @param errors      Error message of each failed flow is put (key: flow ID)
+     * @param seqNo       Sequence number
+     * @return Response of MF of each registered flow (key: flow ID)
+     */
+    public Map<String, OduFlowCreationResponse> registerNewOduFlows(List<BasicFlow> basicFlows,
+            Map<String, Event> events, Map<String, String> errors, final String seqNo) {
+        logger.info(seqNo + "\t" + "registerNewOduFlows() Start");
+
+        Map<String, Future<PreparedOduFlow>> futures = new LinkedHashMap<>();
+        for (final BasicFlow basicFlow : basicFlows) {
+            final Event event = events.get(basicFlow.getFlowId());
+            futures.put(basicFlow.getFlowId(), ODU_FLOW_SERVICE.submit(
+                    new Callable<PreparedOduFlow>() {
+                        @Override
+                        public PreparedOduFlow call() throws Exception {
+                            return prepareOduFlow(basicFlow, event, seqNo);
+                        }
+                    }));
+        }
+
+        Map<String, OduFlowCreationResponse> responses = new LinkedHashMap<>();
+        List<String> entries = new ArrayList<>();
+        for (Map.Entry<String, Future<PreparedOduFlow>> future : futures.entrySet()) {
+            try {
+                PreparedOduFlow prepared = future.getValue().get();
+                responses.put(future.getKey(), prepared.response);
+                entries.addAll(prepared.entries);
+            } catch (InterruptedException e) {
+                logger.error(seqNo + "\t" + "InterruptedException occurred.");
+                Thread.currentThread().interrupt();
+                errors.put(future.getKey(), "interrupted");
+            } catch (ExecutionException e) {
+                logger.error(seqNo + "\t" + "registering " + future.getKey() + " failed: "
+                        + e.getCause());
+                errors.put(future.getKey(), String.valueOf(e.getCause()));
+            }
+        }
+
+        if (!entries.isEmpty()) {
+            OfCtlSender ofc = new OfCtlSender();
+            long start = System.currentTimeMillis();
+            ofc.ofCtlSendPipelined(entries, OfCtlSender.FLOW_ADD_METHOD, seqNo);
+            waitReflection(ofc, entries, OfCtlSender.FLOW_ADD_METHOD, start, ODU_SEND_TIME,
+                    seqNo);
+        }
+
+        logger.info(seqNo + "\t" + "registerNewOduFlows() End");
+        return responses;
+    }
+
+    /**
+     * The path of the flow is requested to MF (unless it is already registered
+     * for the event), and its flow entries are made.
+     */
+    private PreparedOduFlow prepareOduFlow(BasicFlow basicFlow, Event event, String seqNo)
+            throws JsonParseException, JsonMappingException, IOException, JSONException {
         OduFlowCreationResponse resourceInfoFromMf = new OduFlowCreationResponse();
 
         ResourceInfoFlomMf resource = manager.checkIncompleteResource(event);
@@ -91,7 +185,7 @@ public class ResourceSendController {
                     event.getEventId(),
                     resourceInfoFromMf.getFjFlowId(),
                     oduFlow,
-                    TableManager.date.format(new Date()),
+                    TableManager.now(),
                     event.getDriver());
             TableManager.getInstance().addResource(resource);
 
@@ -100,36 +194,134 @@ public class ResourceSendController {
                 resourceInfoFromMf.getTerminationPointPairs(),
                 seqNo);
 
-        sendOfCtlSender(makeOduFlow(data, resourceInfoFromMf, seqNo), OfCtlSender.FLOW_ADD_METHOD,
-                ODU_SEND_TIME, seqNo);
+        return new PreparedOduFlow(resourceInfoFromMf,
+                makeOduFlow(data, resourceInfoFromMf, seqNo));
+    }
+
+    private static class PreparedOduFlow {
+        private final OduFlowCreationResponse response;
+        private final List<String> entries;
 
-        logger.info(seqNo + "\t" + "registerNewOduFlow() End");
-        return resourceInfoFromMf;
+        PreparedOduFlow(OduFlowCreationResponse response, List<String> entries) {
+            this.response = response;
+            this.entries = entries;
+        }
     }
 
+    /**
+     * IDs of all the termination points are exchanged with MF.
+     * Results cached for the flow are reused, and only the rest are requested.
+     * When ID_EXCHANGE_BATCH is enabled, they are requested in one batch request.
+     * Otherwise (or when the batch request fails) the requests for each termination point
+     * are sent in parallel, up to ID_EXCHANGE_PARALLELISM at a time.
+     */
     private RmData getOduReplacementTable(String flowId, List<TerminationPoints> points,
-            String seqNo)
+            final String seqNo)
             throws JSONException, IOException {
-        MFApiCaller sender = new MFApiCaller();
+        final MFApiCaller sender = new MFApiCaller();
         RmData data = new OduBindingData();
+
+        Set<String> names = new LinkedHashSet<>();
         for (TerminationPoints point : points) {
-            data.bind(point.getInPoint(),
-                    sender.requestOduCorrespondingTable(
-                            new IdExchangeRequest(flowId, point.getInPoint()), seqNo).toString());
-            data.bind(point.getOutPoint(),
-                    sender.requestOduCorrespondingTable(
-                            new IdExchangeRequest(flowId, point.getOutPoint()), seqNo).toString());
+            names.add(point.getInPoint());
+            names.add(point.getOutPoint());
         }
+        for (Iterator<String> it = names.iterator(); it.hasNext();) {
+            String name = it.next();
+            MappingData cached = idExchangeCache.get(flowId, name);
+            if (null != cached) {
+                data.getBindMap().put(name, cached);
+                it.remove();
+            }
+        }
+        if (names.isEmpty()) {
+            logger.debug(seqNo + "\t" + "ID exchange results are cached: " + flowId);
+            return data;
+        }
+
+        if (ID_EXCHANGE_BATCH) {
+            try {
+                data.bindAll(sender.requestOduCorrespondingTables(
+                        new IdExchangeBatchRequest(flowId, new ArrayList<>(names)), seqNo)
+                        .toString());
+                if (data.getBindMap().keySet().containsAll(names)) {
+                    cacheIdExchangeResult(flowId, names, data);
+                    return data;
+                }
+                logger.warn(seqNo + "\t" + "batch ID exchange is incomplete.");
+            } catch (IOException | RuntimeException e) {
+                logger.warn(seqNo + "\t" + "batch ID exchange failed: " + e.getMessage());
+            }
+        }
+
+        Map<String, Future<JSONObject>> results = new LinkedHashMap<>();
+        for (String name : names) {
+            final IdExchangeRequest request = new IdExchangeRequest(flowId, name);
+            results.put(name, ID_EXCHANGE_SERVICE.submit(new Callable<JSONObject>() {
+                @Override
+                public JSONObject call() throws IOException {
+                    return sender.requestOduCorrespondingTable(request, seqNo);
+                }
+            }));
+        }
+
+        for (Map.Entry<String, Future<JSONObject>> result : results.entrySet()) {
+            data.bind(result.getKey(), waitIdExchange(result.getValue(), seqNo).toString());
+        }
+        cacheIdExchangeResult(flowId, names, data);
 
         return data;
     }
 
+    private void cacheIdExchangeResult(String flowId, Set<String> names, RmData data) {
+        for (String name : names) {
+            idExchangeCache.put(flowId, name, data.getBindMap().get(name));
+        }
+    }
+
+    private JSONObject waitIdExchange(Future<JSONObject> future, String seqNo)
+            throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            logger.error(seqNo + "\t" + "InterruptedException occurred.");
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Flow entries are sent to OpenFlow Controller and their reflection is confirmed.
+     * When the reflection cannot be confirmed, the rest of "time" is waited instead.
+     */
     private void sendOfCtlSender(List<String> flows, String method, int time, String seqNo) {
         OfCtlSender ofc = new OfCtlSender();
+        long start = System.currentTimeMillis();
         ofc.ofCtlSend(flows, method, seqNo);
+        waitReflection(ofc, flows, method, start, time, seqNo);
+    }
 
+    private void waitReflection(OfCtlSender ofc, List<String> flows, String method,
+            long start, int time, String seqNo) {
+        if (ofc.confirm(flows, method, OFCTL_CONFIRM_TIMEOUT, seqNo)) {
+            logger.debug(seqNo + "\t" + "flow entries are confirmed.");
+            return;
+        }
+
+        long rest = time - (System.currentTimeMillis() - start);
+        if (rest <= 0) {
+            return;
+        }
         try {
-            Thread.sleep(time);
+            Thread.sleep(rest);
         } catch (InterruptedException e) {
             logger.error(seqNo + "\t" + "get InterruptedException with " + time + "ms sleep.");
             e.printStackTrace();
@@ -15,6 +15,7 @@
 */
 package org.o3project.ocnrm.odenos.lib;
 
+import org.o3project.ocnrm.lib.TerminationPointId;
 import org.o3project.ocnrm.lib.table.TableManager;
 import org.o3project.odenos.core.component.Logic.AttrElements;
 import org.o3project.odenos.core.component.network.flow.Flow;
@@ -32,13 +33,16 @@ public class OdenOsCommonLib {
             return "";
         }
 
-        String[] paramList = param.split(",");
+        String nodeId = TerminationPointId.valueOf(param).getNodeId();
 
         logger.info(seqNo + "\t" + "getNodeId End");
-        return paramList[0] + "," + paramList[1];
+        return nodeId;
     }
 
     public static void statusLog(Flow flow) {
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
         if (null != flow) {
             logger.info("** Flow TransactionID:{}, FlowID:{}, Status:{}",
                     flow.getAttribute(TableManager.TRANSACTION_ID), flow.getFlowId(),
@@ -49,6 +53,9 @@ public class OdenOsCommonLib {
     }
 
     public static void statusLog(Flow flow, String postscript) {
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
         if (null != flow) {
             logger.info("** Flow TransactionID:{}, FlowID:{}, Status:{}, " + postscript,
                     flow.getAttribute(TableManager.TRANSACTION_ID), flow.getFlowId(),
@@ -59,6 +66,9 @@ public class OdenOsCommonLib {
     }
 
     public static void statusLog(Link link) {
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
         if (null != link) {
             logger.info("** Link TransactionID:{}, LinkID:{}, Status:{}",
                     link.getAttribute(TableManager.TRANSACTION_ID), link.getId(),
@@ -69,6 +79,9 @@ public class OdenOsCommonLib {
     }
 
     public static void statusLog(Link link, String postscript) {
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
         if (null != link) {
             logger.info("** Link TransactionID:{}, LinkID:{}, Status:{}, " + postscript,
                     link.getAttribute(TableManager.TRANSACTION_ID), link.getId(),
@@ -0,0 +1,86 @@
+/*
+* Copyright 2015 FUJITSU LIMITED.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.o3project.ocnrm.odenos.lib;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.o3project.ocnrm.lib.EventCoalescer;
+import org.o3project.odenos.core.component.Logic;
+import org.o3project.odenos.core.component.network.flow.Flow;
+import org.o3project.odenos.core.component.network.flow.FlowChanged;
+import org.o3project.odenos.core.component.network.topology.Link;
+import org.o3project.odenos.core.component.network.topology.LinkChanged;
+
+/**
+ * Mergers of FlowChanged and LinkChanged for EventCoalescer.
+ * Only "update" is merged with "update": the merged message has the prev of
+ * the pending message, the curr of the later message and both attribute lists.
+ */
+public class OdenOsEventMerger {
+    public static final EventCoalescer.Merger<FlowChanged> FLOW_CHANGED =
+            new EventCoalescer.Merger<FlowChanged>() {
+                @Override
+                public FlowChanged merge(FlowChanged pending, FlowChanged next) {
+                    if (!isUpdate(pending.action()) || !isUpdate(next.action())) {
+                        return null;
+                    }
+                    return new FlowChanged(Logic.CONN_UPDATE, pending.prev(), next.curr(),
+                            mergeAttributes(pending.attributes(), next.attributes()));
+                }
+            };
+
+    public static final EventCoalescer.Merger<LinkChanged> LINK_CHANGED =
+            new EventCoalescer.Merger<LinkChanged>() {
+                @Override
+                public LinkChanged merge(LinkChanged pending, LinkChanged next) {
+                    if (!isUpdate(pending.action()) || !isUpdate(next.action())) {
+                        return null;
+                    }
+                    return new LinkChanged(Logic.CONN_UPDATE, pending.prev(), next.curr(),
+                            mergeAttributes(pending.attributes(), next.attributes()));
+                }
+            };
+
+    public static String flowKey(String networkId, FlowChanged message) {
+        Flow flow = (null != message.curr()) ? message.curr() : message.prev();
+        return networkId + "::" + FlowChanged.TYPE + "::"
+                + ((null != flow) ? flow.getFlowId() : "");
+    }
+
+    public static String linkKey(String networkId, LinkChanged message) {
+        Link link = (null != message.curr()) ? message.curr() : message.prev();
+        return networkId + "::" + LinkChanged.TYPE + "::"
+                + ((null != link) ? link.getId() : "");
+    }
+
+    private static boolean isUpdate(String action) {
+        return Logic.CONN_UPDATE.equals(action);
+    }
+
+    private static ArrayList<String> mergeAttributes(ArrayList<String> pending,
+            ArrayList<String> next) {
+        Set<String> attributes = new LinkedHashSet<>();
+        if (null != pending) {
+            attributes.addAll(pending);
+        }
+        if (null != next) {
+            attributes.addAll(next);
+        }
+        return new ArrayList<>(attributes);
+    }
+}
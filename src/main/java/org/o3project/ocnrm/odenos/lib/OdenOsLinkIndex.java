@@ -0,0 +1,75 @@
+/*
+* Copyright 2015 FUJITSU LIMITED.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.o3project.ocnrm.odenos.lib;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.o3project.odenos.core.component.network.topology.Link;
+
+/**
+ * Index of the links of a network from (srcPort, dstPort) to linkId.
+ */
+public class OdenOsLinkIndex {
+    private final Map<String, String> index = new ConcurrentHashMap<>();
+
+    public synchronized void load(Map<String, Link> links) {
+        index.clear();
+        if (null != links) {
+            for (Link link : links.values()) {
+                put(link);
+            }
+        }
+    }
+
+    public synchronized void put(Link link) {
+        if (null == link || null == link.getSrcPort() || null == link.getDstPort()) {
+            return;
+        }
+        index.put(key(link.getSrcPort(), link.getDstPort()), link.getId());
+    }
+
+    public synchronized void remove(Link link) {
+        if (null == link || null == link.getSrcPort() || null == link.getDstPort()) {
+            return;
+        }
+        // the port pair may already be used by another link
+        String key = key(link.getSrcPort(), link.getDstPort());
+        if (link.getId().equals(index.get(key))) {
+            index.remove(key);
+        }
+    }
+
+    /**
+     * @param srcPort  Source port ID
+     * @param dstPort  Destination port ID
+     * @return Link ID, or null if there is no link between the ports
+     */
+    public String get(String srcPort, String dstPort) {
+        if (null == srcPort || null == dstPort) {
+            return null;
+        }
+        return index.get(key(srcPort, dstPort));
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    private String key(String srcPort, String dstPort) {
+        return srcPort + "\t" + dstPort;
+    }
+}
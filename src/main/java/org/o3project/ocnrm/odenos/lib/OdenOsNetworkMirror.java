@@ -0,0 +1,355 @@
+/*
+* Copyright 2015 FUJITSU LIMITED.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.o3project.ocnrm.odenos.lib;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.o3project.odenos.core.component.Logic;
+import org.o3project.odenos.core.component.network.flow.Flow;
+import org.o3project.odenos.core.component.network.flow.FlowChanged;
+import org.o3project.odenos.core.component.network.flow.FlowSet;
+import org.o3project.odenos.core.component.network.topology.Link;
+import org.o3project.odenos.core.component.network.topology.LinkChanged;
+import org.o3project.odenos.core.component.network.topology.Node;
+import org.o3project.odenos.core.component.network.topology.NodeChanged;
+import org.o3project.odenos.core.component.network.topology.Port;
+import org.o3project.odenos.core.component.network.topology.PortChanged;
+import org.o3project.odenos.core.component.network.topology.Topology;
+
+/**
+ * Local copy of the nodes, ports, links and flows of a network component.
+ * It is seeded once with load() and kept current with the Node/Port/Link/FlowChanged
+ * events. An object older than the stored one (by version) is ignored, so events
+ * received before the seed are not overwritten by an older snapshot, and vice versa.
+ * The network is read without holding the mirror (see startLoad()), and the events
+ * received meanwhile are buffered and replayed onto the seed.
+ * Stored objects are copies, so callers may not modify them.
+ */
+public class OdenOsNetworkMirror {
+    private final Map<String, Node> nodes = new ConcurrentHashMap<>();
+    private final Map<String, Port> ports = new ConcurrentHashMap<>();
+    private final Map<String, Link> links = new ConcurrentHashMap<>();
+    private final Map<String, Flow> flows = new ConcurrentHashMap<>();
+    private final OdenOsLinkIndex linkIndex = new OdenOsLinkIndex();
+    private volatile boolean loaded = false;
+    // events received while the network is read (null: the network is not being read)
+    private List<Object> pending;
+
+    /**
+     * The caller which gets true reads the network without holding the mirror and then
+     * calls load(). Other callers wait until that load() has finished.
+     *
+     * @return true if the caller is to read the network, false if the mirror is loaded
+     */
+    public synchronized boolean startLoad() {
+        while (null != pending) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        if (loaded) {
+            return false;
+        }
+        pending = new ArrayList<>();
+        return true;
+    }
+
+    /**
+     * The events buffered since startLoad() are replayed onto the seed.
+     *
+     * @param topology  Topology read from the network, or null if it could not be read
+     * @param flowSet   FlowSet read from the network, or null if it could not be read
+     */
+    public synchronized void load(Topology topology, FlowSet flowSet) {
+        try {
+            if (null == topology || null == flowSet) {
+                return;
+            }
+            for (Node node : topology.getNodeMap().values()) {
+                putNode(node);
+            }
+            for (Link link : topology.getLinkMap().values()) {
+                putLink(link);
+            }
+            for (Flow flow : flowSet.getFlows().values()) {
+                putFlow(flow);
+            }
+            loaded = true;
+        } finally {
+            replayPending();
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public synchronized void apply(NodeChanged message) {
+        if (null != pending) {
+            pending.add(message);
+            return;
+        }
+        if (isDelete(message.action())) {
+            removeNode(message.prev());
+        } else {
+            putNode(message.curr());
+        }
+    }
+
+    public synchronized void apply(PortChanged message) {
+        if (null != pending) {
+            pending.add(message);
+            return;
+        }
+        if (isDelete(message.action())) {
+            if (null != message.prev()) {
+                ports.remove(portKey(message.prev().getNode(), message.prev().getId()));
+            }
+        } else {
+            putPort(message.curr());
+        }
+    }
+
+    public synchronized void apply(LinkChanged message) {
+        if (null != pending) {
+            pending.add(message);
+            return;
+        }
+        if (isDelete(message.action())) {
+            if (null != message.prev()) {
+                links.remove(message.prev().getId());
+                linkIndex.remove(message.prev());
+            }
+        } else {
+            putLink(message.curr());
+        }
+    }
+
+    public synchronized void apply(FlowChanged message) {
+        if (null != pending) {
+            pending.add(message);
+            return;
+        }
+        if (isDelete(message.action())) {
+            if (null != message.prev()) {
+                flows.remove(message.prev().getFlowId());
+            }
+        } else {
+            putFlow(message.curr());
+        }
+    }
+
+    /**
+     * The node stored by this process in the network replaces the mirrored one,
+     * so that the next difference is taken from it without waiting for its event.
+     *
+     * @param node  Node returned by the network, with its new version and its ports
+     */
+    public synchronized void update(Node node) {
+        if (null == node || null == node.getId()) {
+            return;
+        }
+        Node stored = nodes.get(node.getId());
+        if (null != stored && isOlder(node.getVersion(), stored.getVersion())) {
+            return;
+        }
+        removeNode(stored);
+        putNode(node);
+    }
+
+    /**
+     * @param link  Link returned by the network, with its new version
+     */
+    public synchronized void update(Link link) {
+        if (null != link && null != link.getId()) {
+            putLink(link);
+        }
+    }
+
+    /**
+     * @param nodeId  Node deleted from the network by this process
+     */
+    public synchronized void removeNode(String nodeId) {
+        removeNode(nodes.get(nodeId));
+    }
+
+    /**
+     * @param linkId  Link deleted from the network by this process
+     */
+    public synchronized void removeLink(String linkId) {
+        Link stored = links.remove(linkId);
+        if (null != stored) {
+            linkIndex.remove(stored);
+        }
+    }
+
+    public Node getNode(String nodeId) {
+        return nodes.get(nodeId);
+    }
+
+    public Port getPort(String nodeId, String portId) {
+        return ports.get(portKey(nodeId, portId));
+    }
+
+    public Link getLink(String linkId) {
+        return links.get(linkId);
+    }
+
+    public Flow getFlow(String flowId) {
+        return flows.get(flowId);
+    }
+
+    /**
+     * @return Copy of the nodes, each of which has its current ports
+     */
+    public synchronized Map<String, Node> getNodeMap() {
+        Map<String, Node> result = new HashMap<>();
+        for (Node node : nodes.values()) {
+            result.put(node.getId(), new Node(node.getVersion(), node.getId(),
+                    new HashMap<String, Port>(), node.getAttributes()));
+        }
+        for (Port port : ports.values()) {
+            Node node = result.get(port.getNode());
+            if (null != node) {
+                node.getPortMap().put(port.getId(), port.clone());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return Unmodifiable view of the links
+     */
+    public Map<String, Link> getLinkMap() {
+        return Collections.unmodifiableMap(links);
+    }
+
+    public OdenOsLinkIndex getLinkIndex() {
+        return linkIndex;
+    }
+
+    private void replayPending() {
+        List<Object> messages = pending;
+        pending = null;
+        notifyAll();
+        if (null == messages) {
+            return;
+        }
+        for (Object message : messages) {
+            if (message instanceof NodeChanged) {
+                apply((NodeChanged) message);
+            } else if (message instanceof PortChanged) {
+                apply((PortChanged) message);
+            } else if (message instanceof LinkChanged) {
+                apply((LinkChanged) message);
+            } else if (message instanceof FlowChanged) {
+                apply((FlowChanged) message);
+            }
+        }
+    }
+
+    private void putNode(Node node) {
+        if (null == node) {
+            return;
+        }
+        Node stored = nodes.get(node.getId());
+        if (null != stored && isOlder(node.getVersion(), stored.getVersion())) {
+            return;
+        }
+        nodes.put(node.getId(), node.clone());
+        if (null != node.getPortMap()) {
+            for (Port port : node.getPortMap().values()) {
+                putPort(port);
+            }
+        }
+    }
+
+    private void removeNode(Node node) {
+        if (null == node) {
+            return;
+        }
+        nodes.remove(node.getId());
+        Iterator<Port> it = ports.values().iterator();
+        while (it.hasNext()) {
+            if (node.getId().equals(it.next().getNode())) {
+                it.remove();
+            }
+        }
+    }
+
+    private void putPort(Port port) {
+        if (null == port) {
+            return;
+        }
+        String key = portKey(port.getNode(), port.getId());
+        Port stored = ports.get(key);
+        if (null != stored && isOlder(port.getVersion(), stored.getVersion())) {
+            return;
+        }
+        ports.put(key, port.clone());
+    }
+
+    private void putLink(Link link) {
+        if (null == link) {
+            return;
+        }
+        Link stored = links.get(link.getId());
+        if (null != stored) {
+            if (isOlder(link.getVersion(), stored.getVersion())) {
+                return;
+            }
+            linkIndex.remove(stored);
+        }
+        links.put(link.getId(), link.clone());
+        linkIndex.put(link);
+    }
+
+    private void putFlow(Flow flow) {
+        if (null == flow) {
+            return;
+        }
+        Flow stored = flows.get(flow.getFlowId());
+        if (null != stored && isOlder(flow.getVersion(), stored.getVersion())) {
+            return;
+        }
+        flows.put(flow.getFlowId(), flow.clone());
+    }
+
+    private static boolean isDelete(String action) {
+        return Logic.CONN_DELETE.equals(action);
+    }
+
+    private static boolean isOlder(String version, String stored) {
+        try {
+            return Long.parseLong(version) < Long.parseLong(stored);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static String portKey(String nodeId, String portId) {
+        return nodeId + "::" + portId;
+    }
+}
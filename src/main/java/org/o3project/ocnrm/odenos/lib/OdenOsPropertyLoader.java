@@ -55,12 +55,33 @@ public class OdenOsPropertyLoader {
         CONNECTION_PATH,
         REQUEST_ODU_FLOW_URL,
         OFCTL_SEND_URL,
+        OFCTL_STATS_URL,
+        OFCTL_CONFIRM_TIMEOUT,
+        OFCTL_CONFIRM_INTERVAL,
+        HTTP_CONNECT_TIMEOUT,
+        HTTP_READ_TIMEOUT,
+        HTTP_POOL_SIZE,
         GUI_PATH,
         ODENOS_SENDER_SLEEP,
+        ODENOS_SENDER_THREAD_NUM,
+        ODENOS_SENDER_WINDOW,
+        DRIVER_EVENT_THREAD_NUM,
+        JOB_TABLE_SIZE,
+        JOB_PATH,
         DELETE_ODU_FLOW_URL,
         REQUEST_ODU_REPLACEMENT_PIECE_URL,
         REQUEST_OCH_REPLACEMENT_PIECE_URL,
-        ODU_SEND_TIME;
+        REQUEST_ODU_REPLACEMENT_BATCH_URL,
+        ID_EXCHANGE_PARALLELISM,
+        ID_EXCHANGE_BATCH,
+        ID_EXCHANGE_CACHE_SIZE,
+        TABLE_JOURNAL_DIR,
+        TABLE_JOURNAL_COMPACT_COUNT,
+        ODU_SEND_TIME,
+        ODU_FLOW_PARALLELISM,
+        LINK_LAYERIZER_SYNC_THREAD_NUM,
+        LINK_LAYERIZER_FAILURE_WINDOW,
+        TRACE_SAMPLING_INTERVAL;
     }
 
     private OdenOsPropertyLoader() {
@@ -182,6 +203,30 @@ public class OdenOsPropertyLoader {
         return prop.get(propertyKey.OFCTL_SEND_URL.toString());
     }
 
+    public String getOfcTlStatsURL() {
+        return prop.get(propertyKey.OFCTL_STATS_URL.toString());
+    }
+
+    public String getOfcTlConfirmTimeout() {
+        return prop.get(propertyKey.OFCTL_CONFIRM_TIMEOUT.toString());
+    }
+
+    public String getOfcTlConfirmInterval() {
+        return prop.get(propertyKey.OFCTL_CONFIRM_INTERVAL.toString());
+    }
+
+    public String getHttpConnectTimeout() {
+        return prop.get(propertyKey.HTTP_CONNECT_TIMEOUT.toString());
+    }
+
+    public String getHttpReadTimeout() {
+        return prop.get(propertyKey.HTTP_READ_TIMEOUT.toString());
+    }
+
+    public String getHttpPoolSize() {
+        return prop.get(propertyKey.HTTP_POOL_SIZE.toString());
+    }
+
     public String getGUIPath() {
         return prop.get(propertyKey.GUI_PATH.toString());
     }
@@ -190,6 +235,26 @@ public class OdenOsPropertyLoader {
         return prop.get(propertyKey.ODENOS_SENDER_SLEEP.toString());
     }
 
+    public String getOdenOSSenderThreadNum() {
+        return prop.get(propertyKey.ODENOS_SENDER_THREAD_NUM.toString());
+    }
+
+    public String getOdenOSSenderWindow() {
+        return prop.get(propertyKey.ODENOS_SENDER_WINDOW.toString());
+    }
+
+    public String getDriverEventThreadNum() {
+        return prop.get(propertyKey.DRIVER_EVENT_THREAD_NUM.toString());
+    }
+
+    public String getJobTableSize() {
+        return prop.get(propertyKey.JOB_TABLE_SIZE.toString());
+    }
+
+    public String getJobPath() {
+        return prop.get(propertyKey.JOB_PATH.toString());
+    }
+
     public String getRequestOduReplacementPieceUrl() {
         return prop.get(propertyKey.REQUEST_ODU_REPLACEMENT_PIECE_URL.toString());
     }
@@ -202,7 +267,47 @@ public class OdenOsPropertyLoader {
         return prop.get(propertyKey.REQUEST_OCH_REPLACEMENT_PIECE_URL.toString());
     }
 
+    public String getRequestOduReplacementBatchUrl() {
+        return prop.get(propertyKey.REQUEST_ODU_REPLACEMENT_BATCH_URL.toString());
+    }
+
+    public String getIdExchangeParallelism() {
+        return prop.get(propertyKey.ID_EXCHANGE_PARALLELISM.toString());
+    }
+
+    public String getIdExchangeBatch() {
+        return prop.get(propertyKey.ID_EXCHANGE_BATCH.toString());
+    }
+
+    public String getIdExchangeCacheSize() {
+        return prop.get(propertyKey.ID_EXCHANGE_CACHE_SIZE.toString());
+    }
+
+    public String getTableJournalDir() {
+        return prop.get(propertyKey.TABLE_JOURNAL_DIR.toString());
+    }
+
+    public String getTableJournalCompactCount() {
+        return prop.get(propertyKey.TABLE_JOURNAL_COMPACT_COUNT.toString());
+    }
+
     public String getOduSendTime() {
         return prop.get(propertyKey.ODU_SEND_TIME.toString());
     }
+
+    public String getOduFlowParallelism() {
+        return prop.get(propertyKey.ODU_FLOW_PARALLELISM.toString());
+    }
+
+    public String getLinkLayerizerSyncThreadNum() {
+        return prop.get(propertyKey.LINK_LAYERIZER_SYNC_THREAD_NUM.toString());
+    }
+
+    public String getLinkLayerizerFailureWindow() {
+        return prop.get(propertyKey.LINK_LAYERIZER_FAILURE_WINDOW.toString());
+    }
+
+    public String getTraceSamplingInterval() {
+        return prop.get(propertyKey.TRACE_SAMPLING_INTERVAL.toString());
+    }
 }
@@ -17,9 +17,13 @@ package org.o3project.ocnrm.odenos.lib;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import javax.naming.NameNotFoundException;
 
+import org.o3project.ocnrm.lib.KeyedExecutor;
 import org.o3project.ocnrm.lib.OcnMFSenderSequenceLib;
 import org.o3project.ocnrm.lib.OcnMFSequenceLib;
 import org.o3project.odenos.remoteobject.message.Request;
@@ -33,6 +37,8 @@ public class OdenOsSender {
     private Logger logger = LoggerFactory.getLogger(OdenOsSender.class);
     private static OdenOsPropertyLoader loader = OdenOsPropertyLoader.getInstance();
     private static final String SLEEP = loader.getOdenOSSenderSleep();
+    private static final int THREAD_NUM = Integer.valueOf(loader.getOdenOSSenderThreadNum());
+    private static final int WINDOW = Integer.valueOf(loader.getOdenOSSenderWindow());
 
     private Map<String, String> connections = new HashMap<>();
 
@@ -42,10 +48,11 @@ public class OdenOsSender {
 
     private static final String SEQNO_PREFIX = "#";
     private OcnMFSequenceLib mf = OcnMFSequenceLib.getInstance();
-    private String seqNo = "";
 
     private OcnMFSenderSequenceLib sendSeqNum = OcnMFSenderSequenceLib.createInstance();
 
+    private KeyedExecutor executor = new KeyedExecutor(THREAD_NUM, WINDOW);
+
     private OdenOsSender() {
     }
 
@@ -56,6 +63,7 @@ public class OdenOsSender {
     /**
      * OdenOS transmission method.
      * Registration and data acquisition processing a request to OdenOS are done.
+     * The caller is blocked until the response is received.
      *
      * <br>Example (When you acquire Flow information on networkcomponent1). <br>
      * sendRequest(networkcomponent1, Method.GET, "flows", null)
@@ -66,10 +74,53 @@ public class OdenOsSender {
      * @param body    Transmitted data
      * @return Response
      */
-    public synchronized Response sendRequest(String objId, Method method, String path,
-            Object body) {
+    public Response sendRequest(String objId, Method method, String path, Object body) {
+        Future<Response> future = sendRequestAsync(objId, method, path, body);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            logger.error("InterruptedException occurred while waiting for " + objId + ".");
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.error("[Error] Sending error: " + e.getCause());
+        }
+        return null;
+    }
+
+    /**
+     * Asynchronous OdenOS transmission method.
+     * At most ODENOS_SENDER_WINDOW requests to the same object are in flight, and they
+     * are started in the order of this call. With the default window of 1, a request
+     * is sent only after the previous one to the same object has completed, so the
+     * requests are also completed in order. A larger window lets them overlap.
+     * Requests to different objects are sent in parallel.
+     *
+     * @param objId   ID of object
+     * @param method  HTTP method used
+     * @param path    Path of object
+     * @param body    Transmitted data
+     * @return Future of Response. The result is null when sending failed.
+     */
+    public Future<Response> sendRequestAsync(final String objId, final Method method,
+            final String path, final Object body) {
+        return executor.submit(objId, new Callable<Response>() {
+            @Override
+            public Response call() {
+                return send(objId, method, path, body);
+            }
+        });
+    }
+
+    /**
+     * @return Number of requests waiting or in flight
+     */
+    public int getQueueDepth() {
+        return executor.getQueueDepth();
+    }
+
+    private Response send(String objId, Method method, String path, Object body) {
         Response rsp = null;
-        seqNo = SEQNO_PREFIX + mf.getNoToString();
+        String seqNo = SEQNO_PREFIX + mf.getNoToString();
 
         logger.info("$$$$$ SendNo.:" + sendSeqNum.requestNoToString());
 
@@ -0,0 +1,122 @@
+/*
+* Copyright 2015 FUJITSU LIMITED.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.o3project.ocnrm.odenos.lib;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.o3project.odenos.core.component.network.topology.Link;
+import org.o3project.odenos.core.component.network.topology.Node;
+import org.o3project.odenos.core.component.network.topology.Port;
+import org.o3project.odenos.core.component.network.topology.Topology;
+
+/**
+ * Difference between the topology announced by MF and the current topology of a network.
+ * A node is changed if its set of ports differs, and a link is changed if its end points
+ * differ. Nodes and links to be put get the version of the current ones.
+ */
+public class OdenOsTopologyDiff {
+    private final List<Node> putNodes = new ArrayList<>();
+    private final List<Link> putLinks = new ArrayList<>();
+    private final List<String> deletedNodes = new ArrayList<>();
+    private final List<String> deletedLinks = new ArrayList<>();
+
+    /**
+     * @param topology      Topology announced by MF
+     * @param currentNodes  Current nodes (with their ports) of the network
+     * @param currentLinks  Current links of the network
+     */
+    public OdenOsTopologyDiff(Topology topology, Map<String, Node> currentNodes,
+            Map<String, Link> currentLinks) {
+        for (Node node : topology.getNodeMap().values()) {
+            Node current = currentNodes.get(node.getId());
+            if (null == current || !portIds(current).equals(portIds(node))) {
+                node.setVersion(versionOf(null == current ? null : current.getVersion()));
+                putNodes.add(node);
+            }
+        }
+        for (Link link : topology.getLinkMap().values()) {
+            Link current = currentLinks.get(link.getId());
+            if (null == current || !sameEnds(current, link)) {
+                link.setVersion(versionOf(null == current ? null : current.getVersion()));
+                putLinks.add(link);
+            }
+        }
+        for (String linkId : currentLinks.keySet()) {
+            if (!topology.getLinkMap().containsKey(linkId)) {
+                deletedLinks.add(linkId);
+            }
+        }
+        for (String nodeId : currentNodes.keySet()) {
+            if (!topology.getNodeMap().containsKey(nodeId)) {
+                deletedNodes.add(nodeId);
+            }
+        }
+    }
+
+    /**
+     * @return Nodes added or changed
+     */
+    public List<Node> getPutNodes() {
+        return putNodes;
+    }
+
+    /**
+     * @return Links added or changed
+     */
+    public List<Link> getPutLinks() {
+        return putLinks;
+    }
+
+    /**
+     * @return IDs of the nodes removed
+     */
+    public List<String> getDeletedNodes() {
+        return deletedNodes;
+    }
+
+    /**
+     * @return IDs of the links removed
+     */
+    public List<String> getDeletedLinks() {
+        return deletedLinks;
+    }
+
+    public boolean isEmpty() {
+        return putNodes.isEmpty() && putLinks.isEmpty()
+                && deletedNodes.isEmpty() && deletedLinks.isEmpty();
+    }
+
+    private static Set<String> portIds(Node node) {
+        Map<String, Port> ports = node.getPortMap();
+        return (null == ports) ? Collections.<String>emptySet() : ports.keySet();
+    }
+
+    private static boolean sameEnds(Link current, Link link) {
+        return Objects.equals(current.getSrcNode(), link.getSrcNode())
+                && Objects.equals(current.getSrcPort(), link.getSrcPort())
+                && Objects.equals(current.getDstNode(), link.getDstNode())
+                && Objects.equals(current.getDstPort(), link.getDstPort());
+    }
+
+    private static String versionOf(String current) {
+        return (null == current) ? OdenOsTopologyLib.INITIAL_VERSION : current;
+    }
+}
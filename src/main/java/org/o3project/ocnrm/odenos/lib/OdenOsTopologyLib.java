@@ -17,6 +17,8 @@ package org.o3project.ocnrm.odenos.lib;
 
 import java.util.List;
 
+import org.o3project.ocnrm.lib.TerminationPointId;
+
 import org.o3project.odenos.core.component.network.topology.Link;
 import org.o3project.odenos.core.component.network.topology.Node;
 import org.o3project.odenos.core.component.network.topology.Port;
@@ -48,12 +50,17 @@ public class OdenOsTopologyLib {
 
         if (null != portList) {
             for (org.o3project.ocnrm.model.Port port : portList) {
-                String nodeId = OdenOsCommonLib.getNodeId(port.getPortId(), seqNo);
+                TerminationPointId portId = TerminationPointId.valueOf(port.getPortId());
+                if (null == portId) {
+                    logger.error("port id is empty.");
+                    continue;
+                }
+                String nodeId = portId.getNodeId();
 
-                logger.debug(seqNo + "\t" + "port id:" + port.getPortId());
+                logger.debug(seqNo + "\t" + "port id:" + portId);
                 logger.debug(seqNo + "\t" + "node id:" + nodeId);
 
-                Port odenosPort = new Port(port.getPortId());
+                Port odenosPort = new Port(portId.toString());
                 Node node = topo.getNode(nodeId);
                 if (node != null) {
                     node.createPort(odenosPort);
@@ -65,14 +72,17 @@ public class OdenOsTopologyLib {
 
         if (null != linkList) {
             for (org.o3project.ocnrm.model.Link link : linkList) {
-                String srcNodeId = OdenOsCommonLib.getNodeId(link.getSrcTTP(), seqNo);
-                String dstNodeId = OdenOsCommonLib.getNodeId(link.getDstTTP(), seqNo);
+                TerminationPointId src = TerminationPointId.valueOf(link.getSrcTTP());
+                TerminationPointId dst = TerminationPointId.valueOf(link.getDstTTP());
+                String srcNodeId = (null == src) ? "" : src.getNodeId();
+                String dstNodeId = (null == dst) ? "" : dst.getNodeId();
 
-                Link odenosLink = new Link(link.getLinkId(), srcNodeId, link.getSrcTTP(),
-                        dstNodeId, link.getDstTTP());
-                if (topo.getNode(srcNodeId) != null && topo.getNode(dstNodeId) != null
-                        && topo.getPort(srcNodeId, link.getSrcTTP()) != null
-                        && topo.getPort(dstNodeId, link.getDstTTP()) != null) {
+                if (null != src && null != dst
+                        && topo.getNode(srcNodeId) != null && topo.getNode(dstNodeId) != null
+                        && topo.getPort(srcNodeId, src.toString()) != null
+                        && topo.getPort(dstNodeId, dst.toString()) != null) {
+                    Link odenosLink = new Link(link.getLinkId(), srcNodeId, src.toString(),
+                            dstNodeId, dst.toString());
                     topo.createLink(odenosLink);
                 } else {
                     logger.error("link: " + link.getLinkId() + " is not created.");
@@ -16,89 +16,138 @@
 package org.o3project.ocnrm.odenos.linklayerizer;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Layerized links and the lower flows they are made from, indexed in both directions.
+ * Reads are lock-free and see a consistent entry of each link or flow;
+ * updates are serialized and keep both indexes in step.
+ * The lower flows of a link are kept in an exact-size array which is replaced on update,
+ * and both indexes share the same ID instances.
+ */
 public class LinkLayerizedFlowLinkMap {
-    private Logger logger = LoggerFactory.getLogger(LinkLayerizedFlowLinkMap.class);
-
-    private Map<String, Map<String, ArrayList<String>>> lowerflowsMap = null;
-    private Map<String, Map<String, String>> layerizedlinksMap = null;
-
-    private static LinkLayerizedFlowLinkMap instance = null;
+    private static final String[] NO_FLOWS = new String[0];
+
+    // layerized link ID -> lower flow IDs
+    private final ConcurrentMap<String, String[]> lowerFlows = new ConcurrentHashMap<>();
+    // lower flow ID -> layerized link ID
+    private final ConcurrentMap<String, String> layerizedLinks = new ConcurrentHashMap<>();
+
+    /**
+     * @param linkId  Layerized link ID
+     * @param flowId  Lower flow ID
+     */
+    public synchronized void put(String linkId, String flowId) {
+        String oldLinkId = layerizedLinks.get(flowId);
+        if (linkId.equals(oldLinkId)) {
+            return;
+        }
+        if (null != oldLinkId) {
+            removeFlowOfLink(oldLinkId, flowId);
+        }
 
-    private LinkLayerizedFlowLinkMap() {
+        String[] flows = lowerFlows.get(linkId);
+        if (null == flows) {
+            flows = NO_FLOWS;
+        } else {
+            // share the ID instance already stored
+            linkId = layerizedLinks.get(flows[0]);
+        }
+        String[] newFlows = Arrays.copyOf(flows, flows.length + 1);
+        newFlows[flows.length] = flowId;
+        lowerFlows.put(linkId, newFlows);
+        layerizedLinks.put(flowId, linkId);
+    }
 
+    /**
+     * @param flowId  Lower flow ID
+     * @return Layerized link ID, or null if the flow is not layerized
+     */
+    public String getLayerizedLink(String flowId) {
+        return (null == flowId) ? null : layerizedLinks.get(flowId);
     }
 
-    public static LinkLayerizedFlowLinkMap createInstance() {
-        if (null == instance) {
-            instance = new LinkLayerizedFlowLinkMap();
-        }
-        return instance;
+    /**
+     * @param linkId  Layerized link ID
+     * @return Lower flow IDs, or null if the link is unknown
+     */
+    public List<String> getLowerFlows(String linkId) {
+        String[] flows = (null == linkId) ? null : lowerFlows.get(linkId);
+        return (null == flows) ? null : Collections.unmodifiableList(Arrays.asList(flows));
     }
 
-    public synchronized void putLowerFlowsMap(String layerizedObjName, String layerLinkId,
-            String lowFlowId) {
-        logger.info("** putLowerFlowsMap Start");
+    public boolean containsFlow(String flowId) {
+        return null != flowId && layerizedLinks.containsKey(flowId);
+    }
 
-        if (null == lowerflowsMap) {
-            lowerflowsMap = new HashMap<String, Map<String, ArrayList<String>>>();
-        }
+    public boolean containsLink(String linkId) {
+        return null != linkId && lowerFlows.containsKey(linkId);
+    }
 
-        Map<String, ArrayList<String>> lowerflows = lowerflowsMap.get(layerizedObjName);
-        if (null == lowerflows) {
-            lowerflows = new HashMap<String, ArrayList<String>>();
+    /**
+     * @param flowId  Lower flow ID
+     * @return Layerized link ID the flow was removed from, or null if it is not layerized
+     */
+    public synchronized String removeFlow(String flowId) {
+        String linkId = getLayerizedLink(flowId);
+        if (null != linkId) {
+            layerizedLinks.remove(flowId);
+            removeFlowOfLink(linkId, flowId);
         }
-        ArrayList<String> list = lowerflows.get(layerLinkId);
-        if (null == list) {
-            list = new ArrayList<String>();
-        }
-
-        list.add(lowFlowId);
-        lowerflows.put(layerLinkId, list);
-        lowerflowsMap.put(layerizedObjName, lowerflows);
-
-        logger.info("** putLowerFlowsMap Start");
+        return linkId;
     }
 
-    public synchronized void putLayerizedlinksMap(String layerizedObjName, String layerLinkId,
-            String lowFlowId) {
-        logger.info("** putLayerizedlinksMap Start");
-        if (null == layerizedlinksMap) {
-            layerizedlinksMap = new HashMap<String, Map<String, String>>();
+    /**
+     * @param linkId  Layerized link ID
+     * @return Lower flow IDs of the removed link, empty if the link is unknown
+     */
+    public synchronized List<String> removeLink(String linkId) {
+        String[] flows = (null == linkId) ? null : lowerFlows.remove(linkId);
+        if (null == flows) {
+            return Collections.emptyList();
         }
-
-        Map<String, String> layerizedlinks = layerizedlinksMap.get(layerizedObjName);
-
-        if (null == layerizedlinks) {
-            layerizedlinks = new HashMap<String, String>();
+        for (String flowId : flows) {
+            layerizedLinks.remove(flowId);
         }
-        layerizedlinks.put(lowFlowId, layerLinkId);
-        layerizedlinksMap.put(layerizedObjName, layerizedlinks);
-
-        logger.info("** putLayerizedlinksMap End");
+        return Arrays.asList(flows);
     }
 
-    public synchronized Map<String, ArrayList<String>> getLowerFlows(String layerizedObjName) {
-
-        if (null == lowerflowsMap) {
-            lowerflowsMap = new HashMap<String, Map<String, ArrayList<String>>>();
+    /**
+     * @return Snapshot of layerized link ID -> lower flow IDs
+     */
+    public Map<String, List<String>> getLowerFlowsMap() {
+        Map<String, List<String>> map = new HashMap<>();
+        for (Entry<String, String[]> entry : lowerFlows.entrySet()) {
+            map.put(entry.getKey(), new ArrayList<>(Arrays.asList(entry.getValue())));
         }
-
-        return lowerflowsMap.get(layerizedObjName);
+        return map;
     }
 
-    public synchronized Map<String, String> getLayerizedlinksMap(String layerizedObjName) {
+    /**
+     * @return Read-only view of lower flow ID -> layerized link ID
+     */
+    public Map<String, String> getLayerizedLinksMap() {
+        return Collections.unmodifiableMap(layerizedLinks);
+    }
 
-        if (null == layerizedlinksMap) {
-            layerizedlinksMap = new HashMap<String, Map<String, String>>();
+    private void removeFlowOfLink(String linkId, String flowId) {
+        String[] flows = lowerFlows.get(linkId);
+        if (null == flows) {
+            return;
+        }
+        List<String> rest = new ArrayList<>(Arrays.asList(flows));
+        rest.remove(flowId);
+        if (rest.isEmpty()) {
+            lowerFlows.remove(linkId);
+        } else {
+            lowerFlows.put(linkId, rest.toArray(new String[rest.size()]));
         }
-
-        return layerizedlinksMap.get(layerizedObjName);
     }
-
 }
@@ -19,17 +19,33 @@ import static org.o3project.ocnrm.odenos.lib.OdenOsCommonLib.statusLog;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.lang.StringUtils;
 import org.json.JSONObject;
+import org.o3project.ocnrm.lib.EventCoalescer;
+import org.o3project.ocnrm.lib.JsonCodec;
+import org.o3project.ocnrm.lib.TraceLog;
 import org.o3project.ocnrm.lib.table.TableManager;
+import org.o3project.ocnrm.odenos.lib.OdenOsEventMerger;
+import org.o3project.ocnrm.odenos.lib.OdenOsPropertyLoader;
 import org.o3project.ocnrm.odenos.lib.OdenOsSender;
 import org.o3project.odenos.core.component.Logic;
 import org.o3project.odenos.core.component.NetworkInterface;
@@ -64,14 +80,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 public class LinkLayerizer extends Logic {
     private Logger logger = LoggerFactory.getLogger(LinkLayerizer.class);
 
     private LinkLayerizerBoundarySet boundaryset;
-    private Map<String, ArrayList<String>> lowerflows;
-    private Map<String, String> layerizedlinks;
+    private LinkLayerizedFlowLinkMap flowLinkMap;
+    private LinkLayerizerDependencyIndex dependencies = LinkLayerizerDependencyIndex.getInstance();
+    // objects indexed by this LinkLayerizer, dropped from the shared index on teardown
+    private final Set<LinkLayerizerDependency> indexedObjects =
+            Collections.newSetFromMap(new ConcurrentHashMap<LinkLayerizerDependency, Boolean>());
+    private final String linkIdPrefix = UUID.randomUUID().toString() + "-";
+    private final AtomicLong linkIdCounter = new AtomicLong();
 
     private static final String UPPER = "upper";
     private static final String LOWER = "lower";
@@ -85,6 +105,33 @@ public class LinkLayerizer extends Logic {
     private static final String FLOW_PRIORITY = "256";
     RequestParser<IActionCallback> parser;
 
+    // events and requests are handled one by one on this thread
+    private ExecutorService eventService = Executors.newSingleThreadExecutor();
+    // lower flows are processed in parallel on this pool during a synchronization
+    private ExecutorService syncService = Executors.newFixedThreadPool(Integer.valueOf(
+            OdenOsPropertyLoader.getInstance().getLinkLayerizerSyncThreadNum()));
+    // failures of lower flows are applied to the layerized links as a batch on this thread
+    private ScheduledExecutorService failureService = Executors.newSingleThreadScheduledExecutor();
+    private long failureWindow = Long.valueOf(
+            OdenOsPropertyLoader.getInstance().getLinkLayerizerFailureWindow());
+    // lower flow ID -> failed lower flow, waiting for the batch
+    private final Map<String, Flow> pendingFailures = new LinkedHashMap<>();
+    private ScheduledFuture<?> failureTask;
+    private static final String SYNC_STATUS_PATH = "sync_status";
+    private static final String DEPENDENCIES_PATH = "dependencies/";
+    private static final String LOWER_FLOWS_PATH = "lower_flows";
+    private static final String LAYERIZED_LINKS_PATH = "layerized_links";
+    // versions of the upper nodes and the lower flows already synchronized
+    private Map<String, String> syncedNodeVersions = new ConcurrentHashMap<>();
+    private Map<String, String> syncedFlowVersions = new ConcurrentHashMap<>();
+    private volatile LinkLayerizerSyncStatus syncStatus;
+    // eventService runs all the events in order, so a merge must not reorder them
+    private EventCoalescer.Tail eventTail = new EventCoalescer.Tail();
+    private EventCoalescer<FlowChanged> flowChangedEvents =
+            new EventCoalescer<>(OdenOsEventMerger.FLOW_CHANGED, eventTail);
+    private EventCoalescer<LinkChanged> linkChangedEvents =
+            new EventCoalescer<>(OdenOsEventMerger.LINK_CHANGED, eventTail);
+
     public LinkLayerizer(final String objectId, final MessageDispatcher dispatcher)
             throws Exception {
         super(objectId, dispatcher);
@@ -93,13 +140,21 @@ public class LinkLayerizer extends Logic {
 
         parser = createParser();
 
-        lowerflows = new HashMap<String, ArrayList<String>>();
-        layerizedlinks = new HashMap<String, String>();
+        flowLinkMap = new LinkLayerizedFlowLinkMap();
         boundaryset = new LinkLayerizerBoundarySet();
 
         logger.info("** LinkLayerizer End");
     }
 
+    @Override
+    protected void finalize() throws Throwable {
+        super.finalize();
+        clearDependencies();
+        eventService.shutdown();
+        syncService.shutdown();
+        failureService.shutdown();
+    }
+
     @Override
     protected String getSuperType() {
         return LinkLayerizer.class.getSimpleName();
@@ -121,6 +176,32 @@ public class LinkLayerizer extends Logic {
     protected void onEvent(final Event event) {
         logger.debug("onEvnet : objcetId = '" + this.getObjectId() + "'.");
 
+        try {
+            if (FlowChanged.TYPE.equals(event.eventType)) {
+                submitFlowChanged(event.publisherId,
+                        event.getBody(FlowChanged.class));
+                return;
+            }
+            if (LinkChanged.TYPE.equals(event.eventType)) {
+                submitLinkChanged(event.publisherId,
+                        event.getBody(LinkChanged.class));
+                return;
+            }
+        } catch (ParseBodyException e) {
+            logger.error("Recieved Message which can't be parsed.");
+            return;
+        }
+
+        eventTail.mark();
+        eventService.execute(new Runnable() {
+            @Override
+            public void run() {
+                handleEvent(event);
+            }
+        });
+    }
+
+    private void handleEvent(final Event event) {
         try {
             if (event.eventType.equals(ComponentConnectionChanged.TYPE)) {
                 logger.debug("onEvnet ConnectionChanged : objcetId = '"
@@ -144,14 +225,6 @@ public class LinkLayerizer extends Logic {
                 onPortChanged(event.publisherId,
                         event.getBody(PortChanged.class));
                 break;
-            case LinkChanged.TYPE:
-                onLinkChanged(event.publisherId,
-                        event.getBody(LinkChanged.class));
-                break;
-            case FlowChanged.TYPE:
-                onFlowChanged(event.publisherId,
-                        event.getBody(FlowChanged.class));
-                break;
             case InPacketAdded.TYPE:
                 onInPacketAdded(event.publisherId,
                         event.getBody(InPacketAdded.class));
@@ -171,6 +244,57 @@ public class LinkLayerizer extends Logic {
         }
     }
 
+    /**
+     * Queues FlowChanged to the event thread.
+     * An update still waiting to be handled is merged with the next update,
+     * as long as no other event has been queued after it.
+     */
+    private void submitFlowChanged(final String networkId, final FlowChanged message) {
+        final String key = OdenOsEventMerger.flowKey(networkId, message);
+        if (!flowChangedEvents.offer(key, message)) {
+            logger.debug("FlowChanged merged: " + key);
+            return;
+        }
+        eventService.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    onFlowChanged(networkId, flowChangedEvents.poll(key));
+                } catch (Exception e) {
+                    logger.error("Recieved Message Exception.", e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Queues LinkChanged to the event thread in the same way as FlowChanged.
+     */
+    private void submitLinkChanged(final String networkId, final LinkChanged message) {
+        final String key = OdenOsEventMerger.linkKey(networkId, message);
+        if (!linkChangedEvents.offer(key, message)) {
+            logger.debug("LinkChanged merged: " + key);
+            return;
+        }
+        eventService.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    onLinkChanged(networkId, linkChangedEvents.poll(key));
+                } catch (Exception e) {
+                    logger.error("Recieved Message Exception.", e);
+                }
+            }
+        });
+    }
+
+    /**
+     * @return Number of FlowChanged/LinkChanged events merged into a pending event
+     */
+    public long getMergedEventCount() {
+        return flowChangedEvents.getMergedCount() + linkChangedEvents.getMergedCount();
+    }
+
     // //////////////////////////////////////////////////
     //
     // NetworkComponentConnection
@@ -223,7 +347,8 @@ public class LinkLayerizer extends Logic {
     @Override
     protected boolean onConnectionChangedAddedPre(
             final ComponentConnectionChanged msg) {
-        callStartLog((msg.curr()) == null ? null : msg.curr().getObjectId());
+        callStartLog("onConnectionChangedAddedPre",
+                (msg.curr()) == null ? null : msg.curr().getObjectId());
 
         if (null == msg.curr()) {
             logger.error("** [add] msg.curr is null");
@@ -288,7 +413,7 @@ public class LinkLayerizer extends Logic {
             return false;
         }
 
-        callEndLog(msg.curr().getObjectId());
+        callEndLog("onConnectionChangedAddedPre", msg.curr().getObjectId());
         return true;
     }
 
@@ -300,14 +425,14 @@ public class LinkLayerizer extends Logic {
             return false;
         }
 
-        callStartLog(msg.curr().getObjectId());
+        callStartLog("onConnectionChangedUpdatePre", msg.curr().getObjectId());
 
         if (!msg.curr().getObjectType()
                 .equals(ComponentConnectionLogicAndNetwork.TYPE)) {
             logger.error("getObjectType mismatch. expect="
                     + ComponentConnectionLogicAndNetwork.TYPE
                     + ", but type=" + msg.curr().getObjectType());
-            callEndLog(msg.curr().getObjectId());
+            callEndLog("onConnectionChangedUpdatePre", msg.curr().getObjectId());
             return false;
         }
         String logicId = msg.curr().getProperty(
@@ -315,7 +440,7 @@ public class LinkLayerizer extends Logic {
         if (!this.getObjectId().equals(logicId)) {
             logger.error("logicId mismatch. expect=" + this.getObjectId()
                     + ", but logicId=" + logicId);
-            callEndLog(msg.curr().getObjectId());
+            callEndLog("onConnectionChangedUpdatePre", msg.curr().getObjectId());
             return false;
         }
 
@@ -352,24 +477,24 @@ public class LinkLayerizer extends Logic {
             return false;
         }
 
-        callEndLog(msg.curr().getObjectId());
+        callEndLog("onConnectionChangedUpdatePre", msg.curr().getObjectId());
         return true;
     }
 
     @Override
     protected final boolean onConnectionChangedDeletePre(
             final ComponentConnectionChanged msg) {
-        callStartLog(msg.curr().getObjectId());
+        callStartLog("onConnectionChangedDeletePre", msg.curr().getObjectId());
 
         if (null == msg.prev()) {
             logger.error("** [delete] msg.prev is null");
-            callEndLog(msg.curr().getObjectId());
+            callEndLog("onConnectionChangedDeletePre", msg.curr().getObjectId());
             return false;
         }
         if (!msg.prev().getObjectType()
                 .equals(ComponentConnectionLogicAndNetwork.TYPE)) {
             logger.error("** [delete] msg.prev Object Type mismatch");
-            callEndLog(msg.curr().getObjectId());
+            callEndLog("onConnectionChangedDeletePre", msg.curr().getObjectId());
             return false;
         }
 
@@ -379,18 +504,18 @@ public class LinkLayerizer extends Logic {
 
         if (!this.getObjectId().equals(logicId)) {
             logger.error("** [delete] msg.prev Object ID mismatch");
-            callEndLog(msg.curr().getObjectId());
+            callEndLog("onConnectionChangedDeletePre", msg.curr().getObjectId());
             return false;
         }
 
-        callEndLog(msg.curr().getObjectId());
+        callEndLog("onConnectionChangedDeletePre", msg.curr().getObjectId());
         return true;
     }
 
     @Override
     protected final void onConnectionChangedAdded(
             final ComponentConnectionChanged msg) {
-        callStartLog(msg.curr().getObjectId());
+        callStartLog("onConnectionChangedAdded", msg.curr().getObjectId());
 
         ComponentConnection compConn = msg.curr();
         String networkId = compConn.getProperty(
@@ -411,6 +536,7 @@ public class LinkLayerizer extends Logic {
             }
         } else if (LAYERIZER.equals(type)) {
             OdenOsSender.getInstance().addConnection(networkId, this.getObjectId());
+            clearSyncedVersions();
             if (!getUpperNetworkId().isEmpty()) {
                 logger.debug("upper id: " + getUpperNetworkId());
                 conversionTable().addEntryNetwork(networkId, getUpperNetworkId());
@@ -423,15 +549,15 @@ public class LinkLayerizer extends Logic {
         } catch (Exception e) {
             e.printStackTrace();
             logger.error("** Failed to subscribe " + networkId);
-            callEndLog(msg.curr().getObjectId());
+            callEndLog("onConnectionChangedAdded", msg.curr().getObjectId());
             return;
         }
-        callEndLog(msg.curr().getObjectId());
+        callEndLog("onConnectionChangedAdded", msg.curr().getObjectId());
     }
 
     @Override
     protected void onConnectionChangedUpdate(final ComponentConnectionChanged msg) {
-        callStartLog(msg.curr().getObjectId());
+        callStartLog("onConnectionChangedUpdate", msg.curr().getObjectId());
 
         ComponentConnection compConn = msg.curr();
         String networkId = compConn.getProperty(
@@ -450,6 +576,7 @@ public class LinkLayerizer extends Logic {
             }
         } else if (LAYERIZER.equals(type)) {
             OdenOsSender.getInstance().addConnection(networkId, this.getObjectId());
+            clearSyncedVersions();
             if (!getUpperNetworkId().isEmpty()) {
                 logger.debug("layerized id: " + getLayerizerNetworkId());
                 conversionTable().addEntryNetwork(networkId, getUpperNetworkId());
@@ -462,17 +589,17 @@ public class LinkLayerizer extends Logic {
         } catch (Exception e) {
             e.printStackTrace();
             logger.error("** Failed to subscribe " + networkId);
-            callEndLog(msg.curr().getObjectId());
+            callEndLog("onConnectionChangedUpdate", msg.curr().getObjectId());
             return;
         }
 
-        callEndLog(msg.curr().getObjectId());
+        callEndLog("onConnectionChangedUpdate", msg.curr().getObjectId());
     }
 
     @Override
     protected final void onConnectionChangedDelete(
             final ComponentConnectionChanged msg) {
-        callStartLog(msg.curr().getObjectId());
+        callStartLog("onConnectionChangedDelete", msg.curr().getObjectId());
 
         ComponentConnection prev = msg.prev();
         String networkId = prev.getProperty(
@@ -484,6 +611,8 @@ public class LinkLayerizer extends Logic {
 
         // Delete flows.
         conversionTable().getFlow().clear();
+        clearSyncedVersions();
+        clearDependencies();
         // Delete network's topology.
         conversionTable().getLink().clear();
         conversionTable().getNode().clear();
@@ -508,11 +637,11 @@ public class LinkLayerizer extends Logic {
             e.printStackTrace();
             logger.error("** Failed to onConnectionChangedDelete {}", networkId);
         }
-        callEndLog(msg.prev().getObjectId());
+        callEndLog("onConnectionChangedDelete", msg.prev().getObjectId());
     }
 
     private void unsubscribeNetworkComponent(String networkId) {
-        callStartLog(networkId);
+        callStartLog("unsubscribeNetworkComponent", networkId);
 
         removeEntryEventSubscription(NODE_CHANGED, networkId);
         removeEntryEventSubscription(PORT_CHANGED, networkId);
@@ -525,11 +654,11 @@ public class LinkLayerizer extends Logic {
             e.printStackTrace();
             logger.error("** Failed to unsubscribeNetworkComponent {}", networkId);
         }
-        callEndLog(networkId);
+        callEndLog("unsubscribeNetworkComponent", networkId);
     }
 
     private void subscribeNetworkComponent(String networkcompID) {
-        callStartLog(networkcompID);
+        callStartLog("subscribeNetworkComponent", networkcompID);
 
         String attrBase = AttrElements.ATTRIBUTES + "::%s";
 
@@ -568,16 +697,16 @@ public class LinkLayerizer extends Logic {
             logger.error("** Failed to subscribeNetworkComponent {}", networkcompID);
         }
 
-        callEndLog(networkcompID);
+        callEndLog("subscribeNetworkComponent", networkcompID);
     }
 
     @Override
     protected boolean onNodeAddedPre(final String networkId, final Node node) {
-        callStartLog(networkId);
+        callStartLog("onNodeAddedPre", networkId);
 
         boolean result = checkUpperEvent(networkId);
 
-        callEndLog(networkId);
+        callEndLog("onNodeAddedPre", networkId);
         return result;
     }
 
@@ -586,7 +715,7 @@ public class LinkLayerizer extends Logic {
         if (!onNodeAddedPre(networkId, node)) {
             return;
         }
-        callStartLog(networkId);
+        callStartLog("onNodeAdded", networkId);
 
         logger.debug("** upper_nw:" + getUpperNetworkId());
         logger.debug("** compID:" + networkId);
@@ -612,68 +741,68 @@ public class LinkLayerizer extends Logic {
             }
         }
 
-        callEndLog(networkId);
+        callEndLog("onNodeAdded", networkId);
     }
 
     @Override
     protected boolean onNodeUpdatePre(String networkId, Node prev, Node curr,
             ArrayList<String> attributesList) {
-        callStartLog(networkId);
+        callStartLog("onNodeUpdatePre", networkId);
 
         boolean result = checkUpperEvent(networkId);
 
-        callEndLog(networkId);
+        callEndLog("onNodeUpdatePre", networkId);
         return result;
     }
 
     @Override
     protected boolean onNodeDeletePre(String networkId, Node node) {
-        callStartLog(networkId);
+        callStartLog("onNodeDeletePre", networkId);
 
         boolean result = checkUpperEvent(networkId);
 
-        callEndLog(networkId);
+        callEndLog("onNodeDeletePre", networkId);
         return result;
     }
 
     @Override
     protected boolean onPortAddedPre(String networkId, Port port) {
-        callStartLog(networkId);
+        callStartLog("onPortAddedPre", networkId);
 
         boolean result = checkUpperEvent(networkId);
 
-        callEndLog(networkId);
+        callEndLog("onPortAddedPre", networkId);
         return result;
     }
 
     @Override
     protected boolean onPortUpdatePre(String networkId, Port prev, Port curr,
             ArrayList<String> attributesList) {
-        callStartLog(networkId);
+        callStartLog("onPortUpdatePre", networkId);
 
         boolean result = checkUpperEvent(networkId);
 
-        callEndLog(networkId);
+        callEndLog("onPortUpdatePre", networkId);
         return result;
     }
 
     @Override
     protected boolean onPortDeletePre(String networkId, Port port) {
-        callStartLog(networkId);
+        callStartLog("onPortDeletePre", networkId);
 
         boolean result = checkUpperEvent(networkId);
 
-        callEndLog(networkId);
+        callEndLog("onPortDeletePre", networkId);
         return result;
     }
 
     @Override
     protected boolean onLinkAddedPre(String networkId, Link link) {
-        callStartLog(networkId, link);
+        callStartLog("onLinkAddedPre", networkId, link);
 
         boolean result = checkLayerizerUpperEvent(networkId, link);
 
-        callEndLog(networkId, link);
+        callEndLog("onLinkAddedPre", networkId, link);
         return result;
     }
 
@@ -682,7 +811,7 @@ public class LinkLayerizer extends Logic {
         if (!onLinkAddedPre(networkId, link)) {
             return;
         }
-        callStartLog(networkId, link);
+        callStartLog("onLinkAdded", networkId, link);
 
         String type = conversionTable().getConnectionType(networkId);
 
@@ -702,17 +831,17 @@ public class LinkLayerizer extends Logic {
         logger.debug("[" + networkId + "] links in conversionTable: "
                 + conversionTable().getLink(networkId, link.getId()).toString());
 
-        callEndLog(networkId, link);
+        callEndLog("onLinkAdded", networkId, link);
     }
 
     @Override
     protected boolean onLinkUpdatePre(String networkId, Link prev, Link curr,
             ArrayList<String> attributesList) {
-        callStartLog(networkId, prev, curr);
+        callStartLog("onLinkUpdatePre", networkId, prev, curr);
 
         boolean result = checkLayerizerEvent(networkId, curr);
 
-        callEndLog(networkId, prev, curr);
+        callEndLog("onLinkUpdatePre", networkId, prev, curr);
         return result;
     }
 
@@ -722,12 +851,12 @@ public class LinkLayerizer extends Logic {
         if (!onLinkUpdatePre(networkId, prev, curr, attributesList)) {
             return;
         }
-        callStartLog(networkId, prev, curr);
+        callStartLog("onLinkUpdate", networkId, prev, curr);
 
         onSuperLinkUpdate(networkId, prev, curr, attributesList);
         uppdateLowerFlowFromLayerizerLink(curr);
 
-        callEndLog(networkId, prev, curr);
+        callEndLog("onLinkUpdate", networkId, prev, curr);
     }
 
     private void onSuperLinkUpdate(String networkId, Link prev, Link curr,
@@ -737,11 +866,11 @@ public class LinkLayerizer extends Logic {
 
     @Override
     protected boolean onLinkDeletePre(String networkId, Link link) {
-        callStartLog(networkId, link);
+        callStartLog("onLinkDeletePre", networkId, link);
 
         boolean result = checkLayerizerUpperEvent(networkId, link);
 
-        callEndLog(networkId, link);
+        callEndLog("onLinkDeletePre", networkId, link);
         return result;
     }
 
@@ -750,14 +879,14 @@ public class LinkLayerizer extends Logic {
         if (!onLinkDeletePre(networkId, link)) {
             return;
         }
-        callStartLog(networkId, link);
+        callStartLog("onLinkDelete", networkId, link);
 
         logger.debug("[" + networkId + "] links in conversionTable: "
                 + conversionTable().getLink(networkId, link.getId()).toString());
         onSuperLinkDelete(networkId, link);
         delLowerFlows(link.getId());
 
-        callEndLog(networkId, link);
+        callEndLog("onLinkDelete", networkId, link);
     }
 
     private void onSuperLinkDelete(String networkId, Link link) {
@@ -766,11 +895,11 @@ public class LinkLayerizer extends Logic {
 
     @Override
     protected boolean onFlowAddedPre(String networkId, Flow flow) {
-        callStartLog(networkId, flow);
+        callStartLog("onFlowAddedPre", networkId, flow);
 
         boolean result = checkFlowType(flow);
 
-        callEndLog(networkId, flow);
+        callEndLog("onFlowAddedPre", networkId, flow);
         return result;
     }
 
@@ -779,7 +908,7 @@ public class LinkLayerizer extends Logic {
         if (!onFlowAddedPre(networkId, flow)) {
             return;
         }
-        callStartLog(networkId, flow);
+        callStartLog("onFlowAdded", networkId, flow);
 
         String type = conversionTable().getConnectionType(networkId);
 
@@ -791,13 +920,13 @@ public class LinkLayerizer extends Logic {
             addFlowToUpper(networkId, flow);
         }
 
-        callEndLog(networkId, flow);
+        callEndLog("onFlowAdded", networkId, flow);
     }
 
     @Override
     protected boolean onFlowUpdatePre(String networkId, Flow prev, Flow curr,
             ArrayList<String> attributesList) {
-        callStartLog(networkId, prev, curr);
+        callStartLog("onFlowUpdatePre", networkId, prev, curr);
 
         logger.debug("** updated flow status: {}", curr.getStatus());
         boolean result = checkFlowType(curr);
@@ -820,7 +949,7 @@ public class LinkLayerizer extends Logic {
             }
         }
 
-        callEndLog(networkId, prev, curr);
+        callEndLog("onFlowUpdatePre", networkId, prev, curr);
         return result;
     }
 
@@ -830,7 +959,7 @@ public class LinkLayerizer extends Logic {
         if (!onFlowUpdatePre(networkId, prev, curr, attributesList)) {
             return;
         }
-        callStartLog(networkId, prev, curr);
+        callStartLog("onFlowUpdate", networkId, prev, curr);
 
         String type = conversionTable().getConnectionType(networkId);
 
@@ -843,8 +972,15 @@ public class LinkLayerizer extends Logic {
             }
             updateFlowToLayerizer(networkId, prev, curr);
         } else if (LAYERIZER.equals(type)) {
+            setDependencies(LinkLayerizerDependency.flow(networkId,
+                    curr.getFlowId()), pathOf(networkId, curr));
             super.onFlowUpdate(networkId, prev, curr, attributesList);
         } else if (LOWER.equals(type)) {
+            if (curr.getStatus().equals(FlowStatus.FAILED.toString())) {
+                queueFlowFailure(curr);
+                return;
+            }
+            cancelFlowFailure(curr.getFlowId());
             if (curr.getStatus().equals(FlowStatus.ESTABLISHING.toString())) {
                 logger.debug("** ■updated flow status: {}", curr.getStatus());
                 return;
@@ -852,11 +988,11 @@ public class LinkLayerizer extends Logic {
             addLinkOfLayerizerFromFlowOfLower(networkId, curr);
         }
 
-        callEndLog(networkId, prev, curr);
+        callEndLog("onFlowUpdate", networkId, prev, curr);
     }
 
     private void updateFlowToLayerizer(String networkId, Flow prev, Flow curr) {
-        logger.info("** " + new Throwable().getStackTrace()[0].getMethodName() + " Start");
+        TraceLog.start(logger, "updateFlowToLayerizer");
 
         NetworkInterface targetNetworkIf = networkInterfaces().get(getLayerizerNetworkId());
 
@@ -867,20 +1003,21 @@ public class LinkLayerizer extends Logic {
         targetFlow.setVersion(targetNetworkIf.getFlow(curr.getFlowId()).getVersion());
 
         targetNetworkIf.putFlow(targetFlow);
+        indexLayerizedFlow(getLayerizerNetworkId(), flowWithPath, networkId);
 
         conversionTable().addEntryFlow(
                 networkId, curr.getFlowId(),
                 getLayerizerNetworkId(), targetFlow.getFlowId());
-        logger.info("** " + new Throwable().getStackTrace()[0].getMethodName() + " End");
+        TraceLog.end(logger, "updateFlowToLayerizer");
     }
 
     @Override
     protected boolean onFlowDeletePre(String networkId, Flow flow) {
-        callStartLog(networkId, flow);
+        callStartLog("onFlowDeletePre", networkId, flow);
 
         boolean result = checkFlowType(flow);
 
-        callEndLog(networkId, flow);
+        callEndLog("onFlowDeletePre", networkId, flow);
         return result;
     }
 
@@ -889,11 +1026,18 @@ public class LinkLayerizer extends Logic {
         if (!onFlowDeletePre(networkId, flow)) {
             return;
         }
-        callStartLog(networkId, flow);
+        callStartLog("onFlowDelete", networkId, flow);
 
         String type = conversionTable().getConnectionType(networkId);
 
         if (LAYERIZER.equals(type)) {
+            LinkLayerizerDependency layerizedFlow =
+                    LinkLayerizerDependency.flow(networkId, flow.getFlowId());
+            logAffected(layerizedFlow);
+            removeDependencies(layerizedFlow);
+            removeDependencies(LinkLayerizerDependency.flow(getUpperNetworkId(),
+                    flow.getFlowId()));
+
             NetworkInterface networkIf = networkInterfaces().get(getUpperNetworkId());
             Flow upperFlow = networkIf.getFlow(flow.getFlowId());
 
@@ -903,10 +1047,8 @@ public class LinkLayerizer extends Logic {
                 logger.debug("** Response Body:" + ret.getBodyValue().toString());
             }
         } else if (LOWER.equals(type)) {
-            String linkId = null;
-            if (null != layerizedlinks) {
-                linkId = layerizedlinks.get(flow.getFlowId());
-            }
+            cancelFlowFailure(flow.getFlowId());
+            String linkId = flowLinkMap.getLayerizedLink(flow.getFlowId());
             NetworkInterface networkIf = networkInterfaces().get(getLayerizerNetworkId());
             Link link = networkIf.getLink(linkId);
 
@@ -915,14 +1057,131 @@ public class LinkLayerizer extends Logic {
                 logger.debug("** Response:" + ret.statusCode);
                 logger.debug("** Response Body:" + ret.getBodyValue().toString());
             }
-            layerizedlinks.remove(flow.getFlowId());
-            lowerflows.remove(linkId);
+            flowLinkMap.removeFlow(flow.getFlowId());
+            flowLinkMap.removeLink(linkId);
+
+            LinkLayerizerDependency lowerFlow =
+                    LinkLayerizerDependency.flow(networkId, flow.getFlowId());
+            logAffected(lowerFlow);
+            removeDependencies(lowerFlow);
+            removeDependencies(LinkLayerizerDependency.link(getLayerizerNetworkId(), linkId));
+        }
+        callEndLog("onFlowDelete", networkId, flow);
+    }
+
+    /**
+     * The failed lower flow is applied to its layerized link by the next batch,
+     * which starts on the event thread within failureWindow ms.
+     */
+    private void queueFlowFailure(final Flow flow) {
+        synchronized (pendingFailures) {
+            boolean first = pendingFailures.isEmpty();
+            pendingFailures.put(flow.getFlowId(), flow);
+            if (first) {
+                failureTask = failureService.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        eventTail.mark();
+                        eventService.execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                flushFlowFailures();
+                            }
+                        });
+                    }
+                }, failureWindow, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void cancelFlowFailure(final String flowId) {
+        synchronized (pendingFailures) {
+            pendingFailures.remove(flowId);
+            if (pendingFailures.isEmpty() && null != failureTask) {
+                failureTask.cancel(false);
+                failureTask = null;
+            }
         }
-        callEndLog(networkId, flow);
     }
 
+    /**
+     * The layerized links of the failed lower flows are set down as one batch:
+     * the links are read with one request and put in parallel on syncService.
+     * The batch runs on the event thread, so a lower flow recovered before the batch
+     * has already been removed from pendingFailures.
+     */
+    private void flushFlowFailures() {
+        Map<String, Flow> failures;
+        synchronized (pendingFailures) {
+            failures = new LinkedHashMap<>(pendingFailures);
+            pendingFailures.clear();
+            failureTask = null;
+        }
+        if (failures.isEmpty()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+
+        final NetworkInterface layerizerNetworkIf =
+                networkInterfaces().get(getLayerizerNetworkId());
+        Map<String, Link> links;
+        if (failures.size() == 1) {
+            // a single failure does not need the whole layerized topology
+            links = new HashMap<>();
+            String linkId = flowLinkMap.getLayerizedLink(failures.keySet().iterator().next());
+            if (null != linkId) {
+                links.put(linkId, layerizerNetworkIf.getLink(linkId));
+            }
+        } else {
+            links = layerizerNetworkIf.getLinks();
+        }
+        if (null == links) {
+            logger.error("** Failed to get layerized links. failed flows={}", failures.keySet());
+            return;
+        }
+
+        Map<String, Link> failedLinks = new LinkedHashMap<>();
+        for (Flow flow : failures.values()) {
+            String linkId = flowLinkMap.getLayerizedLink(flow.getFlowId());
+            Link link = (null == linkId) ? null : links.get(linkId);
+            if (null == link) {
+                continue;
+            }
+            link.putAttribute(AttrElements.OPER_STATUS, STATUS_DOWN);
+            link.putAttribute(AttrElements.ESTABLISHMENT_STATUS, flow.getStatus());
+            failedLinks.put(linkId, link);
+        }
+
+        List<Future<Response>> results = new ArrayList<>();
+        for (final Link link : failedLinks.values()) {
+            results.add(syncService.submit(new Callable<Response>() {
+                @Override
+                public Response call() throws Exception {
+                    return layerizerNetworkIf.putLink(link);
+                }
+            }));
+        }
+        for (Future<Response> result : results) {
+            try {
+                result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                logger.error("** Failed to put layerized link: {}", e.getCause());
+            }
+        }
+        logger.info("** failure batch: {} lower flows, {} layerized links, {} ms",
+                failures.size(), failedLinks.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Upper nodes and lower flows are synchronized into the layerized network.
+     * Objects whose version is the same as the last synchronization are skipped,
+     * and lower flows are processed in parallel on syncService.
+     */
     private void syncLinkLayerizer() {
-        logger.info("** " + new Throwable().getStackTrace()[0].getMethodName() + " Start");
+        TraceLog.start(logger, "syncLinkLayerizer");
         if (getUpperNetworkId().isEmpty()
                 || getLowerNetworkId().isEmpty()
                 || getLayerizerNetworkId().isEmpty()) {
@@ -934,14 +1193,23 @@ public class LinkLayerizer extends Logic {
         NetworkInterface lowNetworkIf = networkInterfaces().get(getLowerNetworkId());
         NetworkInterface layerizerNetworkIf = networkInterfaces().get(getLayerizerNetworkId());
 
+        final LinkLayerizerSyncStatus status = new LinkLayerizerSyncStatus();
+        syncStatus = status;
+
         // Upper.Node -> Layerizer.Node Upper.Port -> Layerizer.Port
         Map<String, Node> upNodes = upNetworkIf.getNodes();
         if (null != upNodes && !upNodes.isEmpty()) {
+            status.setNodes(upNodes.size());
             for (Entry<String, Node> nodes : upNodes.entrySet()) {
                 Node node = nodes.getValue();
-                logger.debug("** put node target={}, nodeid={}",
-                        layerizerNetworkIf.getNetworkId(), node.getId());
-                layerizerNetworkIf.putNode(node);
+                if (isSynced(syncedNodeVersions, node.getId(), node.getVersion())) {
+                    status.skipNode();
+                } else {
+                    logger.debug("** put node target={}, nodeid={}",
+                            layerizerNetworkIf.getNetworkId(), node.getId());
+                    layerizerNetworkIf.putNode(node);
+                    markSynced(syncedNodeVersions, node.getId(), node.getVersion());
+                }
                 conversionTable().addEntryNode(getUpperNetworkId(), node.getId(),
                         getLayerizerNetworkId(), node.getId());
 
@@ -959,16 +1227,79 @@ public class LinkLayerizer extends Logic {
         if (null != lowFlowSet
                 && null != lowFlowSet.getFlows()
                 && !lowFlowSet.getFlows().isEmpty()) {
+            final int total = lowFlowSet.getFlows().size();
+            final int step = Math.max(total / 10, 1);
+            status.setFlows(total);
+            List<Future<?>> results = new ArrayList<>();
             for (Entry<String, Flow> entry : lowFlowSet.getFlows().entrySet()) {
-                logger.debug("** put Link target={}, linkid={}",
-                        getLayerizerNetworkId(), entry.getValue().getFlowId());
-                addLinkOfLayerizerFromFlowOfLower(getLayerizerNetworkId(), entry.getValue());
+                final Flow flow = entry.getValue();
+                if (isSynced(syncedFlowVersions, flow.getFlowId(), flow.getVersion())
+                        && flowLinkMap.containsFlow(flow.getFlowId())) {
+                    status.skipFlow();
+                    continue;
+                }
+                results.add(syncService.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        logger.debug("** put Link target={}, linkid={}",
+                                getLayerizerNetworkId(), flow.getFlowId());
+                        addLinkOfLayerizerFromFlowOfLower(getLayerizerNetworkId(), flow);
+                        markSynced(syncedFlowVersions, flow.getFlowId(), flow.getVersion());
+                        int processed = status.processFlow();
+                        if (0 == processed % step) {
+                            logger.info("** sync progress: {}/{} flows",
+                                    processed + status.getSkippedFlows(), total);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                try {
+                    result.get();
+                } catch (InterruptedException e) {
+                    logger.error("** sync interrupted.");
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (ExecutionException e) {
+                    status.failFlow();
+                    logger.error("** Failed to sync flow: {}", e.getCause());
+                }
             }
         }
 
+        status.finish();
+        logger.info("** sync done: nodes {} (skipped {}), flows {} (skipped {}, failed {}),"
+                + " {} ms", status.getNodes(), status.getSkippedNodes(), status.getFlows(),
+                status.getSkippedFlows(), status.getFailedFlows(), status.getElapsedTime());
+    }
+
+    private static boolean isSynced(Map<String, String> versions, String id, String version) {
+        return null != id && null != version && version.equals(versions.get(id));
+    }
+
+    private static void markSynced(Map<String, String> versions, String id, String version) {
+        if (null != id && null != version) {
+            versions.put(id, version);
+        }
+    }
+
+    /**
+     * Versions of the last synchronization are forgotten, e.g. when the layerized network
+     * is (re)connected and has to be synchronized from scratch.
+     */
+    private void clearSyncedVersions() {
+        syncedNodeVersions.clear();
+        syncedFlowVersions.clear();
+    }
+
+    private String getSyncStatus() throws JsonProcessingException {
+        LinkLayerizerSyncStatus status = syncStatus;
+        return (null == status) ? "" : JsonCodec.write(status);
     }
 
     private void addLinkOfLayerizerFromFlowOfLower(final String networkId, final Flow flow) {
+        setDependencies(LinkLayerizerDependency.flow(getLowerNetworkId(), flow.getFlowId()),
+                pathOf(getLowerNetworkId(), flow));
         String flowStatus = flow.getStatus();
 
         if (FlowStatus.ESTABLISHING.equals(FlowStatus.messageValueOf(flowStatus))) {
@@ -979,12 +1310,9 @@ public class LinkLayerizer extends Logic {
     }
 
     private void addLinkOfLayerizerFromFlow(String networkId, Flow flow) {
-        logger.info("** " + new Throwable().getStackTrace()[0].getMethodName() + " Start");
-        String linkId = null;
-        if (null != layerizedlinks) {
-            linkId = layerizedlinks.get(flow.getFlowId());
-            logger.debug("** get linkId={}", linkId);
-        }
+        TraceLog.start(logger, "addLinkOfLayerizerFromFlow");
+        String linkId = flowLinkMap.getLayerizedLink(flow.getFlowId());
+        logger.debug("** get linkId={}", linkId);
 
         NetworkInterface layerizerNetworkIf = networkInterfaces().get(getLayerizerNetworkId());
 
@@ -1002,8 +1330,7 @@ public class LinkLayerizer extends Logic {
 
             try {
                 linkId = ret.getBody(Link.class).getId();
-                putLowerFlows(linkId, flow.getFlowId());
-                putLayerizedlinks(linkId, flow.getFlowId());
+                putFlowLink(linkId, flow.getFlowId());
             } catch (Exception e) {
                 logger.error("post link error.");
             }
@@ -1031,16 +1358,13 @@ public class LinkLayerizer extends Logic {
 
             return;
         }
-        logger.info("** " + new Throwable().getStackTrace()[0].getMethodName() + " End");
+        TraceLog.end(logger, "addLinkOfLayerizerFromFlow");
     }
 
     private void updateLinkOfLayerizerFromFlow(String networkId, Flow flow) {
-        logger.info("** " + new Throwable().getStackTrace()[0].getMethodName() + " Start");
-        String linkId = null;
-        if (null != layerizedlinks) {
-            linkId = layerizedlinks.get(flow.getFlowId());
-            logger.debug("** get linkId={}", linkId);
-        }
+        TraceLog.start(logger, "updateLinkOfLayerizerFromFlow");
+        String linkId = flowLinkMap.getLayerizedLink(flow.getFlowId());
+        logger.debug("** get linkId={}", linkId);
 
         NetworkInterface layerizerNetworkIf = networkInterfaces().get(getLayerizerNetworkId());
 
@@ -1064,8 +1388,7 @@ public class LinkLayerizer extends Logic {
 
             try {
                 linkId = ret.getBody(Link.class).getId();
-                putLowerFlows(linkId, flow.getFlowId());
-                putLayerizedlinks(linkId, flow.getFlowId());
+                putFlowLink(linkId, flow.getFlowId());
             } catch (Exception e) {
                 logger.error("post link error.");
             }
@@ -1089,11 +1412,11 @@ public class LinkLayerizer extends Logic {
             logger.debug("** Response:" + ret.statusCode);
             logger.debug("** Response Body:" + ret.getBodyValue().toString());
         }
-        logger.info("** " + new Throwable().getStackTrace()[0].getMethodName() + " End");
+        TraceLog.end(logger, "updateLinkOfLayerizerFromFlow");
     }
 
     private Link createLinkFromFlow(Flow flow) {
-        logger.info("** " + new Throwable().getStackTrace()[0].getMethodName() + " Start");
+        TraceLog.start(logger, "createLinkFromFlow");
 
         BasicFlow bfm = (BasicFlow) flow;
         Map<String, List<FlowAction>> edgeActions = bfm.getEdgeActions();
@@ -1159,20 +1482,20 @@ public class LinkLayerizer extends Logic {
         return link;
     }
 
+    /**
+     * Link IDs are allocated locally: a prefix unique to this instance and a counter.
+     * They cannot collide with the links of other instances, so the network is not read.
+     */
     private String getUniqueLinkId(final String targetNetworkId) {
         String id;
-        NetworkInterface networkIf = networkInterfaces().get(targetNetworkId);
-        while (true) {
-            id = UUID.randomUUID().toString();
-            if (null == networkIf.getLink(id)) {
-                break;
-            }
-        }
+        do {
+            id = linkIdPrefix + linkIdCounter.incrementAndGet();
+        } while (flowLinkMap.containsLink(id));
         return id;
     }
 
     private void addFlowToUpper(final String networkId, final Flow flow) {
-        logger.info("** " + new Throwable().getStackTrace()[0].getMethodName() + " Start");
+        TraceLog.start(logger, "addFlowToUpper");
         addFlowAndSync(networkId, flow, getUpperNetworkId());
     }
 
@@ -1186,6 +1509,7 @@ public class LinkLayerizer extends Logic {
         Flow targetFlow = flowWithPath.clone();
 
         targetNetworkIf.putFlow(targetFlow);
+        indexLayerizedFlow(orgNetworkId, flowWithPath, targetNetworkId);
 
         conversionTable().addEntryFlow(
                 orgNetworkId, orgFlow.getFlowId(),
@@ -1193,7 +1517,7 @@ public class LinkLayerizer extends Logic {
     }
 
     private void addUpperLink(final String networkId, final Link link) {
-        logger.info("** " + new Throwable().getStackTrace()[0].getMethodName() + " Start");
+        TraceLog.start(logger, "addUpperLink");
 
         Map<String, String> attributes = link.getAttributes();
         String establishmentStatus = attributes.get(AttrElements.ESTABLISHMENT_STATUS);
@@ -1209,7 +1533,7 @@ public class LinkLayerizer extends Logic {
     }
 
     private void addLayerizedLink(final String networkId, final Link link) {
-        logger.info("** " + new Throwable().getStackTrace()[0].getMethodName() + " Start");
+        TraceLog.start(logger, "addLayerizedLink");
 
         Map<String, String> attributes = link.getAttributes();
         String establishmentStatus = attributes.get(AttrElements.ESTABLISHMENT_STATUS);
@@ -1225,15 +1549,16 @@ public class LinkLayerizer extends Logic {
     }
 
     private void uppdateLowerFlowFromLayerizerLink(final Link link) {
-        logger.info("** " + new Throwable().getStackTrace()[0].getMethodName() + " Start");
+        TraceLog.start(logger, "uppdateLowerFlowFromLayerizerLink");
 
         String establishmentStatus = link.getAttribute(AttrElements.ESTABLISHMENT_STATUS);
         NetworkInterface lowerNetworkIf = networkInterfaces().get(getLowerNetworkId());
 
         if (!LINK_STATUS_ESTABLISHED.equals(establishmentStatus)) {
             logger.debug("** Lower_nw Add Flow Start");
-            if (lowerflows.containsKey(link.getId())) {
-                for (String lowerFlowId : lowerflows.get(link.getId())) {
+            List<String> lowerFlowIds = flowLinkMap.getLowerFlows(link.getId());
+            if (null != lowerFlowIds) {
+                for (String lowerFlowId : lowerFlowIds) {
                     Flow lowerFlow = lowerNetworkIf.getFlow(lowerFlowId);
                     if (null != lowerFlow) {
                         lowerFlow.setStatus(establishmentStatus);
@@ -1263,17 +1588,16 @@ public class LinkLayerizer extends Logic {
                 if (flow.validate()) {
                     logger.debug("** flow True");
                     lowerNetworkIf.putFlow(flow);
-                    putLowerFlows(link.getId(), flow.getFlowId());
-                    putLayerizedlinks(link.getId(), flow.getFlowId());
+                    putFlowLink(link.getId(), flow.getFlowId());
                 }
             }
         }
-        logger.info("** " + new Throwable().getStackTrace()[0].getMethodName() + " End");
+        TraceLog.end(logger, "uppdateLowerFlowFromLayerizerLink");
     }
 
     private void registerLinkAndSync(final String networkId, final String targetNetworkId,
             final Link link) {
-        logger.info("** " + new Throwable().getStackTrace()[0].getMethodName() + " Start");
+        TraceLog.start(logger, "registerLinkAndSync");
 
         NetworkInterface networkIf = networkInterfaces().get(targetNetworkId);
         Link targetLink = link.clone();
@@ -1286,47 +1610,101 @@ public class LinkLayerizer extends Logic {
                 networkId, link.getId(),
                 targetNetworkId, link.getId());
 
-        logger.info("** " + new Throwable().getStackTrace()[0].getMethodName() + " End");
+        TraceLog.end(logger, "registerLinkAndSync");
     }
 
     private void delLowerFlows(final String linkId) {
-        logger.info("** " + new Throwable().getStackTrace()[0].getMethodName() + " Start");
-        logger.debug("** linkId={}, lowerflows=[{}]", linkId, lowerflows);
+        TraceLog.start(logger, "delLowerFlows");
+        logger.debug("** linkId={}", linkId);
 
-        if (!lowerflows.containsKey(linkId)) {
+        if (!flowLinkMap.containsLink(linkId)) {
             return;
         }
 
-        for (String flowId : lowerflows.get(linkId)) {
+        LinkLayerizerDependency layerizedLink =
+                LinkLayerizerDependency.link(getLayerizerNetworkId(), linkId);
+        logAffected(layerizedLink);
+        removeDependencies(layerizedLink);
+        for (String flowId : flowLinkMap.removeLink(linkId)) {
             logger.debug("** Lower flow delete. flowId={}", flowId);
             networkInterfaces().get(getLowerNetworkId()).delFlow(flowId);
-            layerizedlinks.remove(flowId);
+            removeDependencies(LinkLayerizerDependency.flow(getLowerNetworkId(), flowId));
+        }
+        TraceLog.end(logger, "delLowerFlows");
+    }
+
+    private void putFlowLink(String layerLinkId, String lowFlowId) {
+        TraceLog.start(logger, "putFlowLink");
+        flowLinkMap.put(layerLinkId, lowFlowId);
+        List<LinkLayerizerDependency> lowerFlows = new ArrayList<>();
+        for (String flowId : flowLinkMap.getLowerFlows(layerLinkId)) {
+            lowerFlows.add(LinkLayerizerDependency.flow(getLowerNetworkId(), flowId));
         }
-        lowerflows.remove(linkId);
-        logger.info("** " + new Throwable().getStackTrace()[0].getMethodName() + " End");
+        setDependencies(
+                LinkLayerizerDependency.link(getLayerizerNetworkId(), layerLinkId), lowerFlows);
+        logger.debug("** linkId={}, lowerflows={}", layerLinkId,
+                flowLinkMap.getLowerFlows(layerLinkId));
+        TraceLog.end(logger, "putFlowLink");
     }
 
-    private void putLowerFlows(String layerLinkId, String lowFlowId) {
-        logger.info("** " + new Throwable().getStackTrace()[0].getMethodName() + " Start");
-        ArrayList<String> list = lowerflows.get(layerLinkId);
-        if (null == list) {
-            list = new ArrayList<String>();
+    /**
+     * The layerized flow depends on the links of its path,
+     * and the flow of the same ID in the upper network depends on the layerized flow.
+     */
+    private void indexLayerizedFlow(String layerizedNetworkId, Flow flow, String upperNetworkId) {
+        LinkLayerizerDependency layerizedFlow =
+                LinkLayerizerDependency.flow(layerizedNetworkId, flow.getFlowId());
+        setDependencies(layerizedFlow, pathOf(layerizedNetworkId, flow));
+        setDependencies(
+                LinkLayerizerDependency.flow(upperNetworkId, flow.getFlowId()),
+                Arrays.asList(layerizedFlow));
+    }
+
+    private static List<LinkLayerizerDependency> pathOf(String networkId, Flow flow) {
+        List<LinkLayerizerDependency> links = new ArrayList<>();
+        if (flow instanceof BasicFlow && null != ((BasicFlow) flow).getPath()) {
+            for (String linkId : ((BasicFlow) flow).getPath()) {
+                links.add(LinkLayerizerDependency.link(networkId, linkId));
+            }
         }
+        return links;
+    }
 
-        list.add(lowFlowId);
-        lowerflows.put(layerLinkId, list);
-        logger.info("** lowerflows [{}]", lowerflows);
-        logger.info("** " + new Throwable().getStackTrace()[0].getMethodName() + " End");
+    private void setDependencies(LinkLayerizerDependency object,
+            List<LinkLayerizerDependency> dependsOn) {
+        indexedObjects.add(object);
+        dependencies.setDependencies(object, dependsOn);
     }
 
-    private void putLayerizedlinks(String layerLinkId, String lowFlowId) {
-        logger.info("** " + new Throwable().getStackTrace()[0].getMethodName() + " Start");
-        layerizedlinks.put(lowFlowId, layerLinkId);
-        logger.info("** " + new Throwable().getStackTrace()[0].getMethodName() + " End");
+    private void removeDependencies(LinkLayerizerDependency object) {
+        indexedObjects.remove(object);
+        dependencies.remove(object);
+    }
+
+    /**
+     * The objects indexed by this LinkLayerizer are removed from the shared index.
+     */
+    private void clearDependencies() {
+        for (LinkLayerizerDependency object : indexedObjects) {
+            dependencies.remove(object);
+        }
+        indexedObjects.clear();
+    }
+
+    private void logAffected(LinkLayerizerDependency object) {
+        List<LinkLayerizerDependency> affected = dependencies.getAffected(object);
+        if (!affected.isEmpty()) {
+            logger.info("** affected by {}: {}", object, affected);
+        }
+    }
+
+    private String getAffected(LinkLayerizerDependency object)
+            throws JsonProcessingException {
+        return JsonCodec.write(dependencies.getAffected(object));
     }
 
     private BasicFlow linkToFlow(NetworkInterface networkInterface, Link link) {
-        logger.info("** " + new Throwable().getStackTrace()[0].getMethodName() + " Start");
+        TraceLog.start(logger, "linkToFlow");
 
         String srcPortId = link.getSrcPort();
         String srcNodeId = link.getSrcNode();
@@ -1379,67 +1757,50 @@ public class LinkLayerizer extends Logic {
         flow.putAttributes(flowAttributes);
         flow.setVersion("0");
 
-        logger.info("** " + new Throwable().getStackTrace()[0].getMethodName() + " End");
+        TraceLog.end(logger, "linkToFlow");
         return flow;
     }
 
     private String[] changePortBoundaryUppreToLow(String nodeId, String portId) {
-        logger.info("** " + new Throwable().getStackTrace()[0].getMethodName() + " Start");
+        TraceLog.start(logger, "changePortBoundaryUppreToLow");
 
         logger.debug("** nodeId:" + nodeId);
         logger.debug("** portId:" + portId);
 
         String[] ret = { "", "" };
 
-        Set<String> keySet = boundaryset.getLinklayerizerBoundaryMap().keySet();
-        Iterator<String> boundaryIterator = keySet.iterator();
-        while (boundaryIterator.hasNext()) {
-            String key = boundaryIterator.next();
-            logger.debug("** key:" + key);
-            LinklayerizerBoundary lb = boundaryset.getLinklayerizerBoundaryMap().get(key);
-            logger.debug("** lb:" + lb.getUpper_nw_port());
-            if (lb.getUpper_nw_node().equals(nodeId)
-                    && lb.getUpper_nw_port().equals(portId)) {
-                ret[0] = lb.getLower_nw_node();
-                ret[1] = lb.getLower_nw_port();
-                logger.debug("** match ok");
-                break;
-            }
+        LinklayerizerBoundary lb = boundaryset.getBoundaryByUpper(nodeId, portId);
+        if (null != lb) {
+            ret[0] = lb.getLower_nw_node();
+            ret[1] = lb.getLower_nw_port();
+            logger.debug("** match ok");
         }
 
-        logger.info("** " + new Throwable().getStackTrace()[0].getMethodName() + " End");
+        TraceLog.end(logger, "changePortBoundaryUppreToLow");
         return ret;
     }
 
     private String[] changePortBoundaryLowToUpper(String nodeId, String portId) {
-        logger.info("** " + new Throwable().getStackTrace()[0].getMethodName() + " Start");
+        TraceLog.start(logger, "changePortBoundaryLowToUpper");
 
         logger.debug("** nodeId:" + nodeId);
         logger.debug("** portId:" + portId);
 
         String[] ret = { "", "" };
 
-        Set<String> keySet = boundaryset.getLinklayerizerBoundaryMap().keySet();
-        Iterator<String> boundaryIterator = keySet.iterator();
-        while (boundaryIterator.hasNext()) {
-            String key = boundaryIterator.next();
-            logger.debug("** key:" + key);
-            LinklayerizerBoundary lb = boundaryset.getLinklayerizerBoundaryMap().get(key);
-            logger.debug("** lb:" + lb.getUpper_nw_port());
-            if (lb.getLower_nw_node().equals(nodeId)
-                    && lb.getLower_nw_port().equals(portId)) {
-                ret[0] = lb.getUpper_nw_node();
-                ret[1] = lb.getUpper_nw_port();
-                break;
-            }
+        LinklayerizerBoundary lb = boundaryset.getBoundaryByLower(nodeId, portId);
+        if (null != lb) {
+            ret[0] = lb.getUpper_nw_node();
+            ret[1] = lb.getUpper_nw_port();
+            logger.debug("** match ok");
         }
 
-        logger.info("** " + new Throwable().getStackTrace()[0].getMethodName() + " End");
+        TraceLog.end(logger, "changePortBoundaryLowToUpper");
         return ret;
     }
 
     private boolean checkUpperEvent(String networkId) {
-        logger.info("** " + new Throwable().getStackTrace()[0].getMethodName() + " Start");
+        TraceLog.start(logger, "checkUpperEvent");
         String type = conversionTable().getConnectionType(networkId);
 
         // check connection type
@@ -1457,18 +1818,18 @@ public class LinkLayerizer extends Logic {
     }
 
     private boolean checkLayerizerUpperEvent(String networkId, Link link) {
-        logger.info("** " + new Throwable().getStackTrace()[0].getMethodName() + " Start");
+        TraceLog.start(logger, "checkLayerizerUpperEvent");
 
         if (checkLayerizerEvent(networkId, link) || checkUpperEvent(networkId)) {
-            logger.info("** " + new Throwable().getStackTrace()[0].getMethodName() + " True End");
+            TraceLog.trace(logger, "** {} True End", "checkLayerizerUpperEvent");
             return true;
         }
-        logger.info("** " + new Throwable().getStackTrace()[0].getMethodName() + " False End");
+        TraceLog.trace(logger, "** {} False End", "checkLayerizerUpperEvent");
         return false;
     }
 
     private boolean checkLayerizerEvent(String networkId, Link link) {
-        logger.info("** " + new Throwable().getStackTrace()[0].getMethodName() + " Start");
+        TraceLog.start(logger, "checkLayerizerEvent");
         String type = conversionTable().getConnectionType(networkId);
 
         // check connection type
@@ -1519,29 +1880,64 @@ public class LinkLayerizer extends Logic {
     @Override
     protected final Response onRequest(
             final Request request) {
-        logger.info("** " + new Throwable().getStackTrace()[0].getMethodName() + " Start");
+        TraceLog.start(logger, "onRequest");
         logger.debug("received {}", request.path);
-        RequestParser<IActionCallback>.ParsedRequest parsed = parser
+        final RequestParser<IActionCallback>.ParsedRequest parsed = parser
                 .parse(request);
         if (parsed == null) {
             return new Response(Response.BAD_REQUEST, "Error unknown request ");
         }
 
-        IActionCallback callback = parsed.getResult();
+        final IActionCallback callback = parsed.getResult();
         if (callback == null) {
             return new Response(Response.BAD_REQUEST, "Error unknown request ");
         }
 
+        // the progress, the dependencies and the flow-link map are read
+        // while the event thread is busy
+        if (isDirectRead(request)) {
+            try {
+                return callback.process(parsed);
+            } catch (Exception e) {
+                logger.error("Error unknown request");
+                return new Response(Response.BAD_REQUEST, "Error unknown request ");
+            }
+        }
+
+        // processed on the event thread, not to race with the events
+        Future<Response> response = eventService.submit(new Callable<Response>() {
+            @Override
+            public Response call() throws Exception {
+                return callback.process(parsed);
+            }
+        });
         try {
-            return callback.process(parsed);
+            return response.get();
         } catch (Exception e) {
             logger.error("Error unknown request");
             return new Response(Response.BAD_REQUEST, "Error unknown request ");
         }
     }
 
+    /**
+     * @return true if the request only reads the lock-free tables, and is not queued
+     *         behind the events
+     */
+    private static boolean isDirectRead(Request request) {
+        if (Method.GET != request.method || null == request.path) {
+            return false;
+        }
+        String path = request.path;
+        return SYNC_STATUS_PATH.equals(path)
+                || path.startsWith(DEPENDENCIES_PATH)
+                || LOWER_FLOWS_PATH.equals(path)
+                || path.startsWith(LOWER_FLOWS_PATH + "/")
+                || LAYERIZED_LINKS_PATH.equals(path)
+                || path.startsWith(LAYERIZED_LINKS_PATH + "/");
+    }
+
     private String postBoundary(String bodyInfo) throws Exception {
-        logger.info("** " + new Throwable().getStackTrace()[0].getMethodName() + " Start");
+        TraceLog.start(logger, "postBoundary");
 
         LinklayerizerBoundary boundary = createBoundary(new JSONObject(bodyInfo));
         if (!checkBoundary(boundary)) {
@@ -1553,15 +1949,14 @@ public class LinkLayerizer extends Logic {
 
         String rtnJsonVal = "";
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            rtnJsonVal = mapper.writeValueAsString(boundary);
+            rtnJsonVal = JsonCodec.write(boundary);
             logger.debug("jsonBoundary:" + rtnJsonVal);
         } catch (JsonProcessingException e) {
             e.printStackTrace();
             logger.error("** Failed to postBoundary {}", bodyInfo);
         }
 
-        logger.info("** " + new Throwable().getStackTrace()[0].getMethodName() + " End");
+        TraceLog.end(logger, "postBoundary");
         return rtnJsonVal;
     }
 
@@ -1580,8 +1975,7 @@ public class LinkLayerizer extends Logic {
 
         String rtnJsonVal = "";
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            rtnJsonVal = mapper.writeValueAsString(boundary);
+            rtnJsonVal = JsonCodec.write(boundary);
             logger.debug("jsonBoundary:" + rtnJsonVal);
         } catch (JsonProcessingException e) {
             logger.error("** Failed to postBoundary {}", bodyInfo);
@@ -1592,6 +1986,35 @@ public class LinkLayerizer extends Logic {
         return rtnJsonVal;
     }
 
+    /**
+     * A set of boundaries is applied in one request. Nothing is applied if any boundary
+     * is not between the lower and the upper network.
+     *
+     * @param bodyInfo  Boundaries in JSON ({"boundary_id": boundary, ...})
+     * @param merge  true if the boundaries are merged into the current ones,
+     *               false if they replace the current ones
+     */
+    private String putBoundaries(String bodyInfo, boolean merge) throws Exception {
+        logger.info("putBoundaries Start");
+
+        Map<String, LinklayerizerBoundary> boundaries =
+                LinkLayerizerBoundarySet.parseBoundaries(bodyInfo, "");
+        for (LinklayerizerBoundary boundary : boundaries.values()) {
+            if (!checkBoundary(boundary)) {
+                logger.error("expect NetworkID is Lower=" + getLowerNetworkId()
+                        + " Upper=" + getUpperNetworkId());
+                return "Undefined Boundary. NetworkID is Lower=" + boundary.getLower_nw()
+                        + " Upper=" + boundary.getUpper_nw();
+            }
+        }
+
+        boundaryset.importBoundaries(boundaries, merge);
+        logger.debug("** {} boundaries imported. merge={}", boundaries.size(), merge);
+
+        logger.info("putBoundaries End");
+        return boundaryset.changeBoundariestoJSON();
+    }
+
     private String delBoundary(String boundaryId) {
         logger.info("delBoundary End");
         boundaryset.removeBoundaries(boundaryId);
@@ -1605,12 +2028,11 @@ public class LinkLayerizer extends Logic {
 
         String rtnJsonVal = "";
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            rtnJsonVal = mapper.writeValueAsString(lowerflows);
+            rtnJsonVal = JsonCodec.write(flowLinkMap.getLowerFlowsMap());
             logger.debug("jsonFlows:" + rtnJsonVal);
         } catch (JsonProcessingException e) {
             e.printStackTrace();
-            logger.error("** Failed to getFlows {}", lowerflows);
+            logger.error("** Failed to getFlows");
         }
 
         logger.info("getFlows End");
@@ -1621,18 +2043,18 @@ public class LinkLayerizer extends Logic {
         logger.info("getFlows Start");
         logger.info("link id :" + linkId);
 
-        if (null == lowerflows.get(linkId)) {
+        List<String> flows = flowLinkMap.getLowerFlows(linkId);
+        if (null == flows) {
             return "";
         }
 
         String rtnJsonVal = "";
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            rtnJsonVal = mapper.writeValueAsString(lowerflows.get(linkId));
+            rtnJsonVal = JsonCodec.write(flows);
             logger.debug("jsonFlows:" + rtnJsonVal);
         } catch (JsonProcessingException e) {
             e.printStackTrace();
-            logger.error("** Failed to getFlows {}", lowerflows);
+            logger.error("** Failed to getFlows {}", flows);
         }
 
         logger.info("getFlows End");
@@ -1644,12 +2066,11 @@ public class LinkLayerizer extends Logic {
 
         String rtnJsonVal = "";
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            rtnJsonVal = mapper.writeValueAsString(layerizedlinks);
+            rtnJsonVal = JsonCodec.write(flowLinkMap.getLayerizedLinksMap());
             logger.debug("jsonLinks:" + rtnJsonVal);
         } catch (JsonProcessingException e) {
             e.printStackTrace();
-            logger.error("** Failed to getLinks {}", layerizedlinks);
+            logger.error("** Failed to getLinks");
         }
 
         logger.info("getLinks End");
@@ -1661,7 +2082,7 @@ public class LinkLayerizer extends Logic {
         logger.info("flow id :" + flowId);
 
         logger.info("getLinks End");
-        return layerizedlinks.get(flowId);
+        return flowLinkMap.getLayerizedLink(flowId);
     }
 
     private boolean checkBoundary(LinklayerizerBoundary boundary) {
@@ -1715,7 +2136,7 @@ public class LinkLayerizer extends Logic {
                                     final RequestParser<IActionCallback>.
                                     ParsedRequest parsed) throws Exception {
                                 return new Response(Response.OK,
-                                        new ObjectMapper().writeValueAsString(boundaryset
+                                        JsonCodec.write(boundaryset
                                                 .getBoundary(parsed.getParam("boundary_id"))));
                             }
                         });
@@ -1730,6 +2151,26 @@ public class LinkLayerizer extends Logic {
                             }
                         });
 
+                addRule(Method.PUT, "settings/boundaries",
+                        new IActionCallback() {
+                            public Response process(
+                                    final RequestParser<IActionCallback>.
+                                    ParsedRequest parsed) throws Exception {
+                                return new Response(Response.OK, putBoundaries(
+                                        parsed.getRequest().getBody(String.class), false));
+                            }
+                        });
+
+                addRule(Method.PUT, "settings/merge_boundaries",
+                        new IActionCallback() {
+                            public Response process(
+                                    final RequestParser<IActionCallback>.
+                                    ParsedRequest parsed) throws Exception {
+                                return new Response(Response.OK, putBoundaries(
+                                        parsed.getRequest().getBody(String.class), true));
+                            }
+                        });
+
                 addRule(Method.PUT, "settings/boundaries/<boundary_id>",
                         new IActionCallback() {
                             public Response process(
@@ -1751,7 +2192,7 @@ public class LinkLayerizer extends Logic {
                             }
                         });
 
-                addRule(Method.GET, "lower_flows",
+                addRule(Method.GET, LOWER_FLOWS_PATH,
                         new IActionCallback() {
                             public Response process(
                                     final RequestParser<IActionCallback>.
@@ -1760,7 +2201,7 @@ public class LinkLayerizer extends Logic {
                             }
                         });
 
-                addRule(Method.GET, "lower_flows/<link_id>",
+                addRule(Method.GET, LOWER_FLOWS_PATH + "/<link_id>",
                         new IActionCallback() {
                             public Response process(
                                     final RequestParser<IActionCallback>.
@@ -1770,7 +2211,7 @@ public class LinkLayerizer extends Logic {
                             }
                         });
 
-                addRule(Method.GET, "layerized_links",
+                addRule(Method.GET, LAYERIZED_LINKS_PATH,
                         new IActionCallback() {
                             public Response process(
                                     final RequestParser<IActionCallback>.
@@ -1779,7 +2220,40 @@ public class LinkLayerizer extends Logic {
                             }
                         });
 
-                addRule(Method.GET, "layerized_links/<flow_id>",
+                addRule(Method.GET, DEPENDENCIES_PATH + "<network_id>/links/<link_id>",
+                        new IActionCallback() {
+                            public Response process(
+                                    final RequestParser<IActionCallback>.
+                                    ParsedRequest parsed) throws Exception {
+                                return new Response(Response.OK, getAffected(
+                                        LinkLayerizerDependency.link(
+                                                parsed.getParam("network_id"),
+                                                parsed.getParam("link_id"))));
+                            }
+                        });
+
+                addRule(Method.GET, DEPENDENCIES_PATH + "<network_id>/flows/<flow_id>",
+                        new IActionCallback() {
+                            public Response process(
+                                    final RequestParser<IActionCallback>.
+                                    ParsedRequest parsed) throws Exception {
+                                return new Response(Response.OK, getAffected(
+                                        LinkLayerizerDependency.flow(
+                                                parsed.getParam("network_id"),
+                                                parsed.getParam("flow_id"))));
+                            }
+                        });
+
+                addRule(Method.GET, SYNC_STATUS_PATH,
+                        new IActionCallback() {
+                            public Response process(
+                                    final RequestParser<IActionCallback>.
+                                    ParsedRequest parsed) throws Exception {
+                                return new Response(Response.OK, getSyncStatus());
+                            }
+                        });
+
+                addRule(Method.GET, LAYERIZED_LINKS_PATH + "/<flow_id>",
                         new IActionCallback() {
                             public Response process(
                                     final RequestParser<IActionCallback>.
@@ -1792,65 +2266,65 @@ public class LinkLayerizer extends Logic {
         };
     }
 
-    private void callStartLog(String networkId) {
-        startLog(networkId);
+    private void callStartLog(String tag, String networkId) {
+        startLog(tag, networkId);
     }
 
-    private void callStartLog(String networkId, Link link) {
-        startLog(networkId);
+    private void callStartLog(String tag, String networkId, Link link) {
+        startLog(tag, networkId);
         statusLog(link);
     }
 
-    private void callStartLog(String networkId, Link prev, Link curr) {
-        startLog(networkId);
+    private void callStartLog(String tag, String networkId, Link prev, Link curr) {
+        startLog(tag, networkId);
         statusLog(prev, "previous");
         statusLog(curr, "current");
     }
 
-    private void callStartLog(String networkId, Flow flow) {
-        startLog(networkId);
+    private void callStartLog(String tag, String networkId, Flow flow) {
+        startLog(tag, networkId);
         statusLog(flow);
     }
 
-    private void callStartLog(String networkId, Flow prev, Flow curr) {
-        startLog(networkId);
+    private void callStartLog(String tag, String networkId, Flow prev, Flow curr) {
+        startLog(tag, networkId);
         statusLog(prev, "previous");
         statusLog(curr, "current");
     }
 
-    private void callEndLog(String networkId) {
-        endLog(networkId);
+    private void callEndLog(String tag, String networkId) {
+        endLog(tag, networkId);
     }
 
-    private void callEndLog(String networkId, Link link) {
+    private void callEndLog(String tag, String networkId, Link link) {
         statusLog(link);
-        endLog(networkId);
+        endLog(tag, networkId);
     }
 
-    private void callEndLog(String networkId, Link prev, Link curr) {
+    private void callEndLog(String tag, String networkId, Link prev, Link curr) {
         statusLog(prev, "previous");
         statusLog(curr, "current");
-        endLog(networkId);
+        endLog(tag, networkId);
     }
 
-    private void callEndLog(String networkId, Flow flow) {
+    private void callEndLog(String tag, String networkId, Flow flow) {
         statusLog(flow);
-        endLog(networkId);
+        endLog(tag, networkId);
     }
 
-    private void callEndLog(String networkId, Flow prev, Flow curr) {
+    private void callEndLog(String tag, String networkId, Flow prev, Flow curr) {
         statusLog(prev, "previous");
         statusLog(curr, "current");
-        endLog(networkId);
+        endLog(tag, networkId);
     }
 
-    private void startLog(String networkId) {
-        logger.info("** {} Start", new Throwable().getStackTrace()[2].getMethodName());
-        logger.info("** networkcomponentID:{}", networkId);
+    private void startLog(String tag, String networkId) {
+        TraceLog.start(logger, tag);
+        TraceLog.trace(logger, "** networkcomponentID:{}", networkId);
     }
 
-    private void endLog(String networkId) {
-        logger.info("** networkcomponentID:{}", networkId);
-        logger.info("** {} End", new Throwable().getStackTrace()[2].getMethodName());
+    private void endLog(String tag, String networkId) {
+        TraceLog.trace(logger, "** networkcomponentID:{}", networkId);
+        TraceLog.end(logger, tag);
     }
 }
@@ -17,38 +17,171 @@ package org.o3project.ocnrm.odenos.linklayerizer;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
+import org.o3project.ocnrm.lib.JsonCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.JsonToken;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
+/**
+ * Boundaries of LinkLayerizer.
+ * The boundaries are indexed by the lower (node, port), the upper (node, port) and
+ * the lower port, so that a port is translated between the layers without a scan.
+ * The indexes are updated together with the boundaries. When boundaries share a port,
+ * the one indexed first is found.
+ */
 public class LinkLayerizerBoundarySet {
     private Map<String, LinklayerizerBoundary> linklayerizerBoundaryMap
         = new HashMap<String, LinklayerizerBoundary>();
+    private final Map<String, Set<String>> lowerIndex = new HashMap<>();
+    private final Map<String, Set<String>> upperIndex = new HashMap<>();
+    private final Map<String, Set<String>> lowerPortIndex = new HashMap<>();
+    // boundary key -> keys of the boundary in lowerIndex, upperIndex and lowerPortIndex
+    private final Map<String, String[]> indexKeys = new HashMap<>();
     private Logger logger = LoggerFactory.getLogger(LinkLayerizerBoundarySet.class);
 
     public LinkLayerizerBoundarySet() {
         linklayerizerBoundaryMap = new HashMap<String, LinklayerizerBoundary>();
     }
 
-    public Map<String, LinklayerizerBoundary> changeJSONBoundariesToBoundaries(String jsonBoundary,
-            String seqNo) {
+    public synchronized Map<String, LinklayerizerBoundary> changeJSONBoundariesToBoundaries(
+            String jsonBoundary, String seqNo) {
 
         logger.info(seqNo + "\t" + "changeJSONBoundariestoBoundaries Start");
 
         linklayerizerBoundaryMap = new HashMap<String, LinklayerizerBoundary>();
         try {
-            JsonFactory factory = new JsonFactory();
-            JsonParser jp = factory.createParser(jsonBoundary);
-            jp.nextToken();
+            parseBoundaries(jsonBoundary, linklayerizerBoundaryMap, seqNo);
+        } catch (JsonParseException e) {
+            e.printStackTrace();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        rebuildIndexes();
+        logger.info(seqNo + "\t" + "changeJSONBoundariestoBoundaries End");
+        return linklayerizerBoundaryMap;
+    }
+
+    /**
+     * Boundaries in JSON ({"boundary_id": boundary, ...}) are parsed with the streaming parser.
+     * A boundary without "boundary_id" takes the key of the map.
+     *
+     * @return Parsed boundaries
+     * @throws IOException  if the JSON is invalid
+     * @throws IllegalStateException  if a boundary has an unrecognized field
+     */
+    public static Map<String, LinklayerizerBoundary> parseBoundaries(String jsonBoundary,
+            String seqNo) throws IOException {
+        Map<String, LinklayerizerBoundary> boundaries = new HashMap<>();
+        parseBoundaries(jsonBoundary, boundaries, seqNo);
+        return boundaries;
+    }
+
+    /**
+     * The boundaries are applied at once and the indexes are rebuilt only once.
+     *
+     * @param boundaries  Boundaries to be applied
+     * @param merge  true if the boundaries are merged into the current ones,
+     *               false if they replace the current ones
+     */
+    public synchronized void importBoundaries(Map<String, LinklayerizerBoundary> boundaries,
+            boolean merge) {
+        if (merge) {
+            linklayerizerBoundaryMap.putAll(boundaries);
+        } else {
+            linklayerizerBoundaryMap = new HashMap<>(boundaries);
+        }
+        rebuildIndexes();
+    }
+
+    public synchronized String getUpperNWPort(String lowerNWPort, String seqNo) {
+        logger.info(seqNo + "\t" + "getUpperNWPort Start");
+        logger.debug(seqNo + "\t" + "lowerNWPort:" + lowerNWPort);
+        String upperNWPort = "";
+        LinklayerizerBoundary boundary = lookup(lowerPortIndex, lowerNWPort);
+        if (null != boundary) {
+            upperNWPort = boundary.getUpper_nw_port();
+        }
+        logger.info(seqNo + "\t" + "getUpperNWPort End");
+        return upperNWPort;
+    }
+
+    /**
+     * @return Boundary whose lower node and port are the given ones, or null
+     */
+    public synchronized LinklayerizerBoundary getBoundaryByLower(String nodeId, String portId) {
+        return lookup(lowerIndex, portKey(nodeId, portId));
+    }
+
+    /**
+     * @return Boundary whose upper node and port are the given ones, or null
+     */
+    public synchronized LinklayerizerBoundary getBoundaryByUpper(String nodeId, String portId) {
+        return lookup(upperIndex, portKey(nodeId, portId));
+    }
+
+    public synchronized String changeBoundariestoJSON() {
+        logger.info("changeBoundariestoJSON Start");
+
+        String jsonBoundaries = "";
+        try {
+            jsonBoundaries = JsonCodec.write(linklayerizerBoundaryMap);
+            logger.debug("jsonBoundaries:" + jsonBoundaries);
+        } catch (JsonProcessingException e) {
+            e.printStackTrace();
+        }
+
+        logger.info("changeBoundariestoJSON Endt");
+        return jsonBoundaries;
+    }
+
+    public synchronized void putBoundary(String key, LinklayerizerBoundary value) {
+        LinklayerizerBoundary old = linklayerizerBoundaryMap.put(key, value);
+        if (null != old) {
+            unindex(key);
+        }
+        index(key, value);
+    }
+
+    public synchronized LinklayerizerBoundary getBoundary(String key) {
+        return linklayerizerBoundaryMap.get(key);
+    }
+
+    public synchronized void removeBoundaries(String key) {
+        LinklayerizerBoundary old = linklayerizerBoundaryMap.remove(key);
+        if (null != old) {
+            unindex(key);
+        }
+    }
+
+    /**
+     * @return Copy of the boundaries
+     */
+    public synchronized Map<String, LinklayerizerBoundary> getLinklayerizerBoundaryMap() {
+        return new HashMap<>(linklayerizerBoundaryMap);
+    }
+
+    public synchronized void setLinklayerizerBoundaryMap(Map<String,
+            LinklayerizerBoundary> linklayerizerBoundaryMap) {
+        importBoundaries(linklayerizerBoundaryMap, false);
+    }
+
+    private static void parseBoundaries(String jsonBoundary,
+            Map<String, LinklayerizerBoundary> boundaries, String seqNo) throws IOException {
+        JsonParser jp = JsonCodec.factory().createParser(jsonBoundary);
+        try {
+            if (jp.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(seqNo + "\t" + "Boundaries are not an object",
+                        jp.getCurrentLocation());
+            }
             while (jp.nextToken() != JsonToken.END_OBJECT) {
                 String mapKey = jp.getCurrentName();
                 LinklayerizerBoundary llb = new LinklayerizerBoundary();
@@ -77,70 +210,86 @@ public class LinkLayerizerBoundarySet {
                         + fieldname + "'!");
                     }
                 }
-                linklayerizerBoundaryMap.put(mapKey, llb);
+                if (llb.getBoundary_id().isEmpty()) {
+                    llb.setBoundary_id(mapKey);
+                }
+                boundaries.put(mapKey, llb);
             }
+        } finally {
             jp.close();
-        } catch (JsonParseException e) {
-            e.printStackTrace();
-        } catch (IOException e) {
-            e.printStackTrace();
         }
-        logger.info(seqNo + "\t" + "changeJSONBoundariestoBoundaries End");
-        return linklayerizerBoundaryMap;
     }
 
-    public String getUpperNWPort(String lowerNWPort, String seqNo) {
-        logger.info(seqNo + "\t" + "getUpperNWPort Start");
-        String upperNWPort = "";
+    private void rebuildIndexes() {
+        clearIndexes();
         for (Entry<String, LinklayerizerBoundary> entry : linklayerizerBoundaryMap.entrySet()) {
-            logger.debug(seqNo + "\t" + "lowerNWPort:" + lowerNWPort);
-            logger.debug(seqNo + "\t" + "entry.getValue().getLower_nw_port():"
-                + entry.getValue().getLower_nw_port());
-
-            if (lowerNWPort.equals(entry.getValue().getLower_nw_port())) {
-                upperNWPort = entry.getValue().getUpper_nw_port();
-                break;
-            }
+            index(entry.getKey(), entry.getValue());
         }
-        logger.info(seqNo + "\t" + "getUpperNWPort End");
-        return upperNWPort;
     }
 
-    public String changeBoundariestoJSON() {
-        logger.info("changeBoundariestoJSON Start");
+    private LinklayerizerBoundary lookup(Map<String, Set<String>> index, String key) {
+        Set<String> boundaryIds = index.get(key);
+        return (null == boundaryIds) ? null
+                : linklayerizerBoundaryMap.get(boundaryIds.iterator().next());
+    }
 
-        String jsonBoundaries = "";
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            jsonBoundaries = mapper.writeValueAsString(linklayerizerBoundaryMap);
-            logger.debug("jsonBoundaries:" + jsonBoundaries);
-        } catch (JsonProcessingException e) {
-            e.printStackTrace();
-        }
+    private void index(String key, LinklayerizerBoundary boundary) {
+        String[] keys = {lowerKey(boundary), upperKey(boundary),
+            String.valueOf(boundary.getLower_nw_port())};
+        indexKeys.put(key, keys);
+        add(lowerIndex, keys[0], key);
+        add(upperIndex, keys[1], key);
+        add(lowerPortIndex, keys[2], key);
+    }
 
-        logger.info("changeBoundariestoJSON Endt");
-        return jsonBoundaries;
+    /**
+     * Index entries of the boundary are removed with the keys stored when it was indexed.
+     */
+    private void unindex(String key) {
+        String[] keys = indexKeys.remove(key);
+        if (null == keys) {
+            return;
+        }
+        remove(lowerIndex, keys[0], key);
+        remove(upperIndex, keys[1], key);
+        remove(lowerPortIndex, keys[2], key);
     }
 
-    public void putBoundary(String key, LinklayerizerBoundary value) {
-        linklayerizerBoundaryMap.put(key, value);
+    private static void add(Map<String, Set<String>> index, String indexKey, String key) {
+        Set<String> boundaryIds = index.get(indexKey);
+        if (null == boundaryIds) {
+            boundaryIds = new LinkedHashSet<>();
+            index.put(indexKey, boundaryIds);
+        }
+        boundaryIds.add(key);
     }
 
-    public LinklayerizerBoundary getBoundary(String key) {
-        return linklayerizerBoundaryMap.get(key);
+    private static void remove(Map<String, Set<String>> index, String indexKey, String key) {
+        Set<String> boundaryIds = index.get(indexKey);
+        if (null != boundaryIds) {
+            boundaryIds.remove(key);
+            if (boundaryIds.isEmpty()) {
+                index.remove(indexKey);
+            }
+        }
     }
 
-    public void removeBoundaries(String key) {
-        linklayerizerBoundaryMap.remove(key);
+    private void clearIndexes() {
+        lowerIndex.clear();
+        upperIndex.clear();
+        lowerPortIndex.clear();
+        indexKeys.clear();
     }
 
-    public Map<String, LinklayerizerBoundary> getLinklayerizerBoundaryMap() {
-        return linklayerizerBoundaryMap;
+    private static String lowerKey(LinklayerizerBoundary boundary) {
+        return portKey(boundary.getLower_nw_node(), boundary.getLower_nw_port());
     }
 
-    public void setLinklayerizerBoundaryMap(Map<String,
-            LinklayerizerBoundary> linklayerizerBoundaryMap) {
-        this.linklayerizerBoundaryMap = linklayerizerBoundaryMap;
+    private static String upperKey(LinklayerizerBoundary boundary) {
+        return portKey(boundary.getUpper_nw_node(), boundary.getUpper_nw_port());
     }
 
+    private static String portKey(String nodeId, String portId) {
+        return nodeId + "::" + portId;
+    }
 }
@@ -0,0 +1,79 @@
+/*
+* Copyright 2015 FUJITSU LIMITED.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.o3project.ocnrm.odenos.linklayerizer;
+
+/**
+ * Link or flow of a network in LinkLayerizerDependencyIndex.
+ */
+public final class LinkLayerizerDependency {
+    public static final String LINK = "link";
+    public static final String FLOW = "flow";
+
+    private final String networkId;
+    private final String type;
+    private final String id;
+
+    private LinkLayerizerDependency(String networkId, String type, String id) {
+        this.networkId = networkId;
+        this.type = type;
+        this.id = id;
+    }
+
+    public static LinkLayerizerDependency link(String networkId, String linkId) {
+        return new LinkLayerizerDependency(networkId, LINK, linkId);
+    }
+
+    public static LinkLayerizerDependency flow(String networkId, String flowId) {
+        return new LinkLayerizerDependency(networkId, FLOW, flowId);
+    }
+
+    public String getNetwork_id() {
+        return networkId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof LinkLayerizerDependency)) {
+            return false;
+        }
+        LinkLayerizerDependency other = (LinkLayerizerDependency) obj;
+        return String.valueOf(networkId).equals(String.valueOf(other.networkId))
+                && type.equals(other.type)
+                && String.valueOf(id).equals(String.valueOf(other.id));
+    }
+
+    @Override
+    public int hashCode() {
+        return (String.valueOf(networkId).hashCode() * 31 + type.hashCode()) * 31
+                + String.valueOf(id).hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return networkId + "::" + type + "::" + id;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+* Copyright 2015 FUJITSU LIMITED.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.o3project.ocnrm.odenos.linklayerizer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Dependencies between the links and flows of the networks connected to LinkLayerizers,
+ * e.g. lower link &lt;- lower flow &lt;- layerized link &lt;- layerized flow &lt;- upper flow.
+ * The objects are identified by network, so the dependencies of stacked LinkLayerizers
+ * are chained through the network they share.
+ * The index is updated incrementally by the LinkLayerizers, and the objects affected
+ * by an object are found in time proportional to their number.
+ */
+public class LinkLayerizerDependencyIndex {
+    private static LinkLayerizerDependencyIndex instance = new LinkLayerizerDependencyIndex();
+
+    // object -> objects which it depends on
+    private final Map<LinkLayerizerDependency, Set<LinkLayerizerDependency>> upstream =
+            new HashMap<>();
+    // object -> objects which depend on it
+    private final Map<LinkLayerizerDependency, Set<LinkLayerizerDependency>> downstream =
+            new HashMap<>();
+
+    LinkLayerizerDependencyIndex() {
+    }
+
+    public static LinkLayerizerDependencyIndex getInstance() {
+        return instance;
+    }
+
+    /**
+     * The dependencies of the object are replaced.
+     *
+     * @param object  Link or flow
+     * @param dependsOn  Links and flows which the object depends on
+     */
+    public synchronized void setDependencies(LinkLayerizerDependency object,
+            Collection<LinkLayerizerDependency> dependsOn) {
+        unlink(object);
+        if (dependsOn.isEmpty()) {
+            return;
+        }
+        Set<LinkLayerizerDependency> targets = new HashSet<>(dependsOn);
+        targets.remove(object);
+        upstream.put(object, targets);
+        for (LinkLayerizerDependency target : targets) {
+            Set<LinkLayerizerDependency> dependents = downstream.get(target);
+            if (null == dependents) {
+                dependents = new HashSet<>();
+                downstream.put(target, dependents);
+            }
+            dependents.add(object);
+        }
+    }
+
+    /**
+     * The dependencies of the object are removed. Objects which depend on it keep their
+     * dependencies until they are updated or removed themselves.
+     */
+    public synchronized void remove(LinkLayerizerDependency object) {
+        unlink(object);
+    }
+
+    /**
+     * @return Links and flows which depend on the object directly or indirectly,
+     *         nearer ones first
+     */
+    public synchronized List<LinkLayerizerDependency> getAffected(LinkLayerizerDependency object) {
+        Set<LinkLayerizerDependency> affected = new LinkedHashSet<>();
+        Deque<LinkLayerizerDependency> queue = new ArrayDeque<>();
+        queue.add(object);
+        while (!queue.isEmpty()) {
+            Set<LinkLayerizerDependency> dependents = downstream.get(queue.poll());
+            if (null == dependents) {
+                continue;
+            }
+            for (LinkLayerizerDependency dependent : dependents) {
+                if (!dependent.equals(object) && affected.add(dependent)) {
+                    queue.add(dependent);
+                }
+            }
+        }
+        return new ArrayList<>(affected);
+    }
+
+    private void unlink(LinkLayerizerDependency object) {
+        Set<LinkLayerizerDependency> targets = upstream.remove(object);
+        if (null == targets) {
+            return;
+        }
+        for (LinkLayerizerDependency target : targets) {
+            Set<LinkLayerizerDependency> dependents = downstream.get(target);
+            if (null != dependents) {
+                dependents.remove(object);
+                if (dependents.isEmpty()) {
+                    downstream.remove(target);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+* Copyright 2015 FUJITSU LIMITED.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.o3project.ocnrm.odenos.linklayerizer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Progress of a synchronization of LinkLayerizer with its networks.
+ */
+public class LinkLayerizerSyncStatus {
+    public static final String RUNNING = "running";
+    public static final String DONE = "done";
+
+    private volatile String state = RUNNING;
+    private final long startTime = System.currentTimeMillis();
+    private volatile long endTime = 0;
+    private volatile int nodes = 0;
+    private volatile int flows = 0;
+    private final AtomicInteger skippedNodes = new AtomicInteger();
+    private final AtomicInteger skippedFlows = new AtomicInteger();
+    private final AtomicInteger processedFlows = new AtomicInteger();
+    private final AtomicInteger failedFlows = new AtomicInteger();
+
+    void setNodes(int nodes) {
+        this.nodes = nodes;
+    }
+
+    void setFlows(int flows) {
+        this.flows = flows;
+    }
+
+    void skipNode() {
+        skippedNodes.incrementAndGet();
+    }
+
+    void skipFlow() {
+        skippedFlows.incrementAndGet();
+    }
+
+    /**
+     * @return Number of the flows processed so far
+     */
+    int processFlow() {
+        return processedFlows.incrementAndGet();
+    }
+
+    void failFlow() {
+        failedFlows.incrementAndGet();
+    }
+
+    void finish() {
+        endTime = System.currentTimeMillis();
+        state = DONE;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public int getNodes() {
+        return nodes;
+    }
+
+    public int getSkippedNodes() {
+        return skippedNodes.get();
+    }
+
+    public int getFlows() {
+        return flows;
+    }
+
+    public int getSkippedFlows() {
+        return skippedFlows.get();
+    }
+
+    public int getProcessedFlows() {
+        return processedFlows.get();
+    }
+
+    public int getFailedFlows() {
+        return failedFlows.get();
+    }
+
+    /**
+     * @return Elapsed time (ms) of the synchronization, or so far if it is running
+     */
+    public long getElapsedTime() {
+        return ((0 == endTime) ? System.currentTimeMillis() : endTime) - startTime;
+    }
+}
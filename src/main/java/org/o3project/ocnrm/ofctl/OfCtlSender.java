@@ -15,16 +15,21 @@
 */
 package org.o3project.ocnrm.ofctl;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import org.json.JSONArray;
 import org.json.JSONException;
+import org.json.JSONObject;
+import org.o3project.ocnrm.lib.HttpClientPool;
 import org.o3project.ocnrm.odenos.lib.OdenOsPropertyLoader;
-import org.restlet.Client;
-import org.restlet.Context;
-import org.restlet.data.Protocol;
-import org.restlet.representation.Representation;
-import org.restlet.representation.StringRepresentation;
-import org.restlet.resource.ClientResource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,8 +40,17 @@ public class OfCtlSender {
     private Logger logger = LoggerFactory.getLogger(OfCtlSender.class);
     private static OdenOsPropertyLoader loader = OdenOsPropertyLoader.getInstance();
     private static final String OFCTL_SEND_URL = loader.getOfcTlSendURL();
+    private static final String OFCTL_STATS_URL = loader.getOfcTlStatsURL();
+    private static final long CONFIRM_INTERVAL = Long.valueOf(loader.getOfcTlConfirmInterval());
+    private static final ExecutorService SEND_SERVICE =
+            Executors.newFixedThreadPool(Integer.valueOf(loader.getHttpPoolSize()));
+
+    private static final String DPID = "dpid";
+    private static final String MATCH = "match";
     private String seqNo = "";
 
+    private HttpClientPool httpClient = HttpClientPool.getInstance();
+
     /**
      * Flow information is transmitted to OpenFlow Controller.
      * The array of Flow information passed by the argument is divided into one flow,
@@ -55,6 +69,41 @@ public class OfCtlSender {
         logger.info(seqNo + "\t" + "ofCtlSend End");
     }
 
+    /**
+     * Flow information is transmitted to OpenFlow Controller in a pipeline.
+     * Each flow is sent without waiting for the response of the previous one,
+     * up to HTTP_POOL_SIZE at a time, and it returns when all of them are answered.
+     * @param flows     Array of Flow information
+     * @param method    FLOW_ADD_METHOD or FLOW_DELETE_METHOD
+     * @param seqNo     Sequence number
+     */
+    public void ofCtlSendPipelined(List<String> flows, final String method, String seqNo) {
+        this.seqNo = seqNo;
+        logger.info(seqNo + "\t" + "ofCtlSendPipelined Start");
+        logger.debug(seqNo + "\t" + "getFlow : " + flows.toString());
+        List<Future<?>> results = new ArrayList<>();
+        for (final String flow : flows) {
+            results.add(SEND_SERVICE.submit(new Runnable() {
+                @Override
+                public void run() {
+                    ofCtlCall(flow, method);
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            try {
+                result.get();
+            } catch (InterruptedException e) {
+                logger.error(seqNo + "\t" + "InterruptedException occurred.");
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                logger.error(seqNo + "\t" + "catch exception: " + e.getCause());
+            }
+        }
+        logger.info(seqNo + "\t" + "ofCtlSendPipelined End");
+    }
+
     private void ofCtlCall(String param, String method) {
         logger.info(seqNo + "\t" + "ofCtlCall Start");
         logger.debug(seqNo + "\t" + "Post Connect Route");
@@ -62,40 +111,132 @@ public class OfCtlSender {
         logger.debug(seqNo + "\t" + "method :" + method);
         logger.debug(seqNo + "\t" + "strParam :" + param);
 
-        ClientResource client = new ClientResource(OFCTL_SEND_URL + "/" + method);
-        Client ct = new Client(new Context(), Protocol.HTTP);
-        client.setNext(ct);
-
-        StringRepresentation srp = new StringRepresentation(param.toCharArray());
-        Representation representation = null;
         try {
-            representation = client.post(srp);
-            String tmp = representation.toString();
+            String tmp = httpClient.post(OFCTL_SEND_URL + "/" + method, param);
             logger.debug(seqNo + "\t" + "Representation:" + tmp);
-            if (tmp == null) {
-                logger.error(seqNo + "\t" + "Representation is null.");
-            }
         } catch (Exception e) {
             logger.error(seqNo + "\t" + "catch exception: " + e.getMessage());
             e.printStackTrace();
-        } finally {
-            if (representation != null) {
-                representation.release();
+        }
+        logger.info(seqNo + "\t" + "ofCtlCall End");
+    }
+
+    /**
+     * Confirms that the flow entries are reflected in OpenFlow Controller.
+     * Flow statistics of each datapath are polled until all the entries are
+     * installed (FLOW_ADD_METHOD) or removed (FLOW_DELETE_METHOD), or the timeout.
+     * @param flows     Array of Flow information sent by ofCtlSend
+     * @param method    FLOW_ADD_METHOD or FLOW_DELETE_METHOD
+     * @param timeout   Deadline of confirmation (ms)
+     * @param seqNo     Sequence number
+     * @return true if all the entries were confirmed.
+     *         false if they could not be confirmed by the deadline
+     *         or flow statistics are not available.
+     */
+    public boolean confirm(List<String> flows, String method, long timeout, String seqNo) {
+        logger.info(seqNo + "\t" + "confirm Start");
+        boolean installed = FLOW_ADD_METHOD.equals(method);
+
+        Map<String, List<JSONObject>> remains = new HashMap<>();
+        try {
+            for (String flow : flows) {
+                JSONObject entry = new JSONObject(flow);
+                if (!entry.has(DPID) || !entry.has(MATCH)) {
+                    logger.debug(seqNo + "\t" + "cannot confirm entry: " + flow);
+                    logger.info(seqNo + "\t" + "confirm End");
+                    return false;
+                }
+                String dpid = String.valueOf(entry.get(DPID));
+                if (!remains.containsKey(dpid)) {
+                    remains.put(dpid, new ArrayList<JSONObject>());
+                }
+                remains.get(dpid).add(entry.getJSONObject(MATCH));
             }
-            srp.release();
-            client.release();
+        } catch (JSONException e) {
+            logger.error(seqNo + "\t" + "catch exception: " + e.getMessage());
+            logger.info(seqNo + "\t" + "confirm End");
+            return false;
+        }
 
-            representation = null;
-            srp = null;
-            client = null;
+        long deadline = System.currentTimeMillis() + timeout;
+        while (true) {
+            Iterator<Map.Entry<String, List<JSONObject>>> it = remains.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, List<JSONObject>> remain = it.next();
+                JSONArray stats = getFlowStats(remain.getKey(), seqNo);
+                if (null == stats) {
+                    logger.warn(seqNo + "\t" + "flow stats are not available.");
+                    logger.info(seqNo + "\t" + "confirm End");
+                    return false;
+                }
+                Iterator<JSONObject> matches = remain.getValue().iterator();
+                while (matches.hasNext()) {
+                    if (installed == containsMatch(stats, matches.next())) {
+                        matches.remove();
+                    }
+                }
+                if (remain.getValue().isEmpty()) {
+                    it.remove();
+                }
+            }
+            if (remains.isEmpty()) {
+                logger.info(seqNo + "\t" + "confirm End");
+                return true;
+            }
+            long rest = deadline - System.currentTimeMillis();
+            if (rest <= 0) {
+                logger.warn(seqNo + "\t" + "flow entries are not confirmed: " + remains.keySet());
+                logger.info(seqNo + "\t" + "confirm End");
+                return false;
+            }
             try {
-                ct.stop();
-            } catch (Exception e) {
-                logger.debug(seqNo + "\t" + "catch exception: " + e.getMessage());
+                Thread.sleep(Math.min(CONFIRM_INTERVAL, rest));
+            } catch (InterruptedException e) {
+                logger.error(seqNo + "\t" + "InterruptedException occurred.");
+                Thread.currentThread().interrupt();
+                return false;
             }
-            ct = null;
         }
-        logger.info(seqNo + "\t" + "ofCtlCall End");
     }
 
+    private JSONArray getFlowStats(String dpid, String seqNo) {
+        try {
+            JSONObject stats = new JSONObject(httpClient.get(OFCTL_STATS_URL + "/" + dpid));
+            return stats.optJSONArray(dpid);
+        } catch (Exception e) {
+            logger.debug(seqNo + "\t" + "catch exception: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean containsMatch(JSONArray stats, JSONObject match) {
+        for (int index = 0; index < stats.length(); index++) {
+            JSONObject stat = stats.optJSONObject(index);
+            if (null != stat && null != stat.optJSONObject(MATCH)
+                    && isSubset(match, stat.getJSONObject(MATCH))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isSubset(JSONObject expected, JSONObject actual) {
+        Iterator<?> keys = expected.keys();
+        while (keys.hasNext()) {
+            String key = (String) keys.next();
+            if (!actual.has(key)) {
+                return false;
+            }
+            Object expectedValue = expected.get(key);
+            Object actualValue = actual.get(key);
+            if (expectedValue instanceof JSONObject && actualValue instanceof JSONObject) {
+                if (!isSubset((JSONObject) expectedValue, (JSONObject) actualValue)) {
+                    return false;
+                }
+            } else if (!String.valueOf(expectedValue).equals(String.valueOf(actualValue))) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
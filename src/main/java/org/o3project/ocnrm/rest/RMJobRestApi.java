@@ -0,0 +1,93 @@
+/*
+* Copyright 2015 FUJITSU LIMITED.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.o3project.ocnrm.rest;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.o3project.ocnrm.lib.OcnMFSequenceLib;
+import org.o3project.ocnrm.odenos.lib.OdenOsPropertyLoader;
+import org.o3project.ocnrm.odenos.lib.OdenOsSender;
+import org.o3project.odenos.remoteobject.message.Request.Method;
+import org.o3project.odenos.remoteobject.message.Response;
+import org.restlet.ext.json.JsonRepresentation;
+import org.restlet.representation.Representation;
+import org.restlet.resource.Get;
+import org.restlet.resource.ServerResource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class RMJobRestApi extends ServerResource {
+    private Logger logger = LoggerFactory.getLogger(RMJobRestApi.class);
+    private static OdenOsPropertyLoader loader = OdenOsPropertyLoader.getInstance();
+    private OdenOsSender odenos = OdenOsSender.getInstance();
+
+    private static final String RESTAPI_SUCCESS_MSG = loader.getRestAPIResultMsg();
+    private static final String RESTAPI_ERROR_MSG = loader.getRestAPIErrorMsg();
+    private static final String RESTAPI_SUCCESS = loader.getRestAPISuccess();
+    private static final String RESTAPI_ERROR = loader.getRestAPIError();
+
+    private static final String DRIVER = "optDriver";
+
+    private static final String SEQNO_PREFIX = "#";
+    private OcnMFSequenceLib mf = OcnMFSequenceLib.getInstance();
+    private String seqNo = "";
+
+    /**
+     * Acquisition REST API of the status of a request accepted by the driver.
+     *
+     * <br><br>The return value is the following.
+     * <br>Example<br>
+     * {"ResultRevel":"0","body":{"jobId":"...","status":"done","statusCode":"200",...}}
+     * (Success)<br>
+     * {"ResultRevel":"1","ErrorMessage":"no response"}(Failure)
+     *
+     * @return Representation
+     * @throws JSONException
+     */
+    @Get
+    public Representation getJob() throws JSONException {
+        seqNo = SEQNO_PREFIX + mf.requestNoToString();
+        logger.info(seqNo + "\t" + "getJob() Start");
+        String jobId = (String) getRequestAttributes().get("job_id");
+        JSONObject result = new JSONObject();
+        result.put(RESTAPI_SUCCESS_MSG, RESTAPI_SUCCESS);
+
+        Response rsp = odenos.sendRequest("systemmanager", Method.GET,
+                "components/" + DRIVER + "/jobs/" + jobId, null);
+        if (null == rsp) {
+            logger.debug("Failed.");
+            result.put(RESTAPI_SUCCESS_MSG, RESTAPI_ERROR);
+            result.put(RESTAPI_ERROR_MSG, "no response");
+        } else {
+            String returnVal = "";
+            try {
+                returnVal = rsp.getBody(String.class);
+            } catch (Exception e) {
+                returnVal = rsp.getBodyValue().toString();
+            }
+            if (Response.OK.equals(rsp.statusCode)) {
+                result.put("body", new JSONObject(returnVal));
+            } else {
+                result.put(RESTAPI_SUCCESS_MSG, RESTAPI_ERROR);
+                result.put(RESTAPI_ERROR_MSG, returnVal);
+            }
+        }
+
+        logger.info(seqNo + "\t" + "response : " + result.toString());
+        logger.info(seqNo + "\t" + "getJob() End");
+        return new JsonRepresentation(result);
+    }
+}
@@ -23,6 +23,7 @@ import org.o3project.ocnrm.lib.OcnMFSequenceLib;
 import org.o3project.ocnrm.odenos.lib.OdenOsPropertyLoader;
 import org.o3project.ocnrm.odenos.lib.OdenOsSender;
 import org.o3project.odenos.remoteobject.message.Request.Method;
+import org.o3project.odenos.remoteobject.message.Response;
 import org.restlet.ext.json.JsonRepresentation;
 import org.restlet.representation.Representation;
 import org.restlet.resource.Post;
@@ -43,6 +44,8 @@ public class RMNodeRestApi extends ServerResource {
     private static final String RESTAPI_ERROR = loader.getRestAPIError();
 
     private static final String DRIVER = "optDriver";
+    private static final String JOB_ID = "job_id";
+    private OdenOsSender odenos = OdenOsSender.getInstance();
 
     private static final String SEQNO_PREFIX = "#";
     private OcnMFSequenceLib mf = OcnMFSequenceLib.getInstance();
@@ -53,7 +56,7 @@ public class RMNodeRestApi extends ServerResource {
      *
      * <br><br>The return value is the following.
      * <br>Example<br>
-     * {"ResultRevel":"0"}(Success)<br>
+     * {"ResultRevel":"0","job_id":"..."}(Success)<br>
      * {"ResultRevel":"1","ErrorMessage":"100　An error has occurred."}(Failure)
      *
      * @param nodeInfoFromMF   Registered physical resource information
@@ -69,38 +72,15 @@ public class RMNodeRestApi extends ServerResource {
         seqNo = SEQNO_PREFIX + mf.requestNoToString();
         logger.info(seqNo + "\t" + "createNodeInfo() Start");
         logger.info(seqNo + "\t" + "getParam : " + nodeInfoFromMF);
-        final JSONObject jsonObj = new JSONObject(nodeInfoFromMF);
+        JSONObject jsonObj = new JSONObject(nodeInfoFromMF);
         JSONObject result = new JSONObject();
 
         if (jsonObj.has("lower")) {
             logger.debug("make lower topology.");
-            Thread task = new Thread(new Runnable() {
-                @Override
-                public void run() {
-                    OdenOsSender.getInstance()
-                            .sendRequest("systemmanager", Method.PUT,
-                                    "components/" + DRIVER + "/settings/och/topology",
-                                    jsonObj.toString());
-                }
-            });
-            task.start();
-
-            result.put(RESTAPI_SUCCESS_MSG, RESTAPI_SUCCESS);
+            sendTopology("och", jsonObj, result);
         } else if (jsonObj.has("upper")) {
             logger.debug("make upper topology.");
-            Thread task = new Thread(new Runnable() {
-                @Override
-                public void run() {
-                    OdenOsSender.getInstance()
-                            .sendRequest("systemmanager",
-                                    Method.PUT,
-                                    "components/" + DRIVER + "/settings/odu/topology",
-                                    jsonObj.toString());
-                }
-            });
-            task.start();
-
-            result.put(RESTAPI_SUCCESS_MSG, RESTAPI_SUCCESS);
+            sendTopology("odu", jsonObj, result);
         } else {
             result.put(RESTAPI_SUCCESS_MSG, RESTAPI_ERROR);
             result.put(RESTAPI_ERROR_MSG, "100 An error has occurred.");
@@ -113,4 +93,26 @@ public class RMNodeRestApi extends ServerResource {
         return new JsonRepresentation(result);
     }
 
+    private void sendTopology(String layer, JSONObject jsonObj, JSONObject result) {
+        Response rsp = odenos.sendRequest("systemmanager", Method.PUT,
+                "components/" + DRIVER + "/settings/" + layer + "/topology",
+                jsonObj.toString());
+        if (null == rsp || !Response.OK.equals(rsp.statusCode)) {
+            logger.debug("Failed. response is {}", rsp);
+            result.put(RESTAPI_SUCCESS_MSG, RESTAPI_ERROR);
+            result.put(RESTAPI_ERROR_MSG, "100 An error has occurred.");
+            return;
+        }
+        result.put(RESTAPI_SUCCESS_MSG, RESTAPI_SUCCESS);
+
+        // the topology is applied asynchronously, its status is returned by JOB_PATH
+        try {
+            JSONObject body = new JSONObject(rsp.getBody(String.class));
+            if (body.has(JOB_ID)) {
+                result.put(JOB_ID, body.getString(JOB_ID));
+            }
+        } catch (Exception e) {
+            logger.debug("job_id is not found: {}", rsp.getBodyValue());
+        }
+    }
 }
@@ -38,6 +38,7 @@ public class RMrouterApplication extends Application {
     private static final String LGCST_PATH = loader.getLGCStarterPath();
     private static final String CONNECTION_PATH = loader.getConectionPath();
     private static final String GUI_PATH = loader.getGUIPath();
+    private static final String JOB_PATH = loader.getJobPath();
 
     private static final String SEQNO_PREFIX = "#";
     private OcnMFSequenceLib mf = OcnMFSequenceLib.getInstance();
@@ -55,6 +56,7 @@ public class RMrouterApplication extends Application {
         router.attach(CONNECTION_PATH, ConnectionCreator.class);
         router.attach(GUI_PATH, GUIRestApi.class);
         router.attach(ROUTER_PATH, RMNodeRestApi.class);
+        router.attach(JOB_PATH, RMJobRestApi.class);
         router.attach(LAYERIZER_PATH, RMLinkLayerizerRestApi.class, Template.MODE_STARTS_WITH);
 
         logger.info(seqNo + "\t" + "createInboundRoot() End");
@@ -0,0 +1,131 @@
+/*
+* Copyright 2015 FUJITSU LIMITED.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.o3project.ocnrm.lib;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EventCoalescerTest {
+    private EventCoalescer.Merger<String> merger;
+    private EventCoalescer<String> target;
+
+    @Before
+    public void setUp() throws Exception {
+        // "u:" messages are merged, others are not
+        merger = new EventCoalescer.Merger<String>() {
+            @Override
+            public String merge(String pending, String next) {
+                if (!pending.startsWith("u:") || !next.startsWith("u:")) {
+                    return null;
+                }
+                return pending + next.substring(1);
+            }
+        };
+        target = new EventCoalescer<>(merger);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        merger = null;
+        target = null;
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.EventCoalescer#offer(Object, Object)}
+     */
+    @Test
+    public void testOffer() {
+        assertThat(target.offer("key1", "u:1"), is(true));
+        assertThat(target.offer("key1", "u:2"), is(false));
+        assertThat(target.offer("key2", "u:3"), is(true));
+
+        assertThat(target.poll("key1"), is("u:1:2"));
+        assertThat(target.poll("key1"), is(nullValue()));
+        assertThat(target.poll("key2"), is("u:3"));
+        assertThat(target.getReceivedCount(), is(3L));
+        assertThat(target.getMergedCount(), is(1L));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.EventCoalescer#offer(Object, Object)}
+     */
+    @Test
+    public void testOfferWithNotMergeableMessage() {
+        assertThat(target.offer("key", "a:1"), is(true));
+        assertThat(target.offer("key", "u:2"), is(true));
+        assertThat(target.offer("key", "u:3"), is(false));
+        assertThat(target.offer("key", "d:4"), is(true));
+        assertThat(target.offer("key", "u:5"), is(true));
+
+        assertThat(target.poll("key"), is("a:1"));
+        assertThat(target.poll("key"), is("u:2:3"));
+        assertThat(target.poll("key"), is("d:4"));
+        assertThat(target.poll("key"), is("u:5"));
+        assertThat(target.getMergedCount(), is(1L));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.EventCoalescer#poll(Object)}
+     */
+    @Test
+    public void testPollBeforeNextOffer() {
+        assertThat(target.offer("key", "u:1"), is(true));
+        assertThat(target.poll("key"), is("u:1"));
+
+        // the message being handled is not merged
+        assertThat(target.offer("key", "u:2"), is(true));
+        assertThat(target.poll("key"), is("u:2"));
+        assertThat(target.getMergedCount(), is(0L));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.EventCoalescer#offer(Object, Object)}
+     */
+    @Test
+    public void testOfferWithTail() {
+        EventCoalescer.Tail tail = new EventCoalescer.Tail();
+        EventCoalescer<String> other = new EventCoalescer<>(merger, tail);
+        target = new EventCoalescer<>(merger, tail);
+
+        assertThat(target.offer("key1", "u:1"), is(true));
+        assertThat(target.offer("key1", "u:2"), is(false));
+        // a message queued later is not overtaken by a merge
+        assertThat(target.offer("key2", "u:3"), is(true));
+        assertThat(target.offer("key1", "u:4"), is(true));
+        assertThat(target.offer("key1", "u:5"), is(false));
+        assertThat(other.offer("key1", "u:6"), is(true));
+        assertThat(target.offer("key1", "u:7"), is(true));
+        tail.mark();
+        assertThat(target.offer("key1", "u:8"), is(true));
+
+        assertThat(target.poll("key1"), is("u:1:2"));
+        assertThat(target.poll("key1"), is("u:4:5"));
+        assertThat(target.poll("key1"), is("u:7"));
+        assertThat(target.poll("key1"), is("u:8"));
+        assertThat(target.poll("key2"), is("u:3"));
+        assertThat(other.poll("key1"), is("u:6"));
+        assertThat(target.getMergedCount(), is(2L));
+    }
+}
@@ -0,0 +1,187 @@
+/*
+* Copyright 2015 FUJITSU LIMITED.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.o3project.ocnrm.lib;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+public class HttpClientPoolTest {
+    private HttpClientPool target;
+    private HttpServer server;
+    private String baseUrl;
+    private Set<Integer> clientPorts = Collections.synchronizedSet(new HashSet<Integer>());
+
+    @Before
+    public void setUp() throws Exception {
+        target = HttpClientPool.getInstance();
+
+        // stand-in for MF and OpenFlow Controller: echoes the request body
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                clientPorts.add(exchange.getRemoteAddress().getPort());
+                InputStream in = exchange.getRequestBody();
+                ByteArrayOutputStream body = new ByteArrayOutputStream();
+                int data;
+                while ((data = in.read()) >= 0) {
+                    body.write(data);
+                }
+                in.close();
+
+                int status = exchange.getRequestURI().getPath().equals("/error") ? 500 : 200;
+                byte[] response = (body.size() == 0) ? "ok".getBytes() : body.toByteArray();
+                exchange.sendResponseHeaders(status, response.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(response);
+                out.close();
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.stop(0);
+        target = null;
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.HttpClientPool#getInstance()}
+     */
+    @Test
+    public void testGetInstance() {
+        assertThat(HttpClientPool.getInstance(), is(instanceOf(HttpClientPool.class)));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.HttpClientPool#post(String, String)}
+     */
+    @Test
+    public void testPost() throws Exception {
+        assertThat(target.post(baseUrl + "/DEMO/ID/L1Request", "{\"fjFlowId\":\"1\"}"),
+                is("{\"fjFlowId\":\"1\"}"));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.HttpClientPool#get(String)}
+     */
+    @Test
+    public void testGet() throws Exception {
+        assertThat(target.get(baseUrl + "/stats/flow/1"), is("ok"));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.HttpClientPool#post(String, String)}
+     */
+    @Test(expected = IOException.class)
+    public void testPostWithErrorStatus() throws Exception {
+        target.post(baseUrl + "/error", "param");
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.HttpClientPool#post(String, String)}
+     */
+    @Test
+    public void testPostReusesConnection() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertThat(target.post(baseUrl + "/stats/flowentry/add", "entry" + i),
+                    is("entry" + i));
+        }
+
+        assertThat(clientPorts.size(), is(1));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.HttpClientPool#post(String, String)}
+     * @throws Exception
+     */
+    @Test
+    public void testPostBoundsConnectionsPerBaseUrl() throws Exception {
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        server.createContext("/slow", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                int current = inFlight.incrementAndGet();
+                synchronized (maxInFlight) {
+                    maxInFlight.set(Math.max(maxInFlight.get(), current));
+                }
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                inFlight.decrementAndGet();
+                exchange.sendResponseHeaders(200, 2);
+                OutputStream out = exchange.getResponseBody();
+                out.write("ok".getBytes());
+                out.close();
+            }
+        });
+        final HttpClientPool bounded = new HttpClientPool(2);
+        ExecutorService callers = Executors.newFixedThreadPool(6);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            results.add(callers.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    return bounded.get(baseUrl + "/slow");
+                }
+            }));
+        }
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS), is("ok"));
+        }
+        callers.shutdown();
+
+        assertThat(maxInFlight.get(), is(2));
+    }
+}
@@ -30,6 +30,7 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.junit.Test;
+import org.o3project.ocnrm.model.FjFlowId;
 import org.o3project.ocnrm.model.LowerNodeInfo;
 import org.o3project.ocnrm.model.UpperNodeInfo;
 import org.o3project.ocnrm.model.och.OchFlowCreationResponse;
@@ -414,4 +415,19 @@ public class JSONParserTest {
 
         verify(json, never()).getJSONObject(anyInt());
     }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.JSONParser#fjFlowIdToPOJO(String, String)}
+     */
+    @Test
+    public void testFjFlowIdToPOJOWithString()
+            throws JsonParseException, JsonMappingException, IOException {
+        testData = "{\"fjFlowId\": \"flowId\"}";
+
+        JSONParser parser = new JSONParser();
+
+        FjFlowId result = parser.fjFlowIdToPOJO(testData, SEQUENCE_NO);
+        assertThat(result.getFjFlowId(), is("flowId"));
+    }
 }
@@ -0,0 +1,72 @@
+/*
+* Copyright 2015 FUJITSU LIMITED.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.o3project.ocnrm.lib;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+import org.o3project.ocnrm.model.FjFlowId;
+
+public class JsonCodecTest {
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.JsonCodec#reader(Class)}
+     */
+    @Test
+    public void testReader() {
+        assertThat(JsonCodec.reader(FjFlowId.class),
+                is(sameInstance(JsonCodec.reader(FjFlowId.class))));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.JsonCodec#read(String, Class)}
+     * {@link org.o3project.ocnrm.lib.JsonCodec#read(java.io.InputStream, Class)}
+     * @throws Exception
+     */
+    @Test
+    public void testRead() throws Exception {
+        String json = "{\"fjFlowId\":\"flowId\"}";
+
+        assertThat(JsonCodec.read(json, FjFlowId.class).getFjFlowId(), is("flowId"));
+        assertThat(JsonCodec.read(new ByteArrayInputStream(
+                json.getBytes(StandardCharsets.UTF_8)), FjFlowId.class).getFjFlowId(),
+                is("flowId"));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.JsonCodec#write(Object)}
+     * {@link org.o3project.ocnrm.lib.JsonCodec#writeNonNull(Object)}
+     * @throws Exception
+     */
+    @Test
+    public void testWrite() throws Exception {
+        FjFlowId flowId = new FjFlowId();
+
+        assertThat(JsonCodec.write(flowId), is("{\"fjFlowId\":null}"));
+        assertThat(JsonCodec.writeNonNull(flowId), is("{}"));
+
+        flowId.setFjFlowId("flowId");
+        assertThat(JsonCodec.writeNonNull(flowId), is("{\"fjFlowId\":\"flowId\"}"));
+    }
+}
@@ -0,0 +1,186 @@
+/*
+* Copyright 2015 FUJITSU LIMITED.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.o3project.ocnrm.lib;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class KeyedExecutorTest {
+    private KeyedExecutor target;
+
+    @Before
+    public void setUp() throws Exception {
+        target = new KeyedExecutor(4, 1);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        target.shutdown();
+        target = null;
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.KeyedExecutor#submit(Object, Callable)}
+     */
+    @Test
+    public void testSubmit() throws Exception {
+        Future<String> result = target.submit("key", new Callable<String>() {
+            @Override
+            public String call() {
+                return "result";
+            }
+        });
+
+        assertThat(result.get(1, TimeUnit.SECONDS), is("result"));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.KeyedExecutor#submit(Object, Callable)}
+     */
+    @Test
+    public void testSubmitKeepsOrderOfSameKey() throws Exception {
+        final List<Integer> order = Collections.synchronizedList(new ArrayList<Integer>());
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            final int no = i;
+            futures.add(target.submit("key", new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    Thread.sleep(1);
+                    order.add(no);
+                    return no;
+                }
+            }));
+        }
+        for (Future<Integer> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            expected.add(i);
+        }
+        assertThat(order, is(expected));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.KeyedExecutor#submit(Object, Callable)}
+     */
+    @Test
+    public void testSubmitRunsOtherKeyInParallel() throws Exception {
+        final CountDownLatch blocker = new CountDownLatch(1);
+        Future<Boolean> blocked = target.submit("key1", new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return blocker.await(5, TimeUnit.SECONDS);
+            }
+        });
+        Future<String> other = target.submit("key2", new Callable<String>() {
+            @Override
+            public String call() {
+                return "other";
+            }
+        });
+
+        assertThat(other.get(1, TimeUnit.SECONDS), is("other"));
+        assertThat(blocked.isDone(), is(false));
+
+        blocker.countDown();
+        assertThat(blocked.get(1, TimeUnit.SECONDS), is(true));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.KeyedExecutor#submit(Object, Callable)}
+     */
+    @Test
+    public void testSubmitWithWindow() throws Exception {
+        target.shutdown();
+        target = new KeyedExecutor(4, 2);
+
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger max = new AtomicInteger();
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(target.submit("key", new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    int now = running.incrementAndGet();
+                    synchronized (max) {
+                        if (now > max.get()) {
+                            max.set(now);
+                        }
+                    }
+                    Thread.sleep(5);
+                    running.decrementAndGet();
+                    return now;
+                }
+            }));
+        }
+        for (Future<Integer> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+
+        assertThat(max.get() <= 2, is(true));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.KeyedExecutor#getQueueDepth()}
+     * {@link org.o3project.ocnrm.lib.KeyedExecutor#getBacklog()}
+     */
+    @Test
+    public void testGetQueueDepthAndBacklog() throws Exception {
+        final CountDownLatch blocker = new CountDownLatch(1);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(target.submit("key", new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    return blocker.await(5, TimeUnit.SECONDS);
+                }
+            }));
+        }
+
+        assertThat(target.getQueueDepth(), is(3));
+        assertThat(target.getBacklog().get("key"), is(3));
+
+        blocker.countDown();
+        for (Future<Boolean> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        Thread.sleep(50);
+
+        assertThat(target.getQueueDepth(), is(0));
+        assertThat(target.getBacklog().isEmpty(), is(true));
+    }
+}
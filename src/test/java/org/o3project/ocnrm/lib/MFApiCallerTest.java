@@ -20,33 +20,28 @@ import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
-import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 
+import java.io.IOException;
+
 import org.json.JSONObject;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.o3project.ocnrm.model.IdExchangeBatchRequest;
 import org.o3project.ocnrm.model.IdExchangeRequest;
 import org.o3project.ocnrm.model.ResourceRequest;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 import org.powermock.reflect.Whitebox;
-import org.restlet.Client;
-import org.restlet.Request;
-import org.restlet.Uniform;
-import org.restlet.representation.Representation;
-import org.restlet.representation.StringRepresentation;
-import org.restlet.resource.ClientResource;
 
 @RunWith(PowerMockRunner.class)
-@PrepareForTest({ MFApiCaller.class, ClientResource.class, Representation.class,
-    Client.class, Request.class })
+@PrepareForTest({ MFApiCaller.class })
 public class MFApiCallerTest {
     private MFApiCaller target;
     private String seqNo = "#1";
@@ -112,22 +107,29 @@ public class MFApiCallerTest {
         String path = "path";
         String param = "param";
 
-        Representation dummyResponse = mock(Representation.class);
-        PowerMockito.doReturn("result").when(dummyResponse).getText();
-
-        ClientResource dummyClient = mock(ClientResource.class);
-        doNothing().when(dummyClient).setNext((Uniform) anyObject());
+        HttpClientPool dummyClient = mock(HttpClientPool.class);
+        doReturn("result").when(dummyClient).post(eq(path), eq(param));
+        Whitebox.setInternalState(target, "httpClient", dummyClient);
 
-        StringRepresentation rep = spy(new StringRepresentation(param.toCharArray()));
-        PowerMockito.whenNew(StringRepresentation.class).withAnyArguments().thenReturn(rep);
+        String result = Whitebox.invokeMethod(target, "postToMF", path, param, seqNo);
 
-        doReturn(dummyResponse).when(dummyClient).post(eq(rep));
+        assertThat(result, is("result"));
+    }
 
-        PowerMockito.whenNew(ClientResource.class).withAnyArguments().thenReturn(dummyClient);
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.MFApiCaller#postToMF()}
+     */
+    @Test(expected = IOException.class)
+    public void testPrivatePostToMfWithIOException() throws Exception {
+        String path = "path";
+        String param = "param";
 
-        String result = Whitebox.invokeMethod(target, "postToMF", path, param, seqNo);
+        HttpClientPool dummyClient = mock(HttpClientPool.class);
+        doThrow(new IOException("HTTP 500")).when(dummyClient).post(eq(path), eq(param));
+        Whitebox.setInternalState(target, "httpClient", dummyClient);
 
-        assertThat(result, is("result"));
+        Whitebox.invokeMethod(target, "postToMF", path, param, seqNo);
     }
 
     /**
@@ -158,6 +160,20 @@ public class MFApiCallerTest {
         assertThat(target.requestOduCorrespondingTable(request, seqNo), is(result));
     }
 
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.MFApiCaller#requestOduCorrespondingTables()}
+     */
+    @Test
+    public void testRequestOduCorrespondingTables() throws Exception {
+        IdExchangeBatchRequest request = mock(IdExchangeBatchRequest.class);
+        JSONObject result = mock(JSONObject.class);
+
+        PowerMockito.doReturn(result)
+                .when(target, "getTable", anyString(), eq(request), eq(seqNo));
+        assertThat(target.requestOduCorrespondingTables(request, seqNo), is(result));
+    }
+
     /**
      * Test method for
      * {@link org.o3project.ocnrm.lib.MFApiCaller#getTable()}
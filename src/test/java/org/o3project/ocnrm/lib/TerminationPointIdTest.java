@@ -0,0 +1,84 @@
+/*
+* Copyright 2015 FUJITSU LIMITED.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.o3project.ocnrm.lib;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+public class TerminationPointIdTest {
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.TerminationPointId#valueOf(String)}
+     */
+    @Test
+    public void testValueOf() {
+        TerminationPointId result = TerminationPointId.valueOf("NW=SDN,NE=OPT1,Layer=ODU,CTP=1");
+
+        assertThat(result.getNodeId(), is("NW=SDN,NE=OPT1"));
+        assertThat(result.getLayer(), is("ODU"));
+        assertThat(result.getPointType(), is(TerminationPointId.CTP));
+        assertThat(result.getPointNo(), is("1"));
+        assertThat(result.isCtp(), is(true));
+        assertThat(result.isTtp(), is(false));
+        assertThat(result.toString(), is("NW=SDN,NE=OPT1,Layer=ODU,CTP=1"));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.TerminationPointId#valueOf(String)}
+     */
+    @Test
+    public void testValueOfIsInterned() {
+        TerminationPointId ttp1 = TerminationPointId.valueOf(
+                new String("NW=SDN,NE=OPT2,Layer=ODU,TTP=1"));
+        TerminationPointId ttp2 = TerminationPointId.valueOf(
+                new String("NW=SDN,NE=OPT2,Layer=ODU,TTP=1"));
+        TerminationPointId ttp3 = TerminationPointId.valueOf("NW=SDN,NE=OPT2,Layer=ODU,TTP=2");
+
+        assertThat(ttp1, is(sameInstance(ttp2)));
+        assertThat(ttp1.isTtp(), is(true));
+        assertThat(ttp3.getNodeId(), is(sameInstance(ttp1.getNodeId())));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.TerminationPointId#valueOf(String)}
+     */
+    @Test
+    public void testValueOfWithShortId() {
+        TerminationPointId result = TerminationPointId.valueOf("NW=SDN");
+
+        assertThat(result.getNodeId(), is("NW=SDN"));
+        assertThat(result.getLayer(), is(nullValue()));
+        assertThat(result.getPointType(), is(nullValue()));
+        assertThat(result.isCtp(), is(false));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.TerminationPointId#valueOf(String)}
+     */
+    @Test
+    public void testValueOfWithEmptyId() {
+        assertThat(TerminationPointId.valueOf(null), is(nullValue()));
+        assertThat(TerminationPointId.valueOf(""), is(nullValue()));
+    }
+}
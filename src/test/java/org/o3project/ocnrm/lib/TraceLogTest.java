@@ -0,0 +1,111 @@
+/*
+* Copyright 2015 FUJITSU LIMITED.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.o3project.ocnrm.lib;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+
+public class TraceLogTest {
+    private Logger dummyLogger;
+    private String prefix;
+
+    @Before
+    public void setUp() throws Exception {
+        dummyLogger = mock(Logger.class);
+        prefix = "[" + Thread.currentThread().getName() + "] ";
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.TraceLog#start(Logger, String)}
+     * @throws Exception
+     */
+    @Test
+    public void testStartWithDebugDisabled() throws Exception {
+        when(dummyLogger.isDebugEnabled()).thenReturn(false);
+
+        TraceLog.start(dummyLogger, "method");
+        TraceLog.getInstance().flush();
+
+        verify(dummyLogger, times(1)).isDebugEnabled();
+        verifyNoMoreInteractions(dummyLogger);
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.TraceLog#start(Logger, String)}
+     * {@link org.o3project.ocnrm.lib.TraceLog#end(Logger, String)}
+     * @throws Exception
+     */
+    @Test
+    public void testStartEnd() throws Exception {
+        when(dummyLogger.isDebugEnabled()).thenReturn(true);
+
+        TraceLog.start(dummyLogger, "method");
+        TraceLog.trace(dummyLogger, "** networkcomponentID:{}", "network1");
+        TraceLog.end(dummyLogger, "method");
+        TraceLog.getInstance().flush();
+
+        verify(dummyLogger, times(1)).debug(prefix + "** {} Start",
+                new Object[] {"method"});
+        verify(dummyLogger, times(1)).debug(prefix + "** networkcomponentID:{}",
+                new Object[] {"network1"});
+        verify(dummyLogger, times(1)).debug(prefix + "** {} End",
+                new Object[] {"method"});
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.TraceLog#verbose(Logger, String, String, Object)}
+     * @throws Exception
+     */
+    @Test
+    public void testVerbose() throws Exception {
+        when(dummyLogger.isDebugEnabled()).thenReturn(true);
+        Object payload = "{\"key\":\"value\"}";
+
+        TraceLog.verbose(dummyLogger, "#1", "{}\tparam : {}", payload);
+        TraceLog.getInstance().flush();
+
+        verify(dummyLogger, times(1)).debug(prefix + "{}\tparam : {}",
+                new Object[] {"#1", payload});
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.TraceLog#isSampled(String)}
+     */
+    @Test
+    public void testIsSampled() {
+        assertThat(new TraceLog(0).isSampled("#1"), is(false));
+        assertThat(new TraceLog(1).isSampled("#1"), is(true));
+
+        TraceLog target = new TraceLog(4);
+        // "".hashCode() is 0 and "a".hashCode() is 97
+        assertThat(target.isSampled(""), is(true));
+        assertThat(target.isSampled("a"), is(false));
+        assertThat(target.isSampled("a"), is(false));
+    }
+}
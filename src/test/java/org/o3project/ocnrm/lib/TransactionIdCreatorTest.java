@@ -100,4 +100,25 @@ public class TransactionIdCreatorTest {
         assertThat(result, is(day + "000002"));
     }
 
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.TransactionIdCreator#restore(String)}
+     */
+    @Test
+    public void testRestore() throws ParseException {
+        Whitebox.setInternalState(target, "count", 3);
+
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyyMMdd");
+        Date date = new Date(System.currentTimeMillis());
+        String day = sdf.format(date);
+
+        target.restore(day + "000010");
+        target.restore(day + "000004");
+        target.restore("19700101000099");
+        target.restore(day + "abcdef");
+        target.restore(null);
+
+        assertThat(target.getCount(), is(day + "000011"));
+    }
+
 }
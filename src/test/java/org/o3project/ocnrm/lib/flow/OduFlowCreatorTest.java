@@ -19,26 +19,25 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
-import static org.mockito.Matchers.anyList;
-import static org.mockito.Matchers.anyListOf;
-import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import java.io.IOException;
+import java.io.Writer;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
-import org.json.JSONException;
 import org.json.JSONObject;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.o3project.ocnrm.lib.JSONParser;
 import org.o3project.ocnrm.lib.flow.model.ActionsData;
 import org.o3project.ocnrm.lib.flow.model.OduMatchData;
 import org.o3project.ocnrm.model.FlowData;
@@ -46,7 +45,6 @@ import org.o3project.ocnrm.model.TerminationPoints;
 import org.o3project.ocnrm.model.bind.OduBindingData;
 import org.o3project.ocnrm.model.bind.RmData;
 import org.o3project.ocnrm.model.odu.OptFlow;
-import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 import org.slf4j.Logger;
@@ -552,14 +550,10 @@ public class OduFlowCreatorTest {
         field.setAccessible(true);
         field.set(target, dummyLogger);
 
-        JSONParser parser = mock(JSONParser.class);
-        PowerMockito.whenNew(JSONParser.class).withNoArguments().thenReturn(parser);
+        OptFlow flow = createSingleFlow();
 
-        OptFlow flow = new OptFlow();
-        flow.setTerminationPointPairs(new ArrayList<TerminationPoints>());
-
-        PowerMockito.doThrow(mock(JsonProcessingException.class)).when(parser)
-                .convertToJson(anyList(), eq(seqNo));
+        doThrow(mock(JsonProcessingException.class)).when(target)
+                .writeFlowEntry(any(FlowData.class), any(Writer.class));
         List<String> result = target.createFlow(flow, data, seqNo);
 
         assertThat(result.toString(), is("[]"));
@@ -571,24 +565,63 @@ public class OduFlowCreatorTest {
      * {@link org.o3project.ocnrm.lib.flow.OduFlowCreator#createFlow()}
      */
     @Test
-    public void testCreateFlowWithJSONException() throws Exception {
+    public void testCreateFlowWithIOException() throws Exception {
         Logger dummyLogger = mock(Logger.class);
         Field field = target.getClass().getSuperclass().getSuperclass().getDeclaredField("logger");
         field.setAccessible(true);
         field.set(target, dummyLogger);
 
-        JSONParser parser = mock(JSONParser.class);
-        PowerMockito.whenNew(JSONParser.class).withNoArguments().thenReturn(parser);
+        OptFlow flow = createSingleFlow();
 
-        OptFlow flow = new OptFlow();
-        flow.setTerminationPointPairs(new ArrayList<TerminationPoints>());
-
-        PowerMockito.doThrow(mock(JSONException.class)).when(parser)
-                .convertToJson(anyListOf(FlowData.class), eq(seqNo));
+        doThrow(new IOException()).when(target)
+                .writeFlowEntry(any(FlowData.class), any(Writer.class));
         List<String> result = target.createFlow(flow, data, seqNo);
 
         assertThat(result.toString(), is("[]"));
-        verify(dummyLogger, times(1)).error(seqNo + "\t" + "JSONException occured.");
+        verify(dummyLogger, times(1)).error(seqNo + "\t" + "IOException occured.");
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.flow.OduFlowCreator#createFlow()}
+     * @throws Exception
+     */
+    @Test
+    public void testCreateFlowReusesBuffer() throws Exception {
+        OptFlow flow = createSingleFlow();
+        String first = target.createFlow(flow, data, seqNo).get(0);
+
+        TerminationPoints point2 = new TerminationPoints();
+        point2.setInPoint("dst");
+        point2.setOutPoint("src");
+        OptFlow reverse = new OptFlow();
+        reverse.setTerminationPointPairs(new ArrayList<>(Arrays.asList(point2)));
+        String second = target.createFlow(reverse, data, seqNo).get(0);
+
+        flow.getTerminationPointPairs().add(point2);
+        List<String> result = target.createFlow(flow, data, seqNo);
+
+        // each entry is the same as the one written into an empty buffer
+        assertThat(result, is(Arrays.asList(first, second)));
+    }
+
+    private OptFlow createSingleFlow() throws Exception {
+        point = new TerminationPoints();
+        point.setInPoint("src");
+        point.setOutPoint("dst");
+
+        data = new OduBindingData();
+        data.bind("src", "{\"dpid\": \"srcDpid\", \"odutype\": \"srcOdutype\","
+                + "\"port\": \"srcPort\", \"tpn\": \"-1\", \"ts\": \"srcTs,ts2\"}");
+        data.bind("dst", "{\"dpid\": \"dstDpid\", \"odutype\": \"dstOdutype\","
+                + "\"port\": \"dstPort\", \"tpn\": \"-1\", \"ts\": \"dstTs,ts2\"}");
+
+        List<TerminationPoints> points = new ArrayList<TerminationPoints>();
+        points.add(point);
+
+        OptFlow flow = new OptFlow();
+        flow.setTerminationPointPairs(points);
+        return flow;
     }
 
     /**
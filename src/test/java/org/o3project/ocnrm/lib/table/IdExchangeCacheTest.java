@@ -0,0 +1,106 @@
+/*
+* Copyright 2015 FUJITSU LIMITED.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.o3project.ocnrm.lib.table;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.o3project.ocnrm.model.bind.MappingData;
+import org.o3project.ocnrm.model.bind.OduMapping;
+import org.o3project.ocnrm.odenos.lib.OdenOsPropertyLoader;
+
+public class IdExchangeCacheTest {
+    private IdExchangeCache target;
+    private String fjFlowId = "fjFlowId";
+    private String name = "tp1";
+    private MappingData data;
+
+    @Before
+    public void setUp() {
+        target = IdExchangeCache.getInstance();
+        data = new OduMapping();
+        data.setName(name);
+    }
+
+    @After
+    public void tearDown() {
+        target.clear();
+        target = null;
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.table.IdExchangeCache#get(String, String)}
+     */
+    @Test
+    public void testGet() {
+        target.put(fjFlowId, name, data);
+
+        assertThat(target.get(fjFlowId, name), is(data));
+        assertThat(target.get(fjFlowId, "tp2"), is(nullValue()));
+        assertThat(target.get("otherFlowId", name), is(nullValue()));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.table.IdExchangeCache#put(String, String, MappingData)}
+     */
+    @Test
+    public void testPutWithNullData() {
+        target.put(fjFlowId, name, null);
+
+        assertThat(target.get(fjFlowId, name), is(nullValue()));
+        assertThat(target.size(), is(0));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.table.IdExchangeCache#remove(String)}
+     */
+    @Test
+    public void testRemove() {
+        target.put(fjFlowId, name, data);
+        target.put("otherFlowId", name, data);
+
+        target.remove(fjFlowId);
+
+        assertThat(target.get(fjFlowId, name), is(nullValue()));
+        assertThat(target.get("otherFlowId", name), is(data));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.table.IdExchangeCache#put(String, String, MappingData)}
+     */
+    @Test
+    public void testPutEvictsLeastRecentlyUsedFlow() {
+        int size = Integer.valueOf(OdenOsPropertyLoader.getInstance().getIdExchangeCacheSize());
+        for (int i = 0; i < size; i++) {
+            target.put("flow" + i, name, data);
+        }
+        target.get("flow0", name);
+        target.put("newFlow", name, data);
+
+        assertThat(target.size(), is(size));
+        assertThat(target.get("flow0", name), is(data));
+        assertThat(target.get("flow1", name), is(nullValue()));
+        assertThat(target.get("newFlow", name), is(data));
+    }
+}
@@ -0,0 +1,97 @@
+/*
+* Copyright 2015 FUJITSU LIMITED.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.o3project.ocnrm.lib.table;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JobTableTest {
+    private JobTable target;
+
+    @Before
+    public void setUp() throws Exception {
+        target = new JobTable(3);
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.table.JobTable#create(String, String)}
+     */
+    @Test
+    public void testCreate() throws Exception {
+        Job job = target.create("PUT", "settings/odu/topology");
+
+        assertThat(target.get(job.getJobId()), is(job));
+        assertThat(job.getStatus(), is(Job.WAITING));
+
+        job.start();
+        assertThat(job.getStatus(), is(Job.RUNNING));
+        assertThat(job.isFinished(), is(false));
+
+        job.finish("200", "ok");
+        JSONObject json = target.get(job.getJobId()).toJSON();
+        assertThat(json.getString("jobId"), is(job.getJobId()));
+        assertThat(json.getString("method"), is("PUT"));
+        assertThat(json.getString("path"), is("settings/odu/topology"));
+        assertThat(json.getString("status"), is(Job.DONE));
+        assertThat(json.getString("statusCode"), is("200"));
+        assertThat(json.getString("result"), is("ok"));
+        assertThat(job.getEndTime() >= job.getCreateTime(), is(true));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.table.JobTable#create(String, String)}
+     */
+    @Test
+    public void testCreateEvictsFinishedJobFirst() throws Exception {
+        Job job1 = target.create("PUT", "path1");
+        Job job2 = target.create("PUT", "path2");
+        Job job3 = target.create("PUT", "path3");
+        job2.fail("error");
+
+        Job job4 = target.create("PUT", "path4");
+
+        assertThat(target.size(), is(3));
+        assertThat(target.get(job1.getJobId()), notNullValue());
+        assertThat(target.get(job2.getJobId()), nullValue());
+        assertThat(target.get(job3.getJobId()), notNullValue());
+        assertThat(target.get(job4.getJobId()), notNullValue());
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.table.JobTable#create(String, String)}
+     */
+    @Test
+    public void testCreateEvictsOldestJobWithoutFinishedJob() throws Exception {
+        Job job1 = target.create("PUT", "path1");
+        target.create("PUT", "path2");
+        target.create("PUT", "path3");
+
+        Job job4 = target.create("PUT", "path4");
+
+        assertThat(target.size(), is(3));
+        assertThat(target.get(job1.getJobId()), nullValue());
+        assertThat(target.get(job4.getJobId()), notNullValue());
+    }
+}
@@ -0,0 +1,300 @@
+/*
+* Copyright 2015 FUJITSU LIMITED.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.o3project.ocnrm.lib.table;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.o3project.ocnrm.lib.TransactionIdCreator;
+import org.o3project.ocnrm.model.FlowResponse;
+import org.o3project.ocnrm.model.TerminationPoints;
+import org.o3project.ocnrm.model.odu.OduFlow;
+import org.o3project.odenos.core.component.Logic;
+import org.powermock.reflect.Whitebox;
+
+public class TableJournalTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private TableManager target;
+    private String dir;
+    private String transactionId = "20141080000001";
+    private String nwcId = "odu";
+    private String driverName = "optDriver";
+
+    @Before
+    public void setUp() throws Exception {
+        target = TableManager.getInstance();
+        target.clear();
+        dir = folder.getRoot().getPath();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        target.closeJournal();
+        target.clear();
+        target = null;
+    }
+
+    private void restart(int compactCount) throws Exception {
+        target.closeJournal();
+        target.clear();
+        target.openJournal(dir, compactCount);
+    }
+
+    private ResourceInfoFlomMf createResource(String id) {
+        TerminationPoints point = new TerminationPoints();
+        point.setInPoint("in" + id);
+        point.setOutPoint("out" + id);
+        List<TerminationPoints> points = new ArrayList<>();
+        points.add(point);
+
+        OduFlow flow = new OduFlow();
+        flow.setFjFlowId("mf" + id);
+        flow.setTerminationPointPairs(points);
+        return new ResourceInfoFlomMf(transactionId + id, null, null, "mf" + id, flow,
+                "time", null);
+    }
+
+    private void createFlow(String id) {
+        target.addResource(createResource(id));
+        Event event = target.createEvent(nwcId, transactionId + id, Logic.FLOW_CHANGED,
+                "flow" + id, "add", driverName);
+        target.checkIncompleteResource(event);
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.table.TableManager#openJournal(String, int)}
+     */
+    @Test
+    public void testOpenJournalRestoresTables() throws Exception {
+        target.openJournal(dir, 1000);
+        createFlow("1");
+        createFlow("2");
+        createFlow("3");
+        target.delete(transactionId + "2", nwcId, "flow2");
+        target.delete(transactionId + "3");
+
+        restart(1000);
+
+        ResourceInfoFlomMf resource = target.checkExistingEvent(transactionId + "1", nwcId,
+                "flow1", driverName);
+        assertThat(resource.getMfId(), is("mf1"));
+        OduFlow flow = (OduFlow) resource.getResourse();
+        assertThat(flow.getFjFlowId(), is("mf1"));
+        assertThat(flow.getTerminationPointPairs().get(0).getInPoint(), is("in1"));
+        assertThat(flow.getTerminationPointPairs().get(0).getOutPoint(), is("out1"));
+        assertThat(target.getEventFromFlowId("flow1").getDriver(), is(driverName));
+
+        assertThat(target.getEventFromFlowId("flow2"), nullValue());
+        assertThat(target.getResourcesFromFjFlowId("mf2").isEmpty(), is(true));
+        assertThat(target.getEventFromFlowId("flow3"), nullValue());
+        assertThat(target.getResourcesFromFjFlowId("mf3").isEmpty(), is(true));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.table.TableManager#openJournal(String, int)}
+     */
+    @Test
+    public void testOpenJournalWithCompaction() throws Exception {
+        target.openJournal(dir, 10);
+        for (int i = 0; i < 100; i++) {
+            createFlow(String.valueOf(i));
+        }
+        for (int i = 0; i < 100; i += 2) {
+            target.delete(transactionId + i, nwcId, "flow" + i);
+        }
+        File journal = new File(dir, TableJournal.JOURNAL_FILE);
+        File snapshot = new File(dir, TableJournal.SNAPSHOT_FILE);
+        assertThat(snapshot.exists(), is(true));
+        assertThat(journal.length() < snapshot.length(), is(true));
+
+        restart(10);
+
+        for (int i = 0; i < 100; i++) {
+            ResourceInfoFlomMf resource = target.checkExistingEvent(transactionId + i, nwcId,
+                    "flow" + i, driverName);
+            assertThat(resource == null, is(i % 2 == 0));
+        }
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.table.TableManager#openJournal(String, int)}
+     */
+    @Test
+    public void testOpenJournalWithTornRecord() throws Exception {
+        target.openJournal(dir, 1000);
+        createFlow("1");
+        target.closeJournal();
+
+        File journal = new File(dir, TableJournal.JOURNAL_FILE);
+        FileOutputStream out = new FileOutputStream(journal, true);
+        out.write(new byte[] {0, 0, 0, 100, 1, 2, 3});
+        out.close();
+
+        restart(1000);
+
+        assertThat(target.checkExistingEvent(transactionId + "1", nwcId, "flow1", driverName)
+                .getMfId(), is("mf1"));
+        createFlow("2");
+        restart(1000);
+        assertThat(target.checkExistingEvent(transactionId + "2", nwcId, "flow2", driverName)
+                .getMfId(), is("mf2"));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.table.TableManager#openJournal(String, int)}
+     */
+    @Test
+    public void testOpenJournalSkipsJournalOfOldGeneration() throws Exception {
+        target.openJournal(dir, 1000);
+        createFlow("1");
+        target.closeJournal();
+
+        // crash after the snapshot was replaced but before the journal was emptied
+        File journal = new File(dir, TableJournal.JOURNAL_FILE);
+        File saved = new File(dir, "saved.journal");
+        java.nio.file.Files.copy(journal.toPath(), saved.toPath());
+        restart(1000);
+        target.closeJournal();
+        java.nio.file.Files.copy(saved.toPath(), journal.toPath(),
+                java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+
+        restart(1000);
+
+        assertThat(target.getEventsFromTransactionId(transactionId + "1").size(), is(1));
+        assertThat(target.getResourcesFromFjFlowId("mf1").size(), is(1));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.table.TableManager#openJournal(String, int)}
+     */
+    @Test
+    public void testOpenJournalRestoresTransactionIdCounter() throws Exception {
+        String today = new SimpleDateFormat("yyyyMMdd").format(new Date());
+        target.openJournal(dir, 1000);
+        target.createEvent(nwcId, today + "000005", Logic.FLOW_CHANGED, "flow1", "add",
+                driverName);
+        target.addResource(new ResourceInfoFlomMf(today + "000007", null, null, "mf2",
+                new OduFlow(), "time", null));
+
+        // a restarted process counts from 0 again
+        Whitebox.setInternalState(TransactionIdCreator.getInstance(), "count", 0);
+        restart(1000);
+
+        Event event = target.createEvent(nwcId, null, Logic.FLOW_CHANGED, "flow3", "add",
+                driverName);
+        assertThat(event.getTransactionId(), is(today + "000008"));
+        assertThat(target.getEventsFromTransactionId(today + "000008").size(), is(1));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.table.TableManager#openJournal(String, int)}
+     */
+    @Test
+    public void testOpenJournalWithEmptyDir() throws Exception {
+        target.openJournal("", 1000);
+        createFlow("1");
+
+        assertThat(new File(dir, TableJournal.JOURNAL_FILE).exists(), is(false));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.table.TableManager#openJournal(String, int)}
+     */
+    @Test
+    public void testOpenJournalReplaysRotatedJournal() throws Exception {
+        target.openJournal(dir, 1000);
+        createFlow("1");
+
+        // crash after the journal was rotated but before its snapshot was written
+        TableJournal journal = Whitebox.getInternalState(target, "journal");
+        journal.rotate();
+        createFlow("2");
+
+        restart(1000);
+
+        assertThat(target.getEventsFromTransactionId(transactionId + "1").size(), is(1));
+        assertThat(target.getEventsFromTransactionId(transactionId + "2").size(), is(1));
+        assertThat(target.getResourcesFromFjFlowId("mf1").size(), is(1));
+        assertThat(target.getResourcesFromFjFlowId("mf2").size(), is(1));
+        assertThat(new File(dir, TableJournal.OLD_JOURNAL_FILE).exists(), is(false));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.table.TableManager#openJournal(String, int)}
+     */
+    @Test
+    public void testOpenJournalSkipsRotatedJournalInSnapshot() throws Exception {
+        target.openJournal(dir, 1000);
+        createFlow("1");
+
+        // crash after the snapshot was written but before the rotated journal was deleted
+        TableJournal journal = Whitebox.getInternalState(target, "journal");
+        long generation = journal.rotate();
+        File old = new File(dir, TableJournal.OLD_JOURNAL_FILE);
+        File saved = new File(dir, "saved.journal");
+        java.nio.file.Files.copy(old.toPath(), saved.toPath());
+        journal.writeSnapshot(target.getEventsFromTransactionId(transactionId + "1"),
+                target.getResourcesFromFjFlowId("mf1"), generation);
+        java.nio.file.Files.copy(saved.toPath(), old.toPath());
+        createFlow("2");
+
+        restart(1000);
+
+        assertThat(target.getEventsFromTransactionId(transactionId + "1").size(), is(1));
+        assertThat(target.getResourcesFromFjFlowId("mf1").size(), is(1));
+        assertThat(target.getResourcesFromFjFlowId("mf2").size(), is(1));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.table.TableManager#openJournal(String, int)}
+     */
+    @Test
+    public void testOpenJournalWithUnknownResourceClass() throws Exception {
+        target.openJournal(dir, 1000);
+        target.addResource(new ResourceInfoFlomMf(transactionId + "1", null, null, "mf1",
+                new FlowResponse() { }, "time", null));
+        createFlow("2");
+
+        restart(1000);
+
+        assertThat(target.getResourcesFromFjFlowId("mf1").isEmpty(), is(true));
+        assertThat(target.getResourcesFromFjFlowId("mf2").size(), is(1));
+    }
+}
@@ -22,9 +22,18 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.o3project.ocnrm.model.bind.OduMapping;
 import org.o3project.ocnrm.model.odu.OduFlow;
 import org.o3project.odenos.core.component.Logic;
 
@@ -165,4 +174,146 @@ public class TableManagerTest {
 
         assertThat(result, is(false));
     }
+
+    @Test
+    public void イベントを削除するとリソースのID交換結果のキャッシュを破棄する() {
+        TableManager.getInstance().createEvent(nwcId2, transactionId2, Logic.FLOW_CHANGED,
+                eventId2, "add", driverName2);
+        IdExchangeCache.getInstance().put(mfId2, "tp1", new OduMapping());
+
+        TableManager.getInstance().delete(transactionId2, nwcId2, eventId2);
+
+        assertThat(IdExchangeCache.getInstance().get(mfId2, "tp1"), nullValue());
+        IdExchangeCache.getInstance().clear();
+    }
+
+    @Test
+    public void 同じfjFlowIdのリソースが残っている場合はID交換結果のキャッシュを残す() {
+        TableManager.getInstance().createEvent(nwcId, transactionId, Logic.FLOW_CHANGED,
+                eventId, "add", driverName);
+        IdExchangeCache.getInstance().put(mfId, "tp1", new OduMapping());
+
+        TableManager.getInstance().delete(transactionId, nwcId, eventId);
+
+        assertThat(IdExchangeCache.getInstance().get(mfId, "tp1"), not(nullValue()));
+        IdExchangeCache.getInstance().clear();
+    }
+
+    @Test
+    public void fjFlowIdに対応するリソースを返す() {
+        List<ResourceInfoFlomMf> result = TableManager.getInstance().getResourcesFromFjFlowId(mfId);
+
+        assertThat(result.size(), is(2));
+        assertThat(result.get(0), is(completeResource));
+        assertThat(result.get(1), is(incompleteResource));
+    }
+
+    @Test
+    public void トランザクションIDとfjFlowIdに対応するリソースを返す() {
+        ResourceInfoFlomMf result = TableManager.getInstance()
+                .getResourceFromEventId(transactionId2, mfId2);
+
+        assertThat(result, is(completeResource2));
+        assertThat(TableManager.getInstance().getResourceFromEventId(transactionId, mfId2),
+                nullValue());
+    }
+
+    @Test
+    public void フローIDに対応するイベントを返す() {
+        Event event = TableManager.getInstance().createEvent(nwcId2, transactionId2,
+                Logic.FLOW_CHANGED, eventId2, "add", driverName2);
+
+        assertThat(TableManager.getInstance().getEventFromFlowId(eventId2), is(event));
+        assertThat(TableManager.getInstance().getEventFromFlowId(eventId), nullValue());
+    }
+
+    @Test
+    public void 補完したリソースをフローの情報で検索できる() {
+        Event newEvent = new Event(transactionId, nwcId2, Logic.FLOW_CHANGED, eventId2, "add",
+                time, driverName2);
+        assertThat(TableManager.getInstance().checkExistingEvent(newEvent), nullValue());
+
+        ResourceInfoFlomMf result = TableManager.getInstance().checkIncompleteResource(newEvent);
+
+        assertThat(result, is(incompleteResource));
+        assertThat(TableManager.getInstance().checkExistingEvent(newEvent),
+                is(incompleteResource));
+    }
+
+    @Test
+    public void トランザクションIDに対応するイベントとリソースを削除する() {
+        TableManager.getInstance().createEvent(nwcId, transactionId, Logic.FLOW_CHANGED,
+                eventId, "add", driverName);
+
+        boolean result = TableManager.getInstance().delete(transactionId);
+
+        assertThat(result, is(true));
+        assertThat(TableManager.getInstance().getEventsFromTransactionId(transactionId).isEmpty(),
+                is(true));
+        assertThat(TableManager.getInstance().checkExistingEvent(dummyEvent), nullValue());
+        assertThat(TableManager.getInstance().getResourcesFromFjFlowId(mfId).isEmpty(), is(true));
+        assertThat(TableManager.getInstance().checkExistingEvent(dummyEvent2),
+                is(completeResource2));
+    }
+
+    @Test
+    public void 複数スレッドから登録と削除をしてもテーブルの整合性を保つ() throws Exception {
+        final int count = 200;
+        ExecutorService service = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final String id = "tx" + i;
+            results.add(service.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    TableManager manager = TableManager.getInstance();
+                    manager.createEvent(nwcId, id, Logic.FLOW_CHANGED, id, "add", driverName);
+                    manager.addResource(new ResourceInfoFlomMf(id, nwcId, id, "mf" + id,
+                            new OduFlow(), time, driverName));
+                    if (manager.checkExistingEvent(id, nwcId, id, driverName) == null) {
+                        return false;
+                    }
+                    return manager.delete(id, nwcId, id);
+                }
+            }));
+        }
+        for (Future<Boolean> result : results) {
+            assertThat(result.get(10, TimeUnit.SECONDS), is(true));
+        }
+        service.shutdown();
+
+        for (int i = 0; i < count; i++) {
+            assertThat(TableManager.getInstance().getEventFromFlowId("tx" + i), nullValue());
+            assertThat(TableManager.getInstance().getResourcesFromFjFlowId("mftx" + i).isEmpty(),
+                    is(true));
+        }
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.lib.table.TableManager#now()}
+     */
+    @Test
+    public void testNowFromThreads() throws Exception {
+        ExecutorService service = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(service.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    for (int j = 0; j < 1000; j++) {
+                        if (!TableManager.now().matches(
+                                "\\d{4}/\\d{2}/\\d{2} \\d{2}:\\d{2}:\\d{2}")) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+            }));
+        }
+        for (Future<Boolean> result : results) {
+            assertThat(result.get(10, TimeUnit.SECONDS), is(true));
+        }
+        service.shutdown();
+    }
 }
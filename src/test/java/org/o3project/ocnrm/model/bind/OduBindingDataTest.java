@@ -229,4 +229,50 @@ public class OduBindingDataTest {
             assertThat(e, is(instanceOf(IllegalStateException.class)));
         }
     }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.model.bind.OduBindingData#bindAll()}
+     */
+    @Test
+    public void testBindAll() throws JsonParseException, JsonMappingException, IOException {
+        String testData = "{"
+                + "\"tp1\": {"
+                + "\"dpid\": \"00000000001\","
+                + "\"odutype\": \"ODU2e\","
+                + "\"port\": \"11\","
+                + "\"tpn\": \"1\","
+                + "\"ts\": \"1,2,3,4,5,6,7,8\""
+                + "},"
+                + "\"tp2\": {"
+                + "\"dpid\": \"00000000002\","
+                + "\"port\": \"12\""
+                + "}"
+                + "}";
+
+        target.bindAll(testData);
+
+        assertThat(target.getBindMap().size(), is(2));
+        OduMapping result1 = (OduMapping) target.getBindMap().get("tp1");
+        assertThat(result1.getName(), is("tp1"));
+        assertThat(result1.getDpid(), is("00000000001"));
+        assertThat(result1.getTs(), is("1,2,3,4,5,6,7,8"));
+        OduMapping result2 = (OduMapping) target.getBindMap().get("tp2");
+        assertThat(result2.getName(), is("tp2"));
+        assertThat(result2.getDpid(), is("00000000002"));
+        assertThat(result2.getPort(), is("12"));
+        assertThat(result2.getTs(), is(nullValue()));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.model.bind.OduBindingData#bindAll()}
+     */
+    @Test
+    public void testBindAllWithEmptyJson()
+            throws JsonParseException, JsonMappingException, IOException {
+        target.bindAll("{}");
+
+        assertThat(target.getBindMap().size(), is(0));
+    }
 }
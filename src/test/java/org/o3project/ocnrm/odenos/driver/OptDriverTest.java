@@ -20,6 +20,7 @@ import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.anyString;
@@ -38,9 +39,14 @@ import static org.mockito.Mockito.when;
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -49,8 +55,11 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.o3project.ocnrm.lib.JSONParser;
 import org.o3project.ocnrm.lib.table.Event;
+import org.o3project.ocnrm.lib.table.Job;
 import org.o3project.ocnrm.lib.table.ResourceInfoFlomMf;
 import org.o3project.ocnrm.lib.table.TableManager;
 import org.o3project.ocnrm.model.Constraint;
@@ -59,17 +68,24 @@ import org.o3project.ocnrm.model.odu.OduFlow;
 import org.o3project.ocnrm.model.odu.OduFlowCreationResponse;
 import org.o3project.ocnrm.odenos.driver.AbstractDriver.IActionCallback;
 import org.o3project.ocnrm.odenos.driver.controller.ResourceSendController;
+import org.o3project.ocnrm.odenos.lib.OdenOsLinkIndex;
+import org.o3project.ocnrm.odenos.lib.OdenOsNetworkMirror;
+import org.o3project.ocnrm.odenos.lib.OdenOsTopologyLib;
 import org.o3project.odenos.core.component.Logic;
 import org.o3project.odenos.core.component.Logic.AttrElements;
 import org.o3project.odenos.core.component.NetworkInterface;
 import org.o3project.odenos.core.component.network.flow.Flow;
+import org.o3project.odenos.core.component.network.flow.FlowChanged;
 import org.o3project.odenos.core.component.network.flow.FlowObject;
+import org.o3project.odenos.core.component.network.flow.FlowSet;
 import org.o3project.odenos.core.component.network.flow.FlowObject.FlowStatus;
 import org.o3project.odenos.core.component.network.flow.basic.BasicFlow;
 import org.o3project.odenos.core.component.network.flow.basic.BasicFlowMatch;
 import org.o3project.odenos.core.component.network.flow.ofpflow.OFPFlow;
 import org.o3project.odenos.core.component.network.topology.Link;
+import org.o3project.odenos.core.component.network.topology.LinkChanged;
 import org.o3project.odenos.core.component.network.topology.Node;
+import org.o3project.odenos.core.component.network.topology.Port;
 import org.o3project.odenos.core.component.network.topology.Topology;
 import org.o3project.odenos.core.manager.system.ComponentConnection;
 import org.o3project.odenos.core.manager.system.ComponentConnectionLogicAndNetwork;
@@ -98,6 +114,7 @@ public class OptDriverTest {
     private static final String NW_ID = "networkId";
     private static final String ODU_LAYER = "odu";
     private static final String OCH_LAYER = "och";
+    private static final String FLOW_KEY = NW_ID + "::" + FlowChanged.TYPE + "::";
 
     @Before
     public void setUp() throws Exception {
@@ -141,7 +158,8 @@ public class OptDriverTest {
         doReturn(dummyResponse).when(networkIf).putFlow(any(Flow.class));
 
         PowerMockito.doNothing().when(target, "formFlowMessage", eq(flow),
-                any(OduFlowCreationResponse.class), eq(dummyLinkSet), eq(TRANSACTION_ID));
+                any(OduFlowCreationResponse.class), eq(networkIf), eq(NW_ID),
+                eq(TRANSACTION_ID));
 
         target.flowMessageManager(networkIf, NW_ID, action, flow, SEQUENCE_NO);
 
@@ -1487,7 +1505,13 @@ public class OptDriverTest {
         terminationPointPairs.add(pointPairs2);
         response.setTerminationPointPairs(terminationPointPairs);
 
-        Whitebox.invokeMethod(target, "formFlowMessage", flow, response, links, TRANSACTION_ID);
+        OdenOsLinkIndex linkIndex = new OdenOsLinkIndex();
+        linkIndex.load(links);
+        NetworkInterface nwIf = mock(NetworkInterface.class);
+        doReturn(linkIndex).when(target).getLinkIndex(nwIf, NW_ID);
+        doReturn(linkIndex).when(target).reloadLinkIndex(nwIf, NW_ID);
+        Whitebox.invokeMethod(target, "formFlowMessage", flow, response, nwIf, NW_ID,
+                TRANSACTION_ID);
 
         verify(flow, times(1)).addPath(linkId);
         verify(flow, times(1)).putAttribute(Logic.AttrElements.LATENCY, latency);
@@ -1546,7 +1570,13 @@ public class OptDriverTest {
         terminationPointPairs.add(pointPairs3);
         response.setTerminationPointPairs(terminationPointPairs);
 
-        Whitebox.invokeMethod(target, "formFlowMessage", flow, response, links, TRANSACTION_ID);
+        OdenOsLinkIndex linkIndex = new OdenOsLinkIndex();
+        linkIndex.load(links);
+        NetworkInterface nwIf = mock(NetworkInterface.class);
+        doReturn(linkIndex).when(target).getLinkIndex(nwIf, NW_ID);
+        doReturn(linkIndex).when(target).reloadLinkIndex(nwIf, NW_ID);
+        Whitebox.invokeMethod(target, "formFlowMessage", flow, response, nwIf, NW_ID,
+                TRANSACTION_ID);
 
         verify(flow, times(1)).addPath(linkId1);
         verify(flow, times(1)).addPath(linkId2);
@@ -1598,7 +1628,13 @@ public class OptDriverTest {
         dummyCtppPoints.add(ctpps);
         PowerMockito.doReturn(dummyCtppPoints).when(target, "makeCtpPoints", eq(response));
 
-        Whitebox.invokeMethod(target, "formFlowMessage", flow, response, links, TRANSACTION_ID);
+        OdenOsLinkIndex linkIndex = new OdenOsLinkIndex();
+        linkIndex.load(links);
+        NetworkInterface nwIf = mock(NetworkInterface.class);
+        doReturn(linkIndex).when(target).getLinkIndex(nwIf, NW_ID);
+        doReturn(linkIndex).when(target).reloadLinkIndex(nwIf, NW_ID);
+        Whitebox.invokeMethod(target, "formFlowMessage", flow, response, nwIf, NW_ID,
+                TRANSACTION_ID);
 
         verify(response, never()).getTerminationPointPairs();
         verify(flow, never()).addPath(linkId);
@@ -1634,7 +1670,13 @@ public class OptDriverTest {
         ArrayList<TerminationPoints> terminationPointPairs = new ArrayList<>();
         response.setTerminationPointPairs(terminationPointPairs);
 
-        Whitebox.invokeMethod(target, "formFlowMessage", flow, response, links, TRANSACTION_ID);
+        OdenOsLinkIndex linkIndex = new OdenOsLinkIndex();
+        linkIndex.load(links);
+        NetworkInterface nwIf = mock(NetworkInterface.class);
+        doReturn(linkIndex).when(target).getLinkIndex(nwIf, NW_ID);
+        doReturn(linkIndex).when(target).reloadLinkIndex(nwIf, NW_ID);
+        Whitebox.invokeMethod(target, "formFlowMessage", flow, response, nwIf, NW_ID,
+                TRANSACTION_ID);
 
         verify(link, never()).getSrcNode();
         verify(flow, never()).addPath(linkId);
@@ -1681,7 +1723,13 @@ public class OptDriverTest {
         terminationPointPairs.add(pointPairs2);
         response.setTerminationPointPairs(terminationPointPairs);
 
-        Whitebox.invokeMethod(target, "formFlowMessage", flow, response, links, TRANSACTION_ID);
+        OdenOsLinkIndex linkIndex = new OdenOsLinkIndex();
+        linkIndex.load(links);
+        NetworkInterface nwIf = mock(NetworkInterface.class);
+        doReturn(linkIndex).when(target).getLinkIndex(nwIf, NW_ID);
+        doReturn(linkIndex).when(target).reloadLinkIndex(nwIf, NW_ID);
+        Whitebox.invokeMethod(target, "formFlowMessage", flow, response, nwIf, NW_ID,
+                TRANSACTION_ID);
 
         verify(flow, never()).addPath(linkId);
         verify(flow, times(1)).putAttribute(Logic.AttrElements.LATENCY, latency);
@@ -1727,12 +1775,89 @@ public class OptDriverTest {
         terminationPointPairs.add(pointPairs2);
         response.setTerminationPointPairs(terminationPointPairs);
 
-        Whitebox.invokeMethod(target, "formFlowMessage", flow, response, links, TRANSACTION_ID);
+        OdenOsLinkIndex linkIndex = new OdenOsLinkIndex();
+        linkIndex.load(links);
+        NetworkInterface nwIf = mock(NetworkInterface.class);
+        doReturn(linkIndex).when(target).getLinkIndex(nwIf, NW_ID);
+        doReturn(linkIndex).when(target).reloadLinkIndex(nwIf, NW_ID);
+        Whitebox.invokeMethod(target, "formFlowMessage", flow, response, nwIf, NW_ID,
+                TRANSACTION_ID);
 
         verify(flow, never()).addPath(linkId);
         verify(flow, times(1)).putAttribute(Logic.AttrElements.LATENCY, latency);
     }
 
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.driver.OptDriver#formFlowMessage()}
+     */
+    @Test
+    public void testFormFlowMessageReloadsLinkIndex() throws Exception {
+        String linkId = "linkId";
+        String srcPort = "NW=SDNNP-POC,NE=PE1,Layer=outerLSP,TTP=1";
+        String dstPort = "NW=SDNNP-POC,NE=PE1,Layer=outerLSP,CTP=2";
+        String srcPort2 = "NW=SDNNP-POC,NE=PE1,Layer=outerLSP,CTP=3";
+        String dstPort2 = "NW=SDNNP-POC,NE=PE1,Layer=outerLSP,TTP=4";
+
+        BasicFlow flow = spy(new BasicFlow("flowId"));
+
+        OduFlowCreationResponse response = new OduFlowCreationResponse();
+        response.setFjFlowId("routeId");
+        Constraint constraint = new Constraint();
+        constraint.setBandwidth("bandwidth");
+        constraint.setLatency("latency");
+        response.setConstraint(constraint);
+
+        TerminationPoints point = new TerminationPoints();
+        point.setInPoint(srcPort);
+        point.setOutPoint(dstPort);
+        TerminationPoints point2 = new TerminationPoints();
+        point2.setInPoint(srcPort2);
+        point2.setOutPoint(dstPort2);
+        List<TerminationPoints> terminationPointPairs = new ArrayList<>();
+        terminationPointPairs.add(point);
+        terminationPointPairs.add(point2);
+        response.setTerminationPointPairs(terminationPointPairs);
+
+        Map<String, Link> links = new HashMap<>();
+        links.put(linkId, new Link(linkId, "srcNode", dstPort, "dstNode", srcPort2));
+        OdenOsLinkIndex reloaded = new OdenOsLinkIndex();
+        reloaded.load(links);
+
+        NetworkInterface nwIf = mock(NetworkInterface.class);
+        doReturn(new OdenOsLinkIndex()).when(target).getLinkIndex(nwIf, NW_ID);
+        doReturn(reloaded).when(target).reloadLinkIndex(nwIf, NW_ID);
+        Whitebox.invokeMethod(target, "formFlowMessage", flow, response, nwIf, NW_ID,
+                TRANSACTION_ID);
+
+        verify(target, times(1)).reloadLinkIndex(nwIf, NW_ID);
+        verify(flow, times(1)).addPath(linkId);
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.driver.AbstractDriver#reloadLinkIndex()}
+     */
+    @Test
+    public void testReloadLinkIndex() throws Exception {
+        String linkId = "linkId";
+        String srcPort = "NW=SDNNP-POC,NE=PE1,Layer=outerLSP,CTP=2";
+        String dstPort = "NW=SDNNP-POC,NE=PE2,Layer=outerLSP,CTP=3";
+
+        OdenOsNetworkMirror mirror = new OdenOsNetworkMirror();
+        mirror.load(new Topology(), new FlowSet());
+        NetworkInterface nwIf = mock(NetworkInterface.class);
+        doReturn(mirror).when(target).getNetworkMirror(nwIf, NW_ID);
+
+        Map<String, Link> links = new HashMap<>();
+        links.put(linkId, new Link(linkId, "srcNode", srcPort, "dstNode", dstPort));
+        doReturn(links).when(nwIf).getLinks();
+
+        OdenOsLinkIndex index = target.reloadLinkIndex(nwIf, NW_ID);
+
+        assertThat(index.get(srcPort, dstPort), is(linkId));
+    }
+
     /**
      * Test method for
      * {@link org.o3project.ocnrm.odenos.driver.OptDriver#registerOdu()}
@@ -1796,19 +1921,143 @@ public class OptDriverTest {
         topology.links.put(link3.getId(), link3);
 
         NetworkInterface nwIf = PowerMockito.spy(new NetworkInterface(dispatcher, NW_ID));
-        PowerMockito.doReturn(mock(Response.class)).when(nwIf).putNode(any(Node.class));
-        PowerMockito.doReturn(mock(Response.class)).when(nwIf).putLink(any(Link.class));
-        PowerMockito.doReturn(spy(new Node())).when(nwIf).getNode(anyString());
-        PowerMockito.doReturn(spy(new Link())).when(nwIf).getLink(anyString());
+        stubTopologyPuts(nwIf, new Topology());
 
-        HashMap<String, NetworkInterface> networkIfs = new HashMap<String, NetworkInterface>();
-        networkIfs.put(NW_ID, nwIf);
-        Whitebox.setInternalState(target, "networkInterfaces", networkIfs);
+        target.sendToporogy(nwIf, NW_ID, topology);
 
+        verify(nwIf, times(3)).putNode(any(Node.class));
+        verify(nwIf, times(3)).putLink(any(Link.class));
+
+        // the stored objects are in the mirror before their events arrive
         target.sendToporogy(nwIf, NW_ID, topology);
 
         verify(nwIf, times(3)).putNode(any(Node.class));
         verify(nwIf, times(3)).putLink(any(Link.class));
+        verify(nwIf, never()).getNode(anyString());
+        verify(nwIf, never()).getLink(anyString());
+    }
+
+    private void stubTopologyPuts(NetworkInterface nwIf, Topology current) throws Exception {
+        PowerMockito.doReturn(current).when(nwIf).getTopology();
+        PowerMockito.doReturn(new FlowSet()).when(nwIf).getFlowSet();
+        PowerMockito.doAnswer(new Answer<Response>() {
+            @Override
+            public Response answer(InvocationOnMock invocation) {
+                Node node = ((Node) invocation.getArguments()[0]).clone();
+                node.setVersion(String.valueOf(Long.parseLong(node.getVersion()) + 1));
+                return new Response(Response.CREATED, node);
+            }
+        }).when(nwIf).putNode(any(Node.class));
+        PowerMockito.doAnswer(new Answer<Response>() {
+            @Override
+            public Response answer(InvocationOnMock invocation) {
+                Link link = ((Link) invocation.getArguments()[0]).clone();
+                link.setVersion(String.valueOf(Long.parseLong(link.getVersion()) + 1));
+                return new Response(Response.CREATED, link);
+            }
+        }).when(nwIf).putLink(any(Link.class));
+        PowerMockito.doReturn(new Response(Response.OK, null)).when(nwIf).delNode(anyString());
+        PowerMockito.doReturn(new Response(Response.OK, null)).when(nwIf).delLink(anyString());
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.driver.OptDriver#sendToporogy()}
+     */
+    @Test
+    public void testSendTopologyRetriesVersionConflict() throws Exception {
+        NetworkInterface nwIf = PowerMockito.spy(new NetworkInterface(dispatcher, NW_ID));
+        stubTopologyPuts(nwIf, new Topology());
+        PowerMockito.doReturn(new Node("5", "nodeId1")).when(nwIf).getNode("nodeId1");
+        final List<String> versions = new ArrayList<>();
+        PowerMockito.doAnswer(new Answer<Response>() {
+            @Override
+            public Response answer(InvocationOnMock invocation) {
+                Node node = (Node) invocation.getArguments()[0];
+                versions.add(node.getVersion());
+                if (versions.size() == 1) {
+                    return new Response(Response.CONFLICT, null);
+                }
+                return new Response(Response.OK, new Node("6", "nodeId1"));
+            }
+        }).when(nwIf).putNode(any(Node.class));
+
+        Topology topology = new Topology();
+        topology.nodes.put("nodeId1", new Node("nodeId1"));
+        target.sendToporogy(nwIf, NW_ID, topology);
+
+        assertThat(versions, is(Arrays.asList(OdenOsTopologyLib.INITIAL_VERSION, "5")));
+        OdenOsNetworkMirror mirror = Whitebox.invokeMethod(target, "getNetworkMirror", nwIf,
+                NW_ID);
+        assertThat(mirror.getNode("nodeId1").getVersion(), is("6"));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.driver.OptDriver#sendToporogy()}
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testSendTopologyWithPutFailure() throws Exception {
+        NetworkInterface nwIf = PowerMockito.spy(new NetworkInterface(dispatcher, NW_ID));
+        stubTopologyPuts(nwIf, new Topology());
+        PowerMockito.doReturn(new Response(Response.BAD_REQUEST, null)).when(nwIf)
+                .putLink(any(Link.class));
+
+        Topology topology = new Topology();
+        topology.links.put("linkId1", new Link("linkId1"));
+        target.sendToporogy(nwIf, NW_ID, topology);
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.driver.OptDriver#sendToporogy()}
+     */
+    @Test
+    public void testSendTopologyWithUnreadableNetwork() throws Exception {
+        NetworkInterface nwIf = PowerMockito.spy(new NetworkInterface(dispatcher, NW_ID));
+        stubTopologyPuts(nwIf, null);
+
+        Topology topology = new Topology();
+        topology.nodes.put("nodeId1", new Node("nodeId1"));
+        try {
+            target.sendToporogy(nwIf, NW_ID, topology);
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), containsString(NW_ID));
+        }
+        verify(nwIf, never()).putNode(any(Node.class));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.driver.OptDriver#sendToporogy()}
+     */
+    @Test
+    public void testSendTopologyWithMirror() throws Exception {
+        Topology current = new Topology();
+        current.nodes.put("nodeId1", new Node("2", "nodeId1", new HashMap<String, Port>(),
+                null));
+        current.nodes.put("nodeId2", new Node("3", "nodeId2", new HashMap<String, Port>(),
+                null));
+        current.links.put("linkId1", new Link("4", "linkId1", "nodeId1", "port1", "nodeId2",
+                "port2", null));
+
+        NetworkInterface nwIf = PowerMockito.spy(new NetworkInterface(dispatcher, NW_ID));
+        stubTopologyPuts(nwIf, current);
+
+        Topology topology = new Topology();
+        topology.nodes.put("nodeId1", new Node("nodeId1"));
+        topology.nodes.put("nodeId3", new Node("nodeId3"));
+
+        target.sendToporogy(nwIf, NW_ID, topology);
+
+        verify(nwIf, times(1)).putNode(topology.nodes.get("nodeId3"));
+        verify(nwIf, times(1)).putNode(any(Node.class));
+        verify(nwIf, never()).putLink(any(Link.class));
+        verify(nwIf, times(1)).delNode("nodeId2");
+        verify(nwIf, times(1)).delLink("linkId1");
+        verify(nwIf, never()).getNode(anyString());
+        verify(nwIf, never()).getLink(anyString());
     }
 
     /**
@@ -1829,14 +2078,7 @@ public class OptDriverTest {
         topology.links.put(link3.getId(), link3);
 
         NetworkInterface nwIf = PowerMockito.spy(new NetworkInterface(dispatcher, NW_ID));
-        PowerMockito.doReturn(mock(Response.class)).when(nwIf).putNode(any(Node.class));
-        PowerMockito.doReturn(mock(Response.class)).when(nwIf).putLink(any(Link.class));
-        PowerMockito.doReturn(spy(new Node())).when(nwIf).getNode(anyString());
-        PowerMockito.doReturn(spy(new Link())).when(nwIf).getLink(anyString());
-
-        HashMap<String, NetworkInterface> networkIfs = new HashMap<String, NetworkInterface>();
-        networkIfs.put(NW_ID, nwIf);
-        Whitebox.setInternalState(target, "networkInterfaces", networkIfs);
+        stubTopologyPuts(nwIf, new Topology());
 
         target.sendToporogy(nwIf, NW_ID, topology);
 
@@ -1862,14 +2104,7 @@ public class OptDriverTest {
         topology.nodes.put(node3.getId(), node3);
 
         NetworkInterface nwIf = PowerMockito.spy(new NetworkInterface(dispatcher, NW_ID));
-        PowerMockito.doReturn(mock(Response.class)).when(nwIf).putNode(any(Node.class));
-        PowerMockito.doReturn(mock(Response.class)).when(nwIf).putLink(any(Link.class));
-        PowerMockito.doReturn(spy(new Node())).when(nwIf).getNode(anyString());
-        PowerMockito.doReturn(spy(new Link())).when(nwIf).getLink(anyString());
-
-        HashMap<String, NetworkInterface> networkIfs = new HashMap<String, NetworkInterface>();
-        networkIfs.put(NW_ID, nwIf);
-        Whitebox.setInternalState(target, "networkInterfaces", networkIfs);
+        stubTopologyPuts(nwIf, new Topology());
 
         target.sendToporogy(nwIf, NW_ID, topology);
 
@@ -1934,7 +2169,7 @@ public class OptDriverTest {
 
         JSONParser parser = spy(new JSONParser());
         doThrow(mock(IOException.class)).when(parser)
-                .upperNodeInfotoPOJO((JSONObject) anyObject(), anyString());
+                .upperNodeInfotoPOJO(anyString(), anyString());
         PowerMockito.whenNew(JSONParser.class).withNoArguments().thenReturn(parser);
 
         Response result = target.sendTopologyToOdenos("och", body);
@@ -2162,4 +2397,344 @@ public class OptDriverTest {
         assertThat(result.statusCode, is(Response.BAD_REQUEST));
         verify(dummyLogger, times(1)).error("IActionCallback is null.");
     }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.driver.OptDriver#onRequest()}
+     */
+    @Test
+    public void testOnRequestWithJobStatus() throws Exception {
+        Request request = new Request("objId", Method.PUT, "path", "test");
+        Request failed = new Request("objId", Method.PUT, "path2", "test");
+
+        @SuppressWarnings("unchecked")
+        RequestParser<IActionCallback>.ParsedRequest parsed = mock(ParsedRequest.class);
+        IActionCallback dummyCallback = mock(IActionCallback.class);
+        doReturn(new Response(Response.CREATED, "{\"id\":\"1\"}")).when(dummyCallback)
+                .process(eq(parsed));
+        doReturn(dummyCallback).when(parsed).getResult();
+
+        @SuppressWarnings("unchecked")
+        RequestParser<IActionCallback>.ParsedRequest failedParsed = mock(ParsedRequest.class);
+        IActionCallback failedCallback = mock(IActionCallback.class);
+        doThrow(new Exception()).when(failedCallback).process(eq(failedParsed));
+        doReturn(failedCallback).when(failedParsed).getResult();
+
+        @SuppressWarnings("unchecked")
+        RequestParser<IActionCallback> dummyParser = mock(RequestParser.class);
+        doReturn(parsed).when(dummyParser).parse(eq(request));
+        doReturn(failedParsed).when(dummyParser).parse(eq(failed));
+        Whitebox.setInternalState(target, "parser", dummyParser);
+
+        String jobId = new JSONObject(target.onRequest(request).getBody(String.class))
+                .getString("job_id");
+        String failedJobId = new JSONObject(target.onRequest(failed).getBody(String.class))
+                .getString("job_id");
+
+        for (int i = 0; i < 100; i++) {
+            if (target.getJobTable().get(jobId).isFinished()
+                    && target.getJobTable().get(failedJobId).isFinished()) {
+                break;
+            }
+            Thread.sleep(10);
+        }
+
+        Response result = target.onRequest(
+                new Request("objId", Method.GET, "jobs/" + jobId, null));
+        JSONObject job = new JSONObject(result.getBody(String.class));
+        assertThat(result.statusCode, is(Response.OK));
+        assertThat(job.getString("status"), is(Job.DONE));
+        assertThat(job.getString("statusCode"), is(Response.CREATED.toString()));
+        assertThat(job.getString("result"), is("{\"id\":\"1\"}"));
+        assertThat(job.getString("path"), is("path"));
+
+        result = target.onRequest(new Request("objId", Method.GET, "jobs/" + failedJobId, null));
+        job = new JSONObject(result.getBody(String.class));
+        assertThat(job.getString("status"), is(Job.ERROR));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.driver.OptDriver#onRequest()}
+     */
+    @Test
+    public void testOnRequestWithUnknownJob() throws Exception {
+        Response result = target.onRequest(new Request("objId", Method.GET, "jobs/unknown", null));
+
+        assertThat(result.statusCode, is(Response.NOT_FOUND));
+    }
+
+    private org.o3project.odenos.remoteobject.message.Event createFlowChangedEvent(
+            String flowId) throws Exception {
+        return createFlowChangedEvent(flowId, Logic.CONN_ADD, new ArrayList<String>());
+    }
+
+    private org.o3project.odenos.remoteobject.message.Event createFlowChangedEvent(
+            String flowId, String action, ArrayList<String> attributes) throws Exception {
+        FlowChanged message = mock(FlowChanged.class);
+        when(message.action()).thenReturn(action);
+        when(message.prev()).thenReturn(new Flow(flowId));
+        when(message.curr()).thenReturn(new Flow(flowId));
+        when(message.attributes()).thenReturn(attributes);
+        org.o3project.odenos.remoteobject.message.Event event =
+                mock(org.o3project.odenos.remoteobject.message.Event.class);
+        event.publisherId = NW_ID;
+        event.eventType = FlowChanged.TYPE;
+        when(event.getBody(FlowChanged.class)).thenReturn(message);
+        return event;
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.driver.AbstractDriver#onEvent()}
+     */
+    @Test
+    public void testOnEventWithFlowChanged() throws Exception {
+        final CountDownLatch blocker = new CountDownLatch(1);
+        final CountDownLatch otherDone = new CountDownLatch(1);
+        final CountDownLatch allDone = new CountDownLatch(3);
+        final List<String> handled = Collections.synchronizedList(new ArrayList<String>());
+        final AtomicBoolean blocked = new AtomicBoolean(false);
+
+        PowerMockito.doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                FlowChanged message = (FlowChanged) invocation.getArguments()[1];
+                String flowId = message.curr().getFlowId();
+                if (flowId.equals("flow1") && blocked.compareAndSet(false, true)) {
+                    blocker.await(5, TimeUnit.SECONDS);
+                }
+                handled.add(flowId);
+                if (flowId.equals("flow2")) {
+                    otherDone.countDown();
+                }
+                allDone.countDown();
+                return null;
+            }
+        }).when(target, "onFlowChanged", eq(NW_ID), any(FlowChanged.class));
+
+        target.onEvent(createFlowChangedEvent("flow1"));
+        target.onEvent(createFlowChangedEvent("flow1"));
+        target.onEvent(createFlowChangedEvent("flow2"));
+
+        assertThat(otherDone.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(target.getChangedEventBacklog().get(FLOW_KEY + "flow1"), is(2));
+        for (int i = 0; i < 100
+                && target.getChangedEventBacklog().containsKey(FLOW_KEY + "flow2"); i++) {
+            Thread.sleep(10);
+        }
+        assertThat(target.getChangedEventBacklog().containsKey(FLOW_KEY + "flow2"), is(false));
+
+        blocker.countDown();
+
+        assertThat(allDone.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(handled.toString(), is("[flow2, flow1, flow1]"));
+        for (int i = 0; i < 100 && target.getChangedEventQueueDepth() > 0; i++) {
+            Thread.sleep(10);
+        }
+        assertThat(target.getChangedEventQueueDepth(), is(0));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.driver.AbstractDriver#onEvent()}
+     */
+    @Test
+    public void testOnEventWithFlowChangedMerged() throws Exception {
+        final CountDownLatch blocker = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch allDone = new CountDownLatch(2);
+        final List<FlowChanged> handled = Collections.synchronizedList(
+                new ArrayList<FlowChanged>());
+
+        PowerMockito.doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                FlowChanged message = (FlowChanged) invocation.getArguments()[1];
+                if (message.action().equals(Logic.CONN_ADD)) {
+                    started.countDown();
+                    blocker.await(5, TimeUnit.SECONDS);
+                }
+                handled.add(message);
+                allDone.countDown();
+                return null;
+            }
+        }).when(target, "onFlowChanged", eq(NW_ID), any(FlowChanged.class));
+
+        target.onEvent(createFlowChangedEvent("flow1"));
+        assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+        target.onEvent(createFlowChangedEvent("flow1", Logic.CONN_UPDATE,
+                new ArrayList<String>(Arrays.asList("status"))));
+        target.onEvent(createFlowChangedEvent("flow1", Logic.CONN_UPDATE,
+                new ArrayList<String>(Arrays.asList("status", "enabled"))));
+        target.onEvent(createFlowChangedEvent("flow1", Logic.CONN_UPDATE,
+                new ArrayList<String>(Arrays.asList("priority"))));
+        blocker.countDown();
+
+        assertThat(allDone.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(handled.size(), is(2));
+        assertThat(handled.get(1).action(), is(Logic.CONN_UPDATE));
+        assertThat(handled.get(1).attributes().toString(), is("[status, enabled, priority]"));
+        assertThat(target.getMergedEventCount(), is(2L));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.driver.AbstractDriver#getLinkIndex()}
+     */
+    @Test
+    public void testGetLinkIndexWithLinkChanged() throws Exception {
+        PowerMockito.doNothing().when(target, "onLinkChanged", eq(NW_ID),
+                any(LinkChanged.class));
+
+        Topology topology = new Topology();
+        topology.links.put("link0", new Link("link0", "node1", "port1", "node2", "port2"));
+        NetworkInterface networkIf = PowerMockito.spy(new NetworkInterface(dispatcher, NW_ID));
+        doReturn(topology).when(networkIf).getTopology();
+        doReturn(new FlowSet()).when(networkIf).getFlowSet();
+
+        OdenOsLinkIndex index = target.getLinkIndex(networkIf, NW_ID);
+        assertThat(index.get("port1", "port2"), is("link0"));
+
+        Link link1 = new Link("link1", "node2", "port3", "node3", "port4");
+        Link link1Moved = new Link("link1", "node2", "port3", "node3", "port5");
+        target.onEvent(createLinkChangedEvent(Logic.CONN_ADD, null, link1));
+        assertThat(index.get("port3", "port4"), is("link1"));
+
+        target.onEvent(createLinkChangedEvent(Logic.CONN_UPDATE, link1, link1Moved));
+        assertThat(index.get("port3", "port4"), is(nullValue()));
+        assertThat(index.get("port3", "port5"), is("link1"));
+
+        target.onEvent(createLinkChangedEvent(Logic.CONN_DELETE, link1Moved, null));
+        assertThat(index.get("port3", "port5"), is(nullValue()));
+
+        assertThat(target.getLinkIndex(networkIf, NW_ID), is(index));
+        verify(networkIf, times(1)).getTopology();
+        verify(networkIf, never()).getLinks();
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.driver.AbstractDriver#getLocalFlow()}
+     */
+    @Test
+    public void testGetLocalFlowWithFlowChanged() throws Exception {
+        PowerMockito.doNothing().when(target, "onFlowChanged", eq(NW_ID),
+                any(FlowChanged.class));
+
+        BasicFlow flow1 = new BasicFlow("flow1");
+        flow1.addMatch(new BasicFlowMatch("inNode", "inPort"));
+        FlowSet flowSet = new FlowSet();
+        flowSet.flows.put(flow1.getFlowId(), flow1);
+        NetworkInterface networkIf = PowerMockito.spy(new NetworkInterface(dispatcher, NW_ID));
+        doReturn(new Topology()).when(networkIf).getTopology();
+        doReturn(flowSet).when(networkIf).getFlowSet();
+
+        BasicFlow result = target.getLocalFlow(networkIf, NW_ID, "flow1");
+        assertThat(result.getFlowId(), is("flow1"));
+        assertThat(result == flow1, is(false));
+
+        BasicFlow flow2 = new BasicFlow("flow2");
+        flow2.addMatch(new BasicFlowMatch("inNode", "inPort"));
+        FlowChanged message = mock(FlowChanged.class);
+        when(message.action()).thenReturn(Logic.CONN_ADD);
+        when(message.curr()).thenReturn(flow2);
+        org.o3project.odenos.remoteobject.message.Event event =
+                mock(org.o3project.odenos.remoteobject.message.Event.class);
+        event.publisherId = NW_ID;
+        event.eventType = FlowChanged.TYPE;
+        when(event.getBody(FlowChanged.class)).thenReturn(message);
+        target.onEvent(event);
+
+        assertThat(target.getLocalFlow(networkIf, NW_ID, "flow2").getFlowId(), is("flow2"));
+        verify(networkIf, times(1)).getFlowSet();
+        verify(networkIf, never()).getFlow(anyString());
+    }
+
+    private org.o3project.odenos.remoteobject.message.Event createLinkChangedEvent(
+            String action, Link prev, Link curr) throws Exception {
+        LinkChanged message = mock(LinkChanged.class);
+        when(message.action()).thenReturn(action);
+        when(message.prev()).thenReturn(prev);
+        when(message.curr()).thenReturn(curr);
+        when(message.attributes()).thenReturn(new ArrayList<String>());
+        org.o3project.odenos.remoteobject.message.Event event =
+                mock(org.o3project.odenos.remoteobject.message.Event.class);
+        event.publisherId = NW_ID;
+        event.eventType = LinkChanged.TYPE;
+        when(event.getBody(LinkChanged.class)).thenReturn(message);
+        return event;
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.driver.OptDriver#provisionOduFlows()}
+     */
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testProvisionOduFlows() throws Exception {
+        String body = "{\"flows\":["
+                + "{\"flowId\":\"flowId1\","
+                + "\"srcTTP\":\"NW=SDN,NE=FW9500SDN001,Layer=ODU,TTP=1\","
+                + "\"dstTTP\":\"NW=SDN,NE=FW9500SDN002,Layer=ODU,TTP=1\","
+                + "\"direction\":\"bidirectional\","
+                + "\"constraint\":{\"bandwidth\":\"1\",\"latency\":\"10\"}},"
+                + "{\"flowId\":\"flowId2\","
+                + "\"srcTTP\":\"NW=SDN,NE=FW9500SDN001,Layer=ODU,TTP=2\","
+                + "\"dstTTP\":\"NW=SDN,NE=FW9500SDN002,Layer=ODU,TTP=2\"}]}";
+
+        target.connectionIdMap.put(ODU_LAYER, NW_ID);
+        NetworkInterface nwIf = PowerMockito.mock(NetworkInterface.class);
+        HashMap<String, NetworkInterface> networkIfs = new HashMap<String, NetworkInterface>();
+        networkIfs.put(NW_ID, nwIf);
+        Whitebox.setInternalState(target, "networkInterfaces", networkIfs);
+        doReturn(new OdenOsLinkIndex()).when(target).getLinkIndex(nwIf, NW_ID);
+
+        final OduFlowCreationResponse response = new OduFlowCreationResponse();
+        response.setFjFlowId("fjFlowId1");
+        response.setTerminationPointPairs(new ArrayList<TerminationPoints>());
+        response.setConstraint(new Constraint());
+        ResourceSendController sender = mock(ResourceSendController.class);
+        PowerMockito.doAnswer(new Answer<Map<String, OduFlowCreationResponse>>() {
+            @Override
+            public Map<String, OduFlowCreationResponse> answer(InvocationOnMock invocation) {
+                List<BasicFlow> flows = (List<BasicFlow>) invocation.getArguments()[0];
+                assertThat(flows.size(), is(2));
+                assertThat(flows.get(0).getAttribute("direction"), is("bidirectional"));
+                assertThat(flows.get(0).getAttribute(AttrElements.REQ_BANDWIDTH), is("1"));
+                ((Map<String, String>) invocation.getArguments()[2]).put("flowId2", "no path");
+                Map<String, OduFlowCreationResponse> result = new HashMap<>();
+                result.put("flowId1", response);
+                return result;
+            }
+        }).when(sender).registerNewOduFlows(any(List.class), any(Map.class), any(Map.class),
+                eq(SEQUENCE_NO));
+        PowerMockito.whenNew(ResourceSendController.class).withNoArguments().thenReturn(sender);
+
+        Response result = target.provisionOduFlows(body, SEQUENCE_NO);
+
+        assertThat(result.statusCode, is(Response.OK));
+        JSONObject json = new JSONObject(result.getBody(String.class));
+        assertThat(json.getJSONArray("flows").getJSONObject(0).getString("result"),
+                is("established"));
+        assertThat(json.getJSONArray("flows").getJSONObject(0).getString("fjFlowId"),
+                is("fjFlowId1"));
+        assertThat(json.getJSONArray("flows").getJSONObject(1).getString("result"),
+                is("failed"));
+        assertThat(json.getJSONArray("flows").getJSONObject(1).getString("error"),
+                is("no path"));
+        verify(nwIf, times(1)).putFlow(any(Flow.class));
+        verify(dummyManager, times(1)).delete(anyString());
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.driver.OptDriver#provisionOduFlows()}
+     */
+    @Test
+    public void testProvisionOduFlowsWithoutOduNetwork() throws Exception {
+        Response result = target.provisionOduFlows("{\"flows\":[]}", SEQUENCE_NO);
+
+        assertThat(result.statusCode, is(Response.BAD_REQUEST));
+    }
 }
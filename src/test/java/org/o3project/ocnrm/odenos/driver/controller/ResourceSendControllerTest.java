@@ -19,19 +19,26 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.IOException;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
@@ -43,13 +50,16 @@ import org.o3project.ocnrm.lib.JSONParser;
 import org.o3project.ocnrm.lib.MFApiCaller;
 import org.o3project.ocnrm.lib.flow.OduFlowCreator;
 import org.o3project.ocnrm.lib.table.Event;
+import org.o3project.ocnrm.lib.table.IdExchangeCache;
 import org.o3project.ocnrm.lib.table.ResourceInfoFlomMf;
 import org.o3project.ocnrm.lib.table.TableManager;
 import org.o3project.ocnrm.model.Constraint;
 import org.o3project.ocnrm.model.IdExchangeRequest;
 import org.o3project.ocnrm.model.ResourceRequest;
 import org.o3project.ocnrm.model.TerminationPoints;
+import org.o3project.ocnrm.model.bind.MappingData;
 import org.o3project.ocnrm.model.bind.OduBindingData;
+import org.o3project.ocnrm.model.bind.OduMapping;
 import org.o3project.ocnrm.model.bind.RmData;
 import org.o3project.ocnrm.model.odu.OduFlow;
 import org.o3project.ocnrm.model.odu.OduFlowCreationResponse;
@@ -187,6 +197,70 @@ public class ResourceSendControllerTest {
         assertThat(result.getConstraint().getLatency(), is("letency"));
     }
 
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.driver.controller.ResourceSendController
+     * #registerNewOduFlows()}
+     */
+    @Test
+    public void testRegisterNewOduFlows() throws Exception {
+        OduFlow dummyOduFlow = new OduFlow();
+        dummyOduFlow.setFjFlowId(mfId);
+        List<TerminationPoints> points = new ArrayList<TerminationPoints>();
+        dummyOduFlow.setTerminationPointPairs(points);
+        dummyOduFlow.setConstraint(new Constraint());
+
+        Event event1 = new Event(transactionId, nwId, eventName, "flowId1", action, time,
+                driver);
+        Event event2 = new Event("transactionId2", nwId, eventName, "flowId2", action, time,
+                driver);
+        Map<String, Event> events = new HashMap<>();
+        events.put("flowId1", event1);
+        events.put("flowId2", event2);
+
+        TableManager dummyManager = spy(TableManager.getInstance());
+        PowerMockito.doReturn(new ResourceInfoFlomMf(transactionId, nwId, "flowId1", mfId,
+                dummyOduFlow, time, driver)).when(dummyManager).checkIncompleteResource(event1);
+        PowerMockito.doReturn(null).when(dummyManager).checkIncompleteResource(event2);
+        Whitebox.setInternalState(target, "manager", dummyManager);
+
+        PowerMockito.doThrow(new IOException("no path")).when(target, "sendMf",
+                eq(seqNo), (ResourceRequest) anyObject());
+
+        RmData dummyData = mock(RmData.class);
+        PowerMockito.doReturn(dummyData).when(target, "getOduReplacementTable",
+                eq(mfId), eq(points), eq(seqNo));
+
+        List<String> dummyJson = new ArrayList<String>();
+        dummyJson.add("entry");
+        PowerMockito.doReturn(dummyJson).when(target, "makeOduFlow",
+                eq(dummyData), anyObject(), eq(seqNo));
+
+        OfCtlSender dummySender = mock(OfCtlSender.class);
+        doReturn(true).when(dummySender).confirm(eq(dummyJson),
+                eq(OfCtlSender.FLOW_ADD_METHOD), anyLong(), eq(seqNo));
+        PowerMockito.whenNew(OfCtlSender.class).withNoArguments().thenReturn(dummySender);
+
+        List<BasicFlow> flows = new ArrayList<>();
+        flows.add(new BasicFlow("flowId1"));
+        BasicFlow flow2 = new BasicFlow("flowId2");
+        flow2.addMatch(new BasicFlowMatch("inNode", "inPort"));
+        flows.add(flow2);
+        Map<String, String> errors = new HashMap<>();
+
+        Map<String, OduFlowCreationResponse> result =
+                target.registerNewOduFlows(flows, events, errors, seqNo);
+
+        assertThat(result.size(), is(1));
+        assertThat(result.get("flowId1").getFjFlowId(), is(mfId));
+        assertThat(errors.size(), is(1));
+        assertThat(errors.containsKey("flowId2"), is(true));
+        verify(dummySender, times(1)).ofCtlSendPipelined(eq(dummyJson),
+                eq(OfCtlSender.FLOW_ADD_METHOD), eq(seqNo));
+        verify(dummySender, never()).ofCtlSend(anyListOf(String.class), anyString(),
+                anyString());
+    }
+
     /**
      * Test method for
      * {@link org.o3project.ocnrm.odenos.driver.controller.ResourceSendController
@@ -227,6 +301,90 @@ public class ResourceSendControllerTest {
         verify(dummyBinder, times(1)).bind(eq(dstName), eq(resource));
     }
 
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.driver.controller.ResourceSendController
+     * #getOduReplacementTable()}
+     */
+    @Test
+    public void testGetOduReplacementTableWithCache() throws Exception {
+        String srcName = "srcName";
+        String dstName = "dstName";
+        String resource = "{\"test\":\"test\"}";
+        JSONObject json = new JSONObject(resource);
+
+        TerminationPoints point = new TerminationPoints();
+        point.setInPoint(srcName);
+        point.setOutPoint(dstName);
+
+        List<TerminationPoints> points = new ArrayList<>();
+        points.add(point);
+
+        OduMapping cached = new OduMapping();
+        OduMapping requested = new OduMapping();
+        IdExchangeCache dummyCache = mock(IdExchangeCache.class);
+        when(dummyCache.get(flowId, srcName)).thenReturn(cached);
+        Whitebox.setInternalState(target, "idExchangeCache", dummyCache);
+
+        MFApiCaller dummyCaller = mock(MFApiCaller.class);
+        when(dummyCaller.requestOduCorrespondingTable((IdExchangeRequest) anyObject(), eq(seqNo)))
+                .thenReturn(json);
+        PowerMockito.whenNew(MFApiCaller.class).withNoArguments().thenReturn(dummyCaller);
+
+        Map<String, MappingData> bindMap = new HashMap<>();
+        bindMap.put(dstName, requested);
+        OduBindingData dummyBinder = mock(OduBindingData.class);
+        when(dummyBinder.getBindMap()).thenReturn(bindMap);
+        PowerMockito.whenNew(OduBindingData.class).withNoArguments().thenReturn(dummyBinder);
+
+        Whitebox.invokeMethod(target, "getOduReplacementTable", flowId, points, seqNo);
+
+        assertThat(bindMap.get(srcName), is((MappingData) cached));
+        verify(dummyCaller, times(1))
+                .requestOduCorrespondingTable((IdExchangeRequest) anyObject(), eq(seqNo));
+        verify(dummyBinder, never()).bind(eq(srcName), eq(resource));
+        verify(dummyBinder, times(1)).bind(eq(dstName), eq(resource));
+        verify(dummyCache, times(1)).put(flowId, dstName, requested);
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.driver.controller.ResourceSendController
+     * #getOduReplacementTable()}
+     */
+    @Test
+    public void testGetOduReplacementTableWithSharedTerminationPoint() throws Exception {
+        String resource = "{\"test\":\"test\"}";
+        JSONObject json = new JSONObject(resource);
+
+        TerminationPoints point1 = new TerminationPoints();
+        point1.setInPoint("tp1");
+        point1.setOutPoint("tp2");
+        TerminationPoints point2 = new TerminationPoints();
+        point2.setInPoint("tp2");
+        point2.setOutPoint("tp3");
+
+        List<TerminationPoints> points = new ArrayList<>();
+        points.add(point1);
+        points.add(point2);
+
+        MFApiCaller dummyCaller = mock(MFApiCaller.class);
+        when(dummyCaller.requestOduCorrespondingTable((IdExchangeRequest) anyObject(), eq(seqNo)))
+                .thenReturn(json);
+        PowerMockito.whenNew(MFApiCaller.class).withNoArguments().thenReturn(dummyCaller);
+
+        OduBindingData dummyBinder = mock(OduBindingData.class);
+        PowerMockito.whenNew(OduBindingData.class).withNoArguments().thenReturn(dummyBinder);
+
+        Whitebox.invokeMethod(target, "getOduReplacementTable", flowId, points, seqNo);
+
+        verify(dummyCaller, times(3))
+                .requestOduCorrespondingTable((IdExchangeRequest) anyObject(), eq(seqNo));
+        verify(dummyBinder, times(1)).bind(eq("tp1"), eq(resource));
+        verify(dummyBinder, times(1)).bind(eq("tp2"), eq(resource));
+        verify(dummyBinder, times(1)).bind(eq("tp3"), eq(resource));
+    }
+
     /**
      * Test method for
      * {@link org.o3project.ocnrm.odenos.driver.controller.ResourceSendController
@@ -257,6 +415,28 @@ public class ResourceSendControllerTest {
 
         Whitebox.invokeMethod(target, "sendOfCtlSender", flow, "add", 500, seqNo);
         verify(dummySender, times(1)).ofCtlSend(eq(flow), eq("add"), eq(seqNo));
+        verify(dummySender, times(1)).confirm(eq(flow), eq("add"), anyLong(), eq(seqNo));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.driver.controller.ResourceSendController#sendOfCtlSender()}
+     */
+    @Test
+    public void testSendOfCtlSenderWithConfirmation() throws Exception {
+        JSONParser parser = new JSONParser();
+        List<String> flow = parser.convertToList(new JSONArray("[]"), seqNo);
+
+        OfCtlSender dummySender = mock(OfCtlSender.class);
+        doReturn(true).when(dummySender).confirm(eq(flow), eq("add"), anyLong(), eq(seqNo));
+        PowerMockito.whenNew(OfCtlSender.class).withNoArguments().thenReturn(dummySender);
+
+        PowerMockito.mockStatic(Thread.class);
+
+        Whitebox.invokeMethod(target, "sendOfCtlSender", flow, "add", 500, seqNo);
+
+        PowerMockito.verifyStatic(never());
+        Thread.sleep(anyLong());
     }
 
     /**
@@ -272,7 +452,10 @@ public class ResourceSendControllerTest {
 
         PowerMockito.mockStatic(Thread.class);
         PowerMockito.doThrow(mock(InterruptedException.class)).when(Thread.class);
-        Thread.sleep(500);
+        Thread.sleep(anyLong());
+
+        OfCtlSender dummySender = mock(OfCtlSender.class);
+        PowerMockito.whenNew(OfCtlSender.class).withNoArguments().thenReturn(dummySender);
 
         List<String> flow = spy(new ArrayList<String>());
         Whitebox.invokeMethod(target, "sendOfCtlSender", flow, OfCtlSender.FLOW_ADD_METHOD, 500,
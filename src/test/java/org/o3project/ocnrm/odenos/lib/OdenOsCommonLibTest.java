@@ -20,6 +20,8 @@ import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
 
 import java.lang.reflect.Field;
 
@@ -77,6 +79,7 @@ public class OdenOsCommonLibTest {
     @Test
     public void testStatusLogFlow() throws Exception {
         Logger dummyLogger = mock(Logger.class);
+        when(dummyLogger.isInfoEnabled()).thenReturn(true);
         Field field = OdenOsCommonLib.class.getDeclaredField("logger");
         field.setAccessible(true);
         field.set(OdenOsCommonLib.class, dummyLogger);
@@ -101,6 +104,7 @@ public class OdenOsCommonLibTest {
             throws NoSuchFieldException, SecurityException, IllegalArgumentException,
             IllegalAccessException {
         Logger dummyLogger = mock(Logger.class);
+        when(dummyLogger.isInfoEnabled()).thenReturn(true);
         Field field = OdenOsCommonLib.class.getDeclaredField("logger");
         field.setAccessible(true);
         field.set(OdenOsCommonLib.class, dummyLogger);
@@ -121,6 +125,7 @@ public class OdenOsCommonLibTest {
             throws NoSuchFieldException, SecurityException, IllegalArgumentException,
             IllegalAccessException {
         Logger dummyLogger = mock(Logger.class);
+        when(dummyLogger.isInfoEnabled()).thenReturn(true);
         Field field = OdenOsCommonLib.class.getDeclaredField("logger");
         field.setAccessible(true);
         field.set(OdenOsCommonLib.class, dummyLogger);
@@ -145,6 +150,7 @@ public class OdenOsCommonLibTest {
             throws NoSuchFieldException, SecurityException, IllegalArgumentException,
             IllegalAccessException {
         Logger dummyLogger = mock(Logger.class);
+        when(dummyLogger.isInfoEnabled()).thenReturn(true);
         Field field = OdenOsCommonLib.class.getDeclaredField("logger");
         field.setAccessible(true);
         field.set(OdenOsCommonLib.class, dummyLogger);
@@ -165,6 +171,7 @@ public class OdenOsCommonLibTest {
     @Test
     public void testStatusLogLink() throws Exception {
         Logger dummyLogger = mock(Logger.class);
+        when(dummyLogger.isInfoEnabled()).thenReturn(true);
         Field field = OdenOsCommonLib.class.getDeclaredField("logger");
         field.setAccessible(true);
         field.set(OdenOsCommonLib.class, dummyLogger);
@@ -190,6 +197,7 @@ public class OdenOsCommonLibTest {
             throws NoSuchFieldException, SecurityException, IllegalArgumentException,
             IllegalAccessException {
         Logger dummyLogger = mock(Logger.class);
+        when(dummyLogger.isInfoEnabled()).thenReturn(true);
         Field field = OdenOsCommonLib.class.getDeclaredField("logger");
         field.setAccessible(true);
         field.set(OdenOsCommonLib.class, dummyLogger);
@@ -210,6 +218,7 @@ public class OdenOsCommonLibTest {
     @Test
     public void testStatusLogLinkString() throws Exception {
         Logger dummyLogger = mock(Logger.class);
+        when(dummyLogger.isInfoEnabled()).thenReturn(true);
         Field field = OdenOsCommonLib.class.getDeclaredField("logger");
         field.setAccessible(true);
         field.set(OdenOsCommonLib.class, dummyLogger);
@@ -235,6 +244,7 @@ public class OdenOsCommonLibTest {
             throws NoSuchFieldException, SecurityException, IllegalArgumentException,
             IllegalAccessException {
         Logger dummyLogger = mock(Logger.class);
+        when(dummyLogger.isInfoEnabled()).thenReturn(true);
         Field field = OdenOsCommonLib.class.getDeclaredField("logger");
         field.setAccessible(true);
         field.set(OdenOsCommonLib.class, dummyLogger);
@@ -246,4 +256,25 @@ public class OdenOsCommonLibTest {
         verify(dummyLogger, times(1)).info("** Link Not Found.");
     }
 
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsCommonLib#statusLog(Flow)}
+     * @throws Exception
+     */
+    @Test
+    public void testStatusLogFlowWithInfoDisabled() throws Exception {
+        Logger dummyLogger = mock(Logger.class);
+        when(dummyLogger.isInfoEnabled()).thenReturn(false);
+        Field field = OdenOsCommonLib.class.getDeclaredField("logger");
+        field.setAccessible(true);
+        field.set(OdenOsCommonLib.class, dummyLogger);
+
+        Flow flow = new Flow("flowId");
+
+        OdenOsCommonLib.statusLog(flow);
+
+        verify(dummyLogger, times(1)).isInfoEnabled();
+        verifyNoMoreInteractions(dummyLogger);
+    }
+
 }
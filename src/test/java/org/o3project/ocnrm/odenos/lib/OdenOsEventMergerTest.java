@@ -0,0 +1,130 @@
+/*
+* Copyright 2015 FUJITSU LIMITED.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.o3project.ocnrm.odenos.lib;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.o3project.odenos.core.component.Logic;
+import org.o3project.odenos.core.component.network.flow.Flow;
+import org.o3project.odenos.core.component.network.flow.FlowChanged;
+import org.o3project.odenos.core.component.network.topology.Link;
+import org.o3project.odenos.core.component.network.topology.LinkChanged;
+
+public class OdenOsEventMergerTest {
+
+    private FlowChanged createFlowChanged(String action, Flow prev, Flow curr,
+            String... attributes) {
+        FlowChanged message = mock(FlowChanged.class);
+        when(message.action()).thenReturn(action);
+        when(message.prev()).thenReturn(prev);
+        when(message.curr()).thenReturn(curr);
+        when(message.attributes()).thenReturn(new ArrayList<String>(Arrays.asList(attributes)));
+        return message;
+    }
+
+    private LinkChanged createLinkChanged(String action, Link prev, Link curr,
+            String... attributes) {
+        LinkChanged message = mock(LinkChanged.class);
+        when(message.action()).thenReturn(action);
+        when(message.prev()).thenReturn(prev);
+        when(message.curr()).thenReturn(curr);
+        when(message.attributes()).thenReturn(new ArrayList<String>(Arrays.asList(attributes)));
+        return message;
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsEventMerger#FLOW_CHANGED}
+     */
+    @Test
+    public void testMergeFlowChanged() {
+        Flow flow1 = new Flow("flowId");
+        Flow flow2 = new Flow("flowId");
+        Flow flow3 = new Flow("flowId");
+
+        FlowChanged result = OdenOsEventMerger.FLOW_CHANGED.merge(
+                createFlowChanged(Logic.CONN_UPDATE, flow1, flow2, "status", "enabled"),
+                createFlowChanged(Logic.CONN_UPDATE, flow2, flow3, "priority", "status"));
+
+        assertThat(result.action(), is(Logic.CONN_UPDATE));
+        assertThat(result.prev(), is(flow1));
+        assertThat(result.curr(), is(flow3));
+        assertThat(result.attributes().toString(), is("[status, enabled, priority]"));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsEventMerger#FLOW_CHANGED}
+     */
+    @Test
+    public void testMergeFlowChangedWithNotUpdate() {
+        Flow flow = new Flow("flowId");
+
+        assertThat(OdenOsEventMerger.FLOW_CHANGED.merge(
+                createFlowChanged(Logic.CONN_ADD, null, flow),
+                createFlowChanged(Logic.CONN_UPDATE, flow, flow)), is(nullValue()));
+        assertThat(OdenOsEventMerger.FLOW_CHANGED.merge(
+                createFlowChanged(Logic.CONN_UPDATE, flow, flow),
+                createFlowChanged(Logic.CONN_DELETE, flow, null)), is(nullValue()));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsEventMerger#LINK_CHANGED}
+     */
+    @Test
+    public void testMergeLinkChanged() {
+        Link link1 = new Link("linkId");
+        Link link2 = new Link("linkId");
+        Link link3 = new Link("linkId");
+
+        LinkChanged result = OdenOsEventMerger.LINK_CHANGED.merge(
+                createLinkChanged(Logic.CONN_UPDATE, link1, link2, "cost"),
+                createLinkChanged(Logic.CONN_UPDATE, link2, link3, "latency"));
+
+        assertThat(result.action(), is(Logic.CONN_UPDATE));
+        assertThat(result.prev(), is(link1));
+        assertThat(result.curr(), is(link3));
+        assertThat(result.attributes().toString(), is("[cost, latency]"));
+        assertThat(OdenOsEventMerger.LINK_CHANGED.merge(
+                createLinkChanged(Logic.CONN_DELETE, link1, null),
+                createLinkChanged(Logic.CONN_UPDATE, link2, link3)), is(nullValue()));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsEventMerger#flowKey(String, FlowChanged)}
+     */
+    @Test
+    public void testFlowKey() {
+        Flow flow = new Flow("flowId");
+
+        assertThat(OdenOsEventMerger.flowKey("nwId",
+                createFlowChanged(Logic.CONN_DELETE, flow, null)),
+                is("nwId::" + FlowChanged.TYPE + "::flowId"));
+        assertThat(OdenOsEventMerger.flowKey("nwId",
+                createFlowChanged(Logic.CONN_ADD, null, flow)),
+                is("nwId::" + FlowChanged.TYPE + "::flowId"));
+    }
+}
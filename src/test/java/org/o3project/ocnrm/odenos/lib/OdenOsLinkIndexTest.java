@@ -0,0 +1,79 @@
+/*
+* Copyright 2015 FUJITSU LIMITED.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.o3project.ocnrm.odenos.lib;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.o3project.odenos.core.component.network.topology.Link;
+
+public class OdenOsLinkIndexTest {
+    private OdenOsLinkIndex target;
+
+    @Before
+    public void setUp() {
+        target = new OdenOsLinkIndex();
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsLinkIndex#load(Map)}
+     */
+    @Test
+    public void testLoad() {
+        Map<String, Link> links = new HashMap<>();
+        links.put("link1", new Link("link1", "node1", "port1", "node2", "port2"));
+        links.put("link2", new Link("link2", "node2", "port3", "node3", "port4"));
+
+        target.put(new Link("link0", "node0", "port0", "node1", "port1"));
+        target.load(links);
+
+        assertThat(target.size(), is(2));
+        assertThat(target.get("port1", "port2"), is("link1"));
+        assertThat(target.get("port3", "port4"), is("link2"));
+        assertThat(target.get("port2", "port1"), is(nullValue()));
+        assertThat(target.get("port0", "port1"), is(nullValue()));
+        assertThat(target.get(null, "port1"), is(nullValue()));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsLinkIndex#remove(Link)}
+     */
+    @Test
+    public void testRemove() {
+        Link link1 = new Link("link1", "node1", "port1", "node2", "port2");
+        Link link2 = new Link("link2", "node1", "port1", "node2", "port2");
+        target.put(link1);
+        target.put(link2);
+
+        target.remove(link1);
+        assertThat(target.get("port1", "port2"), is("link2"));
+
+        target.remove(link2);
+        assertThat(target.get("port1", "port2"), is(nullValue()));
+
+        target.put(new Link("link3"));
+        target.remove(null);
+        assertThat(target.size(), is(0));
+    }
+}
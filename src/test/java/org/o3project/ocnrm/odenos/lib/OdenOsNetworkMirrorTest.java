@@ -0,0 +1,279 @@
+/*
+* Copyright 2015 FUJITSU LIMITED.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.o3project.ocnrm.odenos.lib;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.o3project.odenos.core.component.Logic;
+import org.o3project.odenos.core.component.network.flow.Flow;
+import org.o3project.odenos.core.component.network.flow.FlowChanged;
+import org.o3project.odenos.core.component.network.flow.FlowSet;
+import org.o3project.odenos.core.component.network.topology.Link;
+import org.o3project.odenos.core.component.network.topology.LinkChanged;
+import org.o3project.odenos.core.component.network.topology.Node;
+import org.o3project.odenos.core.component.network.topology.NodeChanged;
+import org.o3project.odenos.core.component.network.topology.Port;
+import org.o3project.odenos.core.component.network.topology.PortChanged;
+import org.o3project.odenos.core.component.network.topology.Topology;
+
+public class OdenOsNetworkMirrorTest {
+    private OdenOsNetworkMirror target;
+
+    @Before
+    public void setUp() {
+        target = new OdenOsNetworkMirror();
+    }
+
+    private Topology createTopology() {
+        Topology topology = new Topology();
+        Node node = new Node("1", "node1", new HashMap<String, Port>(), null);
+        node.createPort(new Port("1", "port1", "node1"));
+        topology.nodes.put(node.getId(), node);
+        topology.links.put("link1", new Link("1", "link1", "node1", "port1", "node2", "port2",
+                null));
+        return topology;
+    }
+
+    private FlowChanged createFlowChanged(String action, Flow prev, Flow curr) {
+        FlowChanged message = mock(FlowChanged.class);
+        when(message.action()).thenReturn(action);
+        when(message.prev()).thenReturn(prev);
+        when(message.curr()).thenReturn(curr);
+        return message;
+    }
+
+    private LinkChanged createLinkChanged(String action, Link prev, Link curr) {
+        LinkChanged message = mock(LinkChanged.class);
+        when(message.action()).thenReturn(action);
+        when(message.prev()).thenReturn(prev);
+        when(message.curr()).thenReturn(curr);
+        return message;
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsNetworkMirror#load(Topology, FlowSet)}
+     */
+    @Test
+    public void testLoad() {
+        FlowSet flowSet = new FlowSet();
+        flowSet.flows.put("flow1", new Flow("flow1"));
+
+        target.load(null, flowSet);
+        assertThat(target.isLoaded(), is(false));
+
+        target.load(createTopology(), flowSet);
+
+        assertThat(target.isLoaded(), is(true));
+        assertThat(target.getNode("node1").getId(), is("node1"));
+        assertThat(target.getPort("node1", "port1").getId(), is("port1"));
+        assertThat(target.getLink("link1").getId(), is("link1"));
+        assertThat(target.getLinkIndex().get("port1", "port2"), is("link1"));
+        assertThat(target.getFlow("flow1").getFlowId(), is("flow1"));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsNetworkMirror#load(Topology, FlowSet)}
+     */
+    @Test
+    public void testLoadKeepsNewerObject() {
+        Link newer = new Link("2", "link1", "node1", "port1", "node3", "port3", null);
+        target.apply(createLinkChanged(Logic.CONN_UPDATE, null, newer));
+
+        target.load(createTopology(), new FlowSet());
+
+        assertThat(target.getLink("link1").getVersion(), is("2"));
+        assertThat(target.getLinkIndex().get("port1", "port3"), is("link1"));
+        assertThat(target.getLinkIndex().get("port1", "port2"), is(nullValue()));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsNetworkMirror#startLoad()}
+     */
+    @Test
+    public void testStartLoadBuffersEvents() throws Exception {
+        assertThat(target.startLoad(), is(true));
+
+        // events while the network is read are buffered without waiting for the read
+        Link newer = new Link("2", "link1", "node1", "port1", "node3", "port3", null);
+        target.apply(createLinkChanged(Logic.CONN_UPDATE, null, newer));
+        Flow flow = new Flow("flow1");
+        target.apply(createFlowChanged(Logic.CONN_ADD, null, flow));
+        target.apply(createFlowChanged(Logic.CONN_DELETE, flow, null));
+        assertThat(target.getLink("link1"), is(nullValue()));
+
+        FlowSet flowSet = new FlowSet();
+        flowSet.flows.put("flow1", new Flow("flow1"));
+        target.load(createTopology(), flowSet);
+
+        assertThat(target.isLoaded(), is(true));
+        assertThat(target.getLink("link1").getVersion(), is("2"));
+        assertThat(target.getLinkIndex().get("port1", "port3"), is("link1"));
+        assertThat(target.getFlow("flow1"), is(nullValue()));
+        assertThat(target.startLoad(), is(false));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsNetworkMirror#startLoad()}
+     */
+    @Test
+    public void testStartLoadWaitsForOtherLoad() throws Exception {
+        assertThat(target.startLoad(), is(true));
+        ExecutorService service = Executors.newSingleThreadExecutor();
+        Future<Boolean> other = service.submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return target.startLoad();
+            }
+        });
+        Thread.sleep(100);
+        assertThat(other.isDone(), is(false));
+
+        target.load(null, null);
+
+        // the first load failed, so the other caller reads the network
+        assertThat(other.get(5, TimeUnit.SECONDS), is(true));
+        target.load(createTopology(), new FlowSet());
+        assertThat(target.isLoaded(), is(true));
+        service.shutdown();
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsNetworkMirror#apply(LinkChanged)}
+     */
+    @Test
+    public void testApplyLinkChanged() {
+        target.load(createTopology(), new FlowSet());
+        Link older = new Link("0", "link1", "node1", "port1", "node3", "port3", null);
+        target.apply(createLinkChanged(Logic.CONN_UPDATE, null, older));
+        assertThat(target.getLink("link1").getDstPort(), is("port2"));
+
+        Link moved = new Link("2", "link1", "node1", "port1", "node3", "port3", null);
+        target.apply(createLinkChanged(Logic.CONN_UPDATE, null, moved));
+        assertThat(target.getLink("link1").getDstPort(), is("port3"));
+        assertThat(target.getLinkIndex().get("port1", "port3"), is("link1"));
+        assertThat(target.getLinkIndex().get("port1", "port2"), is(nullValue()));
+
+        target.apply(createLinkChanged(Logic.CONN_DELETE, moved, null));
+        assertThat(target.getLink("link1"), is(nullValue()));
+        assertThat(target.getLinkIndex().get("port1", "port3"), is(nullValue()));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsNetworkMirror#apply(FlowChanged)}
+     */
+    @Test
+    public void testApplyFlowChanged() {
+        Flow flow = new Flow("flow1");
+        target.apply(createFlowChanged(Logic.CONN_ADD, null, flow));
+
+        Flow stored = target.getFlow("flow1");
+        assertThat(stored.getFlowId(), is("flow1"));
+        assertThat(stored == flow, is(false));
+
+        target.apply(createFlowChanged(Logic.CONN_DELETE, flow, null));
+        assertThat(target.getFlow("flow1"), is(nullValue()));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsNetworkMirror#apply(NodeChanged)}
+     */
+    @Test
+    public void testApplyNodeAndPortChanged() {
+        target.load(createTopology(), new FlowSet());
+
+        PortChanged portChanged = mock(PortChanged.class);
+        when(portChanged.action()).thenReturn(Logic.CONN_ADD);
+        when(portChanged.curr()).thenReturn(new Port("1", "port2", "node1"));
+        target.apply(portChanged);
+        assertThat(target.getPort("node1", "port2").getId(), is("port2"));
+
+        NodeChanged nodeChanged = mock(NodeChanged.class);
+        when(nodeChanged.action()).thenReturn(Logic.CONN_DELETE);
+        when(nodeChanged.prev()).thenReturn(new Node("node1"));
+        target.apply(nodeChanged);
+
+        assertThat(target.getNode("node1"), is(nullValue()));
+        assertThat(target.getPort("node1", "port1"), is(nullValue()));
+        assertThat(target.getPort("node1", "port2"), is(nullValue()));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsNetworkMirror#update(Node)}
+     */
+    @Test
+    public void testUpdate() {
+        target.load(createTopology(), new FlowSet());
+
+        Node node = new Node("2", "node1", new HashMap<String, Port>(), null);
+        node.createPort(new Port("2", "port2", "node1"));
+        target.update(node);
+        target.update(new Node("1", "node1", new HashMap<String, Port>(), null));
+
+        assertThat(target.getNode("node1").getVersion(), is("2"));
+        assertThat(target.getPort("node1", "port1"), is(nullValue()));
+        assertThat(target.getPort("node1", "port2").getId(), is("port2"));
+
+        target.update(new Link("2", "link1", "node1", "port2", "node2", "port2", null));
+        assertThat(target.getLinkIndex().get("port2", "port2"), is("link1"));
+        target.removeLink("link1");
+        assertThat(target.getLink("link1"), is(nullValue()));
+        assertThat(target.getLinkIndex().get("port2", "port2"), is(nullValue()));
+        target.removeNode("node1");
+        assertThat(target.getNode("node1"), is(nullValue()));
+        assertThat(target.getPort("node1", "port2"), is(nullValue()));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsNetworkMirror#getNodeMap()}
+     */
+    @Test
+    public void testGetNodeMap() {
+        target.load(createTopology(), new FlowSet());
+        PortChanged message = mock(PortChanged.class);
+        when(message.action()).thenReturn(Logic.CONN_ADD);
+        when(message.curr()).thenReturn(new Port("1", "port2", "node1"));
+        target.apply(message);
+
+        Node node = target.getNodeMap().get("node1");
+
+        assertThat(node.getVersion(), is("1"));
+        assertThat(node.getPortMap().size(), is(2));
+        assertThat(node.getPortMap().get("port2").getId(), is("port2"));
+        assertThat(target.getLinkMap().get("link1").getId(), is("link1"));
+    }
+}
@@ -246,6 +246,60 @@ public class OdenOsPropertyLoaderTest {
         assertThat(target.getOfcTlSendURL(), is("http://127.0.0.1:8080/stats/flowentry"));
     }
 
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsPropertyLoader#getOfcTlStatsURL()}
+     */
+    @Test
+    public void testGetOfcTlStatsURL() {
+        assertThat(target.getOfcTlStatsURL(), is("http://127.0.0.1:8080/stats/flow"));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsPropertyLoader#getOfcTlConfirmTimeout()}
+     */
+    @Test
+    public void testGetOfcTlConfirmTimeout() {
+        assertThat(target.getOfcTlConfirmTimeout(), is("2000"));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsPropertyLoader#getOfcTlConfirmInterval()}
+     */
+    @Test
+    public void testGetOfcTlConfirmInterval() {
+        assertThat(target.getOfcTlConfirmInterval(), is("100"));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsPropertyLoader#getHttpConnectTimeout()}
+     */
+    @Test
+    public void testGetHttpConnectTimeout() {
+        assertThat(target.getHttpConnectTimeout(), is("3000"));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsPropertyLoader#getHttpReadTimeout()}
+     */
+    @Test
+    public void testGetHttpReadTimeout() {
+        assertThat(target.getHttpReadTimeout(), is("30000"));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsPropertyLoader#getHttpPoolSize()}
+     */
+    @Test
+    public void testGetHttpPoolSize() {
+        assertThat(target.getHttpPoolSize(), is("5"));
+    }
+
     /**
      * Test method for
      * {@link org.o3project.ocnrm.odenos.lib.OdenOsPropertyLoader#getGUIPath()}
@@ -264,6 +318,51 @@ public class OdenOsPropertyLoaderTest {
         assertThat(target.getOdenOSSenderSleep(), is("0"));
     }
 
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsPropertyLoader#getOdenOSSenderThreadNum()}
+     */
+    @Test
+    public void testGetOdenOSSenderThreadNum() {
+        assertThat(target.getOdenOSSenderThreadNum(), is("16"));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsPropertyLoader#getOdenOSSenderWindow()}
+     */
+    @Test
+    public void testGetOdenOSSenderWindow() {
+        assertThat(target.getOdenOSSenderWindow(), is("1"));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsPropertyLoader#getDriverEventThreadNum()}
+     */
+    @Test
+    public void testGetDriverEventThreadNum() {
+        assertThat(target.getDriverEventThreadNum(), is("16"));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsPropertyLoader#getJobTableSize()}
+     */
+    @Test
+    public void testGetJobTableSize() {
+        assertThat(target.getJobTableSize(), is("1000"));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsPropertyLoader#getJobPath()}
+     */
+    @Test
+    public void testGetJobPath() {
+        assertThat(target.getJobPath(), is("/job/{job_id}"));
+    }
+
     /**
      * Test method for
      * {@link org.o3project.ocnrm.odenos.lib.OdenOsPropertyLoader
@@ -293,6 +392,62 @@ public class OdenOsPropertyLoaderTest {
         assertThat(target.getRequestOchReplacementPieceUrl(), is("http://127.0.0.1/DEMO/ID/L0Request"));
     }
 
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsPropertyLoader
+     * #getRequestOduReplacementBatchUrl()}
+     */
+    @Test
+    public void testGetRequestOduReplacementBatchUrl() {
+        assertThat(target.getRequestOduReplacementBatchUrl(),
+                is("http://127.0.0.1/DEMO/ID/L1RequestBatch"));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsPropertyLoader#getIdExchangeParallelism()}
+     */
+    @Test
+    public void testGetIdExchangeParallelism() {
+        assertThat(target.getIdExchangeParallelism(), is("8"));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsPropertyLoader#getIdExchangeBatch()}
+     */
+    @Test
+    public void testGetIdExchangeBatch() {
+        assertThat(target.getIdExchangeBatch(), is("false"));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsPropertyLoader#getIdExchangeCacheSize()}
+     */
+    @Test
+    public void testGetIdExchangeCacheSize() {
+        assertThat(target.getIdExchangeCacheSize(), is("1024"));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsPropertyLoader#getTableJournalDir()}
+     */
+    @Test
+    public void testGetTableJournalDir() {
+        assertThat(target.getTableJournalDir(), is("journal"));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsPropertyLoader#getTableJournalCompactCount()}
+     */
+    @Test
+    public void testGetTableJournalCompactCount() {
+        assertThat(target.getTableJournalCompactCount(), is("100000"));
+    }
+
     /**
      * Test method for
      * {@link org.o3project.ocnrm.odenos.lib.OdenOsPropertyLoader#getOduSendTime()}
@@ -301,4 +456,43 @@ public class OdenOsPropertyLoaderTest {
     public void testGetOduSendTime() {
         assertThat(target.getOduSendTime(), is("2000"));
     }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsPropertyLoader#getOduFlowParallelism()}
+     */
+    @Test
+    public void testGetOduFlowParallelism() {
+        assertThat(target.getOduFlowParallelism(), is("8"));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsPropertyLoader
+     * #getLinkLayerizerSyncThreadNum()}
+     */
+    @Test
+    public void testGetLinkLayerizerSyncThreadNum() {
+        assertThat(target.getLinkLayerizerSyncThreadNum(), is("8"));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsPropertyLoader
+     * #getLinkLayerizerFailureWindow()}
+     */
+    @Test
+    public void testGetLinkLayerizerFailureWindow() {
+        assertThat(target.getLinkLayerizerFailureWindow(), is("100"));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsPropertyLoader
+     * #getTraceSamplingInterval()}
+     */
+    @Test
+    public void testGetTraceSamplingInterval() {
+        assertThat(target.getTraceSamplingInterval(), is("1"));
+    }
 }
@@ -19,6 +19,7 @@ import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
@@ -28,6 +29,13 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.naming.NameNotFoundException;
 
@@ -35,6 +43,8 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.o3project.ocnrm.lib.OcnMFSequenceLib;
 import org.o3project.odenos.remoteobject.message.Request;
 import org.o3project.odenos.remoteobject.message.Request.Method;
@@ -100,6 +110,69 @@ public class OdenOsSenderTest {
         assertThat(result, is(dummyResponse));
     }
 
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsSender#sendRequestAsync()}
+     */
+    @Test
+    public void testSendRequestAsync() throws Exception {
+        String objId = "objId";
+        Method method = Method.POST;
+        String path = "path";
+        String body = "body";
+
+        Response dummyResponse = spy(new Response(0, body));
+
+        Request request = spy(new Request(objId, method, path, body));
+        PowerMockito.whenNew(Request.class).withArguments(objId, method, path, body)
+                .thenReturn(request);
+
+        MessageDispatcher dummyDispatcher = mock(MessageDispatcher.class);
+        when(dummyDispatcher.requestSync(request)).thenReturn(dummyResponse);
+        Whitebox.setInternalState(target, "dispatcher", dummyDispatcher);
+
+        Future<Response> result = target.sendRequestAsync(objId, method, path, body);
+
+        assertThat(result.get(1, TimeUnit.SECONDS), is(dummyResponse));
+        verify(dummyDispatcher, times(1)).requestSync(request);
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsSender#sendRequestAsync()}
+     * @throws Exception
+     */
+    @Test
+    public void testSendRequestAsyncSameObjectNotOverlapped() throws Exception {
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        final List<String> sent = Collections.synchronizedList(new ArrayList<String>());
+
+        MessageDispatcher dummyDispatcher = mock(MessageDispatcher.class);
+        when(dummyDispatcher.requestSync(any(Request.class))).thenAnswer(new Answer<Response>() {
+            @Override
+            public Response answer(InvocationOnMock invocation) throws Throwable {
+                int current = inFlight.incrementAndGet();
+                if (current > maxInFlight.get()) {
+                    maxInFlight.set(current);
+                }
+                sent.add(((Request) invocation.getArguments()[0]).path);
+                Thread.sleep(50);
+                inFlight.decrementAndGet();
+                return new Response(Response.OK, null);
+            }
+        });
+        Whitebox.setInternalState(target, "dispatcher", dummyDispatcher);
+
+        Future<Response> first = target.sendRequestAsync("objId", Method.PUT, "path1", "body");
+        Future<Response> second = target.sendRequestAsync("objId", Method.PUT, "path2", "body");
+        first.get(1, TimeUnit.SECONDS);
+        second.get(1, TimeUnit.SECONDS);
+
+        assertThat(maxInFlight.get(), is(1));
+        assertThat(sent, is(Arrays.asList("path1", "path2")));
+    }
+
     /**
      * Test method for
      * {@link org.o3project.ocnrm.odenos.lib.OdenOsSender#sendRequest()}
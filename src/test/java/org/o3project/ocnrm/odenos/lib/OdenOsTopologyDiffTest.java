@@ -0,0 +1,121 @@
+/*
+* Copyright 2015 FUJITSU LIMITED.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.o3project.ocnrm.odenos.lib;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import org.o3project.odenos.core.component.network.topology.Link;
+import org.o3project.odenos.core.component.network.topology.Node;
+import org.o3project.odenos.core.component.network.topology.Port;
+import org.o3project.odenos.core.component.network.topology.Topology;
+
+public class OdenOsTopologyDiffTest {
+
+    private Node createNode(String version, String nodeId, String... portIds) {
+        Node node = new Node(version, nodeId, new HashMap<String, Port>(), null);
+        for (String portId : portIds) {
+            node.createPort(new Port(version, portId, nodeId));
+        }
+        return node;
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsTopologyDiff#OdenOsTopologyDiff()}
+     */
+    @Test
+    public void testOdenOsTopologyDiff() {
+        Map<String, Node> currentNodes = new HashMap<>();
+        currentNodes.put("node1", createNode("3", "node1", "port1"));
+        currentNodes.put("node2", createNode("4", "node2", "port2"));
+        currentNodes.put("node3", createNode("5", "node3", "port3"));
+        Map<String, Link> currentLinks = new HashMap<>();
+        currentLinks.put("link1", new Link("6", "link1", "node1", "port1", "node2", "port2",
+                null));
+        currentLinks.put("link2", new Link("7", "link2", "node2", "port2", "node3", "port3",
+                null));
+
+        Topology topology = new Topology();
+        topology.nodes.put("node1", createNode("0", "node1", "port1"));
+        topology.nodes.put("node2", createNode("0", "node2", "port2", "port4"));
+        topology.nodes.put("node4", createNode("0", "node4", "port4"));
+        topology.links.put("link1", new Link("link1", "node1", "port1", "node2", "port2"));
+        topology.links.put("link3", new Link("link3", "node2", "port4", "node4", "port4"));
+
+        OdenOsTopologyDiff result = new OdenOsTopologyDiff(topology, currentNodes,
+                currentLinks);
+
+        assertThat(result.isEmpty(), is(false));
+        assertThat(result.getPutNodes().size(), is(2));
+        assertThat(topology.nodes.get("node2").getVersion(), is("4"));
+        assertThat(topology.nodes.get("node4").getVersion(),
+                is(OdenOsTopologyLib.INITIAL_VERSION));
+        assertThat(result.getPutLinks().size(), is(1));
+        assertThat(result.getPutLinks().get(0).getId(), is("link3"));
+        assertThat(result.getDeletedNodes(), is(Arrays.asList("node3")));
+        assertThat(result.getDeletedLinks(), is(Arrays.asList("link2")));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsTopologyDiff#OdenOsTopologyDiff()}
+     */
+    @Test
+    public void testOdenOsTopologyDiffWithChangedLink() {
+        Map<String, Node> currentNodes = new HashMap<>();
+        currentNodes.put("node1", createNode("3", "node1", "port1", "port2"));
+        Map<String, Link> currentLinks = new HashMap<>();
+        currentLinks.put("link1", new Link("6", "link1", "node1", "port1", "node1", "port1",
+                null));
+
+        Topology topology = new Topology();
+        topology.nodes.put("node1", createNode("0", "node1", "port1", "port2"));
+        topology.links.put("link1", new Link("link1", "node1", "port1", "node1", "port2"));
+
+        OdenOsTopologyDiff result = new OdenOsTopologyDiff(topology, currentNodes,
+                currentLinks);
+
+        assertThat(result.getPutNodes().size(), is(0));
+        assertThat(result.getPutLinks().size(), is(1));
+        assertThat(result.getPutLinks().get(0).getVersion(), is("6"));
+        assertThat(result.getDeletedNodes().size(), is(0));
+        assertThat(result.getDeletedLinks().size(), is(0));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.lib.OdenOsTopologyDiff#isEmpty()}
+     */
+    @Test
+    public void testIsEmpty() {
+        Map<String, Node> currentNodes = new HashMap<>();
+        currentNodes.put("node1", createNode("3", "node1", "port1"));
+
+        Topology topology = new Topology();
+        topology.nodes.put("node1", createNode("0", "node1", "port1"));
+
+        OdenOsTopologyDiff result = new OdenOsTopologyDiff(topology, currentNodes,
+                new HashMap<String, Link>());
+
+        assertThat(result.isEmpty(), is(true));
+    }
+}
@@ -0,0 +1,97 @@
+/*
+* Copyright 2015 FUJITSU LIMITED.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.o3project.ocnrm.odenos.linklayerizer;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class LinkLayerizedFlowLinkMapTest {
+    private LinkLayerizedFlowLinkMap target;
+
+    @Before
+    public void setUp() {
+        target = new LinkLayerizedFlowLinkMap();
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizedFlowLinkMap#put()}
+     */
+    @Test
+    public void testPut() {
+        target.put("link1", "flow1");
+        target.put("link1", "flow2");
+        target.put("link2", "flow3");
+
+        assertThat(target.getLowerFlows("link1"), is(Arrays.asList("flow1", "flow2")));
+        assertThat(target.getLayerizedLink("flow3"), is("link2"));
+        assertThat(target.containsLink("link2"), is(true));
+        assertThat(target.containsFlow("flow4"), is(false));
+        assertThat(target.getLowerFlows("link3"), is(nullValue()));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizedFlowLinkMap#put()}
+     */
+    @Test
+    public void testPutMoveFlow() {
+        target.put("link1", "flow1");
+        target.put("link2", "flow1");
+
+        assertThat(target.getLayerizedLink("flow1"), is("link2"));
+        assertThat(target.containsLink("link1"), is(false));
+        assertThat(target.getLowerFlows("link2"), is(Arrays.asList("flow1")));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizedFlowLinkMap#removeFlow()}
+     */
+    @Test
+    public void testRemoveFlow() {
+        target.put("link1", "flow1");
+        target.put("link1", "flow2");
+
+        assertThat(target.removeFlow("flow1"), is("link1"));
+        assertThat(target.removeFlow("flow1"), is(nullValue()));
+        assertThat(target.getLowerFlows("link1"), is(Arrays.asList("flow2")));
+        assertThat(target.removeFlow("flow2"), is("link1"));
+        assertThat(target.containsLink("link1"), is(false));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizedFlowLinkMap#removeLink()}
+     */
+    @Test
+    public void testRemoveLink() {
+        target.put("link1", "flow1");
+        target.put("link1", "flow2");
+
+        assertThat(target.removeLink("link1"), is(Arrays.asList("flow1", "flow2")));
+        assertThat(target.containsFlow("flow1"), is(false));
+        assertThat(target.getLayerizedLinksMap().isEmpty(), is(true));
+        assertThat(target.removeLink("link1").isEmpty(), is(true));
+        assertThat(target.removeLink(null).isEmpty(), is(true));
+    }
+}
@@ -0,0 +1,214 @@
+/*
+* Copyright 2015 FUJITSU LIMITED.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.o3project.ocnrm.odenos.linklayerizer;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class LinkLayerizerBoundarySetTest {
+    private LinkLayerizerBoundarySet target;
+    private String seqNo = "#1";
+
+    @Before
+    public void setUp() {
+        target = new LinkLayerizerBoundarySet();
+    }
+
+    private LinklayerizerBoundary createBoundary(String id, String lowerNode, String lowerPort,
+            String upperNode, String upperPort) {
+        LinklayerizerBoundary boundary = new LinklayerizerBoundary();
+        boundary.setBoundary_id(id);
+        boundary.setLower_nw("lower");
+        boundary.setLower_nw_node(lowerNode);
+        boundary.setLower_nw_port(lowerPort);
+        boundary.setUpper_nw("upper");
+        boundary.setUpper_nw_node(upperNode);
+        boundary.setUpper_nw_port(upperPort);
+        return boundary;
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizerBoundarySet#putBoundary()}
+     */
+    @Test
+    public void testPutBoundary() {
+        target.putBoundary("b1", createBoundary("b1", "ln1", "lp1", "un1", "up1"));
+        target.putBoundary("b2", createBoundary("b2", "ln2", "lp2", "un2", "up2"));
+
+        assertThat(target.getBoundaryByLower("ln1", "lp1").getBoundary_id(), is("b1"));
+        assertThat(target.getBoundaryByUpper("un2", "up2").getBoundary_id(), is("b2"));
+        assertThat(target.getBoundaryByLower("ln1", "lp2"), is(nullValue()));
+        assertThat(target.getUpperNWPort("lp2", seqNo), is("up2"));
+        assertThat(target.getUpperNWPort("lp3", seqNo), is(""));
+
+        target.putBoundary("b1", createBoundary("b1", "ln3", "lp3", "un3", "up3"));
+
+        assertThat(target.getBoundaryByLower("ln1", "lp1"), is(nullValue()));
+        assertThat(target.getBoundaryByUpper("un1", "up1"), is(nullValue()));
+        assertThat(target.getBoundaryByLower("ln3", "lp3").getBoundary_id(), is("b1"));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizerBoundarySet#removeBoundaries()}
+     */
+    @Test
+    public void testRemoveBoundaries() {
+        target.putBoundary("b1", createBoundary("b1", "ln1", "lp1", "un1", "up1"));
+        target.putBoundary("b2", createBoundary("b2", "ln1", "lp1", "un2", "up2"));
+
+        target.removeBoundaries("b2");
+
+        assertThat(target.getBoundaryByLower("ln1", "lp1").getBoundary_id(), is("b1"));
+        assertThat(target.getBoundaryByUpper("un2", "up2"), is(nullValue()));
+
+        target.removeBoundaries("b1");
+
+        assertThat(target.getBoundaryByLower("ln1", "lp1"), is(nullValue()));
+        assertThat(target.getUpperNWPort("lp1", seqNo), is(""));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizerBoundarySet
+     * #setLinklayerizerBoundaryMap()}
+     */
+    @Test
+    public void testSetLinklayerizerBoundaryMap() {
+        target.putBoundary("b1", createBoundary("b1", "ln1", "lp1", "un1", "up1"));
+
+        Map<String, LinklayerizerBoundary> boundaries = new HashMap<>();
+        boundaries.put("b2", createBoundary("b2", "ln2", "lp2", "un2", "up2"));
+        target.setLinklayerizerBoundaryMap(boundaries);
+
+        assertThat(target.getBoundaryByLower("ln1", "lp1"), is(nullValue()));
+        assertThat(target.getBoundaryByUpper("un2", "up2").getBoundary_id(), is("b2"));
+        assertThat(target.getLinklayerizerBoundaryMap().size(), is(1));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizerBoundarySet
+     * #getLinklayerizerBoundaryMap()}
+     */
+    @Test
+    public void testGetLinklayerizerBoundaryMap() {
+        target.putBoundary("b1", createBoundary("b1", "ln1", "lp1", "un1", "up1"));
+
+        Map<String, LinklayerizerBoundary> boundaries = target.getLinklayerizerBoundaryMap();
+        target.putBoundary("b2", createBoundary("b2", "ln2", "lp2", "un2", "up2"));
+        target.removeBoundaries("b1");
+
+        assertThat(boundaries.size(), is(1));
+        assertThat(boundaries.get("b1").getBoundary_id(), is("b1"));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizerBoundarySet#removeBoundaries()}
+     */
+    @Test
+    public void testRemoveBoundariesModifiedAfterPut() {
+        LinklayerizerBoundary boundary = createBoundary("b1", "ln1", "lp1", "un1", "up1");
+        target.putBoundary("b1", boundary);
+        boundary.setLower_nw_port("lp9");
+
+        target.removeBoundaries("b1");
+
+        assertThat(target.getBoundaryByLower("ln1", "lp1"), is(nullValue()));
+        assertThat(target.getUpperNWPort("lp1", seqNo), is(""));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizerBoundarySet
+     * #changeJSONBoundariesToBoundaries()}
+     */
+    @Test
+    public void testChangeJSONBoundariesToBoundaries() {
+        String json = "{\"b1\":{\"boundary_id\":\"b1\",\"lower_nw\":\"lower\","
+                + "\"lower_nw_node\":\"ln1\",\"lower_nw_port\":\"lp1\",\"upper_nw\":\"upper\","
+                + "\"upper_nw_node\":\"un1\",\"upper_nw_port\":\"up1\",\"type\":\"t\"}}";
+
+        target.changeJSONBoundariesToBoundaries(json, seqNo);
+
+        assertThat(target.getBoundaryByUpper("un1", "up1").getLower_nw_port(), is("lp1"));
+        assertThat(target.getUpperNWPort("lp1", seqNo), is("up1"));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizerBoundarySet
+     * #importBoundaries()}
+     */
+    @Test
+    public void testImportBoundaries() {
+        target.putBoundary("b1", createBoundary("b1", "ln1", "lp1", "un1", "up1"));
+
+        Map<String, LinklayerizerBoundary> boundaries = new HashMap<>();
+        boundaries.put("b2", createBoundary("b2", "ln2", "lp2", "un2", "up2"));
+        target.importBoundaries(boundaries, true);
+
+        assertThat(target.getBoundaryByLower("ln1", "lp1").getBoundary_id(), is("b1"));
+        assertThat(target.getBoundaryByUpper("un2", "up2").getBoundary_id(), is("b2"));
+
+        boundaries.clear();
+        boundaries.put("b3", createBoundary("b3", "ln3", "lp3", "un3", "up3"));
+        target.importBoundaries(boundaries, false);
+
+        assertThat(target.getBoundaryByLower("ln1", "lp1"), is(nullValue()));
+        assertThat(target.getBoundaryByUpper("un2", "up2"), is(nullValue()));
+        assertThat(target.getUpperNWPort("lp3", seqNo), is("up3"));
+        assertThat(target.getLinklayerizerBoundaryMap().size(), is(1));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizerBoundarySet
+     * #parseBoundaries()}
+     */
+    @Test
+    public void testParseBoundaries() throws Exception {
+        String json = "{\"b1\":{\"lower_nw\":\"lower\",\"lower_nw_node\":\"ln1\","
+                + "\"lower_nw_port\":\"lp1\",\"upper_nw\":\"upper\",\"upper_nw_node\":\"un1\","
+                + "\"upper_nw_port\":\"up1\"}}";
+
+        Map<String, LinklayerizerBoundary> boundaries =
+                LinkLayerizerBoundarySet.parseBoundaries(json, seqNo);
+
+        assertThat(boundaries.get("b1").getBoundary_id(), is("b1"));
+        assertThat(boundaries.get("b1").getUpper_nw_port(), is("up1"));
+        assertThat(target.getLinklayerizerBoundaryMap().isEmpty(), is(true));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizerBoundarySet
+     * #parseBoundaries()}
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testParseBoundariesUnrecognizedField() throws Exception {
+        LinkLayerizerBoundarySet.parseBoundaries("{\"b1\":{\"unknown\":\"x\"}}", seqNo);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+* Copyright 2015 FUJITSU LIMITED.
+*
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+* Unless required by applicable law or agreed to in writing, software
+* distributed under the License is distributed on an "AS IS" BASIS,
+* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+* See the License for the specific language governing permissions and
+* limitations under the License.
+*/
+package org.o3project.ocnrm.odenos.linklayerizer;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizerDependency.flow;
+import static org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizerDependency.link;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class LinkLayerizerDependencyIndexTest {
+    private LinkLayerizerDependencyIndex target;
+
+    @Before
+    public void setUp() {
+        target = new LinkLayerizerDependencyIndex();
+
+        // L0 link <- L0 flow <- L01 link <- L01 flow <- L1 flow, and L01 flow <- L012 link
+        target.setDependencies(flow("L0", "f0"), Arrays.asList(link("L0", "och1")));
+        target.setDependencies(link("L01", "l1"), Arrays.asList(flow("L0", "f0")));
+        target.setDependencies(flow("L01", "f1"),
+                Arrays.asList(link("L01", "l1"), link("L01", "l2")));
+        target.setDependencies(flow("L1", "f1"), Arrays.asList(flow("L01", "f1")));
+        target.setDependencies(link("L012", "l3"), Arrays.asList(flow("L01", "f1")));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizerDependencyIndex
+     * #getAffected()}
+     */
+    @Test
+    public void testGetAffected() {
+        assertThat(target.getAffected(link("L0", "och1")).size(), is(5));
+        assertThat(target.getAffected(link("L0", "och1")).get(0), is(flow("L0", "f0")));
+        assertThat(target.getAffected(link("L01", "l2")).contains(link("L012", "l3")), is(true));
+        assertThat(target.getAffected(flow("L1", "f1")).isEmpty(), is(true));
+        assertThat(target.getAffected(link("L0", "och2")).isEmpty(), is(true));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizerDependencyIndex
+     * #setDependencies()}
+     */
+    @Test
+    public void testSetDependenciesReplace() {
+        target.setDependencies(flow("L01", "f1"), Arrays.asList(link("L01", "l2")));
+
+        assertThat(target.getAffected(link("L0", "och1")).size(), is(2));
+        assertThat(target.getAffected(link("L01", "l2")).size(), is(3));
+
+        target.setDependencies(flow("L01", "f1"),
+                Collections.<LinkLayerizerDependency>emptyList());
+
+        assertThat(target.getAffected(link("L01", "l2")).isEmpty(), is(true));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizerDependencyIndex#remove()}
+     */
+    @Test
+    public void testRemove() {
+        target.remove(link("L01", "l1"));
+
+        assertThat(target.getAffected(link("L0", "och1")).size(), is(1));
+        assertThat(target.getAffected(link("L01", "l1")).size(), is(3));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizerDependencyIndex
+     * #getAffected()}
+     */
+    @Test
+    public void testGetAffectedCycle() {
+        target.setDependencies(link("L0", "och1"), Arrays.asList(flow("L1", "f1")));
+
+        assertThat(target.getAffected(link("L0", "och1")).size(), is(5));
+    }
+}
@@ -25,16 +25,27 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.json.JSONArray;
 import org.json.JSONObject;
 import org.junit.After;
 import org.junit.AfterClass;
@@ -43,6 +54,8 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.o3project.ocnrm.lib.table.TableManager;
 import org.o3project.odenos.core.component.ConversionTable;
 import org.o3project.odenos.core.component.Logic;
@@ -50,6 +63,7 @@ import org.o3project.odenos.core.component.Logic.AttrElements;
 import org.o3project.odenos.core.component.NetworkInterface;
 import org.o3project.odenos.core.component.SystemManagerInterface;
 import org.o3project.odenos.core.component.network.flow.Flow;
+import org.o3project.odenos.core.component.network.flow.FlowChanged;
 import org.o3project.odenos.core.component.network.flow.FlowObject.FlowStatus;
 import org.o3project.odenos.core.component.network.flow.FlowObject.FlowType;
 import org.o3project.odenos.core.component.network.flow.FlowSet;
@@ -66,6 +80,7 @@ import org.o3project.odenos.core.manager.system.ComponentConnectionLogicAndNetwo
 import org.o3project.odenos.core.manager.system.event.ComponentConnectionChanged;
 import org.o3project.odenos.core.util.PathCalculator;
 import org.o3project.odenos.remoteobject.ObjectProperty;
+import org.o3project.odenos.remoteobject.message.Event;
 import org.o3project.odenos.remoteobject.message.Request;
 import org.o3project.odenos.remoteobject.message.Request.Method;
 import org.o3project.odenos.remoteobject.message.Response;
@@ -295,6 +310,9 @@ public class LinkLayerizerTest {
 
     @After
     public void tearDown() throws Exception {
+        for (String service : new String[] {"eventService", "syncService", "failureService"}) {
+            ((ExecutorService) Whitebox.getInternalState(target, service)).shutdownNow();
+        }
         target = null;
         dispatcher = null;
     }
@@ -2097,6 +2115,31 @@ public class LinkLayerizerTest {
                 "addLinkOfLayerizerFromFlowOfLower", anyString(), anyObject());
     }
 
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizer#onFlowUpdate()}
+     * @throws Exception
+     */
+    @Test
+    public void testOnFlowUpdateLowerFailed() throws Exception {
+        String networkId = NETWORK_ID_LOWER;
+        Flow prev = new BasicFlow();
+        prev.setStatus(FlowStatus.ESTABLISHED.toString());
+        Flow curr = new BasicFlow();
+        curr.setStatus(FlowStatus.FAILED.toString());
+
+        PowerMockito.doNothing().when((Logic) target, "addLinkOfLayerizerFromFlowOfLower",
+                anyString(), anyObject());
+        PowerMockito.doNothing().when((Logic) target, "queueFlowFailure", anyObject());
+        PowerMockito.doReturn(conversionTable).when(target, METHOD_CONVERSITON_TABLE);
+
+        target.onFlowUpdate(networkId, prev, curr, new ArrayList<String>());
+
+        PowerMockito.verifyPrivate((Logic) target, times(1)).invoke("queueFlowFailure", curr);
+        PowerMockito.verifyPrivate((Logic) target, never()).invoke(
+                "addLinkOfLayerizerFromFlowOfLower", anyString(), anyObject());
+    }
+
     /**
      * Test method for
      * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizer#onFlowUpdate()}
@@ -2162,11 +2205,10 @@ public class LinkLayerizerTest {
         PowerMockito.doReturn(returnLink).when(networkInterfaces.get(NETWORK_ID_LAYERIZER)
                 , "getLink", anyString());
 
-        Map<String, String> layerizedlinks = new HashMap<String, String>();
-        layerizedlinks.put("FlowId", "linkid");
+        LinkLayerizedFlowLinkMap flowLinkMap = new LinkLayerizedFlowLinkMap();
+        flowLinkMap.put("linkid", "FlowId");
 
-        Whitebox.setInternalState(target, "layerizedlinks", layerizedlinks);
-        Whitebox.setInternalState(target, "lowerflows", new HashMap<String, String>());
+        Whitebox.setInternalState(target, "flowLinkMap", flowLinkMap);
         PowerMockito.doReturn(conversionTable).when(target, METHOD_CONVERSITON_TABLE);
         PowerMockito.doReturn(networkInterfaces).when(target, METHOD_NETWOEK_IF);
 
@@ -2194,11 +2236,10 @@ public class LinkLayerizerTest {
         PowerMockito.doReturn(null).when(networkInterfaces.get(NETWORK_ID_LAYERIZER)
                 , "getLink", anyString());
 
-        Map<String, String> layerizedlinks = new HashMap<String, String>();
-        layerizedlinks.put("FlowId", "linkid");
+        LinkLayerizedFlowLinkMap flowLinkMap = new LinkLayerizedFlowLinkMap();
+        flowLinkMap.put("linkid", "FlowId");
 
-        Whitebox.setInternalState(target, "layerizedlinks", layerizedlinks);
-        Whitebox.setInternalState(target, "lowerflows", new HashMap<String, String>());
+        Whitebox.setInternalState(target, "flowLinkMap", flowLinkMap);
         PowerMockito.doReturn(conversionTable).when(target, METHOD_CONVERSITON_TABLE);
         PowerMockito.doReturn(networkInterfaces).when(target, METHOD_NETWOEK_IF);
 
@@ -2228,11 +2269,10 @@ public class LinkLayerizerTest {
         PowerMockito.doReturn(returnFlow).when(networkInterfaces.get(NETWORK_ID_UPPER)
                 , "getFlow", anyString());
 
-        Map<String, String> layerizedlinks = new HashMap<String, String>();
-        layerizedlinks.put("FlowId", "linkid");
+        LinkLayerizedFlowLinkMap flowLinkMap = new LinkLayerizedFlowLinkMap();
+        flowLinkMap.put("linkid", "FlowId");
 
-        Whitebox.setInternalState(target, "layerizedlinks", layerizedlinks);
-        Whitebox.setInternalState(target, "lowerflows", new HashMap<String, String>());
+        Whitebox.setInternalState(target, "flowLinkMap", flowLinkMap);
         PowerMockito.doReturn(conversionTable).when(target, METHOD_CONVERSITON_TABLE);
         PowerMockito.doReturn(networkInterfaces).when(target, METHOD_NETWOEK_IF);
 
@@ -2260,11 +2300,10 @@ public class LinkLayerizerTest {
         PowerMockito.doReturn(null).when(networkInterfaces.get(NETWORK_ID_UPPER)
                 , "getFlow", anyString());
 
-        Map<String, String> layerizedlinks = new HashMap<String, String>();
-        layerizedlinks.put("FlowId", "linkid");
+        LinkLayerizedFlowLinkMap flowLinkMap = new LinkLayerizedFlowLinkMap();
+        flowLinkMap.put("linkid", "FlowId");
 
-        Whitebox.setInternalState(target, "layerizedlinks", layerizedlinks);
-        Whitebox.setInternalState(target, "lowerflows", new HashMap<String, String>());
+        Whitebox.setInternalState(target, "flowLinkMap", flowLinkMap);
         PowerMockito.doReturn(conversionTable).when(target, METHOD_CONVERSITON_TABLE);
         PowerMockito.doReturn(networkInterfaces).when(target, METHOD_NETWOEK_IF);
 
@@ -2276,6 +2315,148 @@ public class LinkLayerizerTest {
                 "delLink", anyString());
     }
 
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizer#flushFlowFailures()}
+     * @throws Exception
+     */
+    @Test
+    public void testFlushFlowFailures() throws Exception {
+        Whitebox.setInternalState(target, "failureWindow", 60000L);
+        PowerMockito.doReturn(networkInterfaces).when(target, METHOD_NETWOEK_IF);
+        PowerMockito.doReturn(conversionTable).when(target, METHOD_CONVERSITON_TABLE);
+
+        LinkLayerizedFlowLinkMap flowLinkMap = new LinkLayerizedFlowLinkMap();
+        flowLinkMap.put(link1.getId(), flow1.getFlowId());
+        flowLinkMap.put(link2.getId(), flow2.getFlowId());
+        Whitebox.setInternalState(target, "flowLinkMap", flowLinkMap);
+
+        PowerMockito.doReturn(links).when(networkInterfaces.get(NETWORK_ID_LAYERIZER),
+                "getLinks");
+        PowerMockito.doReturn(DEFAULT_RESPONSE).when(networkInterfaces.get(NETWORK_ID_LAYERIZER),
+                "putLink", anyObject());
+
+        flow1.setStatus(FlowStatus.FAILED.toString());
+        flow2.setStatus(FlowStatus.FAILED.toString());
+        Whitebox.invokeMethod(target, "queueFlowFailure", flow1);
+        Whitebox.invokeMethod(target, "queueFlowFailure", flow2);
+        Whitebox.invokeMethod(target, "flushFlowFailures");
+
+        PowerMockito.verifyPrivate(networkInterfaces.get(NETWORK_ID_LAYERIZER), times(1))
+                .invoke("getLinks");
+        PowerMockito.verifyPrivate(networkInterfaces.get(NETWORK_ID_LAYERIZER), times(2))
+                .invoke("putLink", anyObject());
+        assertThat(link1.getAttribute(AttrElements.OPER_STATUS), is(LinkLayerizer.STATUS_DOWN));
+        assertThat(link2.getAttribute(AttrElements.ESTABLISHMENT_STATUS),
+                is(FlowStatus.FAILED.toString()));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizer#flushFlowFailures()}
+     * @throws Exception
+     */
+    @Test
+    public void testFlushFlowFailuresCanceled() throws Exception {
+        Whitebox.setInternalState(target, "failureWindow", 60000L);
+        PowerMockito.doReturn(networkInterfaces).when(target, METHOD_NETWOEK_IF);
+        PowerMockito.doReturn(conversionTable).when(target, METHOD_CONVERSITON_TABLE);
+
+        flow1.setStatus(FlowStatus.FAILED.toString());
+        Whitebox.invokeMethod(target, "queueFlowFailure", flow1);
+        ScheduledFuture<?> task = Whitebox.getInternalState(target, "failureTask");
+        Whitebox.invokeMethod(target, "cancelFlowFailure", flow1.getFlowId());
+        Whitebox.invokeMethod(target, "flushFlowFailures");
+
+        assertThat(task.isCancelled(), is(true));
+        PowerMockito.verifyPrivate(networkInterfaces.get(NETWORK_ID_LAYERIZER), never())
+                .invoke("getLinks");
+        PowerMockito.verifyPrivate(networkInterfaces.get(NETWORK_ID_LAYERIZER), never())
+                .invoke("putLink", anyObject());
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizer#flushFlowFailures()}
+     * @throws Exception
+     */
+    @Test
+    public void testFlushFlowFailuresWithSingleFailure() throws Exception {
+        Whitebox.setInternalState(target, "failureWindow", 60000L);
+        PowerMockito.doReturn(networkInterfaces).when(target, METHOD_NETWOEK_IF);
+        PowerMockito.doReturn(conversionTable).when(target, METHOD_CONVERSITON_TABLE);
+
+        LinkLayerizedFlowLinkMap flowLinkMap = new LinkLayerizedFlowLinkMap();
+        flowLinkMap.put(link1.getId(), flow1.getFlowId());
+        Whitebox.setInternalState(target, "flowLinkMap", flowLinkMap);
+
+        PowerMockito.doReturn(link1).when(networkInterfaces.get(NETWORK_ID_LAYERIZER),
+                "getLink", link1.getId());
+        PowerMockito.doReturn(DEFAULT_RESPONSE).when(networkInterfaces.get(NETWORK_ID_LAYERIZER),
+                "putLink", anyObject());
+
+        flow1.setStatus(FlowStatus.FAILED.toString());
+        Whitebox.invokeMethod(target, "queueFlowFailure", flow1);
+        Whitebox.invokeMethod(target, "flushFlowFailures");
+
+        PowerMockito.verifyPrivate(networkInterfaces.get(NETWORK_ID_LAYERIZER), never())
+                .invoke("getLinks");
+        PowerMockito.verifyPrivate(networkInterfaces.get(NETWORK_ID_LAYERIZER), times(1))
+                .invoke("putLink", link1);
+        assertThat(link1.getAttribute(AttrElements.OPER_STATUS), is(LinkLayerizer.STATUS_DOWN));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizer#queueFlowFailure()}
+     * @throws Exception
+     */
+    @Test
+    public void testQueueFlowFailureFlushedOnEventThread() throws Exception {
+        Whitebox.setInternalState(target, "failureWindow", 0L);
+        PowerMockito.doReturn(networkInterfaces).when(target, METHOD_NETWOEK_IF);
+        PowerMockito.doReturn(conversionTable).when(target, METHOD_CONVERSITON_TABLE);
+
+        LinkLayerizedFlowLinkMap flowLinkMap = new LinkLayerizedFlowLinkMap();
+        flowLinkMap.put(link1.getId(), flow1.getFlowId());
+        Whitebox.setInternalState(target, "flowLinkMap", flowLinkMap);
+
+        final AtomicReference<Thread> flushThread = new AtomicReference<>();
+        PowerMockito.doAnswer(new Answer<Link>() {
+            @Override
+            public Link answer(InvocationOnMock invocation) {
+                flushThread.set(Thread.currentThread());
+                return link1;
+            }
+        }).when(networkInterfaces.get(NETWORK_ID_LAYERIZER), "getLink", link1.getId());
+        PowerMockito.doReturn(DEFAULT_RESPONSE).when(networkInterfaces.get(NETWORK_ID_LAYERIZER),
+                "putLink", anyObject());
+
+        flow1.setStatus(FlowStatus.FAILED.toString());
+        Whitebox.invokeMethod(target, "queueFlowFailure", flow1);
+
+        // the scheduled task hands the batch to the event thread
+        ScheduledExecutorService failureService =
+                Whitebox.getInternalState(target, "failureService");
+        failureService.submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return true;
+            }
+        }).get(5, TimeUnit.SECONDS);
+        ExecutorService eventService = Whitebox.getInternalState(target, "eventService");
+        Thread eventThread = eventService.submit(new Callable<Thread>() {
+            @Override
+            public Thread call() {
+                return Thread.currentThread();
+            }
+        }).get(5, TimeUnit.SECONDS);
+
+        assertThat(flushThread.get(), is(eventThread));
+        PowerMockito.verifyPrivate(networkInterfaces.get(NETWORK_ID_LAYERIZER), times(1))
+                .invoke("putLink", link1);
+    }
+
     /**
      * Test method for
      * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizer#syncLinkLayerizer()}
@@ -2304,6 +2485,56 @@ public class LinkLayerizerTest {
                 anyString(), anyObject());
     }
 
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizer#syncLinkLayerizer()}
+     * @throws Exception
+     */
+    @Test
+    public void testSyncLinkLayerizerSkipUnchanged() throws Exception {
+
+        // networkinterface settings
+        PowerMockito.doReturn(nodes).when(networkInterfaces.get(NETWORK_ID_UPPER), "getNodes");
+        PowerMockito.doReturn(DEFAULT_RESPONSE).when(networkInterfaces.get(NETWORK_ID_LAYERIZER),
+                "putNode", anyObject());
+        PowerMockito.doReturn(flowSet).when(networkInterfaces.get(NETWORK_ID_LOWER), "getFlowSet");
+        PowerMockito.doNothing().when(target, "addLinkOfLayerizerFromFlowOfLower", anyString(),
+                anyObject());
+
+        // Set the mockito to layerizer
+        PowerMockito.doReturn(networkInterfaces).when(target, METHOD_NETWOEK_IF);
+        PowerMockito.doReturn(conversionTable).when(target, METHOD_CONVERSITON_TABLE);
+
+        Whitebox.invokeMethod(target, "syncLinkLayerizer");
+
+        LinkLayerizerSyncStatus status = Whitebox.getInternalState(target, "syncStatus");
+        assertThat(status.getState(), is(LinkLayerizerSyncStatus.DONE));
+        assertThat(status.getNodes(), is(nodes.size()));
+        assertThat(status.getSkippedNodes(), is(0));
+        assertThat(status.getFlows(), is(flowSet.getFlows().size()));
+        assertThat(status.getProcessedFlows(), is(flowSet.getFlows().size()));
+
+        // the flows are layerized
+        LinkLayerizedFlowLinkMap flowLinkMap = Whitebox.getInternalState(target, "flowLinkMap");
+        for (String flowId : flowSet.getFlows().keySet()) {
+            flowLinkMap.put("link_" + flowId, flowId);
+        }
+
+        Whitebox.invokeMethod(target, "syncLinkLayerizer");
+
+        status = Whitebox.getInternalState(target, "syncStatus");
+        assertThat(status.getSkippedNodes(), is(nodes.size()));
+        assertThat(status.getSkippedFlows(), is(flowSet.getFlows().size()));
+        assertThat(status.getProcessedFlows(), is(0));
+
+        PowerMockito.verifyPrivate(networkInterfaces.get(NETWORK_ID_LAYERIZER),
+                times(nodes.size())).invoke("putNode", anyObject());
+        PowerMockito.verifyPrivate(target, times(flowSet.getFlows().size())).invoke(
+                "addLinkOfLayerizerFromFlowOfLower", anyString(), anyObject());
+
+        String json = Whitebox.invokeMethod(target, "getSyncStatus");
+        assertThat(new JSONObject(json).getString("state"), is(LinkLayerizerSyncStatus.DONE));
+    }
     /**
      * Test method for
      * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizer#syncLinkLayerizer()}
@@ -2534,15 +2765,13 @@ public class LinkLayerizerTest {
         String networkId = NETWORK_ID_LOWER;
         flow1.setStatus(FlowStatus.ESTABLISHING.toString());
 
-        Map<String, String> layerizedlinks = new HashMap<String, String>();
-        Whitebox.setInternalState(target, "layerizedlinks", layerizedlinks);
-        Whitebox.setInternalState(target, "lowerflows", new HashMap<String, String>());
+        LinkLayerizedFlowLinkMap flowLinkMap = new LinkLayerizedFlowLinkMap();
+        Whitebox.setInternalState(target, "flowLinkMap", flowLinkMap);
         PowerMockito.doReturn(DEFAULT_RESPONSE).when(networkInterfaces.get(NETWORK_ID_LAYERIZER),
                 "postLink", anyObject());
 
         PowerMockito.doReturn(link1).when(target, "createLinkFromFlow", anyObject());
-        PowerMockito.doNothing().when(target, "putLowerFlows", anyString(), anyString());
-        PowerMockito.doNothing().when(target, "putLayerizedlinks", anyString(), anyString());
+        PowerMockito.doNothing().when(target, "putFlowLink", anyString(), anyString());
 
         PowerMockito.doReturn(networkInterfaces).when(target, METHOD_NETWOEK_IF);
         PowerMockito.doReturn(conversionTable).when(target, METHOD_CONVERSITON_TABLE);
@@ -2565,10 +2794,9 @@ public class LinkLayerizerTest {
         flow1.setStatus(FlowStatus.ESTABLISHED.toString());
         ((BasicFlow) flow1).putAttribute(TableManager.TRANSACTION_ID, "1");
 
-        Map<String, String> layerizedlinks = new HashMap<String, String>();
-        layerizedlinks.put(flow1.getFlowId(), "linkid");
-        Whitebox.setInternalState(target, "layerizedlinks", layerizedlinks);
-        Whitebox.setInternalState(target, "lowerflows", new HashMap<String, String>());
+        LinkLayerizedFlowLinkMap flowLinkMap = new LinkLayerizedFlowLinkMap();
+        flowLinkMap.put("linkid", flow1.getFlowId());
+        Whitebox.setInternalState(target, "flowLinkMap", flowLinkMap);
         PowerMockito.doReturn(link1).when(networkInterfaces.get(NETWORK_ID_LAYERIZER),
                 "getLink", anyObject());
         PowerMockito.doReturn(DEFAULT_RESPONSE).when(networkInterfaces.get(NETWORK_ID_LAYERIZER),
@@ -2595,10 +2823,9 @@ public class LinkLayerizerTest {
         flow1.setStatus(FlowStatus.ESTABLISHED.toString());
         ((BasicFlow) flow1).putAttribute(TableManager.TRANSACTION_ID, "1");
 
-        Map<String, String> layerizedlinks = new HashMap<String, String>();
-        layerizedlinks.put(flow1.getFlowId(), "linkid");
-        Whitebox.setInternalState(target, "layerizedlinks", layerizedlinks);
-        Whitebox.setInternalState(target, "lowerflows", new HashMap<String, String>());
+        LinkLayerizedFlowLinkMap flowLinkMap = new LinkLayerizedFlowLinkMap();
+        flowLinkMap.put("linkid", flow1.getFlowId());
+        Whitebox.setInternalState(target, "flowLinkMap", flowLinkMap);
         PowerMockito.doReturn(link1).when(networkInterfaces.get(NETWORK_ID_LAYERIZER),
                 "getLink", anyObject());
         PowerMockito.doReturn(DEFAULT_RESPONSE).when(networkInterfaces.get(NETWORK_ID_LAYERIZER),
@@ -2625,9 +2852,8 @@ public class LinkLayerizerTest {
         flow1.setStatus(FlowStatus.ESTABLISHED.toString());
         ((BasicFlow) flow1).putAttribute(TableManager.TRANSACTION_ID, "1");
 
-        Map<String, String> layerizedlinks = new HashMap<String, String>();
-        Whitebox.setInternalState(target, "layerizedlinks", layerizedlinks);
-        Whitebox.setInternalState(target, "lowerflows", new HashMap<String, String>());
+        LinkLayerizedFlowLinkMap flowLinkMap = new LinkLayerizedFlowLinkMap();
+        Whitebox.setInternalState(target, "flowLinkMap", flowLinkMap);
         PowerMockito.doReturn(link1).when(networkInterfaces.get(NETWORK_ID_LAYERIZER),
                 "getLink", anyObject());
         PowerMockito.doReturn(DEFAULT_RESPONSE).when(networkInterfaces.get(NETWORK_ID_LAYERIZER),
@@ -2782,15 +3008,22 @@ public class LinkLayerizerTest {
     public void testGetUniqueLinkId() throws Exception {
 
         NetworkInterface nwif = PowerMockito.mock(NetworkInterface.class);
-        when(nwif.getLink(anyString())).thenReturn(link1).thenReturn(null);
 
         networkInterfaces.put(NETWORK_ID_LAYERIZER, nwif);
         PowerMockito.doReturn(networkInterfaces).when(target, METHOD_NETWOEK_IF);
 
-        Whitebox.invokeMethod(target, "getUniqueLinkId", NETWORK_ID_LAYERIZER);
+        String id1 = Whitebox.invokeMethod(target, "getUniqueLinkId", NETWORK_ID_LAYERIZER);
+
+        LinkLayerizedFlowLinkMap flowLinkMap = new LinkLayerizedFlowLinkMap();
+        String prefix = id1.substring(0, id1.lastIndexOf('-') + 1);
+        flowLinkMap.put(prefix + "2", "flowId");
+        Whitebox.setInternalState(target, "flowLinkMap", flowLinkMap);
 
-        PowerMockito.verifyPrivate(nwif, times(2)).invoke("getLink", anyObject());
+        String id2 = Whitebox.invokeMethod(target, "getUniqueLinkId", NETWORK_ID_LAYERIZER);
 
+        assertThat(id1, is(prefix + "1"));
+        assertThat(id2, is(prefix + "3"));
+        verify(nwif, never()).getLink(anyString());
     }
 
     /**
@@ -2995,31 +3228,24 @@ public class LinkLayerizerTest {
      */
     @Test
     public void testDelLowerFlows() throws Exception {
-        Map<String, String> layerizedlinks = new HashMap<String, String>();
-        Map<String, ArrayList<String>> lowerflows = new HashMap<String, ArrayList<String>>();
-        layerizedlinks.put("FlowId1", link1.getId());
-        layerizedlinks.put("FlowId2", link1.getId());
-        layerizedlinks.put("FlowId3", link1.getId());
-        lowerflows.put(link1.getId(), new ArrayList<String>() {
-            {
-                add("FlowId1");
-                add("FlowId2");
-                add("FlowId3");
-            }
-        });
+        LinkLayerizedFlowLinkMap flowLinkMap = new LinkLayerizedFlowLinkMap();
+        flowLinkMap.put(link1.getId(), "FlowId1");
+        flowLinkMap.put(link1.getId(), "FlowId2");
+        flowLinkMap.put(link1.getId(), "FlowId3");
 
         PowerMockito.doReturn(DEFAULT_RESPONSE).when(networkInterfaces.get(NETWORK_ID_LOWER),
                 "delFlow", anyObject());
         PowerMockito.doReturn(networkInterfaces).when(target, METHOD_NETWOEK_IF);
         PowerMockito.doReturn(conversionTable).when(target, METHOD_CONVERSITON_TABLE);
 
-        Whitebox.setInternalState(target, "layerizedlinks", layerizedlinks);
-        Whitebox.setInternalState(target, "lowerflows", lowerflows);
+        Whitebox.setInternalState(target, "flowLinkMap", flowLinkMap);
 
         Whitebox.invokeMethod(target, "delLowerFlows", link1.getId());
 
         PowerMockito.verifyPrivate(networkInterfaces.get(NETWORK_ID_LOWER), times(3)).invoke(
                 "delFlow", anyObject());
+        assertFalse(flowLinkMap.containsLink(link1.getId()));
+        assertFalse(flowLinkMap.containsFlow("FlowId1"));
 
     }
 
@@ -3030,16 +3256,14 @@ public class LinkLayerizerTest {
      */
     @Test
     public void testDelLowerFlowsNotSet() throws Exception {
-        Map<String, String> layerizedlinks = new HashMap<String, String>();
-        Map<String, ArrayList<String>> lowerflows = new HashMap<String, ArrayList<String>>();
+        LinkLayerizedFlowLinkMap flowLinkMap = new LinkLayerizedFlowLinkMap();
 
         PowerMockito.doReturn(DEFAULT_RESPONSE).when(networkInterfaces.get(NETWORK_ID_LOWER),
                 "delFlow", anyObject());
         PowerMockito.doReturn(networkInterfaces).when(target, METHOD_NETWOEK_IF);
         PowerMockito.doReturn(conversionTable).when(target, METHOD_CONVERSITON_TABLE);
 
-        Whitebox.setInternalState(target, "layerizedlinks", layerizedlinks);
-        Whitebox.setInternalState(target, "lowerflows", lowerflows);
+        Whitebox.setInternalState(target, "flowLinkMap", flowLinkMap);
 
         Whitebox.invokeMethod(target, "delLowerFlows", link1.getId());
 
@@ -3050,14 +3274,14 @@ public class LinkLayerizerTest {
 
     /**
      * Test method for
-     * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizer#putLowerFlows()}
+     * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizer#putFlowLink()}
      * @throws Exception
      */
     @Test
-    public void testPutLowerFlowsAdd() throws Exception {
-        Whitebox.invokeMethod(target, "putLowerFlows", link1.getId(), flow1.getFlowId());
-        Whitebox.invokeMethod(target, "putLowerFlows", link1.getId(), flow2.getFlowId());
-        Map<String, ArrayList<String>> lowerflows = Whitebox.getInternalState(target, "lowerflows");
+    public void testPutFlowLinkAdd() throws Exception {
+        Whitebox.invokeMethod(target, "putFlowLink", link1.getId(), flow1.getFlowId());
+        Whitebox.invokeMethod(target, "putFlowLink", link1.getId(), flow2.getFlowId());
+        LinkLayerizedFlowLinkMap flowLinkMap = Whitebox.getInternalState(target, "flowLinkMap");
         Map<String, ArrayList<String>> checkLowerflows = new HashMap<String, ArrayList<String>>() {
             {
                 put(link1.getId(), new ArrayList<String>() {
@@ -3068,18 +3292,25 @@ public class LinkLayerizerTest {
                 });
             }
         };
-        assertEquals(lowerflows, checkLowerflows);
+        Map<String, String> checkLayerizedlinks = new HashMap<String, String>() {
+            {
+                put(flow1.getFlowId(), link1.getId());
+                put(flow2.getFlowId(), link1.getId());
+            }
+        };
+        assertEquals(flowLinkMap.getLowerFlowsMap(), checkLowerflows);
+        assertEquals(flowLinkMap.getLayerizedLinksMap(), checkLayerizedlinks);
     }
 
     /**
      * Test method for
-     * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizer#putLowerFlows()}
+     * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizer#putFlowLink()}
      * @throws Exception
      */
     @Test
-    public void testPutLowerFlowsNotSet() throws Exception {
-        Whitebox.invokeMethod(target, "putLowerFlows", link1.getId(), flow1.getFlowId());
-        Map<String, ArrayList<String>> lowerflows = Whitebox.getInternalState(target, "lowerflows");
+    public void testPutFlowLinkNotSet() throws Exception {
+        Whitebox.invokeMethod(target, "putFlowLink", link1.getId(), flow1.getFlowId());
+        LinkLayerizedFlowLinkMap flowLinkMap = Whitebox.getInternalState(target, "flowLinkMap");
         Map<String, ArrayList<String>> checkLowerflows = new HashMap<String, ArrayList<String>>() {
             {
                 put(link1.getId(), new ArrayList<String>() {
@@ -3089,43 +3320,107 @@ public class LinkLayerizerTest {
                 });
             }
         };
-        assertEquals(lowerflows, checkLowerflows);
+        Map<String, String> checkLayerizedlinks = new HashMap<String, String>() {
+            {
+                put(flow1.getFlowId(), link1.getId());
+            }
+        };
+        assertEquals(flowLinkMap.getLowerFlowsMap(), checkLowerflows);
+        assertEquals(flowLinkMap.getLayerizedLinksMap(), checkLayerizedlinks);
     }
 
     /**
      * Test method for
-     * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizer#putLayerizedlinks()}
+     * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizer#putFlowLink()}
      * @throws Exception
      */
     @Test
-    public void testPutLayerizedlinksPut() throws Exception {
-        Whitebox.invokeMethod(target, "putLayerizedlinks", link1.getId(), flow1.getFlowId());
-        Whitebox.invokeMethod(target, "putLayerizedlinks", link1.getId(), flow2.getFlowId());
-        Map<String, String> layerizedlinks = Whitebox.getInternalState(target, "layerizedlinks");
-        Map<String, String> checkLayerizedlinks = new HashMap<String, String>() {
-            {
-                put(flow1.getFlowId(), link1.getId());
-                put(flow2.getFlowId(), link1.getId());
-            }
-        };
-        assertEquals(layerizedlinks, checkLayerizedlinks);
+    public void testPutFlowLinkDependencies() throws Exception {
+        PowerMockito.doReturn(networkInterfaces).when(target, METHOD_NETWOEK_IF);
+        PowerMockito.doReturn(conversionTable).when(target, METHOD_CONVERSITON_TABLE);
+        LinkLayerizerDependencyIndex dependencies = new LinkLayerizerDependencyIndex();
+        Whitebox.setInternalState(target, "dependencies", dependencies);
+
+        // lower link <- lower flow <- layerized link <- layerized flow <- upper flow
+        ((BasicFlow) flow1).addPath("och1");
+        ((BasicFlow) flow2).addPath(link1.getId());
+        dependencies.setDependencies(LinkLayerizerDependency.flow(NETWORK_ID_LOWER,
+                flow1.getFlowId()), Whitebox.<List<LinkLayerizerDependency>>invokeMethod(
+                        target, "pathOf", NETWORK_ID_LOWER, flow1));
+        Whitebox.invokeMethod(target, "putFlowLink", link1.getId(), flow1.getFlowId());
+        Whitebox.invokeMethod(target, "indexLayerizedFlow", NETWORK_ID_LAYERIZER, flow2,
+                NETWORK_ID_UPPER);
+
+        String result = Whitebox.invokeMethod(target, "getAffected",
+                LinkLayerizerDependency.link(NETWORK_ID_LOWER, "och1"));
+
+        JSONArray affected = new JSONArray(result);
+        assertThat(affected.length(), is(4));
+        assertThat(affected.getJSONObject(0).getString("id"), is(flow1.getFlowId()));
+        assertThat(affected.getJSONObject(1).getString("id"), is(link1.getId()));
+        assertThat(affected.getJSONObject(3).getString("network_id"), is(NETWORK_ID_UPPER));
     }
 
     /**
      * Test method for
-     * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizer#putLayerizedlinks()}
+     * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizer#syncLinkLayerizer()}
      * @throws Exception
      */
     @Test
-    public void testPutLayerizedlinksNotSet() throws Exception {
-        Whitebox.invokeMethod(target, "putLayerizedlinks", link1.getId(), flow1.getFlowId());
-        Map<String, String> layerizedlinks = Whitebox.getInternalState(target, "layerizedlinks");
-        Map<String, String> checkLayerizedlinks = new HashMap<String, String>() {
-            {
-                put(flow1.getFlowId(), link1.getId());
-            }
-        };
-        assertEquals(layerizedlinks, checkLayerizedlinks);
+    public void testSyncLinkLayerizerDependencies() throws Exception {
+        PowerMockito.doReturn(nodes).when(networkInterfaces.get(NETWORK_ID_UPPER), "getNodes");
+        PowerMockito.doReturn(DEFAULT_RESPONSE).when(networkInterfaces.get(NETWORK_ID_LAYERIZER),
+                "putNode", anyObject());
+        PowerMockito.doReturn(flowSet).when(networkInterfaces.get(NETWORK_ID_LOWER), "getFlowSet");
+        PowerMockito.doNothing().when(target, "addLinkOfLayerizerFromFlow", anyString(),
+                anyObject());
+        PowerMockito.doNothing().when(target, "updateLinkOfLayerizerFromFlow", anyString(),
+                anyObject());
+        PowerMockito.doReturn(networkInterfaces).when(target, METHOD_NETWOEK_IF);
+        PowerMockito.doReturn(conversionTable).when(target, METHOD_CONVERSITON_TABLE);
+        LinkLayerizerDependencyIndex dependencies = new LinkLayerizerDependencyIndex();
+        Whitebox.setInternalState(target, "dependencies", dependencies);
+
+        ((BasicFlow) flow1).addPath("och1");
+        Whitebox.invokeMethod(target, "syncLinkLayerizer");
+
+        // the lower flow is indexed in the lower network as onFlowUpdate does
+        assertThat(dependencies.getAffected(LinkLayerizerDependency.link(NETWORK_ID_LOWER,
+                "och1")), is(Arrays.asList(LinkLayerizerDependency.flow(NETWORK_ID_LOWER,
+                        flow1.getFlowId()))));
+        assertThat(dependencies.getAffected(LinkLayerizerDependency.link(NETWORK_ID_LAYERIZER,
+                "och1")).isEmpty(), is(true));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizer#clearDependencies()}
+     * @throws Exception
+     */
+    @Test
+    public void testClearDependencies() throws Exception {
+        PowerMockito.doReturn(networkInterfaces).when(target, METHOD_NETWOEK_IF);
+        PowerMockito.doReturn(conversionTable).when(target, METHOD_CONVERSITON_TABLE);
+        LinkLayerizerDependencyIndex dependencies = new LinkLayerizerDependencyIndex();
+        Whitebox.setInternalState(target, "dependencies", dependencies);
+
+        // an object indexed by another LinkLayerizer sharing the index
+        LinkLayerizerDependency lowerLink = LinkLayerizerDependency.link(NETWORK_ID_LOWER, "och1");
+        LinkLayerizerDependency other = LinkLayerizerDependency.flow("other", "flow");
+        dependencies.setDependencies(other, Arrays.asList(lowerLink));
+
+        ((BasicFlow) flow2).addPath(link1.getId());
+        Whitebox.invokeMethod(target, "putFlowLink", link1.getId(), flow1.getFlowId());
+        Whitebox.invokeMethod(target, "indexLayerizedFlow", NETWORK_ID_LAYERIZER, flow2,
+                NETWORK_ID_UPPER);
+        assertThat(dependencies.getAffected(LinkLayerizerDependency.flow(NETWORK_ID_LOWER,
+                flow1.getFlowId())).size(), is(3));
+
+        Whitebox.invokeMethod(target, "clearDependencies");
+
+        assertThat(dependencies.getAffected(LinkLayerizerDependency.flow(NETWORK_ID_LOWER,
+                flow1.getFlowId())).isEmpty(), is(true));
+        assertThat(dependencies.getAffected(lowerLink), is(Arrays.asList(other)));
     }
 
     /**
@@ -3615,6 +3910,30 @@ public class LinkLayerizerTest {
         assertThat(result.statusCode, is(Response.OK));
     }
 
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizer#isDirectRead()}
+     */
+    @Test
+    public void testIsDirectRead() throws Exception {
+        String[] direct = {"sync_status", "dependencies/nw1/links/link1", "lower_flows",
+            "lower_flows/link1", "layerized_links", "layerized_links/flow1"};
+        for (String path : direct) {
+            Request request = new Request("LinkLayerizer", Request.Method.GET, path, null);
+            assertThat(path, (Boolean) Whitebox.invokeMethod(LinkLayerizer.class,
+                    "isDirectRead", request), is(true));
+        }
+        String[] queued = {"settings/boundaries", "lower_flowsx"};
+        for (String path : queued) {
+            Request request = new Request("LinkLayerizer", Request.Method.GET, path, null);
+            assertThat(path, (Boolean) Whitebox.invokeMethod(LinkLayerizer.class,
+                    "isDirectRead", request), is(false));
+        }
+        Request put = new Request("LinkLayerizer", Request.Method.PUT, "lower_flows", null);
+        assertThat((Boolean) Whitebox.invokeMethod(LinkLayerizer.class, "isDirectRead", put),
+                is(false));
+    }
+
     /**
      * Test method for
      * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizer#onRequest()}
@@ -3705,6 +4024,59 @@ public class LinkLayerizerTest {
         assertTrue(result.contains("Undefined Boundary."));
     }
 
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizer#putBoundaries()}
+     * @throws Exception
+     */
+    @Test
+    public void testPutBoundaries() throws Exception {
+        PowerMockito.doReturn(networkInterfaces).when(target, METHOD_NETWOEK_IF);
+        PowerMockito.doReturn(conversionTable).when(target, METHOD_CONVERSITON_TABLE);
+
+        LinkLayerizerBoundarySet boundaryset = new LinkLayerizerBoundarySet();
+        Whitebox.setInternalState(target, "boundaryset", boundaryset);
+        Whitebox.invokeMethod(target, "putBoundary", "boundary1", boundary1);
+
+        Whitebox.invokeMethod(target, "putBoundaries", "{\"boundary2\":" + boundary2
+                + ",\"boundary3\":" + boundary3 + "}", false);
+
+        assertNull(boundaryset.getBoundary("boundary1"));
+        assertThat(boundaryset.getLinklayerizerBoundaryMap().size(), is(2));
+        assertThat(boundaryset.getBoundaryByLower("NW=SDN,NE=PT2",
+                "NW=SDN,NE=PT2,Layer=Ether,TTP=1").getBoundary_id(), is("boundary3"));
+
+        String result = Whitebox.invokeMethod(target, "putBoundaries",
+                "{\"boundary1\":" + boundary1 + "}", true);
+
+        assertThat(boundaryset.getLinklayerizerBoundaryMap().size(), is(3));
+        assertThat(new JSONObject(result).has("boundary1"), is(true));
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizer#putBoundaries()}
+     * @throws Exception
+     */
+    @Test
+    public void testPutBoundariesCheckBoundaryFailure() throws Exception {
+        PowerMockito.doReturn(networkInterfaces).when(target, METHOD_NETWOEK_IF);
+        PowerMockito.doReturn(conversionTable).when(target, METHOD_CONVERSITON_TABLE);
+
+        LinkLayerizerBoundarySet boundaryset = new LinkLayerizerBoundarySet();
+        Whitebox.setInternalState(target, "boundaryset", boundaryset);
+        Whitebox.invokeMethod(target, "putBoundary", "boundary1", boundary1);
+
+        String boundary = boundary2.replace("networkcomponent0", "networkcomponent9");
+        String result = Whitebox.invokeMethod(target, "putBoundaries",
+                "{\"boundary2\":" + boundary + ",\"boundary3\":" + boundary3 + "}", false);
+
+        assertTrue(result.contains("Undefined Boundary."));
+        assertThat(boundaryset.getLinklayerizerBoundaryMap().size(), is(1));
+        assertThat(boundaryset.getBoundary("boundary1"),
+                is(instanceOf(LinklayerizerBoundary.class)));
+    }
+
     /**
      * Test method for
      * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizer#delBoundary()}
@@ -3734,6 +4106,14 @@ public class LinkLayerizerTest {
      */
     @Test
     public void testGetFlows() throws Exception {
+        LinkLayerizedFlowLinkMap flowLinkMap = new LinkLayerizedFlowLinkMap();
+        flowLinkMap.put(link1.getId(), "FlowId1");
+        flowLinkMap.put(link1.getId(), "FlowId2");
+        flowLinkMap.put(link1.getId(), "FlowId3");
+        Whitebox.setInternalState(target, "flowLinkMap", flowLinkMap);
+
+        String result = Whitebox.invokeMethod(target, "getFlows");
+
         Map<String, ArrayList<String>> lowerflows = new HashMap<String, ArrayList<String>>();
         lowerflows.put(link1.getId(), new ArrayList<String>() {
             {
@@ -3742,10 +4122,6 @@ public class LinkLayerizerTest {
                 add("FlowId3");
             }
         });
-        Whitebox.setInternalState(target, "lowerflows", lowerflows);
-
-        String result = Whitebox.invokeMethod(target, "getFlows");
-
         ObjectMapper mapper = new ObjectMapper();
         assertEquals(mapper.readValue(result, HashMap.class), lowerflows);
 
@@ -3769,24 +4145,15 @@ public class LinkLayerizerTest {
      */
     @Test
     public void testGetFlowsSetFlowId() throws Exception {
-        Map<String, ArrayList<String>> lowerflows = new HashMap<String, ArrayList<String>>();
-        lowerflows.put(link1.getId(), new ArrayList<String>() {
-            {
-                add("FlowId1");
-                add("FlowId2");
-                add("FlowId3");
-            }
-        });
+        LinkLayerizedFlowLinkMap flowLinkMap = new LinkLayerizedFlowLinkMap();
+        flowLinkMap.put(link1.getId(), "FlowId1");
+        flowLinkMap.put(link1.getId(), "FlowId2");
+        flowLinkMap.put(link1.getId(), "FlowId3");
+        flowLinkMap.put(link2.getId(), "FlowId4");
+        flowLinkMap.put(link2.getId(), "FlowId5");
+        flowLinkMap.put(link2.getId(), "FlowId6");
 
-        lowerflows.put(link2.getId(), new ArrayList<String>() {
-            {
-                add("FlowId4");
-                add("FlowId5");
-                add("FlowId6");
-            }
-        });
-
-        Whitebox.setInternalState(target, "lowerflows", lowerflows);
+        Whitebox.setInternalState(target, "flowLinkMap", flowLinkMap);
 
         String result = Whitebox.invokeMethod(target, "getFlows", link2.getId());
 
@@ -3810,16 +4177,16 @@ public class LinkLayerizerTest {
      */
     @Test
     public void testGetLinks() throws Exception {
-        Map<String, String> layerizedlinks = new HashMap<String, String>();
-        layerizedlinks.put(flow1.getFlowId(), link1.getId());
-        layerizedlinks.put(flow2.getFlowId(), link1.getId());
+        LinkLayerizedFlowLinkMap flowLinkMap = new LinkLayerizedFlowLinkMap();
+        flowLinkMap.put(link1.getId(), flow1.getFlowId());
+        flowLinkMap.put(link1.getId(), flow2.getFlowId());
 
-        Whitebox.setInternalState(target, "layerizedlinks", layerizedlinks);
+        Whitebox.setInternalState(target, "flowLinkMap", flowLinkMap);
 
         String result = Whitebox.invokeMethod(target, "getLinks");
 
         ObjectMapper mapper = new ObjectMapper();
-        assertEquals(mapper.readValue(result, HashMap.class), layerizedlinks);
+        assertEquals(mapper.readValue(result, HashMap.class), flowLinkMap.getLayerizedLinksMap());
     }
 
     /**
@@ -3842,11 +4209,11 @@ public class LinkLayerizerTest {
      */
     @Test
     public void testGetLinksSetFlowId() throws Exception {
-        Map<String, String> layerizedlinks = new HashMap<String, String>();
-        layerizedlinks.put(flow1.getFlowId(), link1.getId());
-        layerizedlinks.put(flow2.getFlowId(), link2.getId());
+        LinkLayerizedFlowLinkMap flowLinkMap = new LinkLayerizedFlowLinkMap();
+        flowLinkMap.put(link1.getId(), flow1.getFlowId());
+        flowLinkMap.put(link2.getId(), flow2.getFlowId());
 
-        Whitebox.setInternalState(target, "layerizedlinks", layerizedlinks);
+        Whitebox.setInternalState(target, "flowLinkMap", flowLinkMap);
 
         String result = Whitebox.invokeMethod(target, "getLinks", flow2.getFlowId());
 
@@ -3860,11 +4227,11 @@ public class LinkLayerizerTest {
      */
     @Test
     public void testGetLinksSetFlowId2() throws Exception {
-        Map<String, String> layerizedlinks = new HashMap<String, String>();
-        layerizedlinks.put(flow1.getFlowId(), link1.getId());
-        layerizedlinks.put(flow2.getFlowId(), link2.getId());
+        LinkLayerizedFlowLinkMap flowLinkMap = new LinkLayerizedFlowLinkMap();
+        flowLinkMap.put(link1.getId(), flow1.getFlowId());
+        flowLinkMap.put(link2.getId(), flow2.getFlowId());
 
-        Whitebox.setInternalState(target, "layerizedlinks", layerizedlinks);
+        Whitebox.setInternalState(target, "flowLinkMap", flowLinkMap);
 
         String result = Whitebox.invokeMethod(target, "getLinks", "linkid");
 
@@ -3954,4 +4321,55 @@ public class LinkLayerizerTest {
         assertTrue(result.equals(boundary));
 
     }
+
+    private Event createFlowChangedEvent(String flowId) throws Exception {
+        FlowChanged message = mock(FlowChanged.class);
+        when(message.action()).thenReturn(Logic.CONN_UPDATE);
+        when(message.prev()).thenReturn(new Flow(flowId));
+        when(message.curr()).thenReturn(new Flow(flowId));
+        when(message.attributes()).thenReturn(new ArrayList<String>());
+        Event event = mock(Event.class);
+        event.publisherId = NETWORK_ID_LOWER;
+        event.eventType = FlowChanged.TYPE;
+        when(event.getBody(FlowChanged.class)).thenReturn(message);
+        return event;
+    }
+
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.odenos.linklayerizer.LinkLayerizer#onEvent()}
+     * @throws Exception
+     */
+    @Test
+    public void testOnEventWithFlowChangedMerged() throws Exception {
+        PowerMockito.doNothing().when(target, "onFlowChanged", anyString(),
+                any(FlowChanged.class));
+
+        // keep the event thread busy while the events arrive
+        ExecutorService eventService = Whitebox.getInternalState(target, "eventService");
+        final CountDownLatch blocker = new CountDownLatch(1);
+        eventService.submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return blocker.await(5, TimeUnit.SECONDS);
+            }
+        });
+
+        target.onEvent(createFlowChangedEvent("flow1"));
+        target.onEvent(createFlowChangedEvent("flow1"));
+        target.onEvent(createFlowChangedEvent("flow2"));
+        // not merged, since it would overtake flow2
+        target.onEvent(createFlowChangedEvent("flow1"));
+        blocker.countDown();
+        eventService.submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return true;
+            }
+        }).get(5, TimeUnit.SECONDS);
+
+        PowerMockito.verifyPrivate(target, times(3)).invoke("onFlowChanged",
+                anyString(), any(FlowChanged.class));
+        assertThat(target.getMergedEventCount(), is(1L));
+    }
 }
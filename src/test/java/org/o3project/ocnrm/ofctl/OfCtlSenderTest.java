@@ -15,8 +15,10 @@
 */
 package org.o3project.ocnrm.ofctl;
 
-import static org.mockito.Matchers.anyObject;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.endsWith;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
@@ -26,7 +28,9 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.IOException;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.json.JSONArray;
@@ -34,19 +38,13 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.o3project.ocnrm.lib.HttpClientPool;
 import org.o3project.ocnrm.lib.JSONParser;
 import org.o3project.odenos.core.component.Logic;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 import org.powermock.reflect.Whitebox;
-import org.restlet.Client;
-import org.restlet.Context;
-import org.restlet.data.Protocol;
-import org.restlet.representation.Representation;
-import org.restlet.representation.StringRepresentation;
-import org.restlet.resource.ClientResource;
-import org.restlet.resource.ResourceException;
 import org.slf4j.Logger;
 
 @RunWith(PowerMockRunner.class)
@@ -103,30 +101,47 @@ public class OfCtlSenderTest {
 
     /**
      * Test method for
-     * {@link org.o3project.ocnrm.ofctl.OfCtlSender#ofCtlCall()}
+     * {@link org.o3project.ocnrm.ofctl.OfCtlSender#ofCtlSendPipelined()}
      */
     @Test
-    public void testOfCtlCall() throws Exception {
-        Logger dummyLogger = mock(Logger.class);
-        Field field = target.getClass().getSuperclass().getDeclaredField("logger");
-        field.setAccessible(true);
-        field.set(target, dummyLogger);
+    public void testOfCtlSendPipelined() throws Exception {
+        JSONParser parser = new JSONParser();
+        List<String> jarray = parser.convertToList(
+                new JSONArray("[{1:test1},{2:test2},{3:test3}]"), seqNo);
 
-        String param = "param";
-        String method = "method";
+        HttpClientPool dummyClient = mock(HttpClientPool.class);
+        doReturn("dummy").when(dummyClient).post(anyString(), anyString());
+        Whitebox.setInternalState(target, "httpClient", dummyClient);
 
-        Representation dummyRepresantation = mock(Representation.class);
-        when(dummyRepresantation.toString()).thenReturn("dummy");
+        target.ofCtlSendPipelined(jarray, OfCtlSender.FLOW_ADD_METHOD, seqNo);
 
-        ClientResource dummyClient = mock(ClientResource.class);
-        doReturn(dummyRepresantation).when(dummyClient).post((StringRepresentation) anyObject());
-        PowerMockito.whenNew(ClientResource.class).withAnyArguments().thenReturn(dummyClient);
+        verify(dummyClient, times(1)).post(endsWith("/" + OfCtlSender.FLOW_ADD_METHOD),
+                eq("{\"1\":\"test1\"}"));
+        verify(dummyClient, times(1)).post(endsWith("/" + OfCtlSender.FLOW_ADD_METHOD),
+                eq("{\"2\":\"test2\"}"));
+        verify(dummyClient, times(1)).post(endsWith("/" + OfCtlSender.FLOW_ADD_METHOD),
+                eq("{\"3\":\"test3\"}"));
+    }
 
-        Whitebox.setInternalState(target, "seqNo", seqNo);
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.ofctl.OfCtlSender#ofCtlSendPipelined()}
+     */
+    @Test
+    public void testOfCtlSendPipelinedWithException() throws Exception {
+        JSONParser parser = new JSONParser();
+        List<String> jarray = parser.convertToList(new JSONArray("[{1:test1},{2:test2}]"),
+                seqNo);
 
-        Whitebox.invokeMethod(target, "ofCtlCall", param, method);
+        HttpClientPool dummyClient = mock(HttpClientPool.class);
+        doThrow(new IOException()).when(dummyClient).post(anyString(),
+                eq("{\"1\":\"test1\"}"));
+        doReturn("dummy").when(dummyClient).post(anyString(), eq("{\"2\":\"test2\"}"));
+        Whitebox.setInternalState(target, "httpClient", dummyClient);
 
-        verify(dummyLogger, times(1)).info(seqNo + "\t" + "ofCtlCall End");
+        target.ofCtlSendPipelined(jarray, OfCtlSender.FLOW_ADD_METHOD, seqNo);
+
+        verify(dummyClient, times(2)).post(anyString(), anyString());
     }
 
     /**
@@ -134,7 +149,7 @@ public class OfCtlSenderTest {
      * {@link org.o3project.ocnrm.ofctl.OfCtlSender#ofCtlCall()}
      */
     @Test
-    public void testOfCtlCallWithNullRepresentation() throws Exception {
+    public void testOfCtlCall() throws Exception {
         Logger dummyLogger = mock(Logger.class);
         Field field = target.getClass().getSuperclass().getDeclaredField("logger");
         field.setAccessible(true);
@@ -143,19 +158,16 @@ public class OfCtlSenderTest {
         String param = "param";
         String method = "method";
 
-        Representation dummyRepresantation = mock(Representation.class);
-        when(dummyRepresantation.toString()).thenReturn(null);
-
-        ClientResource dummyClient = mock(ClientResource.class);
-        doReturn(dummyRepresantation).when(dummyClient).post((StringRepresentation) anyObject());
-        PowerMockito.whenNew(ClientResource.class).withAnyArguments().thenReturn(dummyClient);
+        HttpClientPool dummyClient = mock(HttpClientPool.class);
+        doReturn("dummy").when(dummyClient).post(anyString(), eq(param));
+        Whitebox.setInternalState(target, "httpClient", dummyClient);
 
         Whitebox.setInternalState(target, "seqNo", seqNo);
 
         Whitebox.invokeMethod(target, "ofCtlCall", param, method);
 
+        verify(dummyClient, times(1)).post(endsWith("/" + method), eq(param));
         verify(dummyLogger, times(1)).info(seqNo + "\t" + "ofCtlCall End");
-        verify(dummyLogger, times(1)).error(seqNo + "\t" + "Representation is null.");
     }
 
     /**
@@ -172,14 +184,11 @@ public class OfCtlSenderTest {
         String param = "param";
         String method = "method";
 
-        Representation dummyRepresantation = mock(Representation.class);
-        when(dummyRepresantation.toString()).thenReturn("dummy");
-
-        ClientResource dummyClient = mock(ClientResource.class);
-        ResourceException exception = mock(ResourceException.class);
+        HttpClientPool dummyClient = mock(HttpClientPool.class);
+        IOException exception = mock(IOException.class);
         when(exception.getMessage()).thenReturn("message");
-        doThrow(exception).when(dummyClient).post((StringRepresentation) anyObject());
-        PowerMockito.whenNew(ClientResource.class).withAnyArguments().thenReturn(dummyClient);
+        doThrow(exception).when(dummyClient).post(anyString(), eq(param));
+        Whitebox.setInternalState(target, "httpClient", dummyClient);
 
         Whitebox.setInternalState(target, "seqNo", seqNo);
 
@@ -191,38 +200,68 @@ public class OfCtlSenderTest {
 
     /**
      * Test method for
-     * {@link org.o3project.ocnrm.ofctl.OfCtlSender#ofCtlCall()}
+     * {@link org.o3project.ocnrm.ofctl.OfCtlSender#confirm()}
      */
     @Test
-    public void testOfCtlCallWithClientStopException() throws Exception {
-        Logger dummyLogger = mock(Logger.class);
-        Field field = target.getClass().getSuperclass().getDeclaredField("logger");
-        field.setAccessible(true);
-        field.set(target, dummyLogger);
-
-        String param = "param";
-        String method = "method";
+    public void testConfirm() throws Exception {
+        List<String> flows = new ArrayList<>();
+        flows.add("{\"dpid\":1,\"match\":{\"in_port\":\"2\"},\"actions\":[]}");
 
-        Representation dummyRepresantation = mock(Representation.class);
-        when(dummyRepresantation.toString()).thenReturn("dummy");
+        JSONArray stats = new JSONArray("[{\"match\":{\"in_port\":2,\"odu_sigtype\":\"1\"}}]");
+        PowerMockito.doReturn(stats).when(target, "getFlowStats", eq("1"), eq(seqNo));
 
-        Context context = new Context();
-        PowerMockito.whenNew(Context.class).withNoArguments().thenReturn(context);
+        assertThat(target.confirm(flows, OfCtlSender.FLOW_ADD_METHOD, 100, seqNo), is(true));
+        assertThat(target.confirm(flows, OfCtlSender.FLOW_DELETE_METHOD, 0, seqNo), is(false));
+    }
 
-        Client client = PowerMockito.spy(new Client(context, Protocol.HTTP));
-        doThrow(mock(Exception.class)).when(client).stop();
-        PowerMockito.whenNew(Client.class).withParameterTypes(Context.class, Protocol.class)
-                .withArguments(eq(context), eq(Protocol.HTTP)).thenReturn(client);
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.ofctl.OfCtlSender#confirm()}
+     */
+    @Test
+    public void testConfirmWithoutStats() throws Exception {
+        List<String> flows = new ArrayList<>();
+        flows.add("{\"dpid\":1,\"match\":{\"in_port\":\"2\"},\"actions\":[]}");
 
-        ClientResource dummyClient = mock(ClientResource.class);
-        doReturn(dummyRepresantation).when(dummyClient).post((StringRepresentation) anyObject());
-        PowerMockito.whenNew(ClientResource.class).withAnyArguments().thenReturn(dummyClient);
+        PowerMockito.doReturn(null).when(target, "getFlowStats", eq("1"), eq(seqNo));
 
-        Whitebox.setInternalState(target, "seqNo", seqNo);
+        assertThat(target.confirm(flows, OfCtlSender.FLOW_ADD_METHOD, 100, seqNo), is(false));
+    }
 
-        Whitebox.invokeMethod(target, "ofCtlCall", param, method);
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.ofctl.OfCtlSender#confirm()}
+     */
+    @Test
+    public void testConfirmWithoutMatch() throws Exception {
+        List<String> flows = new ArrayList<>();
+        flows.add("{\"1\":\"test1\"}");
 
-        verify(dummyLogger, times(1)).info(seqNo + "\t" + "ofCtlCall End");
+        assertThat(target.confirm(flows, OfCtlSender.FLOW_ADD_METHOD, 100, seqNo), is(false));
+        PowerMockito.verifyPrivate(target, never()).invoke("getFlowStats", anyString(), anyString());
     }
 
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.ofctl.OfCtlSender#getFlowStats()}
+     */
+    @Test
+    public void testGetFlowStatsWithException() throws Exception {
+        Logger dummyLogger = mock(Logger.class);
+        Field field = target.getClass().getSuperclass().getDeclaredField("logger");
+        field.setAccessible(true);
+        field.set(target, dummyLogger);
+
+        HttpClientPool dummyClient = mock(HttpClientPool.class);
+        doThrow(new IOException("message")).when(dummyClient).get(endsWith("/1"));
+        Whitebox.setInternalState(target, "httpClient", dummyClient);
+
+        // the transaction of the last ofCtlSend must not be used
+        Whitebox.setInternalState(target, "seqNo", "#other");
+
+        JSONArray result = Whitebox.invokeMethod(target, "getFlowStats", "1", seqNo);
+
+        assertThat(result == null, is(true));
+        verify(dummyLogger, times(1)).debug(seqNo + "\t" + "catch exception: " + "message");
+    }
 }
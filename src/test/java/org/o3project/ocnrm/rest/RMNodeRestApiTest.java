@@ -17,6 +17,9 @@ package org.o3project.ocnrm.rest;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -29,9 +32,13 @@ import org.json.JSONObject;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.o3project.ocnrm.odenos.lib.OdenOsSender;
+import org.o3project.odenos.remoteobject.message.Request.Method;
+import org.o3project.odenos.remoteobject.message.Response;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
+import org.powermock.reflect.Whitebox;
 import org.restlet.representation.Representation;
 import org.slf4j.Logger;
 
@@ -103,11 +110,18 @@ public class RMNodeRestApiTest {
         field.setAccessible(true);
         field.set(target, dummyLogger);
 
+        OdenOsSender dummySender = mock(OdenOsSender.class);
+        doReturn(new Response(Response.OK, "{\"job_id\":\"job1\"}")).when(dummySender)
+                .sendRequest(eq("systemmanager"), eq(Method.PUT),
+                        eq("components/optDriver/settings/och/topology"), anyString());
+        Whitebox.setInternalState(target, "odenos", dummySender);
+
         Representation response = target.createNodeInfo(lowertestData);
         JSONObject result = new JSONObject(response.getText());
 
         verify(dummyLogger, times(1)).debug("make lower topology.");
         assertThat(result.getString("ResultLevel"), is("0"));
+        assertThat(result.getString("job_id"), is("job1"));
     }
 
     /**
@@ -155,11 +169,18 @@ public class RMNodeRestApiTest {
         field.setAccessible(true);
         field.set(target, dummyLogger);
 
+        OdenOsSender dummySender = mock(OdenOsSender.class);
+        doReturn(new Response(Response.OK, "{\"job_id\":\"job1\"}")).when(dummySender)
+                .sendRequest(eq("systemmanager"), eq(Method.PUT),
+                        eq("components/optDriver/settings/odu/topology"), anyString());
+        Whitebox.setInternalState(target, "odenos", dummySender);
+
         Representation response = target.createNodeInfo(uppertestData);
         JSONObject result = new JSONObject(response.getText());
 
         verify(dummyLogger, times(1)).debug("make upper topology.");
         assertThat(result.getString("ResultLevel"), is("0"));
+        assertThat(result.getString("job_id"), is("job1"));
     }
 
     /**
@@ -176,4 +197,22 @@ public class RMNodeRestApiTest {
         assertThat(result.getString("ErrorMessage"), is("100 An error has occurred."));
     }
 
+    /**
+     * Test method for
+     * {@link org.o3project.ocnrm.rest.RMNodeRestApi#createNodeInfo()}
+     */
+    @Test
+    public void testCreateNodeInfoWithNoResponse() throws Exception {
+        OdenOsSender dummySender = mock(OdenOsSender.class);
+        doReturn(null).when(dummySender).sendRequest(anyString(), eq(Method.PUT), anyString(),
+                anyString());
+        Whitebox.setInternalState(target, "odenos", dummySender);
+
+        Representation response = target.createNodeInfo("{\"upper\":{}}");
+        JSONObject result = new JSONObject(response.getText());
+
+        assertThat(result.getString("ResultLevel"), is("1"));
+        assertThat(result.getString("ErrorMessage"), is("100 An error has occurred."));
+    }
+
 }